@@ -2,6 +2,14 @@ package sudoku;
 
 import static springfox.documentation.builders.PathSelectors.regex;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -12,11 +20,49 @@ import springfox.documentation.service.Contact;
 import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
 import springfox.documentation.swagger2.annotations.EnableSwagger2;
+import sudoku.exceptions.InvalidInputDataException;
+import sudoku.solver.Generator;
+import sudoku.solver.PortfolioEngine;
+import sudoku.solver.Reducer;
+import sudoku.solver.RestartPolicy;
+import sudoku.solver.SelectorEngine;
+import sudoku.solver.SolverEngine;
+import sudoku.solver.SolverMethodEngine;
+import sudoku.solver.TrialBudget;
 
 @Configuration
 @EnableSwagger2
 public class SudokuSpringBootConfig {
 
+	@Value("${sudoku.trials.restarts:luby}")
+	private String restarts;
+
+	@Value("${sudoku.trials.restart-unit:16}")
+	private long restartUnit;
+
+	@Value("${sudoku.trials.restart-factor:1.5}")
+	private double restartFactor;
+
+	@Value("${sudoku.trials.max-millis:10000}")
+	private long maxMillis;
+
+	@Value("${sudoku.trials.max-nodes:10000000}")
+	private long maxNodes;
+
+	@Value("${sudoku.trials.proof-nodes:10000}")
+	private long proofNodes;
+
+	@Value("${sudoku.reducer.max-millis:10000}")
+	private long reducerMaxMillis;
+
+	@Value("${sudoku.reducer.max-nodes:10000000}")
+	private long reducerMaxNodes;
+
+	@Value("${sudoku.pool.parallelism:0}")
+	private int parallelism;
+
+	private ForkJoinPool pool;
+
 	@Bean
 	public Docket postsApi() {
 		return new Docket(DocumentationType.SWAGGER_2).apiInfo(metadata())
@@ -26,6 +72,109 @@ public class SudokuSpringBootConfig {
 				                                      .build();
 	}
 
+	@Bean
+	public SolverEngine backtrackingEngine() {
+		return SolverMethodEngine.backtracking();
+	}
+
+	@Bean
+	public SolverEngine dancingLinksEngine() {
+		return SolverMethodEngine.dancingLinks();
+	}
+
+	@Bean
+	public SolverEngine cdclEngine() {
+		return SolverMethodEngine.cdcl();
+	}
+
+	@Bean
+	public SolverEngine twoDegreesOfFreedomEngine() {
+		return SolverMethodEngine.twoDegreesOfFreedom(restartPolicy(), new TrialBudget(maxMillis, maxNodes, proofNodes));
+	}
+
+	@Bean
+	public SolverEngine parallelTwoDegreesOfFreedomEngine() {
+		return SolverMethodEngine.parallelTwoDegreesOfFreedom(pool(), restartPolicy(),
+				                                              new TrialBudget(maxMillis, maxNodes, proofNodes));
+	}
+
+	@Bean
+	public SolverEngine parallelBacktrackingEngine() {
+		return SolverMethodEngine.parallelBacktracking(pool());
+	}
+
+	@Bean
+	public SolverEngine portfolioEngine(@Value("${sudoku.portfolio.engines:dancing-links,backtracking,two-degrees}") String names,
+			                            @Value("${sudoku.portfolio.threads:4}") int threads,
+			                            @Value("${sudoku.portfolio.engines-per-request:3}") int enginesPerRequest) {
+		List<SolverEngine> candidates = new ArrayList<SolverEngine>();
+		candidates.add(backtrackingEngine());
+		candidates.add(dancingLinksEngine());
+		candidates.add(cdclEngine());
+		candidates.add(twoDegreesOfFreedomEngine());
+		List<SolverEngine> engines = new ArrayList<SolverEngine>();
+		for (String name : names.split(",")) {
+			for (SolverEngine engine : candidates) {
+				if (engine.getName().equals(name.trim())) {
+					engines.add(engine);
+				}
+			}
+		}
+		return new PortfolioEngine("portfolio", engines, threads, enginesPerRequest);
+	}
+
+	@Bean
+	public SelectorEngine selectorEngine(@Value("${sudoku.selector.table:classpath:engine-selection.csv}") String table,
+			                             @Qualifier("portfolioEngine") SolverEngine portfolio) throws Exception {
+		List<SolverEngine> engines = new ArrayList<SolverEngine>();
+		engines.add(backtrackingEngine());
+		engines.add(dancingLinksEngine());
+		engines.add(cdclEngine());
+		engines.add(twoDegreesOfFreedomEngine());
+		engines.add(portfolio);
+		return new SelectorEngine("auto", engines, backtrackingEngine(), table);
+	}
+
+	@Bean
+	public Generator generator() {
+		return new Generator(pool());
+	}
+
+	@Bean
+	public Reducer reducer() {
+		if ((reducerMaxMillis == 0) && (reducerMaxNodes == 0)) {
+			return new Reducer(pool());
+		}
+		return new Reducer(pool(), new TrialBudget(reducerMaxMillis, reducerMaxNodes));
+	}
+
+	private RestartPolicy restartPolicy() {
+		try {
+			return RestartPolicy.fromName(restarts, restartUnit, restartFactor);
+		} catch (InvalidInputDataException iide) {
+			throw new IllegalArgumentException("Invalid sudoku.trials.restarts: " + iide.getMessage(), iide);
+		}
+	}
+
+	/**
+	 * Returns the pool shared by the parallel engines, the generator and the reducer, so that
+	 * together they use no more than sudoku.pool.parallelism threads.  The portfolio engine
+	 * has its own sudoku.portfolio.threads threads, as it runs whole engines rather than tasks.
+	 */
+	private synchronized ForkJoinPool pool() {
+		if (pool == null) {
+			pool = new ForkJoinPool((parallelism > 0) ? parallelism : Runtime.getRuntime().availableProcessors());
+		}
+		return pool;
+	}
+
+	@PreDestroy
+	public synchronized void shutdown() {
+		if (pool != null) {
+			pool.shutdownNow();
+		}
+	}
+
 	private ApiInfo metadata() {
 		Contact contact = new Contact("Gary Mann"
 				                      ,"https://www.linkedin.com/in/gary-mann-949a8515"
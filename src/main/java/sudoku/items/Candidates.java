@@ -0,0 +1,249 @@
+package sudoku.items;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * This class stores the values which are already used in each row, column and
+ * box of the problem as primitive bitmasks.
+ *
+ * Bit (value - 1) of a mask is set if the value is present.  The values a cell
+ * can take are then found by combining the masks of its row, column and box,
+ * which avoids building and hashing a Set of Integers for every cell.  Because
+ * the masks are stored in longs, problems of dimension up to MAX_DIM (with
+ * values up to 64) are supported.
+ *
+ * The static methods of this class convert between masks and the Sets of
+ * Integers used by the Cell class, which is kept for input and output.
+ *
+ * @author Gary Mann
+ */
+public class Candidates {
+
+    public static final int MAX_DIM = 8;
+
+    private final int dim;
+    private final int dimSq;
+    private final long fullMask;
+    private final long[] rows;
+    private final long[] columns;
+    private final long[] boxes;
+
+/**
+ * Constructs an object of given dimension in which no values are used.
+ *
+ * @param dim   the dimension of the current problem
+ */
+    public Candidates(final int dim) {
+        if (dim > MAX_DIM) {
+            throw new IllegalArgumentException("Dimension " + dim
+                    + " is larger than the maximum of " + MAX_DIM);
+        }
+        this.dim = dim;
+        dimSq = dim * dim;
+        fullMask = (dimSq == 64) ? -1L : (1L << dimSq) - 1;
+        rows = new long[dimSq];
+        columns = new long[dimSq];
+        boxes = new long[dimSq];
+    }
+
+/**
+ * Constructs an object storing the values of every constrained cell in a
+ * Constraints object.  Values outside the range 1 to dimSq are ignored.
+ *
+ * @param constraints   the Constraints object whose values are used
+ */
+    public Candidates(final Constraints constraints) {
+        this(constraints.getDim());
+        for (Cell cell : constraints.getCells()) {
+            for (Integer value : cell.getValues()) {
+                if ((value.intValue() >= 1) && (value.intValue() <= dimSq)) {
+                    place(cell.getxCoord(), cell.getyCoord(), value.intValue());
+                }
+            }
+        }
+    }
+
+/**
+ * Constructs a new object from an existing one.
+ *
+ * @param candidates    the object whose masks are copied into this one
+ */
+    public Candidates(final Candidates candidates) {
+        this(candidates.getDim());
+        System.arraycopy(candidates.rows, 0, rows, 0, dimSq);
+        System.arraycopy(candidates.columns, 0, columns, 0, dimSq);
+        System.arraycopy(candidates.boxes, 0, boxes, 0, dimSq);
+    }
+
+/**
+ * Marks a value as used in the row, column and box of the given cell.
+ *
+ * @param x         the x-coordinate of the cell
+ * @param y         the y-coordinate of the cell
+ * @param value     the value placed in the cell
+ */
+    public final void place(final int x, final int y, final int value) {
+        long bit = bit(value);
+        rows[y] |= bit;
+        columns[x] |= bit;
+        boxes[box(x, y)] |= bit;
+    }
+
+/**
+ * Marks a value as no longer used in the row, column and box of the given
+ * cell.
+ *
+ * @param x         the x-coordinate of the cell
+ * @param y         the y-coordinate of the cell
+ * @param value     the value removed from the cell
+ */
+    public final void remove(final int x, final int y, final int value) {
+        long bit = ~bit(value);
+        rows[y] &= bit;
+        columns[x] &= bit;
+        boxes[box(x, y)] &= bit;
+    }
+
+/**
+ * Returns the mask of values the given cell can take, which are those not
+ * already used in its row, column or box.
+ *
+ * @param x     the x-coordinate of the cell
+ * @param y     the y-coordinate of the cell
+ * @return      mask of the values this cell can take
+ */
+    public final long allowed(final int x, final int y) {
+        return ~(rows[y] | columns[x] | boxes[box(x, y)]) & fullMask;
+    }
+
+/**
+ * Returns the box the given cell is in, numbered in the same way as
+ * Cell.getBox().
+ *
+ * @param x     the x-coordinate of the cell
+ * @param y     the y-coordinate of the cell
+ * @return      the box this cell is in
+ */
+    public final int box(final int x, final int y) {
+        return (x / dim) * dim + (y / dim);
+    }
+
+/**
+ * Returns the mask of values used in a row.
+ *
+ * @param y     the row
+ * @return      mask of the values used in this row
+ */
+    public final long getRow(final int y) {
+        return rows[y];
+    }
+
+/**
+ * Returns the mask of values used in a column.
+ *
+ * @param x     the column
+ * @return      mask of the values used in this column
+ */
+    public final long getColumn(final int x) {
+        return columns[x];
+    }
+
+/**
+ * Returns the mask of values used in a box.
+ *
+ * @param box   the box
+ * @return      mask of the values used in this box
+ */
+    public final long getBox(final int box) {
+        return boxes[box];
+    }
+
+/**
+ * Returns the mask containing every value from 1 to dimSq.
+ *
+ * @return the mask containing every possible value
+ */
+    public final long getFullMask() {
+        return fullMask;
+    }
+
+/**
+ * Returns the dimension of the current problem set.
+ *
+ * @return the dimension of the current problem set
+ */
+    public final int getDim() {
+        return dim;
+    }
+
+/**
+ * Returns the square of the dimension of the current problem set.
+ *
+ * @return the square of the dimension of the current problem set
+ */
+    public final int getDimSq() {
+        return dimSq;
+    }
+
+/**
+ * Returns the mask containing a single value.
+ *
+ * @param value     the value, from 1 to 64
+ * @return          mask with only this value set
+ */
+    public static long bit(final int value) {
+        return 1L << (value - 1);
+    }
+
+/**
+ * Returns the number of values in a mask.
+ *
+ * @param mask      the mask
+ * @return          the number of values in the mask
+ */
+    public static int count(final long mask) {
+        return Long.bitCount(mask);
+    }
+
+/**
+ * Returns the smallest value in a mask.
+ *
+ * @param mask      the mask, which must not be empty
+ * @return          the smallest value in the mask
+ */
+    public static int lowestValue(final long mask) {
+        return Long.numberOfTrailingZeros(mask) + 1;
+    }
+
+/**
+ * Converts a mask into a Set of Integers, as used by the Cell class.
+ *
+ * @param mask      the mask
+ * @return          Set containing every value in the mask
+ */
+    public static Set<Integer> toSet(final long mask) {
+        Set<Integer> values = new HashSet<Integer>();
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            values.add(Integer.valueOf(lowestValue(rest)));
+        }
+        return values;
+    }
+
+/**
+ * Converts a Set of Integers, as used by the Cell class, into a mask.  Values
+ * outside the range 1 to 64 are ignored.
+ *
+ * @param values    Set of values
+ * @return          mask containing every value in the Set
+ */
+    public static long toMask(final Set<Integer> values) {
+        long mask = 0L;
+        for (Integer value : values) {
+            if ((value.intValue() >= 1) && (value.intValue() <= 64)) {
+                mask |= bit(value.intValue());
+            }
+        }
+        return mask;
+    }
+}
@@ -97,12 +97,13 @@ public class Cell {
     }
 
 /**
- * Overriden hashcode method.
+ * Overriden hashcode method.  Every cell in a problem of dimension up to 5 has
+ * a different hashcode, so Sets of cells do not suffer from collisions.
  *
  * @return  the hashcode for this cell
  */
     @Override public int hashCode(){
-        return xCoord * yCoord;
+        return 31 * yCoord + xCoord;
     }
 
 /**
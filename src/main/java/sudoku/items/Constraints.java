@@ -44,12 +44,7 @@ public class Constraints {
     }
 
     public boolean contains(int x, int y) {
-        for (Cell testCell : cells) {
-            if ((testCell.getxCoord() == x) && (testCell.getyCoord() == y)) {
-                return true;
-             }
-        }
-        return false;
+        return cells.contains(new Cell(x, y));
     }
 
     public void draw(final boolean printOutput) {
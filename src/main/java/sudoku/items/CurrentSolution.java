@@ -7,11 +7,16 @@ import java.util.Set;
  * This class stores the current solution.  It mainly stores a Set of possible
  * values for each cell.
  *
+ * The possible values of each unconstrained cell are also stored as a bitmask
+ * (see the Candidates class), indexed by y * dimSq + x, so that the solver can
+ * read them without using the Sets.
+ *
  * @author Gary
  */
 public class CurrentSolution {
 
     private Set<Cell> cells;
+    private long[] candidates;
     private int dimSq;
     private int dim;
 
@@ -24,6 +29,7 @@ public class CurrentSolution {
         this.dim = dim;
         cells = new HashSet<Cell>();
         dimSq = dim * dim;
+        candidates = new long[dimSq * dimSq];
         for (int i = 0; i < dimSq; i++) {
             for (int j = 0; j < dimSq; j++) {
                 Cell cell = new Cell(i, j);
@@ -39,44 +45,48 @@ public class CurrentSolution {
  *                          stored in the current one
  */
     public CurrentSolution(final CurrentSolution currentSolution) {
-        this(currentSolution.getDim());
-        cells = new HashSet<Cell>();
-        for (Cell cell : currentSolution.getCells()) {
-            cells.add(cell);
-        }
+        dim = currentSolution.getDim();
+        dimSq = currentSolution.getDimSq();
+        cells = new HashSet<Cell>(currentSolution.getCells());
+        candidates = currentSolution.candidates.clone();
     }
 
 /**
- * Resets the current solution based on the given Constraints.  Cells which are
- * not constrained can take all possible values
+ * Resets the current solution based on the given Constraints.  Each
+ * constrained cell replaces the matching cell of this solution, while cells
+ * which are not constrained are left to be recalculated by the solver.
  *
  * @param constraints   the Constraints object used to initialise this solution
  */
     public void reset(Constraints constraints) {
-        Set<Cell> blankCells = new HashSet<Cell>();
-        for (int i = 0; i < dimSq; i++) {
-            for (int j = 0; j < dimSq; j++) {
-                Cell cell = new Cell(i, j);
-                Set<Integer> values = new HashSet<Integer>();
-                for (int z = 1; z <= dimSq; z++) {
-                    Integer value = new Integer(z);
-                    values.add(value);
-                }
-                cell.setValues(values);
-                blankCells.add(cell);
-            }
-        }
-        Set<Cell> constrainedCells = constraints.getCells();
-        for (Cell constrainedCell : constrainedCells) {
-            for (Cell blankCell : blankCells) {
-                if (blankCell.equals(constrainedCell)) {
-                    cells.remove(blankCell);
-                    cells.add(constrainedCell);
-                }
-            }
+        for (Cell constrainedCell : constraints.getCells()) {
+            cells.remove(constrainedCell);
+            cells.add(constrainedCell);
         }
     }
 
+/**
+ * Returns the mask of values a cell can take.
+ *
+ * @param x     the x-coordinate of the cell
+ * @param y     the y-coordinate of the cell
+ * @return      mask of the values this cell can take
+ */
+    public final long getCandidates(final int x, final int y) {
+        return candidates[y * dimSq + x];
+    }
+
+/**
+ * Sets the mask of values a cell can take.
+ *
+ * @param x         the x-coordinate of the cell
+ * @param y         the y-coordinate of the cell
+ * @param mask      mask of the values this cell can take
+ */
+    public final void setCandidates(final int x, final int y, final long mask) {
+        candidates[y * dimSq + x] = mask;
+    }
+
 /**
  * Returns the set of cells for the current solution.
  *
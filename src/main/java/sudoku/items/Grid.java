@@ -0,0 +1,380 @@
+package sudoku.items;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Grid class for the sudoku solver which stores the value of every cell in a
+ * flat array of ints.
+ *
+ * The cell at (x, y) is stored at index y * dimSq + x, and a value of zero
+ * means the cell is not constrained.  This gives constant time access to each
+ * cell, unlike the Sets of Cells in the Constraints and CurrentSolution
+ * classes, which are kept for input and output.  The values used in each row,
+ * column and box are also kept up to date in a Candidates object.
+ *
+ * Values can also be eliminated from unconstrained cells, so that the values a
+ * cell can take are those allowed by its row, column and box less those which
+ * have been eliminated.
+ *
+ * Every change made by set(), clear() and eliminate() is pushed onto an undo
+ * trail of primitive arrays.  A search can call mark() before trying a value
+ * and undo() to roll back to the mark if the value is wrong, instead of copying
+ * the whole grid for each try.
+ *
+ * @author Gary Mann
+ */
+public class Grid {
+
+    private final int dim;
+    private final int dimSq;
+    private final int[] values;
+    private final long[] eliminated;
+    private final Candidates candidates;
+    private int constrainedCount;
+    private int[] trailCells;
+    private int[] trailValues;
+    private long[] trailMasks;
+    private int trailSize;
+
+/**
+ * Constructs an empty grid of given dimension.
+ *
+ * @param dim   the dimension of the current problem
+ */
+    public Grid(final int dim) {
+        this.dim = dim;
+        dimSq = dim * dim;
+        values = new int[dimSq * dimSq];
+        eliminated = new long[dimSq * dimSq];
+        candidates = new Candidates(dim);
+        trailCells = new int[dimSq * dimSq];
+        trailValues = new int[dimSq * dimSq];
+        trailMasks = new long[dimSq * dimSq];
+    }
+
+/**
+ * Constructs a grid holding the constrained cells of a Constraints object.
+ * Cells with no value are left unconstrained.
+ *
+ * @param constraints   the Constraints object to be converted
+ */
+    public Grid(final Constraints constraints) {
+        this(constraints.getDim());
+        for (Cell cell : constraints.getCells()) {
+            for (Integer value : cell.getValues()) {
+                write(index(cell.getxCoord(), cell.getyCoord()),
+                      value.intValue());
+            }
+        }
+    }
+
+/**
+ * Constructs a new grid from an existing one.  The undo trail is not copied.
+ *
+ * @param grid      the grid whose values are copied into this one
+ */
+    public Grid(final Grid grid) {
+        this.dim = grid.dim;
+        dimSq = grid.dimSq;
+        values = grid.values.clone();
+        eliminated = grid.eliminated.clone();
+        candidates = new Candidates(grid.candidates);
+        constrainedCount = grid.constrainedCount;
+        trailCells = new int[values.length];
+        trailValues = new int[values.length];
+        trailMasks = new long[values.length];
+    }
+
+/**
+ * Returns the index of a cell in the flat array.
+ *
+ * @param x     the x-coordinate of the cell
+ * @param y     the y-coordinate of the cell
+ * @return      the index of the cell
+ */
+    public final int index(final int x, final int y) {
+        return y * dimSq + x;
+    }
+
+/**
+ * Returns the value of a cell.
+ *
+ * @param x     the x-coordinate of the cell
+ * @param y     the y-coordinate of the cell
+ * @return      the value of the cell, zero if it is not constrained
+ */
+    public final int get(final int x, final int y) {
+        return values[y * dimSq + x];
+    }
+
+/**
+ * Returns the value of a cell.
+ *
+ * @param index     the index of the cell
+ * @return          the value of the cell, zero if it is not constrained
+ */
+    public final int get(final int index) {
+        return values[index];
+    }
+
+/**
+ * Returns whether a cell is constrained.
+ *
+ * @param x     the x-coordinate of the cell
+ * @param y     the y-coordinate of the cell
+ * @return      true if the cell has a value, false otherwise
+ */
+    public final boolean isConstrained(final int x, final int y) {
+        return values[y * dimSq + x] != 0;
+    }
+
+/**
+ * Sets the value of a cell, replacing any value it already has.  Values
+ * outside the range 1 to dimSq are stored but are not used when calculating
+ * the values other cells can take.
+ *
+ * @param x         the x-coordinate of the cell
+ * @param y         the y-coordinate of the cell
+ * @param value     the value of the cell
+ */
+    public final void set(final int x, final int y, final int value) {
+        set(y * dimSq + x, value);
+    }
+
+/**
+ * Sets the value of a cell, replacing any value it already has.
+ *
+ * @param index     the index of the cell
+ * @param value     the value of the cell
+ */
+    public final void set(final int index, final int value) {
+        save(index);
+        write(index, value);
+    }
+
+/**
+ * Removes the value of a cell, so that it is no longer constrained.
+ *
+ * @param x     the x-coordinate of the cell
+ * @param y     the y-coordinate of the cell
+ */
+    public final void clear(final int x, final int y) {
+        set(x, y, 0);
+    }
+
+/**
+ * Eliminates values from an unconstrained cell.
+ *
+ * @param x         the x-coordinate of the cell
+ * @param y         the y-coordinate of the cell
+ * @param mask      mask of the values to be eliminated
+ * @return          true if any value was eliminated, false if none of the
+ *                  values could be taken by the cell anyway
+ */
+    public final boolean eliminate(final int x, final int y, final long mask) {
+        return eliminate(y * dimSq + x, mask);
+    }
+
+/**
+ * Eliminates values from an unconstrained cell.
+ *
+ * @param index     the index of the cell
+ * @param mask      mask of the values to be eliminated
+ * @return          true if any value was eliminated, false if none of the
+ *                  values could be taken by the cell anyway
+ */
+    public final boolean eliminate(final int index, final long mask) {
+        long removed = candidates(index) & mask;
+        if (removed == 0L) {
+            return false;
+        }
+        save(index);
+        eliminated[index] |= removed;
+        return true;
+    }
+
+/**
+ * Returns the mask of values a cell can take.  For an unconstrained cell these
+ * are the values not used in its row, column or box which have not been
+ * eliminated.  For a constrained cell this is its value.
+ *
+ * @param x     the x-coordinate of the cell
+ * @param y     the y-coordinate of the cell
+ * @return      mask of the values this cell can take
+ */
+    public final long candidates(final int x, final int y) {
+        int value = values[y * dimSq + x];
+        if (value != 0) {
+            return ((value >= 1) && (value <= dimSq)) ? Candidates.bit(value) : 0L;
+        }
+        return candidates.allowed(x, y) & ~eliminated[y * dimSq + x];
+    }
+
+/**
+ * Returns the mask of values a cell can take.
+ *
+ * @param index     the index of the cell
+ * @return          mask of the values this cell can take
+ */
+    public final long candidates(final int index) {
+        return candidates(index % dimSq, index / dimSq);
+    }
+
+/**
+ * Returns the current position of the undo trail, to be passed to undo().
+ *
+ * @return the number of changes on the undo trail
+ */
+    public final int mark() {
+        return trailSize;
+    }
+
+/**
+ * Rolls back every change made since mark() returned the given position.
+ *
+ * @param mark      the position returned by mark()
+ */
+    public final void undo(final int mark) {
+        while (trailSize > mark) {
+            trailSize--;
+            int index = trailCells[trailSize];
+            write(index, trailValues[trailSize]);
+            eliminated[index] = trailMasks[trailSize];
+        }
+    }
+
+/**
+ * Pushes the current state of a cell onto the undo trail.
+ *
+ * @param index     the index of the cell
+ */
+    private void save(final int index) {
+        if (trailSize == trailCells.length) {
+            int length = Math.max(16, 2 * trailSize);
+            trailCells = Arrays.copyOf(trailCells, length);
+            trailValues = Arrays.copyOf(trailValues, length);
+            trailMasks = Arrays.copyOf(trailMasks, length);
+        }
+        trailCells[trailSize] = index;
+        trailValues[trailSize] = values[index];
+        trailMasks[trailSize] = eliminated[index];
+        trailSize++;
+    }
+
+/**
+ * Sets the value of a cell without using the undo trail.
+ *
+ * @param index     the index of the cell
+ * @param value     the value of the cell, zero to remove its value
+ */
+    private void write(final int index, final int value) {
+        int x = index % dimSq;
+        int y = index / dimSq;
+        int oldValue = values[index];
+        if (oldValue != 0) {
+            constrainedCount--;
+            if ((oldValue >= 1) && (oldValue <= dimSq)) {
+                candidates.remove(x, y, oldValue);
+            }
+        }
+        values[index] = value;
+        if (value != 0) {
+            constrainedCount++;
+            if ((value >= 1) && (value <= dimSq)) {
+                candidates.place(x, y, value);
+            }
+        }
+    }
+
+/**
+ * Returns the mask of values an unconstrained cell can take, which are those
+ * not already used in its row, column or box.
+ *
+ * @param x     the x-coordinate of the cell
+ * @param y     the y-coordinate of the cell
+ * @return      mask of the values this cell can take
+ */
+    public final long allowed(final int x, final int y) {
+        return candidates.allowed(x, y);
+    }
+
+/**
+ * Returns whether every cell is constrained.
+ *
+ * @return true if every cell has a value, false otherwise
+ */
+    public final boolean isComplete() {
+        return constrainedCount == values.length;
+    }
+
+/**
+ * Converts this grid into a Constraints object holding a Cell for every
+ * constrained cell.
+ *
+ * @return the Constraints object
+ */
+    public Constraints toConstraints() {
+        Constraints constraints = new Constraints(dim);
+        Set<Cell> cells = new HashSet<Cell>();
+        for (int y = 0; y < dimSq; y++) {
+            for (int x = 0; x < dimSq; x++) {
+                int value = values[y * dimSq + x];
+                if (value != 0) {
+                    Cell cell = new Cell(x, y);
+                    cell.getValues().add(Integer.valueOf(value));
+                    cells.add(cell);
+                }
+            }
+        }
+        constraints.setCells(cells);
+        return constraints;
+    }
+
+/**
+ * Returns the Candidates object storing the values used in each row, column
+ * and box.
+ *
+ * @return the Candidates object for this grid
+ */
+    public final Candidates getCandidates() {
+        return candidates;
+    }
+
+/**
+ * Returns the number of constrained cells.
+ *
+ * @return the number of cells which have a value
+ */
+    public final int getConstrainedCount() {
+        return constrainedCount;
+    }
+
+/**
+ * Returns the total number of cells.
+ *
+ * @return the number of cells in the grid
+ */
+    public final int getSize() {
+        return values.length;
+    }
+
+/**
+ * Returns the dimension of the current problem set.
+ *
+ * @return the dimension of the current problem set
+ */
+    public final int getDim() {
+        return dim;
+    }
+
+/**
+ * Returns the square of the dimension of the current problem set.
+ *
+ * @return the square of the dimension of the current problem set
+ */
+    public final int getDimSq() {
+        return dimSq;
+    }
+}
@@ -38,7 +38,6 @@ public class Holder {
  */
     public Holder(final Constraints constraints,
                   final CurrentSolution currentSolution) {
-        this(constraints.getDim());
         this.constraints = new Constraints(constraints);
         if (currentSolution != null) {
             this.currentSolution = new CurrentSolution(currentSolution);
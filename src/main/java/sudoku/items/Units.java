@@ -0,0 +1,166 @@
+package sudoku.items;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * This class stores the layout of the columns, rows and boxes (the units) of a
+ * problem of given dimension, using the cell indexes of the Grid class.
+ *
+ * Units 0 to dimSq - 1 are the columns, units dimSq to 2 * dimSq - 1 are the
+ * rows and units 2 * dimSq to 3 * dimSq - 1 are the boxes, numbered as in
+ * Cell.getBox().  The peers of a cell are the other cells in its column, row
+ * and box.
+ *
+ * The layout only depends on the dimension, so it is built once for each
+ * dimension and shared.
+ *
+ * @author Gary Mann
+ */
+public final class Units {
+
+    private static final Map<Integer, Units> UNITS =
+            new ConcurrentHashMap<Integer, Units>();
+
+    private final int dim;
+    private final int dimSq;
+    private final int[][] units;
+    private final int[][] cellUnits;
+    private final int[][] peers;
+
+    private Units(final int dim) {
+        this.dim = dim;
+        dimSq = dim * dim;
+        int size = dimSq * dimSq;
+        units = new int[3 * dimSq][dimSq];
+        cellUnits = new int[size][3];
+        for (int y = 0; y < dimSq; y++) {
+            for (int x = 0; x < dimSq; x++) {
+                int index = y * dimSq + x;
+                int box = (x / dim) * dim + (y / dim);
+                int boxPosition = (x % dim) * dim + (y % dim);
+                units[x][y] = index;
+                units[dimSq + y][x] = index;
+                units[2 * dimSq + box][boxPosition] = index;
+                cellUnits[index][0] = x;
+                cellUnits[index][1] = dimSq + y;
+                cellUnits[index][2] = 2 * dimSq + box;
+            }
+        }
+        int peerCount = 3 * (dimSq - 1) - 2 * (dim - 1);
+        peers = new int[size][peerCount];
+        boolean[] seen = new boolean[size];
+        for (int index = 0; index < size; index++) {
+            int count = 0;
+            seen[index] = true;
+            for (int unit : cellUnits[index]) {
+                for (int peer : units[unit]) {
+                    if (!seen[peer]) {
+                        seen[peer] = true;
+                        peers[index][count++] = peer;
+                    }
+                }
+            }
+            for (int peer : peers[index]) {
+                seen[peer] = false;
+            }
+            seen[index] = false;
+        }
+    }
+
+/**
+ * Returns the layout for a given dimension.
+ *
+ * @param dim   the dimension of the problem
+ * @return      the Units object for this dimension
+ */
+    public static Units forDim(final int dim) {
+        return UNITS.computeIfAbsent(dim, new Function<Integer, Units>() {
+            @Override
+            public Units apply(final Integer key) {
+                return new Units(key.intValue());
+            }
+        });
+    }
+
+/**
+ * Returns the indexes of the cells in a unit.
+ *
+ * @param unit      the unit
+ * @return          array of the cell indexes in this unit, which must not be
+ *                  changed
+ */
+    public int[] getUnit(final int unit) {
+        return units[unit];
+    }
+
+/**
+ * Returns the units a cell belongs to.
+ *
+ * @param index     the index of the cell
+ * @return          array of its column, row and box units, which must not be
+ *                  changed
+ */
+    public int[] getCellUnits(final int index) {
+        return cellUnits[index];
+    }
+
+/**
+ * Returns whether a cell belongs to a unit.
+ *
+ * @param unit      the unit
+ * @param index     the index of the cell
+ * @return          true if the cell is in this unit, false otherwise
+ */
+    public boolean contains(final int unit, final int index) {
+        int[] owners = cellUnits[index];
+        return (owners[0] == unit) || (owners[1] == unit) || (owners[2] == unit);
+    }
+
+/**
+ * Returns the peers of a cell.
+ *
+ * @param index     the index of the cell
+ * @return          array of the indexes of the other cells in its column, row
+ *                  and box, which must not be changed
+ */
+    public int[] getPeers(final int index) {
+        return peers[index];
+    }
+
+/**
+ * Returns the mask of values used in a unit of a Grid.
+ *
+ * @param grid      the Grid
+ * @param unit      the unit
+ * @return          mask of the values of the constrained cells in this unit
+ */
+    public long getUsed(final Grid grid, final int unit) {
+        Candidates candidates = grid.getCandidates();
+        if (unit < dimSq) {
+            return candidates.getColumn(unit);
+        } else if (unit < 2 * dimSq) {
+            return candidates.getRow(unit - dimSq);
+        }
+        return candidates.getBox(unit - 2 * dimSq);
+    }
+
+/**
+ * Returns the number of units.
+ *
+ * @return three times the square of the dimension
+ */
+    public int getUnitCount() {
+        return units.length;
+    }
+
+/**
+ * Returns the dimension of the problem.
+ *
+ * @return the dimension of the problem
+ */
+    public int getDim() {
+        return dim;
+    }
+}
@@ -7,5 +7,8 @@
  * comparison).  This means that cells can easily be stored in Sets, without the same cell being
  * stored twice due to changed values.
  *
+ * The Grid and Candidates classes hold the same information in flat arrays and bitmasks, which
+ * the solver uses internally.  They can be converted to and from Constraints objects.
+ *
  */
 package sudoku.items;
@@ -5,4 +5,6 @@ public class ErrorHeader {
 	public static final String ERROR_HEADER = "Error Header";
 	public static final String ACCESS_CONTROL_EXPOSE_HEADERS = "Access-Control-Expose-Headers";
 	public static final String ACCESS_CONTROL_ALLOW_ORIGIN = "Access-Control-Allow-Origin";
+	public static final String SEED_HEADER = "Sudoku-Seed";
+	public static final String CHECKS_HEADER = "Sudoku-Checks";
 }
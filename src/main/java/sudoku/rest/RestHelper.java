@@ -3,8 +3,15 @@ package sudoku.rest;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
 
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonWriter;
 import javax.json.stream.JsonParsingException;
+import javax.servlet.http.HttpServletResponse;
 import javax.xml.bind.JAXBException;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.stream.XMLStreamException;
@@ -17,8 +24,26 @@ import sudoku.exceptions.InvalidInputDataException;
 import sudoku.exceptions.InvalidJSONFileException;
 import sudoku.exceptions.UnknownXMLElementException;
 import sudoku.io.Input;
+import sudoku.io.Output;
+import sudoku.items.Candidates;
+import sudoku.items.Cell;
 import sudoku.items.Constraints;
+import sudoku.solver.GeneratedPuzzle;
+import sudoku.solver.Generator;
+import sudoku.solver.GradeReport;
+import sudoku.solver.Grader;
+import sudoku.solver.PortfolioEngine;
+import sudoku.solver.Reducer;
+import sudoku.solver.ReductionResult;
+import sudoku.solver.SolutionCount;
 import sudoku.solver.Solver;
+import sudoku.solver.SolverEngine;
+import sudoku.solver.SolverMethodEngine;
+import sudoku.solver.SolverResult;
+import sudoku.solver.TrialBudget;
+import sudoku.util.Difficulty;
+import sudoku.util.FileFormat;
+import sudoku.util.StrategyPolicy;
 
 /**
  * This class contains generic top-level methods which help the REST interface.  They call the top-level methods in
@@ -42,31 +67,170 @@ public class RestHelper {
  * @throws ResponseStatusException
  */
 	public static void validateInput(String input, int inputFileFormat) throws ResponseStatusException {
+		readConstraints(input, inputFileFormat, true);
+	}
+
+/**
+ * General method which counts the solutions of the input constraints, stopping as soon as a given number
+ * have been found.  The initial constraints are validated first.
+ * 
+ * The Response code is 200 for a finished count, 500 for a count which uses up its budget before it
+ * finds as many solutions as the limit or finishes the search, or 400 if the input file is incorrectly
+ * formatted or the strategy policy is not known.
+ * 
+ * @param input					the input data
+ * @param inputFileFormat		the format of the input data
+ * @param strategies			the name of the strategy policy (see StrategyPolicy), null for the standard policy
+ * @param limit					the number of solutions after which counting stops
+ * @param budget				the time and search steps allowed to the count, null for no limit
+ * @return						the number of solutions found, at most the limit
+ * @throws ResponseStatusException
+ */
+	public static String countSolutions(String input, int inputFileFormat, String strategies, long limit,
+			                            TrialBudget budget)
+	throws ResponseStatusException {
+		int strategyPolicy = strategyPolicy(strategies);
+		Constraints constraints = readConstraints(input, inputFileFormat, true);
+		SolutionCount count = Solver.countSolutions(constraints, strategyPolicy, limit, budget);
+		if (count.gaveUp()) {
+			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Solver gave up before the count was finished");
+		}
+		return Long.toString(count.getCount());
+	}
+
+/**
+ * General method which grades the input constraints from the logical steps needed to solve them, without
+ * searching.  The grade is returned as a JSON object holding the numeric rating, the difficulty, whether the
+ * strategies solved the problem and the number of times each step was used.
+ * 
+ * The Response code is 200 for a graded problem, 422 for a problem whose steps lead to a contradiction,
+ * which has no solution, or 400 if the input file is incorrectly formatted.
+ * 
+ * @param input					the input data
+ * @param inputFileFormat		the format of the input data
+ * @return						string to be sent to the client
+ * @throws ResponseStatusException
+ */
+	public static String grade(String input, int inputFileFormat) throws ResponseStatusException {
+		Constraints constraints = readConstraints(input, inputFileFormat, true);
+		GradeReport report = new Grader(constraints.getDim()).grade(constraints);
+		if (report.hasContradiction()) {
+			throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "Problem has no solution");
+		}
+		JsonObjectBuilder steps = Json.createObjectBuilder();
+		for (Map.Entry<String, Long> step : report.getSteps().entrySet()) {
+			steps.add(step.getKey(), step.getValue().longValue());
+		}
+		JsonObject grade = Json.createObjectBuilder()
+				               .add("rating", report.getRating())
+				               .add("difficulty", Difficulty.getName(report.getDifficulty()))
+				               .add("solved", report.isSolved())
+				               .add("steps", steps)
+				               .build();
+		return writeJson(grade);
+	}
+
+/**
+ * General method which returns the number of races won by each engine of a portfolio engine, as a JSON
+ * object from the name of each engine to its number of wins.
+ * 
+ * @param portfolio				the portfolio engine
+ * @return						string to be sent to the client
+ */
+	public static String portfolioWins(PortfolioEngine portfolio) {
+		JsonObjectBuilder wins = Json.createObjectBuilder();
+		for (Map.Entry<String, Long> engine : portfolio.getWins().entrySet()) {
+			wins.add(engine.getKey(), engine.getValue().longValue());
+		}
+		return writeJson(wins.build());
+	}
+
+/**
+ * General method which removes clues from the input constraints until none can be removed without the
+ * problem having more than one solution.  The reduced problem is written in the input format.  The seed
+ * of the order in which clues are removed is returned in the Sudoku-Seed header of the response, and the
+ * number of uniqueness checks made in the Sudoku-Checks header.
+ * 
+ * The Response code is 200 for a finished reduction, 500 for a reduction which gives up before every
+ * clue has been checked, or 400 if the input file is incorrectly formatted, the problem does not have
+ * exactly one solution or its dimension is larger than the maximum.
+ * 
+ * @param reducer				the reducer which removes the clues
+ * @param input					the input data
+ * @param inputFileFormat		the format of the input and output data
+ * @param maxDim				the largest dimension of problem which may be reduced
+ * @param seed					the seed of the order in which clues are removed, null for a new seed
+ * @param response				the response in which the headers are set, null if none
+ * @return						string to be sent to the client
+ * @throws ResponseStatusException
+ */
+	public static String reduce(Reducer reducer, String input, int inputFileFormat, int maxDim, Long seed,
+			                    HttpServletResponse response)
+	throws ResponseStatusException {
+		Constraints constraints = readConstraints(input, inputFileFormat, true);
+		if (constraints.getDim() > maxDim) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Dimension must be at most " + maxDim);
+		}
+		long reducerSeed = (seed != null) ? seed.longValue() : Solver.newSeed();
+		ReductionResult result;
 		try {
-			StringReader reader = new StringReader(input);
-			Constraints constraints = Input.initializeConstraints(reader, inputFileFormat);
-			Solver.validateInitialConstraints(constraints);
-			reader.close();
-		} catch (ArrayIndexOutOfBoundsException aie) {
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid initial constraints: " +  aie.getMessage(), aie);
-		} catch (JsonParsingException jpe) {
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "JSON parse exception: " + jpe.getMessage(), jpe);
-		} catch (IOException ioe) {
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "I/O exception: " + ioe.getMessage(), ioe);
-		} catch (XMLStreamException xmle) {
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "XML parsing exception: " + xmle.getMessage(), xmle);
-		} catch (InvalidJSONFileException ijfe) {
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid JSON exception: " + ijfe.getMessage(), ijfe);			
-		} catch (UnknownXMLElementException uxle) {
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown XML element exception: " + uxle.getMessage(), uxle);
+			result = reducer.reduce(constraints, reducerSeed);
 		} catch (InvalidInputDataException iide) {
 			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid initial constraints: " +  iide.getMessage(), iide);
-		} catch (JAXBException jaxbe) {
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "JAXB Exception: " +  jaxbe.getMessage(), jaxbe);
-		} catch (ParserConfigurationException pce) {
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Parser Configuration Exception: " +  pce.getMessage(), pce);
-		} catch (SAXException saxe) {
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "SAX Exception: " +  saxe.getMessage(), saxe);
+		}
+		if (response != null) {
+			response.setHeader(ErrorHeader.SEED_HEADER, Long.toString(reducerSeed));
+			response.setHeader(ErrorHeader.CHECKS_HEADER, Long.toString(result.getChecks()));
+		}
+		if (result.gaveUp()) {
+			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Reducer gave up before every clue was checked");
+		}
+		return write(result.getGivens(), inputFileFormat);
+	}
+
+/**
+ * General method which makes new problems which have exactly one solution.  The problems are written
+ * in the output format, as a JSON array for JSON output or one after another for text output.  The
+ * seed used is returned in the Sudoku-Seed header of the response, so that the same problems can be
+ * made again.
+ * 
+ * @param generator				the generator which makes the problems
+ * @param dim					the dimension of the problems
+ * @param count					the number of problems
+ * @param clues					the number of clues wanted, zero for as few as possible
+ * @param difficulty			the name of the difficulty wanted (see Difficulty)
+ * @param seed					the seed of the generator's random choices, null for a new seed
+ * @param outputFileFormat		the format of the output data
+ * @param response				the response in which the seed header is set, null if none
+ * @return						string to be sent to the client
+ * @throws ResponseStatusException
+ */
+	public static String generate(Generator generator, int dim, int count, int clues, String difficulty,
+			                      Long seed, int outputFileFormat, HttpServletResponse response)
+	throws ResponseStatusException {
+		try {
+			int difficultyLevel = Difficulty.fromName(difficulty);
+			long generatorSeed = (seed != null) ? seed.longValue() : Solver.newSeed();
+			List<GeneratedPuzzle> puzzles = generator.generate(dim, count, clues, difficultyLevel, generatorSeed);
+			if (response != null) {
+				response.setHeader(ErrorHeader.SEED_HEADER, Long.toString(generatorSeed));
+			}
+			StringBuilder output = new StringBuilder();
+			if (outputFileFormat == FileFormat.JSON) {
+				output.append("[");
+			}
+			for (int i = 0; i < puzzles.size(); i++) {
+				if (i > 0) {
+					output.append((outputFileFormat == FileFormat.JSON) ? ",\n" : "\n");
+				}
+				output.append(write(puzzles.get(i).getGivens(), outputFileFormat));
+			}
+			if (outputFileFormat == FileFormat.JSON) {
+				output.append("]");
+			}
+			return output.toString();
+		} catch (InvalidInputDataException iide) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid difficulty: " +  iide.getMessage(), iide);
 		}
 	}
 
@@ -83,50 +247,86 @@ public class RestHelper {
 			                                           int inputFileFormat, 
 			                                           int outputFileFormat) 
 	throws ResponseStatusException {
+		return handleInputWithoutValidating(input, inputFileFormat, outputFileFormat, null,
+				                            SolverMethodEngine.backtracking());
+	}
+
+/**
+ * General method which calculates the result from input constraints without validating the constraints,
+ * using a given strategy policy and engine.
+ * 
+ * @param input					the input data
+ * @param inputFileFormat		the format of the input data
+ * @param outputFileFormat		the format of the output data
+ * @param strategies			the name of the strategy policy (see StrategyPolicy), null for the standard policy
+ * @param engine				the engine which solves the problem
+ * @return						string to be sent to the client
+ * @throws ResponseStatusException
+ */
+	public static String handleInputWithoutValidating (String input, 
+			                                           int inputFileFormat, 
+			                                           int outputFileFormat,
+			                                           String strategies,
+			                                           SolverEngine engine) 
+	throws ResponseStatusException {
+		return handleInputWithoutValidating(input, inputFileFormat, outputFileFormat, strategies, engine,
+				                            null, null);
+	}
+
+/**
+ * General method which calculates the result from input constraints without validating the constraints,
+ * using a given strategy policy, engine and seed.  The seed used is returned in the Sudoku-Seed header
+ * of the response, so that a slow request can be repeated exactly.
+ * 
+ * The Response code is 200 for a successful calculation, 422 for a problem which is proved to have
+ * no solution, 500 for a calculation which gives up without a result, or 400 if the input file is
+ * incorrectly formatted, the strategy policy is not known or the solver cannot hold the problem
+ * because its dimension is too large or a cell or value lies outside the grid, which is checked
+ * even though the constraints are not validated.
+ * 
+ * @param input					the input data
+ * @param inputFileFormat		the format of the input data
+ * @param outputFileFormat		the format of the output data
+ * @param strategies			the name of the strategy policy (see StrategyPolicy), null for the standard policy
+ * @param engine				the engine which solves the problem
+ * @param seed					the seed of the engine's random choices, null for a new seed
+ * @param response				the response in which the seed header is set, null if none
+ * @return						string to be sent to the client
+ * @throws ResponseStatusException
+ */
+	public static String handleInputWithoutValidating (String input, 
+			                                           int inputFileFormat, 
+			                                           int outputFileFormat,
+			                                           String strategies,
+			                                           SolverEngine engine,
+			                                           Long seed,
+			                                           HttpServletResponse response) 
+	throws ResponseStatusException {
+		int strategyPolicy = strategyPolicy(strategies);
+		Constraints constraints = readConstraints(input, inputFileFormat, false);
+		checkBounds(constraints);
+		SolverResult result;
 		try {
-			String output = null;
-			StringReader reader = new StringReader(input);
-			StringWriter writer = new StringWriter();
-		    Constraints constraints = Input.initializeConstraints(reader, inputFileFormat);
-		    if(Solver.run(constraints, writer, outputFileFormat, PRINT_OUTPUT_WANTED)) {
-		    	output = writer.toString();
-			} else {
-				reader.close();
-				writer.close();
-				throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Solver failed to find a solution");
-			}
-		    reader.close();
-		    writer.close();
-		    return output;
-		} catch (ArrayIndexOutOfBoundsException aie) {
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid initial constraints: " +  aie.getMessage(), aie);
-		} catch (JsonParsingException jpe) {
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "JSON parse exception: " + jpe.getMessage(), jpe);
-		} catch (IOException ioe) {
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "I/O exception: " + ioe.getMessage(), ioe);
-		} catch (XMLStreamException xmle) {
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "XML parsing exception: " + xmle.getMessage(), xmle);
-		} catch (InvalidJSONFileException ijfe) {
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid JSON exception: " + ijfe.getMessage(), ijfe);			
-		} catch (UnknownXMLElementException uxle) {
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown XML element exception: " + uxle.getMessage(), uxle);
-		} catch (InvalidInputDataException iide) {
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid initial constraints: " +  iide.getMessage(), iide);
-		} catch (JAXBException jaxbe) {
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "JAXB Exception: " +  jaxbe.getMessage(), jaxbe);
-		} catch (ParserConfigurationException pce) {
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Parser Configuration Exception: " +  pce.getMessage(), pce);
-		} catch (SAXException saxe) {
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "SAX Exception: " +  saxe.getMessage(), saxe);
+			result = solve(engine, constraints, strategyPolicy, seed, response);
+		} catch (IllegalArgumentException iae) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid initial constraints: " +  iae.getMessage(), iae);
 		}
+		if (result.isSolved()) {
+			return write(result.getSolution().toConstraints(), outputFileFormat);
+		}
+		if (result.isUnsolvable()) {
+			throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "Problem has no solution");
+		}
+		throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Solver gave up without finding a solution");
 	}
 
 /**
  * General method which takes the REST input data, calls the solver and outputs the 
  * result.
  * 
- * The Response code is 200 for a successful calculation, 500 for a calculation
- * which fails to calculate a result, or 400 if the input file is incorrectly
+ * The Response code is 200 for a successful calculation, 422 for a problem
+ * which is proved to have no solution, 500 for a calculation which gives up
+ * without a result, or 400 if the input file is incorrectly
  * formatted.
  * 
  * @param input					the input data from the REST feed
@@ -138,23 +338,92 @@ public class RestHelper {
 	public static String handleInput(String input, 
 			                           int inputFileFormat, 
 			                           int outputFileFormat) 
+	throws ResponseStatusException {
+		return handleInput(input, inputFileFormat, outputFileFormat, null,
+				           SolverMethodEngine.backtracking());
+	}
+
+/**
+ * General method which takes the REST input data, calls the solver using a given strategy
+ * policy and engine, and outputs the result.
+ * 
+ * The Response code is 200 for a successful calculation, 422 for a problem
+ * which is proved to have no solution, 500 for a calculation which gives up
+ * without a result, or 400 if the input file is incorrectly
+ * formatted or the strategy policy is not known.
+ * 
+ * @param input					the input data from the REST feed
+ * @param inputFileFormat		the format of the input data
+ * @param outputFileFormat		the format of the output data
+ * @param strategies			the name of the strategy policy (see StrategyPolicy), null for the standard policy
+ * @param engine				the engine which solves the problem
+ * @return						string which sends the result to the client
+ * @throws ResponseStatusException
+ */
+	public static String handleInput(String input, 
+			                           int inputFileFormat, 
+			                           int outputFileFormat,
+			                           String strategies,
+			                           SolverEngine engine) 
+	throws ResponseStatusException {
+		return handleInput(input, inputFileFormat, outputFileFormat, strategies, engine, null, null);
+	}
+
+/**
+ * General method which takes the REST input data, calls the solver using a given strategy
+ * policy, engine and seed, and outputs the result.  The seed used is returned in the Sudoku-Seed
+ * header of the response, so that a slow request can be repeated exactly.
+ * 
+ * @param input					the input data from the REST feed
+ * @param inputFileFormat		the format of the input data
+ * @param outputFileFormat		the format of the output data
+ * @param strategies			the name of the strategy policy (see StrategyPolicy), null for the standard policy
+ * @param engine				the engine which solves the problem
+ * @param seed					the seed of the engine's random choices, null for a new seed
+ * @param response				the response in which the seed header is set, null if none
+ * @return						string which sends the result to the client
+ * @throws ResponseStatusException
+ */
+	public static String handleInput(String input, 
+			                           int inputFileFormat, 
+			                           int outputFileFormat,
+			                           String strategies,
+			                           SolverEngine engine,
+			                           Long seed,
+			                           HttpServletResponse response) 
+	throws ResponseStatusException {
+		int strategyPolicy = strategyPolicy(strategies);
+		Constraints constraints = readConstraints(input, inputFileFormat, true);
+		SolverResult result = solve(engine, constraints, strategyPolicy, seed, response);
+		if (result.isSolved()) {
+			return write(result.getSolution().toConstraints(), outputFileFormat);
+		}
+		if (result.isUnsolvable()) {
+			throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "Problem has no solution");
+		}
+		throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Solver gave up without finding a solution");
+	}
+
+/**
+ * Reads the input constraints and, if asked, validates them.  Every exception thrown by reading
+ * or validating the input is mapped here to a Response code of 400.
+ * 
+ * @param input					the input data
+ * @param inputFileFormat		the format of the input data
+ * @param validate				true if the initial constraints are validated, false otherwise
+ * @return						the initial constraints
+ * @throws ResponseStatusException
+ */
+	private static Constraints readConstraints(String input, int inputFileFormat, boolean validate)
 	throws ResponseStatusException {
 		try {
-			String output = null;
 			StringReader reader = new StringReader(input);
-			StringWriter writer = new StringWriter(); 
 			Constraints constraints = Input.initializeConstraints(reader, inputFileFormat);
-			Solver.validateInitialConstraints(constraints);
-			if (Solver.run(constraints, writer, outputFileFormat, PRINT_OUTPUT_WANTED)) {
-				output = writer.toString();
-			} else {
-				reader.close();
-				writer.close();
-				throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Solver failed to find a solution");
+			if (validate) {
+				Solver.validateInitialConstraints(constraints);
 			}
 			reader.close();
-			writer.close();
-			return output;
+			return constraints;
 		} catch (ArrayIndexOutOfBoundsException aie) {
 			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid initial constraints: " +  aie.getMessage(), aie);
 		} catch (JsonParsingException jpe) {
@@ -178,4 +447,112 @@ public class RestHelper {
 		}
 	}
 
+/**
+ * Checks that the solver can hold the input constraints, which is needed even when they are not
+ * validated: the dimension must be no larger than the maximum, and every cell and value must lie
+ * inside the grid.
+ * 
+ * @param constraints			the initial constraints
+ * @throws ResponseStatusException
+ */
+	private static void checkBounds(Constraints constraints) throws ResponseStatusException {
+		if (constraints.getDim() > Candidates.MAX_DIM) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid initial constraints: Dimension "
+					                          + constraints.getDim() + " is larger than the maximum of " + Candidates.MAX_DIM);
+		}
+		if (constraints.getCells() == null) {
+			return;
+		}
+		int dimSq = constraints.getDim() * constraints.getDim();
+		for (Cell cell : constraints.getCells()) {
+			int x = cell.getxCoord();
+			int y = cell.getyCoord();
+			if ((x < 0) || (x >= dimSq) || (y < 0) || (y >= dimSq)) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid initial constraints: Cell at x = "
+						                          + x + " y = " + y + " is outside the grid");
+			}
+			for (Integer value : cell.getValues()) {
+				if ((value.intValue() < 1) || (value.intValue() > dimSq)) {
+					throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid initial constraints: Out-of-range value "
+							                          + value + " found at cell x = " + x + " y = " + y);
+				}
+			}
+		}
+	}
+
+/**
+ * Writes constraints in an output format.  As they are written to a string, an exception
+ * can only come from the server, so it is mapped to a Response code of 500.
+ * 
+ * @param constraints			the constraints to be written
+ * @param outputFileFormat		the format of the output data
+ * @return						string to be sent to the client
+ * @throws ResponseStatusException
+ */
+	private static String write(Constraints constraints, int outputFileFormat) throws ResponseStatusException {
+		try {
+			StringWriter writer = new StringWriter();
+			Output.saveResultsToFile(constraints, writer, outputFileFormat);
+			writer.close();
+			return writer.toString();
+		} catch (IOException ioe) {
+			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "I/O exception: " + ioe.getMessage(), ioe);
+		} catch (JAXBException jaxbe) {
+			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "JAXB Exception: " +  jaxbe.getMessage(), jaxbe);
+		}
+	}
+
+/**
+ * Writes a JSON object as a string.
+ * 
+ * @param object				the JSON object
+ * @return						the JSON text of the object
+ */
+	private static String writeJson(JsonObject object) {
+		StringWriter writer = new StringWriter();
+		JsonWriter jsonWriter = Json.createWriter(writer);
+		jsonWriter.writeObject(object);
+		jsonWriter.close();
+		return writer.toString();
+	}
+
+/**
+ * Solves a problem with an engine and sets the seed it used in the Sudoku-Seed header of the
+ * response.  The header is set whether or not a solution is found.
+ * 
+ * @param engine				the engine which solves the problem
+ * @param constraints			the initial constraints
+ * @param strategyPolicy		the strategy policy (see StrategyPolicy)
+ * @param seed					the seed of the engine's random choices, null for a new seed
+ * @param response				the response in which the seed header is set, null if none
+ * @return						the result of the engine
+ */
+	private static SolverResult solve(SolverEngine engine, Constraints constraints, int strategyPolicy,
+			                          Long seed, HttpServletResponse response) {
+		long engineSeed = (seed != null) ? seed.longValue() : Solver.newSeed();
+		SolverResult result = engine.solve(constraints, strategyPolicy, engineSeed, PRINT_OUTPUT_WANTED);
+		if (response != null) {
+			response.setHeader(ErrorHeader.SEED_HEADER, Long.toString(result.getSeed()));
+		}
+		return result;
+	}
+
+/**
+ * Converts the name of a strategy policy into its constant.
+ * 
+ * @param strategies			the name of the strategy policy, null for the standard policy
+ * @return						the strategy policy (see StrategyPolicy)
+ * @throws ResponseStatusException
+ */
+	private static int strategyPolicy(String strategies) throws ResponseStatusException {
+		if (strategies == null) {
+			return StrategyPolicy.STANDARD;
+		}
+		try {
+			return StrategyPolicy.fromName(strategies);
+		} catch (InvalidInputDataException iide) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid strategy policy: " + iide.getMessage(), iide);
+		}
+	}
+
 }
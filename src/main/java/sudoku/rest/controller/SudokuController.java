@@ -1,13 +1,32 @@
 package sudoku.rest.controller;
 
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import sudoku.exceptions.InvalidInputDataException;
+import sudoku.rest.ErrorHeader;
 import sudoku.rest.RestHelper;
+import sudoku.solver.Generator;
+import sudoku.solver.PortfolioEngine;
+import sudoku.solver.Reducer;
+import sudoku.solver.SelectorEngine;
+import sudoku.solver.SolverEngine;
+import sudoku.solver.TrialBudget;
 import sudoku.util.FileFormat;
 
 /**
@@ -15,18 +34,157 @@ import sudoku.util.FileFormat;
  * data to the solver which calculates the result, and send the results back to the client.
  * 
  * This class only contains method which can be directly annotated with REST calls (always
- * POST in this application).  All its methods use the RestHelper class to call the solver.
- * The main role of this class is to determine the file format from the Produces and
- * Consumes annotations.
+ * POST in this application, apart from the read-only GET /portfolio/wins feed).  All its
+ * methods use the RestHelper class to call the solver.  The main role of this class is to
+ * determine the file format from the Produces and Consumes annotations.
+ * 
+ * The feeds which calculate the result take an optional "strategies" request parameter
+ * (none, standard or advanced) which selects the strategies used before searching.  If it
+ * is not given, the sudoku.strategies application property is used.  They also take an
+ * optional "engine" request parameter which names the SolverEngine bean used to solve the
+ * problem.  If it is not given, the sudoku.engine application property is used.  The
+ * "auto" engine chooses an engine from a decision table, which can be reloaded through the
+ * /selector/reload feed.  They also take an optional "seed" request parameter for the random
+ * choices of the engine, and return the seed used in the Sudoku-Seed response header, so that a
+ * slow request can be repeated exactly by sending the same seed.  The parallel-two-degrees engine
+ * only repeats a request on a pool of the same sudoku.pool.parallelism.  A request which was given
+ * up when it reached the sudoku.trials.max-millis application property is not repeated exactly,
+ * as the point at which the time runs out depends on the speed of the server, and neither is one
+ * which reached sudoku.trials.max-nodes on several threads.  The portfolio engine returns the
+ * result of whichever engine finishes first, so it does not repeat its requests either.
+ * 
+ * The /count feeds count the solutions of a problem up to an optional "limit" request
+ * parameter, which is 2 if not given, so that a client can check that a problem has exactly
+ * one solution without the whole search being run.  The limit may not be larger than the
+ * sudoku.count.max-limit application property.  A count which takes longer than the
+ * sudoku.count.max-millis application property or more search steps than the sudoku.count.max-nodes
+ * application property is given up, and the feed returns 500 rather than the number found so far.
+ * 
+ * The /portfolio/wins feed returns the number of races won by each engine of the portfolio
+ * engine since the server started, as a JSON object from the name of each engine to its wins,
+ * so that the engines which never win can be dropped from the sudoku.portfolio.engines
+ * application property.
+ * 
+ * The /generate feeds make new problems which have exactly one solution.  They take optional
+ * "dim", "count", "clues" and "difficulty" request parameters (3, 1, as few as possible and any
+ * if not given) and a "seed" request parameter, returning the seed used in the Sudoku-Seed
+ * response header as the solving feeds do.  The dimension and number of problems may not be larger
+ * than the sudoku.generator.max-dim and sudoku.generator.max-count application properties.
+ * 
+ * The /grade feeds grade a problem from the logical steps needed to solve it, without any search,
+ * and return a JSON object holding the numeric rating, the difficulty and the steps used.  A problem
+ * whose steps lead to a contradiction has no solution, and the feeds return 422 for it as the
+ * solving feeds do.
+ * 
+ * The /reduce feeds remove clues from a problem which has exactly one solution until none can
+ * be removed without it having more, and return the reduced problem in the input format.  They
+ * take an optional "seed" request parameter for the order in which clues are removed, return the
+ * seed used in the Sudoku-Seed response header and the number of uniqueness checks made in the
+ * Sudoku-Checks response header.  The dimension of the problem may not be larger than the
+ * sudoku.reducer.max-dim application property.  A reduction which takes longer than the
+ * sudoku.reducer.max-millis application property or more search steps than the
+ * sudoku.reducer.max-nodes application property is given up, and the feed returns 500 rather than
+ * a problem from which only some of the clues have been removed.
  * 
  * @author Gary Mann
  *
  */
 @RestController
-@CrossOrigin
+@CrossOrigin(exposedHeaders={ErrorHeader.SEED_HEADER, ErrorHeader.CHECKS_HEADER})
 @RequestMapping("/sudoku")
 public class SudokuController {
 
+	@Value("${sudoku.strategies:standard}")
+	private String defaultStrategies;
+
+	@Value("${sudoku.engine:backtracking}")
+	private String defaultEngine;
+
+	@Value("${sudoku.count.max-limit:1000}")
+	private long maxCountLimit;
+
+	@Value("${sudoku.count.max-millis:10000}")
+	private long maxCountMillis;
+
+	@Value("${sudoku.count.max-nodes:10000000}")
+	private long maxCountNodes;
+
+	private final Map<String, SolverEngine> engines = new HashMap<String, SolverEngine>();
+
+	@Value("${sudoku.generator.max-dim:4}")
+	private int maxGeneratorDim;
+
+	@Value("${sudoku.generator.max-count:100}")
+	private int maxGeneratorCount;
+
+	@Value("${sudoku.reducer.max-dim:4}")
+	private int maxReducerDim;
+
+	private final PortfolioEngine portfolio;
+
+	private final SelectorEngine selector;
+
+	private final Generator generator;
+
+	private final Reducer reducer;
+
+/**
+ * Constructs the controller with every SolverEngine bean.
+ * 
+ * @param engineBeans	the SolverEngine beans, selected by their names
+ * @param selector		the engine which chooses an engine from the features of each problem
+ * @param generator		the generator which makes new problems
+ * @param reducer		the reducer which removes clues from problems
+ */
+	public SudokuController(List<SolverEngine> engineBeans, SelectorEngine selector, Generator generator,
+			                Reducer reducer) {
+		PortfolioEngine portfolioEngine = null;
+		for (SolverEngine engine : engineBeans) {
+			engines.put(engine.getName(), engine);
+			if (engine instanceof PortfolioEngine) {
+				portfolioEngine = (PortfolioEngine) engine;
+			}
+		}
+		this.portfolio = portfolioEngine;
+		this.selector = selector;
+		this.generator = generator;
+		this.reducer = reducer;
+	}
+
+/**
+ * This feed reads the decision table of the "auto" engine again, so that a new table can
+ * be used without restarting the server.
+ * 
+ * @return          the number of rules in the new table
+ */
+@RequestMapping(path="/selector/reload", 
+		        method=RequestMethod.POST,
+		        produces= "text/plain") 
+	public String reloadSelector() {
+		try {
+			return Integer.toString(selector.reload());
+		} catch (IOException ioe) {
+			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Decision table not reloaded: " + ioe.getMessage(), ioe);
+		} catch (InvalidInputDataException iide) {
+			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Decision table not reloaded: " + iide.getMessage(), iide);
+		}
+	}
+
+/**
+ * This feed returns the number of races won by each engine of the portfolio engine.
+ * 
+ * @return          the wins as a JSON object from the name of each engine to its number of wins
+ */
+@RequestMapping(path="/portfolio/wins", 
+		        method=RequestMethod.GET,
+		        produces="application/json") 
+	public String portfolioWins() {
+		if (portfolio == null) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No portfolio engine");
+		}
+		return RestHelper.portfolioWins(portfolio);
+	}
+
 /**
  * This feed validates the JSON input data without calculating the result. 
  * 
@@ -72,86 +230,408 @@ public class SudokuController {
 	 	return "";
 	}
 
+/**
+ * This feed counts the solutions of JSON input data, up to a limit.
+ * 
+ * @param input		the JSON input data
+ * @param limit		the number of solutions after which counting stops
+ * @param strategies	the strategy policy, null for the default policy
+ * @return          the number of solutions found, at most the limit
+ */
+@RequestMapping(path="/count", 
+		        method=RequestMethod.POST,
+		        consumes="application/json",
+		        produces="text/plain") 
+	public String countJsonSolutions(@RequestBody String input,
+			@RequestParam(value="limit", defaultValue="2") long limit,
+			@RequestParam(value="strategies", required=false) String strategies) {
+		return RestHelper.countSolutions(input, FileFormat.JSON, strategies(strategies), countLimit(limit),
+			                              countBudget());
+	}
+
+/**
+ * This feed counts the solutions of XML input data, up to a limit.
+ * 
+ * @param input		the XML input data
+ * @param limit		the number of solutions after which counting stops
+ * @param strategies	the strategy policy, null for the default policy
+ * @return          the number of solutions found, at most the limit
+ */
+@RequestMapping(path="/count", 
+		        method=RequestMethod.POST,
+		        consumes= {"application/xml", "text/xml"},
+		        produces="text/plain") 
+	public String countXMLSolutions(@RequestBody String input,
+			@RequestParam(value="limit", defaultValue="2") long limit,
+			@RequestParam(value="strategies", required=false) String strategies) {
+		return RestHelper.countSolutions(input, FileFormat.XML, strategies(strategies), countLimit(limit),
+			                              countBudget());
+	}
+
+/**
+ * This feed counts the solutions of plain text input data, up to a limit.
+ * 
+ * @param input		the plain text input data
+ * @param limit		the number of solutions after which counting stops
+ * @param strategies	the strategy policy, null for the default policy
+ * @return          the number of solutions found, at most the limit
+ */
+@RequestMapping(path="/count", 
+		        method=RequestMethod.POST,
+		        consumes= "text/plain",
+		        produces="text/plain") 
+	public String countTextSolutions(@RequestBody String input,
+			@RequestParam(value="limit", defaultValue="2") long limit,
+			@RequestParam(value="strategies", required=false) String strategies) {
+		return RestHelper.countSolutions(input, FileFormat.TEXT, strategies(strategies), countLimit(limit),
+			                              countBudget());
+	}
+
+/**
+ * This feed makes new problems which have exactly one solution, returned as a JSON array.
+ * 
+ * @param dim			the dimension of the problems
+ * @param count			the number of problems
+ * @param clues			the number of clues wanted, 0 for as few as possible
+ * @param difficulty	the difficulty wanted (any, easy, medium, hard or expert)
+ * @param seed		the seed of the generator's random choices, null for a new seed
+ * @param response	the response, in which the seed used is returned
+ * @return			string to be sent to the client
+ */
+@RequestMapping(path="/generate", 
+		        method=RequestMethod.POST,
+		        produces="application/json") 
+	public String generateJson(@RequestParam(value="dim", defaultValue="3") int dim,
+			@RequestParam(value="count", defaultValue="1") int count,
+			@RequestParam(value="clues", defaultValue="0") int clues,
+			@RequestParam(value="difficulty", defaultValue="any") String difficulty,
+			@RequestParam(value="seed", required=false) Long seed,
+			HttpServletResponse response) {
+		checkGeneratorRequest(dim, count, clues);
+		return RestHelper.generate(generator, dim, count, clues, difficulty, seed, FileFormat.JSON, response);
+	}
+
+/**
+ * This feed makes new problems which have exactly one solution, returned as plain text one
+ * after another.
+ * 
+ * @param dim			the dimension of the problems
+ * @param count			the number of problems
+ * @param clues			the number of clues wanted, 0 for as few as possible
+ * @param difficulty	the difficulty wanted (any, easy, medium, hard or expert)
+ * @param seed		the seed of the generator's random choices, null for a new seed
+ * @param response	the response, in which the seed used is returned
+ * @return			string to be sent to the client
+ */
+@RequestMapping(path="/generate", 
+		        method=RequestMethod.POST,
+		        produces="text/plain") 
+	public String generateText(@RequestParam(value="dim", defaultValue="3") int dim,
+			@RequestParam(value="count", defaultValue="1") int count,
+			@RequestParam(value="clues", defaultValue="0") int clues,
+			@RequestParam(value="difficulty", defaultValue="any") String difficulty,
+			@RequestParam(value="seed", required=false) Long seed,
+			HttpServletResponse response) {
+		checkGeneratorRequest(dim, count, clues);
+		return RestHelper.generate(generator, dim, count, clues, difficulty, seed, FileFormat.TEXT, response);
+	}
+
+/**
+ * This feed grades JSON input data from the logical steps needed to solve it.
+ * 
+ * @param input		the JSON input data
+ * @return          the grade as a JSON object
+ */
+@RequestMapping(path="/grade", 
+		        method=RequestMethod.POST,
+		        consumes="application/json",
+		        produces="application/json") 
+	public String gradeJsonInput(@RequestBody String input) {
+		return RestHelper.grade(input, FileFormat.JSON);
+	}
+
+/**
+ * This feed grades XML input data from the logical steps needed to solve it.
+ * 
+ * @param input		the XML input data
+ * @return          the grade as a JSON object
+ */
+@RequestMapping(path="/grade", 
+		        method=RequestMethod.POST,
+		        consumes={"application/xml", "text/xml"},
+		        produces="application/json") 
+	public String gradeXMLInput(@RequestBody String input) {
+		return RestHelper.grade(input, FileFormat.XML);
+	}
+
+/**
+ * This feed grades plain text input data from the logical steps needed to solve it.
+ * 
+ * @param input		the plain text input data
+ * @return          the grade as a JSON object
+ */
+@RequestMapping(path="/grade", 
+		        method=RequestMethod.POST,
+		        consumes="text/plain",
+		        produces="application/json") 
+	public String gradeTextInput(@RequestBody String input) {
+		return RestHelper.grade(input, FileFormat.TEXT);
+	}
+
+/**
+ * This feed removes clues from JSON input data until none can be removed.
+ * 
+ * @param input		the JSON input data
+ * @param seed		the seed of the order in which clues are removed, null for a new seed
+ * @param response	the response, in which the seed used and the number of checks are returned
+ * @return          the reduced problem
+ */
+@RequestMapping(path="/reduce", 
+		        method=RequestMethod.POST,
+		        consumes="application/json",
+		        produces="application/json") 
+	public String reduceJsonInput(@RequestBody String input,
+			@RequestParam(value="seed", required=false) Long seed,
+			HttpServletResponse response) {
+		return RestHelper.reduce(reducer, input, FileFormat.JSON, maxReducerDim, seed, response);
+	}
+
+/**
+ * This feed removes clues from XML input data until none can be removed.
+ * 
+ * @param input		the XML input data
+ * @param seed		the seed of the order in which clues are removed, null for a new seed
+ * @param response	the response, in which the seed used and the number of checks are returned
+ * @return          the reduced problem
+ */
+@RequestMapping(path="/reduce", 
+		        method=RequestMethod.POST,
+		        consumes={"application/xml", "text/xml"},
+		        produces={"application/xml", "text/xml"}) 
+	public String reduceXMLInput(@RequestBody String input,
+			@RequestParam(value="seed", required=false) Long seed,
+			HttpServletResponse response) {
+		return RestHelper.reduce(reducer, input, FileFormat.XML, maxReducerDim, seed, response);
+	}
+
+/**
+ * This feed removes clues from plain text input data until none can be removed.
+ * 
+ * @param input		the plain text input data
+ * @param seed		the seed of the order in which clues are removed, null for a new seed
+ * @param response	the response, in which the seed used and the number of checks are returned
+ * @return          the reduced problem
+ */
+@RequestMapping(path="/reduce", 
+		        method=RequestMethod.POST,
+		        consumes="text/plain",
+		        produces="text/plain") 
+	public String reduceTextInput(@RequestBody String input,
+			@RequestParam(value="seed", required=false) Long seed,
+			HttpServletResponse response) {
+		return RestHelper.reduce(reducer, input, FileFormat.TEXT, maxReducerDim, seed, response);
+	}
+
 /**
  * This feed handles JSON data without validating the initial constraints.
  * 
  * @param input		the input data in JSON format
+ * @param strategies	the strategy policy, null for the default policy
+ * @param engine		the name of the engine, null for the default engine
+ * @param seed		the seed of the engine's random choices, null for a new seed
+ * @param response	the response, in which the seed used is returned
  * @return			string to be sent to the client
  */
 @RequestMapping(path="/handleWithoutValidating", 
 		        method=RequestMethod.POST,
 		        consumes="application/json",
 		        produces="application/json") 
-	public String handleJsonInputWithoutValidation(@RequestBody String input)  {
-	  	return RestHelper.handleInputWithoutValidating(input, FileFormat.JSON, FileFormat.JSON);
+	public String handleJsonInputWithoutValidation(@RequestBody String input,
+			@RequestParam(value="strategies", required=false) String strategies,
+			@RequestParam(value="engine", required=false) String engine,
+			@RequestParam(value="seed", required=false) Long seed,
+			HttpServletResponse response)  {
+	  	return RestHelper.handleInputWithoutValidating(input, FileFormat.JSON, FileFormat.JSON, strategies(strategies), engine(engine), seed, response);
 	}
 
 /**
  * This feed handles XML input data without validating the initial constraints.
  * 
  * @param input		input data in XML format
+ * @param strategies	the strategy policy, null for the default policy
+ * @param engine		the name of the engine, null for the default engine
+ * @param seed		the seed of the engine's random choices, null for a new seed
+ * @param response	the response, in which the seed used is returned
  * @return			string to be sent to the client
  */
 @RequestMapping(path="/handleWithoutValidating", 
 		        method=RequestMethod.POST,
 		        consumes= {"application/xml", "text/xml"},
 		        produces= {"application/xml", "text/xml"}) 
-	public String handleXmlInputWithoutValidation(@RequestBody String input) {
-	   	return RestHelper.handleInputWithoutValidating(input, FileFormat.XML, FileFormat.XML);
+	public String handleXmlInputWithoutValidation(@RequestBody String input,
+			@RequestParam(value="strategies", required=false) String strategies,
+			@RequestParam(value="engine", required=false) String engine,
+			@RequestParam(value="seed", required=false) Long seed,
+			HttpServletResponse response) {
+	   	return RestHelper.handleInputWithoutValidating(input, FileFormat.XML, FileFormat.XML, strategies(strategies), engine(engine), seed, response);
 	}
 	   
 /**
  * This feed handles plain text input without validating the initial constraints.
  * 
  * @param input			input data in plain text format
+ * @param strategies	the strategy policy, null for the default policy
+ * @param engine		the name of the engine, null for the default engine
+ * @param seed		the seed of the engine's random choices, null for a new seed
+ * @param response	the response, in which the seed used is returned
  * @return				string to be sent to the client
  */
 @RequestMapping(path="/handleWithoutValidating", 
 		        method=RequestMethod.POST,
 		        consumes= "text/plain",
 		        produces= "text/plain") 
-	public String handleTextInputWithoutValidation(@RequestBody String input) {
-	   	return RestHelper.handleInputWithoutValidating(input, FileFormat.TEXT, FileFormat.TEXT);
+	public String handleTextInputWithoutValidation(@RequestBody String input,
+			@RequestParam(value="strategies", required=false) String strategies,
+			@RequestParam(value="engine", required=false) String engine,
+			@RequestParam(value="seed", required=false) Long seed,
+			HttpServletResponse response) {
+	   	return RestHelper.handleInputWithoutValidating(input, FileFormat.TEXT, FileFormat.TEXT, strategies(strategies), engine(engine), seed, response);
 	}
 	
 /**
  * The feed which handles JSON input from the REST POST requests
  * 
  * @param input		the input data in JSON format
+ * @param strategies	the strategy policy, null for the default policy
+ * @param engine		the name of the engine, null for the default engine
+ * @param seed		the seed of the engine's random choices, null for a new seed
+ * @param response	the response, in which the seed used is returned
  * @return			string to be sent to the client
  */
 @RequestMapping(method=RequestMethod.POST,
 		        consumes="application/json",
 		        produces="application/json") 
-	public String handleJsonInput(@RequestBody String input)  {
-		return RestHelper.handleInput(input, FileFormat.JSON, FileFormat.JSON);
+	public String handleJsonInput(@RequestBody String input,
+			@RequestParam(value="strategies", required=false) String strategies,
+			@RequestParam(value="engine", required=false) String engine,
+			@RequestParam(value="seed", required=false) Long seed,
+			HttpServletResponse response)  {
+		return RestHelper.handleInput(input, FileFormat.JSON, FileFormat.JSON, strategies(strategies), engine(engine), seed, response);
 	}
 
 /**
  * The feed which handles XML input from the REST POST requests
  * 
  * @param input		the input data in XML format
+ * @param strategies	the strategy policy, null for the default policy
+ * @param engine		the name of the engine, null for the default engine
+ * @param seed		the seed of the engine's random choices, null for a new seed
+ * @param response	the response, in which the seed used is returned
  * @return			string to be sent to the client
  */
 @RequestMapping(method=RequestMethod.POST,
 		        consumes= {"application/xml", "text/xml"},
 		        produces= {"application/xml", "text/xml"}) 
-	public String getXMLInput(@RequestBody String input)  {
-		return RestHelper.handleInput(input, FileFormat.XML, FileFormat.XML);
+	public String getXMLInput(@RequestBody String input,
+			@RequestParam(value="strategies", required=false) String strategies,
+			@RequestParam(value="engine", required=false) String engine,
+			@RequestParam(value="seed", required=false) Long seed,
+			HttpServletResponse response)  {
+		return RestHelper.handleInput(input, FileFormat.XML, FileFormat.XML, strategies(strategies), engine(engine), seed, response);
 	}
 
 /**
  * The feed which handles plain text input from the REST POST requests
  *  
  * @param input		the input data in plain text format
+ * @param strategies	the strategy policy, null for the default policy
+ * @param engine		the name of the engine, null for the default engine
+ * @param seed		the seed of the engine's random choices, null for a new seed
+ * @param response	the response, in which the seed used is returned
  * @return			string to be sent to the client
  */
 @RequestMapping(method=RequestMethod.POST,
 		        consumes= "text/plain",
 		        produces= "text/plain") 
 @ResponseBody
-	public String getTextInput(@RequestBody String input)  {
-		return RestHelper.handleInput(input, FileFormat.TEXT, FileFormat.TEXT);
+	public String getTextInput(@RequestBody String input,
+			@RequestParam(value="strategies", required=false) String strategies,
+			@RequestParam(value="engine", required=false) String engine,
+			@RequestParam(value="seed", required=false) Long seed,
+			HttpServletResponse response)  {
+		return RestHelper.handleInput(input, FileFormat.TEXT, FileFormat.TEXT, strategies(strategies), engine(engine), seed, response);
+	}
+
+/**
+ * Returns the strategy policy requested, or the default policy if none was requested.
+ * 
+ * @param strategies	the strategy policy requested, null if none
+ * @return				the name of the strategy policy to be used
+ */
+	private String strategies(String strategies) {
+		return (strategies != null) ? strategies : defaultStrategies;
+	}
+
+/**
+ * Checks the limit of a request to count solutions.
+ * 
+ * @param limit			the number of solutions after which counting stops
+ * @return				the limit
+ * @throws ResponseStatusException
+ */
+	private long countLimit(long limit) throws ResponseStatusException {
+		if ((limit < 1) || (limit > maxCountLimit)) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Count limit must be from 1 to " + maxCountLimit);
+		}
+		return limit;
+	}
+
+/**
+ * Returns the time and search steps allowed to a request to count solutions.
+ * 
+ * @return				the budget of the count, null if neither is limited
+ */
+	private TrialBudget countBudget() {
+		if ((maxCountMillis == 0) && (maxCountNodes == 0)) {
+			return null;
+		}
+		return new TrialBudget(maxCountMillis, maxCountNodes);
+	}
+
+/**
+ * Checks the dimension, number of problems and number of clues of a request to make problems.
+ * 
+ * @param dim			the dimension of the problems
+ * @param count			the number of problems
+ * @param clues			the number of clues wanted, 0 for as few as possible
+ * @throws ResponseStatusException
+ */
+	private void checkGeneratorRequest(int dim, int count, int clues) throws ResponseStatusException {
+		if ((dim < 2) || (dim > maxGeneratorDim)) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Dimension must be from 2 to " + maxGeneratorDim);
+		}
+		if ((count < 1) || (count > maxGeneratorCount)) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Count must be from 1 to " + maxGeneratorCount);
+		}
+		if ((clues < 0) || (clues > dim * dim * dim * dim)) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Clues must be from 0 to " + dim * dim * dim * dim);
+		}
+	}
+
+/**
+ * Returns the engine requested, or the default engine if none was requested.
+ * 
+ * @param engine		the name of the engine requested, null if none
+ * @return				the engine to be used
+ * @throws ResponseStatusException
+ */
+	private SolverEngine engine(String engine) throws ResponseStatusException {
+		String name = (engine != null) ? engine : defaultEngine;
+		SolverEngine solverEngine = engines.get(name);
+		if (solverEngine == null) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown engine: " + name);
+		}
+		return solverEngine;
 	}
 
 }
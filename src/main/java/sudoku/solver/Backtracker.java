@@ -0,0 +1,260 @@
+package sudoku.solver;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import sudoku.exceptions.BadCellException;
+import sudoku.items.Candidates;
+import sudoku.items.Constraints;
+import sudoku.items.Grid;
+import sudoku.items.Holder;
+
+/**
+ * This class performs a deterministic depth-first search for the solution.
+ *
+ * The Grid is first updated with every cell which can be found from the initial
+ * constraints, using a Propagator.  The search then picks the unconstrained cell
+ * which can take the fewest values (the most constrained cell) and tries each
+ * of its values in turn.  Each value is set using Propagator.assign(), which
+ * also sets every cell which then follows, before searching again.  If a
+ * BadCellException is thrown, the value being tried is wrong and the next one
+ * is tried instead.
+ *
+ * The search works on a single Grid.  Before each value is tried the position
+ * of the Grid's undo trail is marked, and the Grid is rolled back to the mark
+ * afterwards, so no copies are made during the search.
+ *
+ * Unlike Solver.twoDegreesOfFreedom(), this search tries every possibility, so
+ * it always finishes and it always finds the solution if there is one.  The
+ * search checks the interrupt flag of its thread at every step, and gives up
+ * without a result if it is set, so that a search which has lost a race (see
+ * PortfolioEngine) can be cancelled.  A search which is part of a
+ * ParallelSearch checks a shared stop flag in the same way.
+ *
+ * A search can also be limited to a number of steps and given a generator, in
+ * which case the values of each cell are tried starting from one picked at
+ * random.  This is used for the restarts of the two degree of freedom trials
+ * (see RestartPolicy).
+ *
+ * @author Gary Mann
+ */
+public class Backtracker {
+
+    private final boolean printOutput;
+    private final AtomicBoolean stop;
+    private Propagator propagator;
+    private long nodes;
+    private SplittableRandom random;
+    private long maxNodes = Long.MAX_VALUE;
+    private boolean gaveUp;
+
+/**
+ * Constructs a new Backtracker.
+ *
+ * @param printOutput   true if running text output is required, false
+ *                      otherwise
+ */
+    public Backtracker(final boolean printOutput) {
+        this(printOutput, null);
+    }
+
+/**
+ * Constructs a new Backtracker which gives up when a shared flag is set.
+ *
+ * @param printOutput   true if running text output is required, false
+ *                      otherwise
+ * @param stop          the flag which stops the search when set, null if
+ *                      none
+ */
+    Backtracker(final boolean printOutput, final AtomicBoolean stop) {
+        this.printOutput = printOutput;
+        this.stop = stop;
+    }
+
+/**
+ * Searches for the solution starting from the Constraints stored in a Holder.
+ *
+ * @param holder    Holder storing the initial Constraints object
+ * @return          a Constraints object containing the final result, null if
+ *                  there is no solution
+ */
+    public Constraints solve(final Holder holder) {
+        nodes = 0;
+        gaveUp = false;
+        Grid grid = new Grid(holder.getConstraints());
+        propagator = new Propagator(grid.getDim());
+        boolean found;
+        try {
+            propagator.propagate(grid, false);
+            found = search(grid);
+        } catch (BadCellException bce) {
+            found = false;
+        }
+        if (printOutput) {
+            if (found) {
+                System.out.println("Search found the final solution after "
+                                   + nodes + " steps.");
+            } else if (gaveUp) {
+                System.out.println("Search was cancelled after "
+                                   + nodes + " steps.");
+            } else {
+                System.out.println("Search proved there is no solution after "
+                                   + nodes + " steps.");
+            }
+        }
+        return found ? grid.toConstraints() : null;
+    }
+
+/**
+ * Searches for the solution from a Grid which has already been updated with
+ * every cell which can be found.
+ *
+ * @param grid          the Grid, which holds the final result if this method
+ *                      returns true
+ * @param propagator    the Propagator used to set the cells of the Grid
+ * @return              true if the solution was found, false otherwise
+ */
+    boolean search(final Grid grid, final Propagator propagator) {
+        nodes = 0;
+        gaveUp = false;
+        this.propagator = propagator;
+        return search(grid);
+    }
+
+/**
+ * Searches for the solution from a Grid which has already been updated with
+ * every cell which can be found, trying values in random order and giving up
+ * once this Backtracker has taken a number of steps.  The steps taken by
+ * earlier calls are counted too.
+ *
+ * @param grid          the Grid, which holds the final result if this method
+ *                      returns true and is otherwise rolled back
+ * @param propagator    the Propagator used to set the cells of the Grid
+ * @param random        the generator which picks the first value tried for
+ *                      each cell
+ * @param maxNodes      the number of steps after which the search gives up
+ * @return              true if the solution was found, false otherwise
+ */
+    boolean search(final Grid grid, final Propagator propagator,
+                   final SplittableRandom random, final long maxNodes) {
+        this.propagator = propagator;
+        this.random = random;
+        this.maxNodes = maxNodes;
+        gaveUp = false;
+        try {
+            return search(grid);
+        } finally {
+            this.random = null;
+            this.maxNodes = Long.MAX_VALUE;
+        }
+    }
+
+/**
+ * Returns whether the last search, started by any of the search methods or by
+ * solve(), gave up before trying every possibility, because it was stopped or
+ * ran out of steps.  A search which returned false without giving up has
+ * proved there is no solution from its Grid.
+ *
+ * @return true if the last search gave up, false otherwise
+ */
+    boolean gaveUp() {
+        return gaveUp;
+    }
+
+/**
+ * Returns the number of search steps taken by the last call to solve().
+ *
+ * @return the number of search steps
+ */
+    public long getNodes() {
+        return nodes;
+    }
+
+/**
+ * Tries each value of the most constrained cell of a Grid, unless the Grid is
+ * complete.
+ *
+ * @param grid      the Grid for this step, which has been updated with every
+ *                  cell which can be found
+ * @return          true if the Grid now holds the final result, false if there
+ *                  is no solution from this step or the search was cancelled,
+ *                  in which case the Grid has been rolled back to its state
+ *                  when this method was called
+ */
+    private boolean search(final Grid grid) {
+        nodes++;
+        if (grid.isComplete()) {
+            return true;
+        }
+        if (Thread.currentThread().isInterrupted() || ((stop != null) && stop.get())
+                || (nodes > maxNodes)) {
+            gaveUp = true;
+            return false;
+        }
+
+        int best = mostConstrainedCell(grid);
+        int bestX = best % grid.getDimSq();
+        int bestY = best / grid.getDimSq();
+        long bestValues = grid.candidates(best);
+        int bestCount = Candidates.count(bestValues);
+        if (printOutput) {
+            System.out.println("Trying " + bestCount + " values for cell at x = "
+                               + (bestX + 1) + " y = " + (bestY + 1));
+        }
+
+        //try each value of this cell in turn, starting from the lowest value or
+        //from one picked at random
+        int mark = grid.mark();
+        int first = (random == null) ? 0 : random.nextInt(bestCount);
+        for (int i = 0; i < bestCount; i++) {
+            try {
+                propagator.assign(grid, bestX, bestY,
+                                  nthValue(bestValues, (first + i) % bestCount), false);
+                if (search(grid)) {
+                    return true;
+                }
+            } catch (BadCellException bce) {
+                //this value is wrong, so try the next one
+            }
+            grid.undo(mark);
+        }
+        return false;
+    }
+
+/**
+ * Returns one of the values in a mask.
+ *
+ * @param values    the mask of values
+ * @param n         the position of the value, zero for the lowest
+ * @return          the value
+ */
+    private static int nthValue(final long values, final int n) {
+        long rest = values;
+        for (int i = 0; i < n; i++) {
+            rest &= rest - 1;
+        }
+        return Candidates.lowestValue(rest);
+    }
+
+/**
+ * Finds the unconstrained cell of a Grid which can take the fewest values.
+ *
+ * @param grid      the Grid, which must not be complete
+ * @return          the index of the most constrained cell, the first one if
+ *                  several can take the same number of values
+ */
+    static int mostConstrainedCell(final Grid grid) {
+        int best = -1;
+        int bestCount = Integer.MAX_VALUE;
+        for (int index = 0; index < grid.getSize(); index++) {
+            if (grid.get(index) == 0) {
+                int count = Candidates.count(grid.candidates(index));
+                if (count < bestCount) {
+                    best = index;
+                    bestCount = count;
+                }
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,297 @@
+package sudoku.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import sudoku.items.Cell;
+import sudoku.items.Constraints;
+import sudoku.items.Grid;
+import sudoku.items.Units;
+
+/**
+ * This class solves many problems of the same dimension together, 64 at a
+ * time.
+ *
+ * The values each cell can take are stored bit-sliced: for each cell and value
+ * there is one long, and bit i of that long is set if the value is still
+ * possible for the cell in problem i of the batch.  The two tests of the
+ * Propagator class, cells which can take only one value and values which only
+ * one cell in a column, row or box can take, are then made for all 64 problems
+ * with the same word operations, using the same once and twice masks as
+ * Finder.findUniqueCells() but across problems instead of across values.  This
+ * is repeated until no word changes.
+ *
+ * A problem in which a cell can take no value, or a value cannot be placed
+ * anywhere in a unit, has no solution.  A problem in which every cell can take
+ * exactly one value is solved.  Every other problem has stalled, and is passed
+ * to a fallback SolverEngine on its own.
+ *
+ * @author Gary Mann
+ */
+public class BatchSolver {
+
+    /** The number of problems propagated together. */
+    public static final int LANES = 64;
+
+    private final SolverEngine fallback;
+    private int solvedInBatch;
+    private int unsolvable;
+    private int fallbacks;
+
+/**
+ * Constructs a BatchSolver which passes stalled problems to the "backtracking"
+ * engine.
+ */
+    public BatchSolver() {
+        this(SolverMethodEngine.backtracking());
+    }
+
+/**
+ * Constructs a BatchSolver which passes stalled problems to a given engine.
+ *
+ * @param fallback      the engine which solves the problems the batch cannot
+ */
+    public BatchSolver(final SolverEngine fallback) {
+        this.fallback = fallback;
+    }
+
+/**
+ * Solves a list of problems.  The problems are taken 64 at a time.  A problem
+ * whose dimension differs from the first problem of its batch is passed to the
+ * fallback engine at once.
+ *
+ * @param puzzles           the initial constraints of each problem, which are
+ *                          not changed
+ * @param strategyPolicy    the strategies used by the fallback engine (see
+ *                          StrategyPolicy)
+ * @return                  a result for each problem, in the same order
+ */
+    public List<SolverResult> solve(final List<Constraints> puzzles,
+                                    final int strategyPolicy) {
+        solvedInBatch = 0;
+        unsolvable = 0;
+        fallbacks = 0;
+        List<SolverResult> results = new ArrayList<SolverResult>(puzzles.size());
+        for (int from = 0; from < puzzles.size(); from += LANES) {
+            List<Constraints> batch = puzzles.subList(from, Math.min(from + LANES, puzzles.size()));
+            results.addAll(solveBatch(batch, strategyPolicy));
+        }
+        return results;
+    }
+
+/**
+ * Returns the number of problems solved by the batch propagation in the last
+ * call to solve().
+ *
+ * @return the number of problems solved without the fallback engine
+ */
+    public int getSolvedInBatch() {
+        return solvedInBatch;
+    }
+
+/**
+ * Returns the number of problems the batch propagation found to have no
+ * solution in the last call to solve().
+ *
+ * @return the number of problems with no solution
+ */
+    public int getUnsolvable() {
+        return unsolvable;
+    }
+
+/**
+ * Returns the number of problems passed to the fallback engine in the last
+ * call to solve().
+ *
+ * @return the number of problems solved by the fallback engine
+ */
+    public int getFallbacks() {
+        return fallbacks;
+    }
+
+/**
+ * Solves up to 64 problems.
+ *
+ * @param batch             the initial constraints of each problem
+ * @param strategyPolicy    the strategies used by the fallback engine
+ * @return                  a result for each problem, in the same order
+ */
+    private List<SolverResult> solveBatch(final List<Constraints> batch,
+                                          final int strategyPolicy) {
+        long start = System.currentTimeMillis();
+        int dim = batch.get(0).getDim();
+        int dimSq = dim * dim;
+        int size = dimSq * dimSq;
+        long lanes = 0L;
+        for (int lane = 0; lane < batch.size(); lane++) {
+            if (batch.get(lane).getDim() == dim) {
+                lanes |= 1L << lane;
+            }
+        }
+
+        //every value is possible in every cell until the givens are applied
+        long[] values = new long[size * dimSq];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = lanes;
+        }
+        for (int lane = 0; lane < batch.size(); lane++) {
+            if ((lanes & (1L << lane)) != 0L) {
+                for (Cell cell : batch.get(lane).getCells()) {
+                    int base = (cell.getyCoord() * dimSq + cell.getxCoord()) * dimSq;
+                    for (Integer value : cell.getValues()) {
+                        for (int v = 0; v < dimSq; v++) {
+                            if (v != value.intValue() - 1) {
+                                values[base + v] &= ~(1L << lane);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        long dead = propagate(values, Units.forDim(dim), dimSq, lanes);
+
+        //a problem is solved if every cell can take exactly one value
+        long unfinished = 0L;
+        for (int index = 0; index < size; index++) {
+            long once = 0L;
+            long twice = 0L;
+            for (int v = 0; v < dimSq; v++) {
+                twice |= once & values[index * dimSq + v];
+                once |= values[index * dimSq + v];
+            }
+            unfinished |= twice | ~once;
+        }
+        long solved = lanes & ~dead & ~unfinished;
+        long elapsed = System.currentTimeMillis() - start;
+
+        List<SolverResult> results = new ArrayList<SolverResult>(batch.size());
+        for (int lane = 0; lane < batch.size(); lane++) {
+            Constraints puzzle = batch.get(lane);
+            long bit = 1L << lane;
+            if ((solved & bit) != 0L) {
+                SolverResult result = new SolverResult(puzzle.getCells().size());
+                result.setSolution(toGrid(values, dim, lane));
+                result.setEngine("batch");
+                result.setElapsedMillis(elapsed);
+                results.add(result);
+                solvedInBatch++;
+            } else if ((dead & bit) != 0L) {
+                SolverResult result = new SolverResult(puzzle.getCells().size());
+                result.setEngine("batch");
+                result.setUnsolvable(true);
+                result.setElapsedMillis(elapsed);
+                results.add(result);
+                unsolvable++;
+            } else {
+                results.add(fallback.solve(puzzle, strategyPolicy, false));
+                fallbacks++;
+            }
+        }
+        return results;
+    }
+
+/**
+ * Sets every cell which can be found in every problem of a batch, until no
+ * more can be found.
+ *
+ * @param values    the bit-sliced values, where bit i of values[index * dimSq +
+ *                  value - 1] is set if the cell can take the value in problem i
+ * @param units     the layout of the units
+ * @param dimSq     the square of the dimension
+ * @param lanes     mask of the problems in the batch
+ * @return          mask of the problems found to have no solution
+ */
+    static long propagate(final long[] values, final Units units, final int dimSq,
+                          final long lanes) {
+        int size = dimSq * dimSq;
+        long[] placed = new long[values.length];
+        long dead = 0L;
+        boolean changed = true;
+        while (changed && ((lanes & ~dead) != 0L)) {
+            changed = false;
+
+            //a cell which can take only one value removes it from its peers
+            for (int index = 0; index < size; index++) {
+                int base = index * dimSq;
+                long once = 0L;
+                long twice = 0L;
+                for (int v = 0; v < dimSq; v++) {
+                    twice |= once & values[base + v];
+                    once |= values[base + v];
+                }
+                dead |= lanes & ~once;
+                long single = once & ~twice & ~dead;
+                if (single == 0L) {
+                    continue;
+                }
+                for (int v = 0; v < dimSq; v++) {
+                    long fixed = values[base + v] & single & ~placed[base + v];
+                    if (fixed != 0L) {
+                        placed[base + v] |= fixed;
+                        for (int peer : units.getPeers(index)) {
+                            if ((values[peer * dimSq + v] & fixed) != 0L) {
+                                values[peer * dimSq + v] &= ~fixed;
+                                changed = true;
+                            }
+                        }
+                    }
+                }
+            }
+
+            //a value which only one cell in a unit can take is set in that cell
+            for (int unit = 0; unit < units.getUnitCount(); unit++) {
+                int[] cells = units.getUnit(unit);
+                for (int v = 0; v < dimSq; v++) {
+                    long once = 0L;
+                    long twice = 0L;
+                    for (int index : cells) {
+                        twice |= once & values[index * dimSq + v];
+                        once |= values[index * dimSq + v];
+                    }
+                    dead |= lanes & ~once;
+                    long unique = once & ~twice & ~dead;
+                    if (unique == 0L) {
+                        continue;
+                    }
+                    for (int index : cells) {
+                        long hit = values[index * dimSq + v] & unique;
+                        if (hit == 0L) {
+                            continue;
+                        }
+                        for (int w = 0; w < dimSq; w++) {
+                            if ((w != v) && ((values[index * dimSq + w] & hit) != 0L)) {
+                                values[index * dimSq + w] &= ~hit;
+                                changed = true;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return dead;
+    }
+
+/**
+ * Builds the Grid of one solved problem of a batch.
+ *
+ * @param values    the bit-sliced values
+ * @param dim       the dimension of the problem
+ * @param lane      the position of the problem in the batch
+ * @return          the solved Grid
+ */
+    private static Grid toGrid(final long[] values, final int dim, final int lane) {
+        Grid grid = new Grid(dim);
+        int dimSq = dim * dim;
+        long bit = 1L << lane;
+        for (int index = 0; index < grid.getSize(); index++) {
+            for (int v = 0; v < dimSq; v++) {
+                if ((values[index * dimSq + v] & bit) != 0L) {
+                    grid.set(index, v + 1);
+                    break;
+                }
+            }
+        }
+        return grid;
+    }
+}
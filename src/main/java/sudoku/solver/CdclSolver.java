@@ -0,0 +1,938 @@
+package sudoku.solver;
+
+import java.util.Arrays;
+
+import sudoku.items.Constraints;
+import sudoku.items.Grid;
+import sudoku.items.Units;
+
+/**
+ * This class solves the problem as a satisfiability problem, using conflict
+ * driven clause learning (CDCL).
+ *
+ * There is one variable for each value an unconstrained cell can still take,
+ * which is true if the cell takes the value.  The clauses say that each cell
+ * takes exactly one of its values, and that each value missing from a row,
+ * column or box goes in exactly one of its cells: one clause that at least one
+ * of the variables is true, and two-literal clauses that at most one is true.
+ * Up to PAIRWISE_LIMIT variables there is one of these for each pair of them.
+ * Above that a sequential counter is used instead, with one extra variable for
+ * each variable but the last, which is true once one of the variables up to it
+ * is true, so the clauses grow with the number of variables rather than its
+ * square.  Values which the constrained cells already rule out get no variable
+ * at all, so the clauses only cover what is left to find.
+ *
+ * The memory the clauses need is worked out before they are built.  If it is
+ * more than the limit given, the search gives up at once rather than running
+ * out of memory, and gaveUp() tells this apart from a proof that there is no
+ * solution.
+ *
+ * The search sets one variable at a time and propagates the clauses using two
+ * watched literals: each clause is only visited when one of its first two
+ * literals becomes false.  When a clause becomes false, the conflict is
+ * analysed back to its first unique implication point, the clause learned from
+ * it is added, and the search jumps back to the level at which that clause
+ * sets a variable.  The variable set next is the one with the highest activity,
+ * which is raised for every variable taking part in a conflict and decays over
+ * time (VSIDS), starting from the cells with the fewest values.  Each variable
+ * is first tried with the value it last had.  The search restarts after the
+ * numbers of conflicts given by a Luby RestartPolicy, keeping what it has
+ * learned.
+ *
+ * The learned clauses are kept within a number of literals.  When they grow
+ * past it the search restarts, the less active half of the learned clauses are
+ * dropped, and every clause is simplified using the variables set at the top
+ * level.
+ *
+ * The clauses, watch lists and trail are stored in int arrays rather than in
+ * objects, so the search makes no objects once the clauses are built.  This
+ * search tries every possibility, so it always finds the solution if there is
+ * one.  It gives up without a result if the interrupt flag of its thread is
+ * set, so that it can be cancelled (see PortfolioEngine).
+ *
+ * @author Gary Mann
+ */
+public class CdclSolver {
+
+    /** The number of learned literals kept when no limit is given. */
+    public static final long DEFAULT_MAX_LEARNED_LITERALS = 1L << 20;
+    /** The bytes the clauses of a problem may need when no limit is given. */
+    public static final long DEFAULT_MAX_ENCODING_BYTES = 256L << 20;
+    /** The largest number of variables whose pairs are all made into clauses. */
+    public static final int PAIRWISE_LIMIT = 5;
+
+    //roughly the bytes taken by each variable besides its clauses: its entries
+    //in the assignment, trail, heap and activity arrays and its two watch lists
+    private static final long BYTES_PER_VAR = 96;
+
+    private static final RestartPolicy RESTARTS = RestartPolicy.luby(100);
+    private static final double VAR_DECAY = 0.95;
+    private static final double CLAUSE_DECAY = 0.999;
+    private static final double RESCALE_LIMIT = 1e100;
+
+    private final boolean printOutput;
+    private final long maxLearnedLiterals;
+    private final long maxEncodingBytes;
+
+    //the clauses: clause c starts at arena[c], with its size at arena[c - 2]
+    //and its learned clause number plus one, or zero, at arena[c - 1]
+    private int[] arena;
+    private int arenaSize;
+    private int[][] watches;
+    private int[] watchCount;
+
+    //the assignment: 1 for true, -1 for false and 0 for unset
+    private byte[] assigns;
+    private int[] level;
+    private int[] reason;
+    private int[] trail;
+    private int trailSize;
+    private int queueHead;
+    private int[] trailLimits;
+    private int decisionLevel;
+
+    private double[] activity;
+    private double varIncrement;
+    private boolean[] polarity;
+    private int[] heap;
+    private int heapSize;
+    private int[] heapIndex;
+
+    private int[] learned;
+    private double[] learnedActivity;
+    private int learnedCount;
+    private long learnedLiterals;
+    private double clauseIncrement;
+
+    private boolean[] seen;
+    private int[] learnt;
+    private int cellVars;
+
+    private long nodes;
+    private long conflicts;
+    private long reductions;
+    private long encodingBytes;
+    private boolean gaveUp;
+
+/**
+ * Constructs a new CdclSolver which keeps up to DEFAULT_MAX_LEARNED_LITERALS
+ * learned literals.
+ *
+ * @param printOutput   true if running text output is required, false
+ *                      otherwise
+ */
+    public CdclSolver(final boolean printOutput) {
+        this(printOutput, DEFAULT_MAX_LEARNED_LITERALS);
+    }
+
+/**
+ * Constructs a new CdclSolver which keeps up to a given number of learned
+ * literals.
+ *
+ * @param printOutput           true if running text output is required, false
+ *                              otherwise
+ * @param maxLearnedLiterals    the number of literals in the learned clauses
+ *                              after which the less active half are dropped
+ */
+    public CdclSolver(final boolean printOutput, final long maxLearnedLiterals) {
+        this(printOutput, maxLearnedLiterals, DEFAULT_MAX_ENCODING_BYTES);
+    }
+
+/**
+ * Constructs a new CdclSolver which keeps up to a given number of learned
+ * literals, and gives up on problems whose clauses need more than a given
+ * number of bytes.
+ *
+ * @param printOutput           true if running text output is required, false
+ *                              otherwise
+ * @param maxLearnedLiterals    the number of literals in the learned clauses
+ *                              after which the less active half are dropped
+ * @param maxEncodingBytes      the number of bytes the variables and clauses
+ *                              of a problem may need before anything is learned
+ */
+    public CdclSolver(final boolean printOutput, final long maxLearnedLiterals,
+                      final long maxEncodingBytes) {
+        this.printOutput = printOutput;
+        this.maxLearnedLiterals = maxLearnedLiterals;
+        this.maxEncodingBytes = maxEncodingBytes;
+    }
+
+/**
+ * Searches for the solution of the problem given by a Constraints object.
+ *
+ * @param constraints   the Constraints object storing the constrained cells
+ * @return              a Constraints object containing the final result, null
+ *                      if there is no solution or the search gave up
+ */
+    public Constraints solve(final Constraints constraints) {
+        Grid grid = new Grid(constraints);
+        nodes = 0;
+        conflicts = 0;
+        reductions = 0;
+        encodingBytes = 0;
+        gaveUp = false;
+        boolean found = encode(grid) && search();
+        if (printOutput) {
+            if (gaveUp) {
+                System.out.println("CDCL gave up: the clauses need about " + encodingBytes
+                                   + " bytes, more than the limit of " + maxEncodingBytes + ".");
+            } else if (found) {
+                System.out.println("CDCL found the final solution after " + nodes
+                                   + " decisions and " + conflicts + " conflicts.");
+            } else if (Thread.currentThread().isInterrupted()) {
+                System.out.println("CDCL was cancelled after " + nodes + " decisions.");
+            } else {
+                System.out.println("CDCL proved there is no solution after " + nodes
+                                   + " decisions and " + conflicts + " conflicts.");
+            }
+        }
+        if (!found) {
+            return null;
+        }
+        int dimSq = grid.getDimSq();
+        for (int var = 0; var < grid.getSize() * dimSq; var++) {
+            if (assigns[var] > 0) {
+                grid.set(var / dimSq, var % dimSq + 1);
+            }
+        }
+        return grid.toConstraints();
+    }
+
+/**
+ * Returns the number of decisions taken by the last call to solve().
+ *
+ * @return the number of decisions
+ */
+    public long getNodes() {
+        return nodes;
+    }
+
+/**
+ * Returns the number of conflicts met by the last call to solve(), each of
+ * which added a learned clause.
+ *
+ * @return the number of conflicts
+ */
+    public long getConflicts() {
+        return conflicts;
+    }
+
+/**
+ * Returns the number of times the learned clauses were cut back to fit the
+ * limit in the last call to solve().
+ *
+ * @return the number of reductions
+ */
+    public long getReductions() {
+        return reductions;
+    }
+
+/**
+ * Returns the number of bytes the variables and clauses of the last problem
+ * were estimated to need, whether or not they were built.
+ *
+ * @return the estimated bytes
+ */
+    public long getEncodingBytes() {
+        return encodingBytes;
+    }
+
+/**
+ * Returns whether the last call to solve() gave up because the clauses of the
+ * problem would need more memory than the limit.
+ *
+ * @return true if the search gave up, false if it ran
+ */
+    public boolean gaveUp() {
+        return gaveUp;
+    }
+
+/**
+ * Builds the variables and clauses of a Grid and sets the variables which
+ * follow at once.
+ *
+ * @param grid      the Grid storing the constrained cells
+ * @return          false if the problem has no solution or its clauses would
+ *                  need more than the memory allowed, true otherwise
+ */
+    private boolean encode(final Grid grid) {
+        int dimSq = grid.getDimSq();
+        cellVars = grid.getSize() * dimSq;
+
+        //first collect the groups of which exactly one variable is true, so that
+        //the memory needed is known before anything is built
+        Groups groups = new Groups(dimSq);
+        int[] lits = new int[dimSq];
+
+        //each unconstrained cell takes exactly one of its values
+        for (int index = 0; index < grid.getSize(); index++) {
+            if (grid.get(index) != 0) {
+                continue;
+            }
+            long values = grid.candidates(index);
+            int n = 0;
+            for (int v = 0; v < dimSq; v++) {
+                if ((values & (1L << v)) != 0L) {
+                    lits[n++] = 2 * (index * dimSq + v);
+                }
+            }
+            if (n == 0) {
+                return false;
+            }
+            groups.add(lits, n);
+        }
+
+        //each value missing from a unit goes in exactly one of its cells
+        Units layout = Units.forDim(grid.getDim());
+        for (int unit = 0; unit < layout.getUnitCount(); unit++) {
+            int[] cells = layout.getUnit(unit);
+            long used = layout.getUsed(grid, unit);
+            for (int v = 0; v < dimSq; v++) {
+                if ((used & (1L << v)) != 0L) {
+                    continue;
+                }
+                int n = 0;
+                for (int index : cells) {
+                    if ((grid.get(index) == 0) && ((grid.candidates(index) & (1L << v)) != 0L)) {
+                        lits[n++] = 2 * (index * dimSq + v);
+                    }
+                }
+                if (n == 0) {
+                    return false;
+                }
+                groups.add(lits, n);
+            }
+        }
+
+        long auxVars = 0;
+        long clauses = 0;
+        long arenaInts = 0;
+        for (int g = 0; g < groups.count; g++) {
+            long n = groups.size(g);
+            if (n > 1) {
+                long pairs = (n <= PAIRWISE_LIMIT) ? n * (n - 1) / 2 : 3 * n - 4;
+                if (n > PAIRWISE_LIMIT) {
+                    auxVars += n - 1;
+                }
+                clauses += 1 + pairs;
+                arenaInts += n + 2 + 4 * pairs;
+            }
+        }
+        long totalVars = cellVars + auxVars;
+        encodingBytes = 4 * arenaInts + 8 * clauses + BYTES_PER_VAR * totalVars;
+        if ((encodingBytes > maxEncodingBytes) || (arenaInts > Integer.MAX_VALUE - 8)) {
+            gaveUp = true;
+            return false;
+        }
+
+        int vars = (int) totalVars;
+        arena = new int[(int) Math.max(1024, arenaInts)];
+        arenaSize = 0;
+        watches = new int[2 * vars][];
+        watchCount = new int[2 * vars];
+        assigns = new byte[vars];
+        level = new int[vars];
+        reason = new int[vars];
+        trail = new int[vars];
+        trailSize = 0;
+        queueHead = 0;
+        trailLimits = new int[vars + 1];
+        decisionLevel = 0;
+        activity = new double[vars];
+        varIncrement = 1.0;
+        polarity = new boolean[vars];
+        heap = new int[vars];
+        heapSize = 0;
+        heapIndex = new int[vars];
+        Arrays.fill(heapIndex, -1);
+        learned = new int[64];
+        learnedActivity = new double[64];
+        learnedCount = 0;
+        learnedLiterals = 0;
+        clauseIncrement = 1.0;
+        seen = new boolean[vars];
+        learnt = new int[vars];
+
+        //the cells with the fewest values are tried first, each with a value set
+        for (int index = 0; index < grid.getSize(); index++) {
+            if (grid.get(index) == 0) {
+                long values = grid.candidates(index);
+                for (int v = 0; v < dimSq; v++) {
+                    if ((values & (1L << v)) != 0L) {
+                        int var = index * dimSq + v;
+                        polarity[var] = true;
+                        activity[var] = 1.0 / Long.bitCount(values);
+                        heapInsert(var);
+                    }
+                }
+            }
+        }
+
+        int[] units = new int[groups.count];
+        int unitCount = 0;
+        int nextVar = cellVars;
+        for (int g = 0; g < groups.count; g++) {
+            int n = groups.size(g);
+            System.arraycopy(groups.lits, groups.start(g), lits, 0, n);
+            if (n == 1) {
+                units[unitCount++] = lits[0];
+            } else if (n <= PAIRWISE_LIMIT) {
+                exactlyOnePairwise(lits, n);
+            } else {
+                exactlyOneSequential(lits, n, nextVar);
+                nextVar += n - 1;
+            }
+        }
+
+        for (int i = 0; i < unitCount; i++) {
+            int value = litValue(units[i]);
+            if (value < 0) {
+                return false;
+            }
+            if (value == 0) {
+                enqueue(units[i], -1);
+            }
+        }
+        return propagate() < 0;
+    }
+
+/**
+ * Adds the clauses which say that exactly one of a few positive literals is
+ * true: that at least one is true, and that no two of them are.
+ *
+ * @param lits          the literals
+ * @param n             the number of literals, at least two
+ */
+    private void exactlyOnePairwise(final int[] lits, final int n) {
+        addClause(lits, n, 0);
+        int[] pair = new int[2];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                pair[0] = lits[i] ^ 1;
+                pair[1] = lits[j] ^ 1;
+                addClause(pair, 2, 0);
+            }
+        }
+    }
+
+/**
+ * Adds the clauses which say that exactly one of many positive literals is
+ * true, using a sequential counter for at most one.  Extra variable i is true
+ * if one of the literals up to i is true, so literal i + 1 must be false if it
+ * is.  The extra variables are never chosen by the search: once every cell
+ * variable is set without a conflict, propagation has already made sure that
+ * no two literals are true.
+ *
+ * @param lits          the literals
+ * @param n             the number of literals, more than two
+ * @param firstVar      the first of the n - 1 extra variables
+ */
+    private void exactlyOneSequential(final int[] lits, final int n, final int firstVar) {
+        addClause(lits, n, 0);
+        int[] pair = new int[2];
+        for (int i = 0; i < n; i++) {
+            int counter = 2 * (firstVar + i);
+            int previous = 2 * (firstVar + i - 1);
+            if (i < n - 1) {
+                pair[0] = lits[i] ^ 1;
+                pair[1] = counter;
+                addClause(pair, 2, 0);
+                if (i > 0) {
+                    pair[0] = previous ^ 1;
+                    pair[1] = counter;
+                    addClause(pair, 2, 0);
+                }
+            }
+            if (i > 0) {
+                pair[0] = lits[i] ^ 1;
+                pair[1] = previous ^ 1;
+                addClause(pair, 2, 0);
+            }
+        }
+    }
+
+/**
+ * Runs the search until every variable is set or a conflict is found at the
+ * top level.
+ *
+ * @return  true if the solution was found, false if there is none or the
+ *          search was cancelled
+ */
+    private boolean search() {
+        int restarts = 0;
+        long restartConflicts = RESTARTS.cutoff(0);
+        long conflictsSinceRestart = 0;
+        while (true) {
+            int conflict = propagate();
+            if (conflict >= 0) {
+                conflicts++;
+                conflictsSinceRestart++;
+                if (decisionLevel == 0) {
+                    return false;
+                }
+                int size = analyze(conflict);
+                backtrack((size > 1) ? level[learnt[1] >> 1] : 0);
+                if (size == 1) {
+                    enqueue(learnt[0], -1);
+                } else {
+                    enqueue(learnt[0], addLearned(size));
+                }
+                varIncrement /= VAR_DECAY;
+                clauseIncrement /= CLAUSE_DECAY;
+                continue;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            boolean full = learnedLiterals > maxLearnedLiterals;
+            if (full || (conflictsSinceRestart >= restartConflicts)) {
+                backtrack(0);
+                restartConflicts = RESTARTS.cutoff(++restarts);
+                conflictsSinceRestart = 0;
+                if (full && !reduce()) {
+                    return false;
+                }
+                continue;
+            }
+            int var = pickBranch();
+            if (var < 0) {
+                return true;
+            }
+            nodes++;
+            trailLimits[decisionLevel++] = trailSize;
+            enqueue(polarity[var] ? 2 * var : 2 * var + 1, -1);
+        }
+    }
+
+/**
+ * Propagates every literal on the trail which has not been propagated yet.
+ *
+ * @return  the clause which has become false, -1 if none
+ */
+    private int propagate() {
+        while (queueHead < trailSize) {
+            int falseLit = trail[queueHead++] ^ 1;
+            int[] list = watches[falseLit];
+            int n = watchCount[falseLit];
+            int i = 0;
+            int j = 0;
+            next:
+            while (i < n) {
+                int c = list[i++];
+                //keep the false literal second
+                if (arena[c] == falseLit) {
+                    arena[c] = arena[c + 1];
+                    arena[c + 1] = falseLit;
+                }
+                int first = arena[c];
+                if (litValue(first) > 0) {
+                    list[j++] = c;
+                    continue;
+                }
+                int size = arena[c - 2];
+                for (int k = 2; k < size; k++) {
+                    if (litValue(arena[c + k]) >= 0) {
+                        arena[c + 1] = arena[c + k];
+                        arena[c + k] = falseLit;
+                        watch(arena[c + 1], c);
+                        continue next;
+                    }
+                }
+                list[j++] = c;
+                if (litValue(first) < 0) {
+                    while (i < n) {
+                        list[j++] = list[i++];
+                    }
+                    watchCount[falseLit] = j;
+                    queueHead = trailSize;
+                    return c;
+                }
+                enqueue(first, c);
+            }
+            watchCount[falseLit] = j;
+        }
+        return -1;
+    }
+
+/**
+ * Finds the clause to learn from a conflict, cutting the implication graph at
+ * the first unique implication point.  The clause is left in learnt, with the
+ * literal it sets first and the literal set at the highest other level second.
+ *
+ * @param conflict  the clause which has become false
+ * @return          the number of literals in the learned clause
+ */
+    private int analyze(final int conflict) {
+        int size = 1;
+        int paths = 0;
+        int p = -1;
+        int index = trailSize - 1;
+        int c = conflict;
+        do {
+            bumpClause(c);
+            for (int k = (p < 0) ? 0 : 1; k < arena[c - 2]; k++) {
+                int q = arena[c + k];
+                int var = q >> 1;
+                if (!seen[var] && (level[var] > 0)) {
+                    bumpVar(var);
+                    seen[var] = true;
+                    if (level[var] >= decisionLevel) {
+                        paths++;
+                    } else {
+                        learnt[size++] = q;
+                    }
+                }
+            }
+            while (!seen[trail[index] >> 1]) {
+                index--;
+            }
+            p = trail[index--];
+            c = reason[p >> 1];
+            seen[p >> 1] = false;
+            paths--;
+        } while (paths > 0);
+        learnt[0] = p ^ 1;
+
+        //the literal set at the highest level goes second, to be watched
+        int highest = 1;
+        for (int k = 1; k < size; k++) {
+            seen[learnt[k] >> 1] = false;
+            if (level[learnt[k] >> 1] > level[learnt[highest] >> 1]) {
+                highest = k;
+            }
+        }
+        if (size > 1) {
+            int swap = learnt[1];
+            learnt[1] = learnt[highest];
+            learnt[highest] = swap;
+        }
+        return size;
+    }
+
+/**
+ * Unsets every variable set above a level.
+ *
+ * @param target    the level to go back to
+ */
+    private void backtrack(final int target) {
+        if (decisionLevel <= target) {
+            return;
+        }
+        for (int i = trailSize - 1; i >= trailLimits[target]; i--) {
+            int var = trail[i] >> 1;
+            polarity[var] = assigns[var] > 0;
+            assigns[var] = 0;
+            if ((var < cellVars) && (heapIndex[var] < 0)) {
+                heapInsert(var);
+            }
+        }
+        trailSize = trailLimits[target];
+        queueHead = trailSize;
+        decisionLevel = target;
+    }
+
+/**
+ * Returns the unset cell variable with the highest activity.
+ *
+ * @return  the variable, -1 if every cell variable is set
+ */
+    private int pickBranch() {
+        while (heapSize > 0) {
+            int var = heapRemoveMax();
+            if (assigns[var] == 0) {
+                return var;
+            }
+        }
+        return -1;
+    }
+
+/**
+ * Drops the less active half of the learned clauses, and simplifies every
+ * clause using the variables set at the top level.  The clauses are copied
+ * into a new arena and the watch lists are rebuilt.
+ *
+ * @return  false if a clause has become false, true otherwise
+ */
+    private boolean reduce() {
+        reductions++;
+        //keep the most active half, breaking ties in arena order
+        int keep = learnedCount / 2;
+        double[] sorted = Arrays.copyOf(learnedActivity, learnedCount);
+        Arrays.sort(sorted);
+        double threshold = (keep > 0) ? sorted[learnedCount - keep] : Double.MAX_VALUE;
+        int ties = keep;
+        for (int i = 0; i < learnedCount; i++) {
+            if (learnedActivity[i] > threshold) {
+                ties--;
+            }
+        }
+
+        int[] old = arena;
+        int oldSize = arenaSize;
+        double[] oldActivity = learnedActivity;
+        arena = new int[Math.max(1024, oldSize)];
+        arenaSize = 0;
+        Arrays.fill(watchCount, 0);
+        learned = new int[Math.max(64, learnedCount)];
+        learnedActivity = new double[learned.length];
+        learnedCount = 0;
+        learnedLiterals = 0;
+        for (int var = 0; var < reason.length; var++) {
+            reason[var] = -1;
+        }
+
+        int[] lits = new int[learnt.length];
+        int c = 2;
+        while (c <= oldSize) {
+            int size = old[c - 2];
+            int number = old[c - 1];
+            boolean kept = (number == 0) || (oldActivity[number - 1] > threshold);
+            if (!kept && (number != 0) && (oldActivity[number - 1] == threshold) && (ties > 0)) {
+                ties--;
+                kept = true;
+            }
+            if (kept) {
+                boolean satisfied = false;
+                int n = 0;
+                for (int k = 0; k < size; k++) {
+                    int value = litValue(old[c + k]);
+                    if (value > 0) {
+                        satisfied = true;
+                        break;
+                    }
+                    if (value == 0) {
+                        lits[n++] = old[c + k];
+                    }
+                }
+                if (!satisfied) {
+                    if (n == 0) {
+                        return false;
+                    }
+                    if (n == 1) {
+                        enqueue(lits[0], -1);
+                    } else {
+                        int added = addClause(lits, n, (number == 0) ? 0 : learnedCount + 1);
+                        if (number != 0) {
+                            learnedActivity[learnedCount] = oldActivity[number - 1];
+                            learned[learnedCount++] = added;
+                            learnedLiterals += n;
+                        }
+                    }
+                }
+            }
+            c += size + 2;
+        }
+        return propagate() < 0;
+    }
+
+/**
+ * Adds the clause in learnt as a learned clause.
+ *
+ * @param size  the number of literals
+ * @return      the clause
+ */
+    private int addLearned(final int size) {
+        if (learnedCount == learned.length) {
+            learned = Arrays.copyOf(learned, learnedCount * 2);
+            learnedActivity = Arrays.copyOf(learnedActivity, learnedCount * 2);
+        }
+        int c = addClause(learnt, size, learnedCount + 1);
+        learned[learnedCount] = c;
+        learnedActivity[learnedCount++] = clauseIncrement;
+        learnedLiterals += size;
+        return c;
+    }
+
+/**
+ * Adds a clause to the arena and watches its first two literals.
+ *
+ * @param lits      the literals
+ * @param n         the number of literals, at least two
+ * @param number    the learned clause number plus one, zero if the clause is
+ *                  not learned
+ * @return          the clause
+ */
+    private int addClause(final int[] lits, final int n, final int number) {
+        if (arenaSize + n + 2 > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + n + 2));
+        }
+        arena[arenaSize] = n;
+        arena[arenaSize + 1] = number;
+        int c = arenaSize + 2;
+        System.arraycopy(lits, 0, arena, c, n);
+        arenaSize = c + n;
+        watch(lits[0], c);
+        watch(lits[1], c);
+        return c;
+    }
+
+/**
+ * Adds a clause to the watch list of a literal.
+ *
+ * @param lit   the literal
+ * @param c     the clause
+ */
+    private void watch(final int lit, final int c) {
+        int[] list = watches[lit];
+        if (list == null) {
+            list = new int[4];
+            watches[lit] = list;
+        } else if (watchCount[lit] == list.length) {
+            list = Arrays.copyOf(list, list.length * 2);
+            watches[lit] = list;
+        }
+        list[watchCount[lit]++] = c;
+    }
+
+/**
+ * Sets a literal to true.
+ *
+ * @param lit       the literal
+ * @param from      the clause which set it, -1 for a decision or a literal set
+ *                  at the top level
+ */
+    private void enqueue(final int lit, final int from) {
+        int var = lit >> 1;
+        assigns[var] = ((lit & 1) == 0) ? (byte) 1 : (byte) -1;
+        level[var] = decisionLevel;
+        reason[var] = from;
+        trail[trailSize++] = lit;
+    }
+
+/**
+ * Returns the value of a literal.
+ *
+ * @param lit   the literal, twice the variable plus one if it is negated
+ * @return      1 if true, -1 if false and 0 if unset
+ */
+    private int litValue(final int lit) {
+        int value = assigns[lit >> 1];
+        return ((lit & 1) == 0) ? value : -value;
+    }
+
+/**
+ * Raises the activity of a variable taking part in a conflict.
+ *
+ * @param var   the variable
+ */
+    private void bumpVar(final int var) {
+        activity[var] += varIncrement;
+        if (activity[var] > RESCALE_LIMIT) {
+            for (int v = 0; v < activity.length; v++) {
+                activity[v] /= RESCALE_LIMIT;
+            }
+            varIncrement /= RESCALE_LIMIT;
+        }
+        if (heapIndex[var] >= 0) {
+            heapUp(heapIndex[var]);
+        }
+    }
+
+/**
+ * Raises the activity of a learned clause taking part in a conflict.
+ *
+ * @param c     the clause
+ */
+    private void bumpClause(final int c) {
+        int number = arena[c - 1];
+        if (number == 0) {
+            return;
+        }
+        learnedActivity[number - 1] += clauseIncrement;
+        if (learnedActivity[number - 1] > RESCALE_LIMIT) {
+            for (int i = 0; i < learnedCount; i++) {
+                learnedActivity[i] /= RESCALE_LIMIT;
+            }
+            clauseIncrement /= RESCALE_LIMIT;
+        }
+    }
+
+    private void heapInsert(final int var) {
+        heap[heapSize] = var;
+        heapIndex[var] = heapSize;
+        heapUp(heapSize++);
+    }
+
+    private int heapRemoveMax() {
+        int top = heap[0];
+        heapIndex[top] = -1;
+        int last = heap[--heapSize];
+        if (heapSize > 0) {
+            heap[0] = last;
+            heapIndex[last] = 0;
+            heapDown(0);
+        }
+        return top;
+    }
+
+    private void heapUp(final int from) {
+        int i = from;
+        int var = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >> 1;
+            if (activity[heap[parent]] >= activity[var]) {
+                break;
+            }
+            heap[i] = heap[parent];
+            heapIndex[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = var;
+        heapIndex[var] = i;
+    }
+
+    private void heapDown(final int from) {
+        int i = from;
+        int var = heap[i];
+        while (2 * i + 1 < heapSize) {
+            int child = 2 * i + 1;
+            if ((child + 1 < heapSize) && (activity[heap[child + 1]] > activity[heap[child]])) {
+                child++;
+            }
+            if (activity[heap[child]] <= activity[var]) {
+                break;
+            }
+            heap[i] = heap[child];
+            heapIndex[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = var;
+        heapIndex[var] = i;
+    }
+
+/**
+ * The groups of literals of which exactly one is true, stored one after
+ * another in a single array.
+ */
+    private static final class Groups {
+
+        private int[] lits;
+        private int[] ends;
+        private int count;
+
+        private Groups(final int dimSq) {
+            lits = new int[dimSq * dimSq];
+            ends = new int[dimSq];
+        }
+
+        private void add(final int[] from, final int n) {
+            int start = (count == 0) ? 0 : ends[count - 1];
+            if (start + n > lits.length) {
+                lits = Arrays.copyOf(lits, Math.max(2 * lits.length, start + n));
+            }
+            if (count == ends.length) {
+                ends = Arrays.copyOf(ends, 2 * count);
+            }
+            System.arraycopy(from, 0, lits, start, n);
+            ends[count++] = start + n;
+        }
+
+        private int start(final int group) {
+            return (group == 0) ? 0 : ends[group - 1];
+        }
+
+        private int size(final int group) {
+            return ends[group] - start(group);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package sudoku.solver;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import sudoku.items.Cell;
+import sudoku.items.Constraints;
+import sudoku.items.Grid;
+
+/**
+ * This class solves the problem as an exact cover problem, using Knuth's
+ * Algorithm X with dancing links.
+ *
+ * Every way of putting a value in a cell is a row of the cover matrix.  Each
+ * row covers four columns: one for the cell, and one each for the value in the
+ * cell's row, column and box.  A solution is a set of rows which covers every
+ * column exactly once.
+ *
+ * The links of the matrix are stored in int arrays rather than in node
+ * objects.  The empty matrix only depends on the dimension of the problem, so
+ * it is built once per dimension and cached.  Each call to solve() copies the
+ * cached arrays and then removes the rows which conflict with the constrained
+ * cells before starting the search.
+ *
+ * The search gives up without a result if the interrupt flag of its thread is
+ * set, so that it can be cancelled (see PortfolioEngine).
+ *
+ * @author Gary Mann
+ */
+public class DancingLinks {
+
+    private static final Map<Integer, Matrix> MATRICES =
+            new ConcurrentHashMap<Integer, Matrix>();
+
+    private final boolean printOutput;
+    private int dimSq;
+    private int firstRowNode;
+    private int[] left;
+    private int[] right;
+    private int[] up;
+    private int[] down;
+    private int[] column;
+    private int[] size;
+    private boolean[] covered;
+    private int[] solution;
+    private int depth;
+    private long nodes;
+
+/**
+ * Constructs a new DancingLinks solver.
+ *
+ * @param printOutput   true if running text output is required, false
+ *                      otherwise
+ */
+    public DancingLinks(final boolean printOutput) {
+        this.printOutput = printOutput;
+    }
+
+/**
+ * Searches for the solution of the problem given by a Constraints object.
+ *
+ * @param constraints   the Constraints object storing the constrained cells
+ * @return              a Constraints object containing the final result, null
+ *                      if there is no solution
+ */
+    public Constraints solve(final Constraints constraints) {
+        int dim = constraints.getDim();
+        Matrix matrix = MATRICES.computeIfAbsent(dim, new Function<Integer, Matrix>() {
+            @Override
+            public Matrix apply(final Integer key) {
+                return new Matrix(key.intValue());
+            }
+        });
+        dimSq = matrix.dimSq;
+        firstRowNode = matrix.columns + 1;
+        left = matrix.left.clone();
+        right = matrix.right.clone();
+        up = matrix.up.clone();
+        down = matrix.down.clone();
+        column = matrix.column;
+        size = matrix.size.clone();
+        covered = new boolean[matrix.columns + 1];
+        solution = new int[dimSq * dimSq];
+        depth = 0;
+        nodes = 0;
+
+        //select the row of every constrained cell
+        Grid grid = new Grid(dim);
+        for (Cell cell : constraints.getCells()) {
+            for (Integer value : cell.getValues()) {
+                int v = value.intValue();
+                if ((v < 1) || (v > dimSq)) {
+                    return null;
+                }
+                int row = (cell.getyCoord() * dimSq + cell.getxCoord()) * dimSq
+                          + v - 1;
+                if (!select(row)) {
+                    if (printOutput) {
+                        System.out.println("Constrained cell at x = "
+                                + (cell.getxCoord() + 1) + " y = "
+                                + (cell.getyCoord() + 1)
+                                + " conflicts with another constrained cell");
+                    }
+                    return null;
+                }
+                grid.set(cell.getxCoord(), cell.getyCoord(), v);
+            }
+        }
+
+        boolean found = search();
+        if (printOutput) {
+            if (found) {
+                System.out.println("Dancing links found the final solution after "
+                                   + nodes + " steps.");
+            } else if (Thread.currentThread().isInterrupted()) {
+                System.out.println("Dancing links was cancelled after "
+                                   + nodes + " steps.");
+            } else {
+                System.out.println("Dancing links proved there is no solution after "
+                                   + nodes + " steps.");
+            }
+        }
+        if (!found) {
+            return null;
+        }
+        for (int i = 0; i < depth; i++) {
+            int row = solution[i];
+            int cellIndex = row / dimSq;
+            grid.set(cellIndex % dimSq, cellIndex / dimSq, row % dimSq + 1);
+        }
+        return grid.toConstraints();
+    }
+
+/**
+ * Returns the number of search steps taken by the last call to solve().
+ *
+ * @return the number of search steps
+ */
+    public long getNodes() {
+        return nodes;
+    }
+
+/**
+ * Covers every column of a row, as if the row were part of the solution.
+ *
+ * @param row   the row to be selected
+ * @return      false if one of the columns of the row has already been
+ *              covered, true otherwise
+ */
+    private boolean select(final int row) {
+        int first = firstRowNode + 4 * row;
+        for (int i = 0; i < 4; i++) {
+            if (covered[column[first + i]]) {
+                return false;
+            }
+        }
+        for (int i = 0; i < 4; i++) {
+            cover(column[first + i]);
+        }
+        return true;
+    }
+
+/**
+ * Recursive Algorithm X search, always branching on the column with the fewest
+ * rows.
+ *
+ * @return true if a solution has been found, false otherwise
+ */
+    private boolean search() {
+        nodes++;
+        if (right[0] == 0) {
+            return true;
+        }
+        int best = right[0];
+        for (int c = right[best]; c != 0; c = right[c]) {
+            if (size[c] < size[best]) {
+                best = c;
+            }
+        }
+        if ((size[best] == 0) || Thread.currentThread().isInterrupted()) {
+            return false;
+        }
+        cover(best);
+        for (int r = down[best]; r != best; r = down[r]) {
+            solution[depth++] = (r - firstRowNode) / 4;
+            for (int j = right[r]; j != r; j = right[j]) {
+                cover(column[j]);
+            }
+            if (search()) {
+                return true;
+            }
+            for (int j = left[r]; j != r; j = left[j]) {
+                uncover(column[j]);
+            }
+            depth--;
+        }
+        uncover(best);
+        return false;
+    }
+
+/**
+ * Removes a column from the header list and removes every row in the column
+ * from the other columns.
+ *
+ * @param c     the column to be covered
+ */
+    private void cover(final int c) {
+        covered[c] = true;
+        right[left[c]] = right[c];
+        left[right[c]] = left[c];
+        for (int i = down[c]; i != c; i = down[i]) {
+            for (int j = right[i]; j != i; j = right[j]) {
+                down[up[j]] = down[j];
+                up[down[j]] = up[j];
+                size[column[j]]--;
+            }
+        }
+    }
+
+/**
+ * Reverses a call to cover().
+ *
+ * @param c     the column to be uncovered
+ */
+    private void uncover(final int c) {
+        for (int i = up[c]; i != c; i = up[i]) {
+            for (int j = left[i]; j != i; j = left[j]) {
+                size[column[j]]++;
+                down[up[j]] = j;
+                up[down[j]] = j;
+            }
+        }
+        right[left[c]] = c;
+        left[right[c]] = c;
+        covered[c] = false;
+    }
+
+/**
+ * The empty cover matrix for one dimension.
+ *
+ * Node 0 is the root, nodes 1 to columns are the column headers, and the four
+ * nodes of row r start at node columns + 1 + 4 * r.  Row r puts value
+ * (r % dimSq) + 1 in the cell with index r / dimSq.
+ */
+    private static final class Matrix {
+
+        private final int dimSq;
+        private final int columns;
+        private final int[] left;
+        private final int[] right;
+        private final int[] up;
+        private final int[] down;
+        private final int[] column;
+        private final int[] size;
+
+        private Matrix(final int dim) {
+            dimSq = dim * dim;
+            int cells = dimSq * dimSq;
+            columns = 4 * cells;
+            int rows = cells * dimSq;
+            int total = columns + 1 + 4 * rows;
+            left = new int[total];
+            right = new int[total];
+            up = new int[total];
+            down = new int[total];
+            column = new int[total];
+            size = new int[columns + 1];
+
+            for (int c = 0; c <= columns; c++) {
+                left[c] = (c == 0) ? columns : c - 1;
+                right[c] = (c == columns) ? 0 : c + 1;
+                up[c] = c;
+                down[c] = c;
+                column[c] = c;
+            }
+
+            int node = columns + 1;
+            for (int y = 0; y < dimSq; y++) {
+                for (int x = 0; x < dimSq; x++) {
+                    int box = (x / dim) * dim + (y / dim);
+                    for (int v = 0; v < dimSq; v++) {
+                        int[] rowColumns = {
+                            1 + y * dimSq + x,
+                            1 + cells + y * dimSq + v,
+                            1 + 2 * cells + x * dimSq + v,
+                            1 + 3 * cells + box * dimSq + v};
+                        for (int i = 0; i < 4; i++) {
+                            int c = rowColumns[i];
+                            int n = node + i;
+                            column[n] = c;
+                            left[n] = node + (i + 3) % 4;
+                            right[n] = node + (i + 1) % 4;
+                            up[n] = up[c];
+                            down[n] = c;
+                            down[up[c]] = n;
+                            up[c] = n;
+                            size[c]++;
+                        }
+                        node += 4;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package sudoku.solver;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import sudoku.exceptions.InvalidInputDataException;
+
+/**
+ * This class stores the table used by SelectorEngine to choose an engine from
+ * the features of a problem (see PuzzleFeatures).
+ *
+ * The table is read from a text file with one rule per line.  Each rule has
+ * five comma separated fields: the dimension, the number of clues, the number
+ * of empty cells and the average candidate count, followed by the name of the
+ * engine.  Each feature field is either "*", which matches anything, a single
+ * number, or a range such as "2.5-3.5" which includes both ends.  Blank lines
+ * and lines starting with "#" are ignored.  The first rule which matches a
+ * problem gives its engine, for example:
+ *
+ * <pre>
+ * # dim,clues,emptyCells,averageCandidates,engine
+ * 3,*,*,*,dancing-links
+ * *,*,*,*,portfolio
+ * </pre>
+ *
+ * A DecisionTable is never changed once it has been read, so it can be shared
+ * between threads.
+ *
+ * @author Gary Mann
+ */
+public class DecisionTable {
+
+    private final List<Rule> rules;
+
+/**
+ * Constructs a table from a list of rules.
+ *
+ * @param rules     the rules, in the order they are tested
+ */
+    private DecisionTable(final List<Rule> rules) {
+        this.rules = Collections.unmodifiableList(rules);
+    }
+
+/**
+ * Reads a table.
+ *
+ * @param reader                        the reader holding the table
+ * @return                              the table
+ * @throws IOException                  thrown if the table cannot be read
+ * @throws InvalidInputDataException    thrown if a line is not a valid rule
+ */
+    public static DecisionTable read(final Reader reader)
+    throws IOException, InvalidInputDataException {
+        List<Rule> rules = new ArrayList<Rule>();
+        BufferedReader lines = new BufferedReader(reader);
+        int lineNumber = 0;
+        for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(",");
+            if (fields.length != 5) {
+                throw new InvalidInputDataException("Decision table line " + lineNumber
+                                                    + " does not have 5 fields");
+            }
+            try {
+                rules.add(new Rule(new Range(fields[0]), new Range(fields[1]),
+                                   new Range(fields[2]), new Range(fields[3]),
+                                   fields[4].trim()));
+            } catch (NumberFormatException nfe) {
+                throw new InvalidInputDataException("Decision table line " + lineNumber
+                                                    + " has an invalid number: " + nfe.getMessage());
+            }
+        }
+        return new DecisionTable(rules);
+    }
+
+/**
+ * Returns the engine given by the first rule which matches a problem.
+ *
+ * @param features  the features of the problem
+ * @return          the name of the engine, null if no rule matches
+ */
+    public String select(final PuzzleFeatures features) {
+        for (Rule rule : rules) {
+            if (rule.matches(features)) {
+                return rule.engine;
+            }
+        }
+        return null;
+    }
+
+/**
+ * Returns the names of the engines used by the rules of this table.
+ *
+ * @return the engine of each rule, in order
+ */
+    public List<String> getEngines() {
+        List<String> engines = new ArrayList<String>();
+        for (Rule rule : rules) {
+            engines.add(rule.engine);
+        }
+        return engines;
+    }
+
+/**
+ * Returns the number of rules in this table.
+ *
+ * @return the number of rules
+ */
+    public int size() {
+        return rules.size();
+    }
+
+/**
+ * One line of the table.
+ */
+    private static class Rule {
+
+        private final Range dim;
+        private final Range clues;
+        private final Range emptyCells;
+        private final Range averageCandidates;
+        private final String engine;
+
+        Rule(final Range dim, final Range clues, final Range emptyCells,
+             final Range averageCandidates, final String engine) {
+            this.dim = dim;
+            this.clues = clues;
+            this.emptyCells = emptyCells;
+            this.averageCandidates = averageCandidates;
+            this.engine = engine;
+        }
+
+        boolean matches(final PuzzleFeatures features) {
+            return dim.contains(features.getDim())
+                   && clues.contains(features.getClues())
+                   && emptyCells.contains(features.getEmptyCells())
+                   && averageCandidates.contains(features.getAverageCandidates());
+        }
+    }
+
+/**
+ * The values matched by one field of a rule.
+ */
+    private static class Range {
+
+        private final double low;
+        private final double high;
+
+        Range(final String field) {
+            String text = field.trim();
+            if (text.equals("*")) {
+                low = Double.NEGATIVE_INFINITY;
+                high = Double.POSITIVE_INFINITY;
+            } else {
+                int dash = text.indexOf('-', 1);
+                if (dash < 0) {
+                    low = Double.parseDouble(text);
+                    high = low;
+                } else {
+                    low = Double.parseDouble(text.substring(0, dash).trim());
+                    high = Double.parseDouble(text.substring(dash + 1).trim());
+                }
+            }
+        }
+
+        boolean contains(final double value) {
+            return (value >= low) && (value <= high);
+        }
+    }
+}
@@ -1,217 +1,140 @@
 package sudoku.solver;
 
-import java.util.HashSet;
-import java.util.Set;
-import sudoku.items.Cell;
-import sudoku.items.Constraints;
-import sudoku.items.CurrentSolution;
+import sudoku.exceptions.BadCellException;
+import sudoku.items.Candidates;
+import sudoku.items.Grid;
+import sudoku.items.Units;
 
 /**
  * This class contains static methods which find new constrained values for
  * cells.
  *
  * The methods in this class look for cells which are the only ones in a row,
- * column or box which can take a particular value.
+ * column or box which can take a particular value.  They return the cells and
+ * values they find encoded as single ints, (y * dimSq + x) * dimSq + value - 1,
+ * so that no objects are created during a search.  findUniqueCells() finds
+ * every such cell in the columns, rows and boxes of a Grid in a single pass
+ * over its cells, or in a single unit.
  *
  * @author Gary Mann
  */
 public class Finder {
 
 /**
- * This method returns a cell which is the only one in a row which can take a
- * particular value.
+ * This method finds every cell in a Grid which is the only one in a column, row
+ * or box which can take a particular value.
  *
- * If such a cell exists, this method will return it with its value set
- * containing this value.
+ * Each unconstrained cell is read once.  For every column, row and box a mask
+ * of the values seen in at least one cell and a mask of the values seen in at
+ * least two cells are built up, so a value seen in one cell only is found
+ * without searching the unit again.  A cell which is the only one able to take
+ * two values is returned once for each value, so the caller should check each
+ * cell before setting it.
  *
- * @param currentSolution   the CurrentSolution object storing which values each
- *                          cell can take
- * @param constraints       Constraints object indicating which cells are
- *                          constrained
- * @return                  Cell which is the only one in a row which can take a
- *                          particular value, null if no such cell exists
+ * @param grid              the Grid storing the values each cell can take
+ * @param found             array which is filled with the cells and values
+ *                          found, encoded as (y * dimSq + x) * dimSq + value -
+ *                          1.  Its length must be at least three times the
+ *                          number of cells
+ * @return                  the number of cells and values found
+ * @throws BadCellException thrown if a value cannot be placed anywhere in a
+ *                          column, row or box
  */
-    public static Cell findUniqueCelly(final CurrentSolution currentSolution,
-                                       final Constraints constraints) {
-
-        int[] frequency = new int[constraints.getDimSq()];
-
-        //loop through all rows
-        for (int y = 0; y < constraints.getDimSq(); y++) {
-
-            //initialise frequency values to be zero
-            for (int i = 0; i < constraints.getDimSq(); i++) {
-                frequency[i] = 0;
+    public static int findUniqueCells(final Grid grid, final int[] found)
+    throws BadCellException {
+        int dim = grid.getDim();
+        int dimSq = grid.getDimSq();
+        long[] once = new long[3 * dimSq];
+        long[] twice = new long[3 * dimSq];
+        for (int y = 0; y < dimSq; y++) {
+            for (int x = 0; x < dimSq; x++) {
+                if (!grid.isConstrained(x, y)) {
+                    long values = grid.candidates(x, y);
+                    int box = 2 * dimSq + (x / dim) * dim + y / dim;
+                    twice[x] |= once[x] & values;
+                    once[x] |= values;
+                    twice[dimSq + y] |= once[dimSq + y] & values;
+                    once[dimSq + y] |= values;
+                    twice[box] |= once[box] & values;
+                    once[box] |= values;
+                }
             }
-
-            //for cells which are not constrained, increment the frequency for
-            //every value they can take
-           for (Cell possibleCell : currentSolution.getCells()) {
-               if (!constraints.getCells().contains(possibleCell)) {
-                    if (possibleCell.getyCoord() == y) {
-                       for (Integer value : possibleCell.getValues()) {
-                               frequency[value.intValue() - 1]++;
-                        }
-                    }
-               }
-           }
-
-           //loop through all values in the frequency array.  If the frequency
-           //for any value is exactly one, then find the cell which can take
-           //that value, set its allowable value to this value and return it
-           for (int i = 0; i < constraints.getDimSq(); i++) {
-               if (frequency[i] == 1) {
-                    for (Cell possibleCell : currentSolution.getCells()) {
-                        if (!constraints.getCells().contains(possibleCell)) {
-                            if (possibleCell.getyCoord() == y) {
-                                Integer val = new Integer(i + 1);
-                                if (possibleCell.getValues().contains(val)) {
-                                    Cell cell =
-                                        new Cell(possibleCell.getxCoord(), y);
-                                    Set<Integer> set = new HashSet<Integer>();
-                                    set.add(val);
-                                    cell.setValues(set);
-                                    return cell;
-                                }
-                            }
-                        }
-                    }
-               }
-           }
         }
-        return null;
-    }
 
-/**
- * This method returns a cell which is the only one in a box which can take a
- * particular value.
- *
- * If such a cell exists, this method will return it with its value set
- * containing this value.
- *
- * @param currentSolution   the CurrentSolution object storing which values each
- *                          cell can take
- * @param constraints       Constraints object indicating which cells are
- *                          constrained
- * @return                  Cell which is the only one in a box which can take a
- *                          particular value, null if no such cell exists
- */
-    public static Cell
-            findUniqueCellBoxes(final CurrentSolution currentSolution,
-                                final Constraints constraints) {
-        int dim = constraints.getDim();
-        int[] frequency = new int[constraints.getDimSq()];
-
-        //loop through all boxes
-        for (int box = 0; box < constraints.getDimSq(); box++) {
-
-           //initialise frequency values to be zero
-           for (int i = 0; i < constraints.getDimSq(); i++) {
-                frequency[i] = 0;
-           }
-
-           //for cells which are not constrained, increment the frequency for
-           //every value they can take
-           for (Cell possibleCell : currentSolution.getCells()) {
-               if (!constraints.getCells().contains(possibleCell)) {
-                    if (possibleCell.getBox(dim) == box) {
-                       for (Integer value : possibleCell.getValues()) {
-                               frequency[value.intValue() - 1]++;
-                        }
-                    }
-               }
-           }
+        //every value must either be used in a unit or be possible in one of its cells
+        Units units = Units.forDim(dim);
+        Candidates candidates = grid.getCandidates();
+        for (int unit = 0; unit < once.length; unit++) {
+            if ((once[unit] | units.getUsed(grid, unit)) != candidates.getFullMask()) {
+                throw new BadCellException();
+            }
+            once[unit] &= ~twice[unit];
+        }
 
-           //loop through all values in the frequency array.  If the frequency
-           //for any value is exactly one, then find the cell which can take
-           //that value, set its allowable value set to this value and return it
-           for (int i = 0; i < constraints.getDimSq(); i++) {
-               if (frequency[i] == 1) {
-                    for (Cell possibleCell : currentSolution.getCells()) {
-                        if (!constraints.getCells().contains(possibleCell)) {
-                            if (possibleCell.getBox(dim) == box) {
-                                Integer val = new Integer(i + 1);
-                                if (possibleCell.getValues().contains(val)) {
-                                    Cell cell =
-                                            new Cell(possibleCell.getxCoord(),
-                                                     possibleCell.getyCoord());
-                                    Set<Integer> set = new HashSet<Integer>();
-                                    set.add(val);
-                                    cell.setValues(set);
-                                    return cell;
-                                }
-                            }
-                        }
+        int count = 0;
+        for (int y = 0; y < dimSq; y++) {
+            for (int x = 0; x < dimSq; x++) {
+                if (!grid.isConstrained(x, y)) {
+                    int box = 2 * dimSq + (x / dim) * dim + y / dim;
+                    long unique = grid.candidates(x, y)
+                                  & (once[x] | once[dimSq + y] | once[box]);
+                    for (; unique != 0L; unique &= unique - 1) {
+                        found[count++] = grid.index(x, y) * dimSq
+                                         + Candidates.lowestValue(unique) - 1;
                     }
-               }
-           }
+                }
+            }
         }
-        return null;
+        return count;
     }
 
 /**
- * This method returns a cell which is the only one in a column which can take a
- * particular value.
- *
- * If such a cell exists, this method will return it with its value set
- * containing this value.
+ * This method finds every cell in one unit of a Grid which is the only one in
+ * the unit which can take a particular value.
  *
- * @param currentSolution   the CurrentSolution object storing which values each
- *                          cell can take
- * @param constraints       Constraints object indicating which cells are
- *                          constrained
- * @return                  Cell which is the only one in a column which can
- *                          take a particular value, null if no such cell exists
+ * @param grid              the Grid storing the values each cell can take
+ * @param units             the layout of the units of the Grid
+ * @param unit              the unit to be searched
+ * @param found             array to which the cells and values found are
+ *                          added, encoded as in findUniqueCells(Grid, int[])
+ * @param count             the number of cells and values already in the array
+ * @return                  the number of cells and values in the array after
+ *                          this search
+ * @throws BadCellException thrown if a value cannot be placed anywhere in the
+ *                          unit
  */
-    public static Cell findUniqueCellx(final CurrentSolution currentSolution,
-                                       final Constraints constraints) {
-
-        int[] frequency = new int[constraints.getDimSq()];
-
-        //loop through all columns
-        for (int x = 0; x < constraints.getDimSq(); x++) {
-
-           //initialise frequency values to be zero
-           for (int i = 0; i < constraints.getDimSq(); i++) {
-                frequency[i] = 0;
-           }
-
-           //for cells which are not constrained, increment the frequency for
-           //every value they can take
-           for (Cell possibleCell : currentSolution.getCells()) {
-               if (!constraints.getCells().contains(possibleCell)) {
-                    if (possibleCell.getxCoord() == x) {
-                       for (Integer value : possibleCell.getValues()) {
-                               frequency[value.intValue() - 1]++;
-                        }
-                    }
-               }
-           }
-
-           //loop through all values in the frequency array.  If the frequency
-           //for any value is exactly one, then find the cell which can take
-           //that value, set its allowable value set to this value and return it
-           for (int i = 0; i < constraints.getDimSq(); i++) {
-               if (frequency[i] == 1) {
-                    for (Cell possibleCell : currentSolution.getCells()) {
-                        if (!constraints.getCells().contains(possibleCell)) {
-                            if (possibleCell.getxCoord() == x) {
-                                Integer val = new Integer(i + 1);
-                                if (possibleCell.getValues().contains(val)) {
-                                    Cell cell =
-                                          new Cell(x, possibleCell.getyCoord());
-                                    Set<Integer> set = new HashSet<Integer>();
-                                    set.add(val);
-                                    cell.setValues(set);
-                                    return cell;
-                                }
-                            }
-                        }
-                    }
-               }
-           }
+    static int findUniqueCells(final Grid grid, final Units units,
+                               final int unit, final int[] found,
+                               final int count) throws BadCellException {
+        int dimSq = grid.getDimSq();
+        int[] cells = units.getUnit(unit);
+        long once = 0L;
+        long twice = 0L;
+        for (int index : cells) {
+            if (grid.get(index) == 0) {
+                long values = grid.candidates(index);
+                twice |= once & values;
+                once |= values;
+            }
+        }
+        if ((once | units.getUsed(grid, unit)) != grid.getCandidates().getFullMask()) {
+            throw new BadCellException();
+        }
+        int total = count;
+        long unique = once & ~twice;
+        for (int index : cells) {
+            if (unique == 0L) {
+                break;
+            }
+            if (grid.get(index) == 0) {
+                long value = grid.candidates(index) & unique;
+                if (value != 0L) {
+                    found[total++] = index * dimSq + Candidates.lowestValue(value) - 1;
+                    unique &= ~value;
+                }
+            }
         }
-        return null;
+        return total;
     }
 
 }
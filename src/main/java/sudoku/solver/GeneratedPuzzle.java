@@ -0,0 +1,70 @@
+package sudoku.solver;
+
+import sudoku.items.Constraints;
+import sudoku.items.Grid;
+
+/**
+ * This class stores a problem made by the Generator: its constrained cells,
+ * its only solution, and how hard it is.
+ *
+ * @author Gary Mann
+ */
+public class GeneratedPuzzle {
+
+    private final Constraints givens;
+    private final Grid solution;
+    private final int clues;
+    private final int difficulty;
+
+/**
+ * Constructs a generated problem.
+ *
+ * @param givens        the constrained cells of the problem
+ * @param solution      the only solution of the problem
+ * @param clues         the number of constrained cells
+ * @param difficulty    how hard the problem is (see Difficulty)
+ */
+    public GeneratedPuzzle(final Constraints givens, final Grid solution,
+                           final int clues, final int difficulty) {
+        this.givens = givens;
+        this.solution = solution;
+        this.clues = clues;
+        this.difficulty = difficulty;
+    }
+
+/**
+ * Returns the constrained cells of the problem.
+ *
+ * @return the givens
+ */
+    public Constraints getGivens() {
+        return givens;
+    }
+
+/**
+ * Returns the only solution of the problem.
+ *
+ * @return the solved Grid
+ */
+    public Grid getSolution() {
+        return solution;
+    }
+
+/**
+ * Returns the number of constrained cells.
+ *
+ * @return the number of clues
+ */
+    public int getClues() {
+        return clues;
+    }
+
+/**
+ * Returns how hard the problem is.
+ *
+ * @return the difficulty (see Difficulty)
+ */
+    public int getDifficulty() {
+        return difficulty;
+    }
+}
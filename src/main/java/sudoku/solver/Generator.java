@@ -0,0 +1,368 @@
+package sudoku.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+import sudoku.exceptions.BadCellException;
+import sudoku.items.Candidates;
+import sudoku.items.Grid;
+import sudoku.util.Difficulty;
+
+/**
+ * This class makes new problems which have exactly one solution.
+ *
+ * Each problem starts from a full grid made by applying random symmetries to
+ * one of a few seed grids of its dimension: the values are relabelled, the
+ * rows are shuffled within their bands and the bands shuffled, the columns
+ * likewise within their stacks, and the grid may be transposed.  Every one of
+ * these keeps a solution valid.  The seed grids are the pattern grid and a few
+ * grids filled by random searches, made once for each dimension and cached.
+ *
+ * Clues are then removed in random order.  A clue can be removed if the
+ * problem still has only one solution, which is checked incrementally: the
+ * problem without the clue has another solution only if it has one in which
+ * the cell does not take its old value, so the old value is eliminated from the
+ * cell and a single search for any solution is made on the same Grid, which is
+ * then rolled back using the undo trail.  Removing stops when the target number
+ * of clues is reached or no clue can be removed.
+ *
+ * The difficulty of a problem is given by the Grader, from the hardest logical
+ * step it needs.  Removing a clue never makes a problem easier, so when a
+ * difficulty is asked for, no clue is removed which would make the problem
+ * harder, and a full grid which ends up too easy is thrown away and another
+ * tried, up to a number of attempts.  If no attempt meets the targets, the
+ * closest problem found is returned.
+ *
+ * Many problems are made at once by running one task per problem on a pool.
+ * Each problem uses a generator made from the seed and its number, so the same
+ * seed always gives the same problems.
+ *
+ * @author Gary Mann
+ */
+public class Generator {
+
+    /** The number of full grids tried for each problem when none is given. */
+    public static final int DEFAULT_ATTEMPTS = 20;
+
+    private static final int RANDOM_SEED_GRIDS = 3;
+    private static final long SEED_GRID_NODES = 100000L;
+    private static final Map<Integer, List<int[]>> SEED_GRIDS =
+            new ConcurrentHashMap<Integer, List<int[]>>();
+
+    private final ForkJoinPool pool;
+    private final int attempts;
+
+/**
+ * Constructs a Generator which tries DEFAULT_ATTEMPTS full grids for each
+ * problem.
+ *
+ * @param pool      the pool which makes the problems
+ */
+    public Generator(final ForkJoinPool pool) {
+        this(pool, DEFAULT_ATTEMPTS);
+    }
+
+/**
+ * Constructs a Generator.
+ *
+ * @param pool      the pool which makes the problems
+ * @param attempts  the number of full grids tried for each problem before the
+ *                  closest one is returned
+ */
+    public Generator(final ForkJoinPool pool, final int attempts) {
+        this.pool = pool;
+        this.attempts = attempts;
+    }
+
+/**
+ * Makes a number of problems in parallel.
+ *
+ * @param dim           the dimension of the problems
+ * @param count         the number of problems
+ * @param targetClues   the number of clues wanted, zero for as few as
+ *                      possible
+ * @param difficulty    the difficulty wanted (see Difficulty), ANY for any
+ * @param seed          the seed of the generators of the problems
+ * @return              the problems, in the same order for the same seed
+ */
+    public List<GeneratedPuzzle> generate(final int dim, final int count,
+                                          final int targetClues, final int difficulty,
+                                          final long seed) {
+        List<ForkJoinTask<GeneratedPuzzle>> tasks = new ArrayList<ForkJoinTask<GeneratedPuzzle>>();
+        for (int i = 0; i < count; i++) {
+            final SplittableRandom random = Solver.trialRandom(seed, i);
+            tasks.add(pool.submit(new Callable<GeneratedPuzzle>() {
+                @Override
+                public GeneratedPuzzle call() {
+                    return generate(dim, targetClues, difficulty, random);
+                }
+            }));
+        }
+        List<GeneratedPuzzle> puzzles = new ArrayList<GeneratedPuzzle>(count);
+        try {
+            for (ForkJoinTask<GeneratedPuzzle> task : tasks) {
+                puzzles.add(task.get());
+            }
+        } catch (InterruptedException ie) {
+            for (ForkJoinTask<GeneratedPuzzle> task : tasks) {
+                task.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ee) {
+            throw new IllegalStateException("Generator failed", ee.getCause());
+        }
+        return puzzles;
+    }
+
+/**
+ * Makes one problem on the calling thread.
+ *
+ * @param dim           the dimension of the problem
+ * @param targetClues   the number of clues wanted, zero for as few as
+ *                      possible
+ * @param difficulty    the difficulty wanted (see Difficulty), ANY for any
+ * @param random        the generator used for every random choice
+ * @return              the problem, or the closest to the targets found
+ */
+    public GeneratedPuzzle generate(final int dim, final int targetClues,
+                                    final int difficulty, final SplittableRandom random) {
+        Grader grader = new Grader(dim);
+        Propagator propagator = new Propagator(dim);
+        Backtracker backtracker = new Backtracker(false);
+        GeneratedPuzzle best = null;
+        for (int attempt = 0; (attempt < attempts) && !Thread.currentThread().isInterrupted(); attempt++) {
+            int[] full = fullGrid(dim, random);
+            Grid puzzle = new Grid(dim);
+            for (int index = 0; index < full.length; index++) {
+                puzzle.set(index, full[index]);
+            }
+            int clues = dig(puzzle, full, targetClues, difficulty, random, propagator,
+                            backtracker, grader);
+            int grade = grader.grade(puzzle).getDifficulty();
+            Grid solution = new Grid(dim);
+            for (int index = 0; index < full.length; index++) {
+                solution.set(index, full[index]);
+            }
+            GeneratedPuzzle found = new GeneratedPuzzle(puzzle.toConstraints(), solution,
+                                                        clues, grade);
+            if ((best == null) || (distance(found, targetClues, difficulty)
+                                   < distance(best, targetClues, difficulty))) {
+                best = found;
+            }
+            if (distance(best, targetClues, difficulty) == 0) {
+                break;
+            }
+        }
+        return best;
+    }
+
+/**
+ * Returns the difficulty of a problem (see Difficulty).
+ *
+ * @param puzzle    the Grid storing the constrained cells of the problem,
+ *                  which is left as it was
+ * @return          the difficulty given by a Grader
+ */
+    public static int grade(final Grid puzzle) {
+        return new Grader(puzzle.getDim()).grade(puzzle).getDifficulty();
+    }
+
+/**
+ * Removes clues from a full Grid in random order while the problem has only
+ * one solution and is no harder than the difficulty wanted.
+ *
+ * @param puzzle        the Grid, from which the clues are removed
+ * @param full          the solution
+ * @param targetClues   the number of clues wanted, zero for as few as
+ *                      possible
+ * @param difficulty    the difficulty wanted, ANY for any
+ * @param random        the generator which orders the cells
+ * @param propagator    the Propagator used by the uniqueness checks
+ * @param backtracker   the Backtracker used by the uniqueness checks
+ * @param grader        the Grader which grades the problem
+ * @return              the number of clues left
+ */
+    private static int dig(final Grid puzzle, final int[] full, final int targetClues,
+                           final int difficulty, final SplittableRandom random,
+                           final Propagator propagator, final Backtracker backtracker,
+                           final Grader grader) {
+        int[] order = new int[full.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        shuffle(order, random);
+        int clues = full.length;
+        for (int index : order) {
+            if ((targetClues > 0) && (clues <= targetClues)) {
+                break;
+            }
+            int mark = puzzle.mark();
+            puzzle.set(index, 0);
+            if (isUnique(puzzle, index, full[index], propagator, backtracker)
+                    && ((difficulty == Difficulty.ANY) || (grader.grade(puzzle).getDifficulty() <= difficulty))) {
+                clues--;
+            } else {
+                puzzle.undo(mark);
+            }
+        }
+        return clues;
+    }
+
+/**
+ * Returns whether a problem which had only one solution still has only one
+ * after a clue is removed, by searching for a solution in which the cell does
+ * not take its old value.  A search which gives up, for example because its
+ * thread is interrupted, has not proved anything, so the problem is not taken
+ * to have only one solution.
+ *
+ * @param puzzle        the Grid without the clue, which is left as it was
+ * @param index         the index of the cell whose clue was removed
+ * @param value         the old value of the cell
+ * @param propagator    the Propagator used to set the cells
+ * @param backtracker   the Backtracker which searches
+ * @return              true if there is proved to be still only one solution,
+ *                      false if there is more than one or the search gave up
+ */
+    static boolean isUnique(final Grid puzzle, final int index, final int value,
+                           final Propagator propagator,
+                           final Backtracker backtracker) {
+        int mark = puzzle.mark();
+        try {
+            puzzle.eliminate(index, Candidates.bit(value));
+            propagator.propagate(puzzle, false);
+            return !backtracker.search(puzzle, propagator) && !backtracker.gaveUp();
+        } catch (BadCellException bce) {
+            return true;
+        } finally {
+            puzzle.undo(mark);
+        }
+    }
+
+/**
+ * Returns how far a problem is from the targets, the difference in difficulty
+ * counting for more than any difference in clues.
+ */
+    private static long distance(final GeneratedPuzzle puzzle, final int targetClues,
+                                 final int difficulty) {
+        long clues = (targetClues > 0) ? Math.max(0, puzzle.getClues() - targetClues) : 0;
+        long grade = (difficulty == Difficulty.ANY) ? 0 : Math.abs(puzzle.getDifficulty() - difficulty);
+        return grade * Integer.MAX_VALUE + clues;
+    }
+
+/**
+ * Returns a random full grid made by applying random symmetries to a seed
+ * grid.
+ *
+ * @param dim       the dimension
+ * @param random    the generator
+ * @return          the values of the cells, indexed by y * dimSq + x
+ */
+    static int[] fullGrid(final int dim, final SplittableRandom random) {
+        List<int[]> seeds = seedGrids(dim);
+        int[] seed = seeds.get(random.nextInt(seeds.size()));
+        int dimSq = dim * dim;
+        int[] values = permutation(dimSq, random);
+        int[] rows = bandPermutation(dim, random);
+        int[] columns = bandPermutation(dim, random);
+        boolean transpose = random.nextBoolean();
+        int[] full = new int[seed.length];
+        for (int y = 0; y < dimSq; y++) {
+            for (int x = 0; x < dimSq; x++) {
+                int from = transpose ? columns[x] * dimSq + rows[y] : rows[y] * dimSq + columns[x];
+                full[y * dimSq + x] = values[seed[from] - 1] + 1;
+            }
+        }
+        return full;
+    }
+
+/**
+ * Returns the seed grids of a dimension, making them the first time.  Threads
+ * asking for a new dimension at the same time wait for one of them to make the
+ * grids rather than each making its own.
+ */
+    private static List<int[]> seedGrids(final int dim) {
+        return SEED_GRIDS.computeIfAbsent(dim, new Function<Integer, List<int[]>>() {
+            @Override
+            public List<int[]> apply(final Integer key) {
+                return makeSeedGrids(key.intValue());
+            }
+        });
+    }
+
+/**
+ * Makes the seed grids of a dimension: the pattern grid and the grids found by
+ * a few random searches.
+ */
+    private static List<int[]> makeSeedGrids(final int dim) {
+        int dimSq = dim * dim;
+        List<int[]> seeds = new ArrayList<int[]>();
+        int[] pattern = new int[dimSq * dimSq];
+        for (int y = 0; y < dimSq; y++) {
+            for (int x = 0; x < dimSq; x++) {
+                pattern[y * dimSq + x] = ((y % dim) * dim + y / dim + x) % dimSq + 1;
+            }
+        }
+        seeds.add(pattern);
+        Propagator propagator = new Propagator(dim);
+        for (int i = 0; i < RANDOM_SEED_GRIDS; i++) {
+            Grid grid = new Grid(dim);
+            Backtracker backtracker = new Backtracker(false);
+            if (backtracker.search(grid, propagator, new SplittableRandom(i), SEED_GRID_NODES)) {
+                int[] values = new int[grid.getSize()];
+                for (int index = 0; index < values.length; index++) {
+                    values[index] = grid.get(index);
+                }
+                seeds.add(values);
+            }
+        }
+        return seeds;
+    }
+
+/**
+ * Returns a random order of the rows (or columns) which keeps each band
+ * together.
+ */
+    private static int[] bandPermutation(final int dim, final SplittableRandom random) {
+        int[] bands = permutation(dim, random);
+        int[] order = new int[dim * dim];
+        for (int band = 0; band < dim; band++) {
+            int[] within = permutation(dim, random);
+            for (int i = 0; i < dim; i++) {
+                order[band * dim + i] = bands[band] * dim + within[i];
+            }
+        }
+        return order;
+    }
+
+/**
+ * Returns a random permutation of 0 to n - 1.
+ */
+    private static int[] permutation(final int n, final SplittableRandom random) {
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        shuffle(order, random);
+        return order;
+    }
+
+/**
+ * Shuffles an array in place (Fisher-Yates).
+ */
+    private static void shuffle(final int[] array, final SplittableRandom random) {
+        for (int i = array.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = array[i];
+            array[i] = array[j];
+            array[j] = swap;
+        }
+    }
+}
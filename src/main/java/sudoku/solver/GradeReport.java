@@ -0,0 +1,105 @@
+package sudoku.solver;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * This class stores the grade of a problem given by the Grader: the steps it
+ * needed and how often, and the rating and difficulty they give.  A problem
+ * whose steps led to a contradiction has no solution, so its rating and
+ * difficulty, which are those of a problem needing a search, mean nothing and
+ * it should be reported as having no solution instead.
+ *
+ * @author Gary Mann
+ */
+public class GradeReport {
+
+    private final boolean solved;
+    private final boolean contradiction;
+    private final int rating;
+    private final int difficulty;
+    private final Map<String, Long> steps;
+
+/**
+ * Constructs the grade of a problem.
+ *
+ * @param solved        true if the problem was solved without searching
+ * @param rating        ten times the numeric grade
+ * @param difficulty    the difficulty (see Difficulty)
+ * @param steps         the number of times each step was used, in the order
+ *                      the steps are tried
+ */
+    public GradeReport(final boolean solved, final int rating, final int difficulty,
+                       final Map<String, Long> steps) {
+        this(solved, false, rating, difficulty, steps);
+    }
+
+/**
+ * Constructs the grade of a problem whose steps may have led to a
+ * contradiction.
+ *
+ * @param solved        true if the problem was solved without searching
+ * @param contradiction true if the steps showed the problem has no solution
+ * @param rating        ten times the numeric grade
+ * @param difficulty    the difficulty (see Difficulty)
+ * @param steps         the number of times each step was used, in the order
+ *                      the steps are tried
+ */
+    public GradeReport(final boolean solved, final boolean contradiction, final int rating,
+                       final int difficulty, final Map<String, Long> steps) {
+        this.solved = solved;
+        this.contradiction = contradiction;
+        this.rating = rating;
+        this.difficulty = difficulty;
+        this.steps = Collections.unmodifiableMap(steps);
+    }
+
+/**
+ * Returns whether the problem was solved without searching.
+ *
+ * @return true if the strategies solved the problem, false otherwise
+ */
+    public boolean isSolved() {
+        return solved;
+    }
+
+/**
+ * Returns whether the steps led to a contradiction, which proves the problem
+ * has no solution.
+ *
+ * @return true if the problem has no solution, false otherwise
+ */
+    public boolean hasContradiction() {
+        return contradiction;
+    }
+
+/**
+ * Returns the numeric grade of the problem: the rating of its hardest step
+ * divided by ten, or Grader.SEARCH_RATING divided by ten if it needs a search.
+ *
+ * @return the numeric grade
+ */
+    public double getRating() {
+        return rating / 10.0;
+    }
+
+/**
+ * Returns the difficulty of the problem.
+ *
+ * @return the difficulty (see Difficulty)
+ */
+    public int getDifficulty() {
+        return difficulty;
+    }
+
+/**
+ * Returns the number of times each step was used, for the steps used at least
+ * once.  The singles count cells set, the strategies count the times they
+ * eliminated values.
+ *
+ * @return unmodifiable map from the name of each step to its number of uses
+ */
+    public Map<String, Long> getSteps() {
+        return steps;
+    }
+}
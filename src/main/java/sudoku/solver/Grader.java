@@ -0,0 +1,222 @@
+package sudoku.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import sudoku.exceptions.BadCellException;
+import sudoku.items.Constraints;
+import sudoku.items.Grid;
+import sudoku.solver.strategy.Strategies;
+import sudoku.solver.strategy.Strategy;
+import sudoku.util.Difficulty;
+
+/**
+ * This class grades how hard a problem is from the logical steps needed to
+ * solve it, without searching and without timing anything.
+ *
+ * The problem is propagated with every advanced strategy, tried in order of
+ * rating so that each step is the simplest one available: the Propagator sets
+ * every hidden single it can find, and a naked single only when there is no
+ * hidden single, before any strategy is tried, and tries the strategies again
+ * from the first after any of them eliminates a value.  Its counts then record
+ * which steps were needed and how often, so a problem which hidden singles
+ * alone can solve is rated HIDDEN_SINGLE_RATING.
+ *
+ * The numeric grade is the rating of the hardest step used (see
+ * Strategy.getRating()) divided by ten, so the same problem always gets the same
+ * grade.  A problem the strategies cannot solve gets SEARCH_RATING, above every
+ * strategy.  The grade is put into a difficulty as follows:
+ *
+ * easy:        singles only, up to NAKED_SINGLE_RATING.
+ * medium:      up to MEDIUM_RATING: pointing and claiming, naked and hidden
+ *              pairs and the X-Wing.
+ * hard:        any other strategy.
+ * expert:      a search is needed.
+ *
+ * A problem whose steps lead to a contradiction has no solution.  It is given
+ * the grade of a problem needing a search, but its report says it has a
+ * contradiction, so that it is not taken for an expert problem.
+ *
+ * A Grader allocates its Propagator once, so a single Grader should be reused
+ * for every problem of the same dimension, one Grader for each thread.  A large
+ * batch of problems can be graded by gradeAll(), which splits the batch between
+ * one task for each thread of a pool, each task with its own Graders.
+ *
+ * @author Gary Mann
+ */
+public class Grader {
+
+    /** The rating of a cell which is the only one of a unit to take a value. */
+    public static final int HIDDEN_SINGLE_RATING = 12;
+    /** The rating of a cell which can take only one value. */
+    public static final int NAKED_SINGLE_RATING = 23;
+    /** The highest rating of a medium problem. */
+    public static final int MEDIUM_RATING = 34;
+    /** The rating of a problem which needs a search. */
+    public static final int SEARCH_RATING = 100;
+
+    private final int dim;
+    private final Propagator propagator;
+
+/**
+ * Constructs a Grader for problems of a given dimension.
+ *
+ * @param dim   the dimension of the problems
+ */
+    public Grader(final int dim) {
+        this.dim = dim;
+        List<Strategy> strategies = new ArrayList<Strategy>(Strategies.advanced());
+        Collections.sort(strategies, new Comparator<Strategy>() {
+            @Override
+            public int compare(final Strategy s1, final Strategy s2) {
+                return Integer.compare(s1.getRating(), s2.getRating());
+            }
+        });
+        propagator = new Propagator(dim, Collections.unmodifiableList(strategies), null, true);
+    }
+
+/**
+ * Grades a problem.
+ *
+ * @param puzzle    the initial constraints, which are not changed
+ * @return          the grade
+ */
+    public GradeReport grade(final Constraints puzzle) {
+        return grade(new Grid(puzzle));
+    }
+
+/**
+ * Grades a problem stored in a Grid.
+ *
+ * @param puzzle    the Grid storing the constrained cells of the problem,
+ *                  which is left as it was
+ * @return          the grade
+ */
+    public GradeReport grade(final Grid puzzle) {
+        if (puzzle.getDim() != dim) {
+            throw new IllegalArgumentException("Grader for dimension " + dim
+                                               + " given a problem of dimension " + puzzle.getDim());
+        }
+        propagator.resetCounts();
+        boolean solved;
+        boolean contradiction = false;
+        int mark = puzzle.mark();
+        try {
+            propagator.propagate(puzzle, false);
+            solved = puzzle.isComplete();
+        } catch (BadCellException bce) {
+            solved = false;
+            contradiction = true;
+        } finally {
+            puzzle.undo(mark);
+        }
+
+        Map<String, Long> steps = new LinkedHashMap<String, Long>();
+        int rating = 0;
+        if (propagator.getHiddenSingles() > 0) {
+            steps.put("hidden single", propagator.getHiddenSingles());
+            rating = HIDDEN_SINGLE_RATING;
+        }
+        if (propagator.getNakedSingles() > 0) {
+            steps.put("naked single", propagator.getNakedSingles());
+            rating = NAKED_SINGLE_RATING;
+        }
+        List<Strategy> strategies = propagator.getStrategies();
+        for (int i = 0; i < strategies.size(); i++) {
+            long uses = propagator.getStrategyUses(i);
+            if (uses > 0) {
+                steps.put(strategies.get(i).getName(), uses);
+                rating = Math.max(rating, strategies.get(i).getRating());
+            }
+        }
+        if (!solved) {
+            return new GradeReport(false, contradiction, SEARCH_RATING, Difficulty.EXPERT, steps);
+        }
+        int difficulty = (rating <= NAKED_SINGLE_RATING) ? Difficulty.EASY
+                       : (rating <= MEDIUM_RATING) ? Difficulty.MEDIUM : Difficulty.HARD;
+        return new GradeReport(true, rating, difficulty, steps);
+    }
+
+/**
+ * Grades a list of problems of this Grader's dimension, reusing the same
+ * Propagator for all of them.
+ *
+ * @param puzzles   the initial constraints of each problem, which are not
+ *                  changed
+ * @return          a grade for each problem, in the same order
+ */
+    public List<GradeReport> grade(final List<Constraints> puzzles) {
+        List<GradeReport> reports = new ArrayList<GradeReport>(puzzles.size());
+        for (Constraints puzzle : puzzles) {
+            reports.add(grade(puzzle));
+        }
+        return reports;
+    }
+
+/**
+ * Grades a batch of problems on a pool.  The batch is split into one range of
+ * problems for each thread of the pool, and each range is graded by one task
+ * using a Grader for each dimension it meets.
+ *
+ * @param puzzles   the initial constraints of each problem, which are not
+ *                  changed
+ * @param pool      the pool which grades the problems
+ * @return          a grade for each problem, in the same order
+ */
+    public static List<GradeReport> gradeAll(final List<Constraints> puzzles,
+                                             final ForkJoinPool pool) {
+        final GradeReport[] reports = new GradeReport[puzzles.size()];
+        int tasks = Math.max(1, Math.min(pool.getParallelism(), puzzles.size()));
+        List<ForkJoinTask<?>> futures = new ArrayList<ForkJoinTask<?>>();
+        for (int t = 0; t < tasks; t++) {
+            final int from = (int) ((long) puzzles.size() * t / tasks);
+            final int to = (int) ((long) puzzles.size() * (t + 1) / tasks);
+            futures.add(pool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    Map<Integer, Grader> graders = new HashMap<Integer, Grader>();
+                    for (int i = from; (i < to) && !Thread.currentThread().isInterrupted(); i++) {
+                        Constraints puzzle = puzzles.get(i);
+                        Grader grader = graders.get(puzzle.getDim());
+                        if (grader == null) {
+                            grader = new Grader(puzzle.getDim());
+                            graders.put(puzzle.getDim(), grader);
+                        }
+                        reports[i] = grader.grade(puzzle);
+                    }
+                }
+            }));
+        }
+        try {
+            for (ForkJoinTask<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException ie) {
+            for (ForkJoinTask<?> future : futures) {
+                future.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ee) {
+            throw new IllegalStateException("Grader failed", ee.getCause());
+        }
+        return Arrays.asList(reports);
+    }
+
+/**
+ * Returns the dimension of the problems graded.
+ *
+ * @return the dimension
+ */
+    public int getDim() {
+        return dim;
+    }
+}
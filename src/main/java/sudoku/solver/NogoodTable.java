@@ -0,0 +1,230 @@
+package sudoku.solver;
+
+import sudoku.exceptions.BadCellException;
+import sudoku.items.Candidates;
+import sudoku.items.Grid;
+
+/**
+ * This class remembers the assignments the two degree of freedom trials have
+ * proved to be wrong, so that later trials do not test them again.
+ *
+ * A single assignment, a value for one cell, is refuted when setting it alone
+ * leads to a BadCellException, or when every value of the other cell of a trial
+ * is refuted with it.  Refuted singles are stored as a mask of values for each
+ * cell, and are eliminated from the starting Grid of the trials before the next
+ * trial, so no later trial can pick them.
+ *
+ * A pair of assignments is refuted when setting both leads to a
+ * BadCellException, or when a search from them ends without a solution before
+ * its cutoff.  Refuted pairs are stored as longs in an open addressing hash set,
+ * and a trial skips any pair it finds in the set.  The number of pairs looked up
+ * and the number found are counted, giving the hit rate of the table.
+ *
+ * Every assignment is refuted relative to the starting Grid of the trials, which
+ * is only ever reduced, so the table stays true for every later trial.  A table
+ * is used by one thread only.
+ *
+ * @author Gary Mann
+ */
+public class NogoodTable {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int dimSq;
+    private final long[] singles;
+    private long[] pairs;
+    private int pairCount;
+    private int pendingSingles;
+    private long lookups;
+    private long hits;
+
+/**
+ * Constructs an empty table for problems of a given dimension.
+ *
+ * @param dim   the dimension of the problem
+ */
+    public NogoodTable(final int dim) {
+        dimSq = dim * dim;
+        singles = new long[dimSq * dimSq];
+        pairs = new long[INITIAL_CAPACITY];
+    }
+
+/**
+ * Records that a cell cannot take a value.
+ *
+ * @param index     the index of the cell
+ * @param value     the value
+ */
+    public void refute(final int index, final int value) {
+        long bit = Candidates.bit(value);
+        if ((singles[index] & bit) == 0L) {
+            singles[index] |= bit;
+            pendingSingles++;
+        }
+    }
+
+/**
+ * Returns whether a cell has been found unable to take a value.
+ *
+ * @param index     the index of the cell
+ * @param value     the value
+ * @return          true if the assignment is refuted, false otherwise
+ */
+    public boolean isRefuted(final int index, final int value) {
+        return (singles[index] & Candidates.bit(value)) != 0L;
+    }
+
+/**
+ * Records that two cells cannot take two values together.
+ *
+ * @param index1    the index of the first cell
+ * @param value1    the value of the first cell
+ * @param index2    the index of the second cell
+ * @param value2    the value of the second cell
+ */
+    public void refute(final int index1, final int value1,
+                       final int index2, final int value2) {
+        long key = key(index1, value1, index2, value2);
+        int slot = slot(key);
+        if (pairs[slot] != key) {
+            pairs[slot] = key;
+            pairCount++;
+            if (pairCount * 2 > pairs.length) {
+                grow();
+            }
+        }
+    }
+
+/**
+ * Returns whether two cells have been found unable to take two values
+ * together, counting the lookup towards the hit rate.
+ *
+ * @param index1    the index of the first cell
+ * @param value1    the value of the first cell
+ * @param index2    the index of the second cell
+ * @param value2    the value of the second cell
+ * @return          true if the pair is refuted, false otherwise
+ */
+    public boolean isRefuted(final int index1, final int value1,
+                             final int index2, final int value2) {
+        lookups++;
+        long key = key(index1, value1, index2, value2);
+        if (pairs[slot(key)] == key) {
+            hits++;
+            return true;
+        }
+        return false;
+    }
+
+/**
+ * Eliminates every single assignment refuted since the last call from a Grid,
+ * and propagates the eliminations.
+ *
+ * @param grid              the starting Grid of the trials, which must not be
+ *                          rolled back past these eliminations
+ * @param propagator        the Propagator used to propagate the eliminations
+ * @return                  true if any value was eliminated, false otherwise
+ * @throws BadCellException thrown if the eliminations leave a cell with no
+ *                          value, in which case the problem has no solution
+ */
+    public boolean applyTo(final Grid grid, final Propagator propagator)
+    throws BadCellException {
+        if (pendingSingles == 0) {
+            return false;
+        }
+        pendingSingles = 0;
+        boolean eliminated = false;
+        for (int index = 0; index < singles.length; index++) {
+            if (singles[index] != 0L) {
+                int value = grid.get(index);
+                if ((value != 0) && ((singles[index] & Candidates.bit(value)) != 0L)) {
+                    throw new BadCellException();
+                }
+                if (grid.eliminate(index, singles[index])) {
+                    eliminated = true;
+                    if (grid.candidates(index) == 0L) {
+                        throw new BadCellException();
+                    }
+                }
+            }
+        }
+        if (eliminated) {
+            propagator.propagate(grid, false);
+        }
+        return eliminated;
+    }
+
+/**
+ * Returns the number of refuted pairs stored.
+ *
+ * @return the number of pairs
+ */
+    public int getPairCount() {
+        return pairCount;
+    }
+
+/**
+ * Returns the number of pairs looked up by the trials.
+ *
+ * @return the number of lookups
+ */
+    public long getLookups() {
+        return lookups;
+    }
+
+/**
+ * Returns the number of pairs looked up which were found to be refuted, each
+ * of which saved a trial setting and propagating two cells.
+ *
+ * @return the number of hits
+ */
+    public long getHits() {
+        return hits;
+    }
+
+/**
+ * Returns the fraction of lookups which found a refuted pair.
+ *
+ * @return the hit rate, zero if no pair has been looked up
+ */
+    public double getHitRate() {
+        return (lookups == 0) ? 0.0 : (double) hits / lookups;
+    }
+
+/**
+ * Returns the key of a pair of assignments, which is the same whichever order
+ * the cells are given in.  One is added so that no key is zero, which marks an
+ * empty slot.
+ */
+    private long key(final int index1, final int value1,
+                     final int index2, final int value2) {
+        long a = (long) index1 * dimSq + value1 - 1;
+        long b = (long) index2 * dimSq + value2 - 1;
+        return (a < b) ? ((a << 32) | b) + 1 : ((b << 32) | a) + 1;
+    }
+
+/**
+ * Returns the slot holding a key, or the empty slot where it would be stored.
+ */
+    private int slot(final long key) {
+        int mask = pairs.length - 1;
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+        while ((pairs[slot] != 0L) && (pairs[slot] != key)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+/**
+ * Doubles the size of the hash set.
+ */
+    private void grow() {
+        long[] old = pairs;
+        pairs = new long[old.length * 2];
+        for (long key : old) {
+            if (key != 0L) {
+                pairs[slot(key)] = key;
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package sudoku.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import sudoku.exceptions.BadCellException;
+import sudoku.items.Candidates;
+import sudoku.items.Constraints;
+import sudoku.items.Grid;
+import sudoku.items.Holder;
+
+/**
+ * This class performs the depth-first search of the Backtracker class on
+ * several threads at once.
+ *
+ * The top levels of the search tree are split into tasks on a ForkJoinPool.
+ * Each task picks the most constrained cell of its Grid, and forks a new task
+ * for each value the cell can take, with its own copy of the Grid updated by a
+ * Propagator, in the same way as Solver.updateConstraints().  Idle threads of
+ * the pool steal the forked tasks.  Below a set depth, a task searches the rest
+ * of its subtree itself using a Backtracker.
+ *
+ * Every task shares a stop flag.  The first task to find the solution sets the
+ * flag, and the other tasks give up at their next step.  The flag is also set
+ * if the calling thread is interrupted.
+ *
+ * @author Gary Mann
+ */
+public class ParallelSearch {
+
+    /** The number of levels of the search tree split into tasks by default. */
+    public static final int DEFAULT_SPLIT_DEPTH = 4;
+
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+    private final boolean printOutput;
+    private final AtomicBoolean stop = new AtomicBoolean();
+    private final AtomicLong nodes = new AtomicLong();
+    private final AtomicLong tasks = new AtomicLong();
+
+/**
+ * Constructs a new ParallelSearch.
+ *
+ * @param pool          the pool which runs the search
+ * @param splitDepth    the number of levels of the search tree split into
+ *                      tasks
+ * @param printOutput   true if running text output is required, false
+ *                      otherwise
+ */
+    public ParallelSearch(final ForkJoinPool pool, final int splitDepth,
+                          final boolean printOutput) {
+        this.pool = pool;
+        this.splitDepth = splitDepth;
+        this.printOutput = printOutput;
+    }
+
+/**
+ * Searches for the solution starting from the Constraints stored in a Holder.
+ * Each ParallelSearch can only be used for one search.
+ *
+ * @param holder    Holder storing the initial Constraints object
+ * @return          a Constraints object containing the final result, null if
+ *                  there is no solution or the search was stopped
+ */
+    public Constraints solve(final Holder holder) {
+        Grid grid = new Grid(holder.getConstraints());
+        Grid solution = null;
+        try {
+            new Propagator(grid.getDim()).propagate(grid, false);
+            ForkJoinTask<Grid> root = pool.submit(new SearchTask(grid, 0));
+            solution = root.get();
+        } catch (BadCellException bce) {
+            solution = null;
+        } catch (InterruptedException ie) {
+            stop.set(true);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ee) {
+            stop.set(true);
+            throw new IllegalStateException("Parallel search failed", ee.getCause());
+        }
+        if (printOutput) {
+            if (solution != null) {
+                System.out.println("Parallel search found the final solution after "
+                                   + nodes.get() + " steps in " + tasks.get() + " tasks.");
+            } else {
+                System.out.println("Parallel search found no solution after "
+                                   + nodes.get() + " steps in " + tasks.get() + " tasks.");
+            }
+        }
+        return (solution == null) ? null : solution.toConstraints();
+    }
+
+/**
+ * Returns the number of search steps taken by every task together.
+ *
+ * @return the number of search steps
+ */
+    public long getNodes() {
+        return nodes.get();
+    }
+
+/**
+ * Returns the number of tasks created by the search.
+ *
+ * @return the number of tasks
+ */
+    public long getTasks() {
+        return tasks.get();
+    }
+
+/**
+ * Searches the subtree below one Grid.
+ */
+    private class SearchTask extends RecursiveTask<Grid> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Grid grid;
+        private final int depth;
+
+        SearchTask(final Grid grid, final int depth) {
+            this.grid = grid;
+            this.depth = depth;
+            tasks.incrementAndGet();
+        }
+
+        @Override
+        protected Grid compute() {
+            if (stop.get()) {
+                return null;
+            }
+            if (grid.isComplete()) {
+                stop.set(true);
+                return grid;
+            }
+            Propagator propagator = new Propagator(grid.getDim());
+            if (depth >= splitDepth) {
+                Backtracker backtracker = new Backtracker(false, stop);
+                boolean found = backtracker.search(grid, propagator);
+                nodes.addAndGet(backtracker.getNodes());
+                if (found) {
+                    stop.set(true);
+                    return grid;
+                }
+                return null;
+            }
+
+            //fork a task for each value of the most constrained cell
+            nodes.incrementAndGet();
+            int best = Backtracker.mostConstrainedCell(grid);
+            int x = best % grid.getDimSq();
+            int y = best / grid.getDimSq();
+            List<SearchTask> children = new ArrayList<SearchTask>();
+            for (long rest = grid.candidates(best); rest != 0; rest &= rest - 1) {
+                Grid child = new Grid(grid);
+                try {
+                    propagator.assign(child, x, y, Candidates.lowestValue(rest), false);
+                    children.add(new SearchTask(child, depth + 1));
+                } catch (BadCellException bce) {
+                    //this value is wrong, so there is nothing to search
+                }
+            }
+            for (SearchTask child : invokeAll(children)) {
+                Grid solution = child.join();
+                if (solution != null) {
+                    return solution;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package sudoku.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import sudoku.exceptions.BadCellException;
+import sudoku.items.Constraints;
+import sudoku.items.Grid;
+import sudoku.items.Holder;
+
+/**
+ * This class runs the two degree of freedom trials of
+ * Solver.twoDegreesOfFreedom() on several threads at once.
+ *
+ * One task is started on the pool for each thread the pool can run.  Each task
+ * has its own copy of the Grid and its own Propagator.  The trials are shared
+ * out by their numbers: with n tasks, task i runs trials i, i + n, i + 2n and
+ * so on, until the trial budget is used up, and each trial is allowed the
+ * number of search steps the restart policy gives for its number.  Each trial
+ * picks its cells with a SplittableRandom made from the seed and the number of
+ * the trial.
+ *
+ * Each task keeps its own NogoodTable of the assignments its trials have
+ * refuted, as Solver.twoDegreesOfFreedomTrials() does, and applies the refuted
+ * single assignments to its own Grid.  Since a task always runs the same
+ * trials, what it has refuted before each trial does not depend on how fast
+ * the other tasks run.  A trial which finds the solution, or before which the
+ * refuted assignments prove there is no solution, ends the search, but the
+ * result is taken from the lowest numbered trial which ends it: the tasks
+ * running higher numbered trials are stopped, and the others go on until
+ * their next trial is higher.  So the same seed on a pool of the same
+ * parallelism gives the same result, unless the budget runs out first, as a
+ * budget of time, or of the steps of all the tasks together, is used up at a
+ * point which depends on the speed of the threads.  If the calling thread is
+ * interrupted, every task is stopped.
+ *
+ * @author Gary Mann
+ */
+public class ParallelTrials {
+
+    private final ForkJoinPool pool;
+    private final RestartPolicy restartPolicy;
+    private final TrialBudget budget;
+    private final boolean printOutput;
+
+/**
+ * Constructs a new ParallelTrials.
+ *
+ * @param pool          the pool which runs the trials
+ * @param restartPolicy the number of search steps allowed to each trial
+ * @param budget        the time or number of steps after which the trials
+ *                      give up
+ * @param printOutput   true if running text output is required, false
+ *                      otherwise
+ */
+    public ParallelTrials(final ForkJoinPool pool, final RestartPolicy restartPolicy,
+                          final TrialBudget budget, final boolean printOutput) {
+        this.pool = pool;
+        this.restartPolicy = restartPolicy;
+        this.budget = budget;
+        this.printOutput = printOutput;
+    }
+
+/**
+ * Runs the trials starting from the Constraints stored in a Holder.
+ *
+ * @param holder    Holder storing the Constraints object found by
+ *                  Solver.iterativeUpdateConstraints()
+ * @param result    the result, in which the number of search steps is stored,
+ *                  and which is marked unsolvable if the refuted assignments
+ *                  prove there is no solution
+ * @param seed      the seed of the generators used by the trials
+ * @return          a Constraints object containing the final result, null if
+ *                  no result found
+ */
+    public Constraints solve(final Holder holder, final SolverResult result,
+                             final long seed) {
+        if (printOutput) {
+            System.out.println("Now starting two degree of freedom trials on "
+                               + pool.getParallelism() + " threads with "
+                               + restartPolicy + " restarts and seed " + seed + ".");
+        }
+        final long start = System.currentTimeMillis();
+        final int taskCount = pool.getParallelism();
+        final AtomicInteger trys = new AtomicInteger();
+        final AtomicLong nodes = new AtomicLong();
+        final AtomicLong lookups = new AtomicLong();
+        final AtomicLong hits = new AtomicLong();
+        final AtomicBoolean stop = new AtomicBoolean();
+        final AtomicBoolean[] stops = new AtomicBoolean[taskCount];
+        final AtomicIntegerArray current = new AtomicIntegerArray(taskCount);
+        final Outcome outcome = new Outcome();
+        List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>();
+        for (int i = 0; i < taskCount; i++) {
+            stops[i] = new AtomicBoolean();
+        }
+        for (int i = 0; i < taskCount; i++) {
+            final Holder copy = new Holder(holder);
+            final int task = i;
+            tasks.add(pool.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    runTrials(copy, task, seed, start, trys, nodes, lookups, hits, stop, stops,
+                              current, outcome);
+                    return null;
+                }
+            }));
+        }
+        try {
+            for (ForkJoinTask<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException ie) {
+            stopAll(stop, stops);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ee) {
+            stopAll(stop, stops);
+            throw new IllegalStateException("Two degree of freedom trial failed", ee.getCause());
+        }
+        int tried = trys.get();
+        Constraints solution = outcome.getSolution();
+        result.setNodes(nodes.get());
+        result.setNogoodLookups(lookups.get());
+        result.setNogoodHits(hits.get());
+        result.setUnsolvable(outcome.isUnsolvable());
+        if (printOutput) {
+            if (solution != null) {
+                System.out.println("This is the final solution, found by trial " + outcome.getTrial()
+                                   + " after " + tried + " tries.");
+            } else {
+                System.out.println("Failed to find a solution after " + tried + " trys.");
+            }
+        }
+        return solution;
+    }
+
+/**
+ * Runs the trials of one task until one of them ends the search, a lower
+ * numbered trial of another task has ended it, the tasks are stopped, or the
+ * budget is used up.
+ *
+ * @param holder    this task's copy of the Holder
+ * @param task      the number of this task, which is the number of its first
+ *                  trial
+ * @param seed      the seed of the generators used by the trials
+ * @param start     the time the trials started, in milliseconds
+ * @param trys      the number of trials taken by every task
+ * @param nodes     the number of search steps taken by every task
+ * @param lookups   the number of pairs looked up in the tables of every task
+ * @param hits      the number of refuted pairs found in the tables of every
+ *                  task
+ * @param stop      set when every task is to stop
+ * @param stops     the flags which stop the search of each task's trial
+ * @param current   the number of the trial each task is running
+ * @param outcome   where the lowest numbered trial which ends the search is
+ *                  stored
+ */
+    private void runTrials(final Holder holder, final int task, final long seed, final long start,
+                           final AtomicInteger trys, final AtomicLong nodes,
+                           final AtomicLong lookups, final AtomicLong hits,
+                           final AtomicBoolean stop, final AtomicBoolean[] stops,
+                           final AtomicIntegerArray current, final Outcome outcome) {
+        Grid grid = new Grid(holder.getConstraints());
+        int[] emptyCells = Solver.emptyCells(grid);
+        Propagator propagator = new Propagator(grid.getDim());
+        NogoodTable nogoods = new NogoodTable(grid.getDim());
+        int trial = task;
+        try {
+            while (!stop.get() && !budget.isExhausted(start, nodes.get())) {
+                //publish the trial before reading the outcome, so that a task
+                //which ends the search at a lower trial sees it and stops it
+                current.set(task, trial);
+                if (trial > outcome.getTrial()) {
+                    return;
+                }
+                try {
+                    if (nogoods.applyTo(grid, propagator)) {
+                        emptyCells = Solver.emptyCells(grid);
+                    }
+                } catch (BadCellException bce) {
+                    //the refuted assignments prove there is no solution
+                    end(outcome, trial, null, stops, current);
+                    return;
+                }
+                Constraints found;
+                if (grid.isComplete()) {
+                    found = grid.toConstraints();
+                } else {
+                    trys.incrementAndGet();
+                    Backtracker backtracker = new Backtracker(false, stops[task]);
+                    found = Solver.twoDegreesOfFreedom(grid, emptyCells, propagator,
+                                                       Solver.trialRandom(seed, trial),
+                                                       backtracker,
+                                                       restartPolicy.cutoff(trial), nogoods,
+                                                       false);
+                    nodes.addAndGet(1 + backtracker.getNodes());
+                }
+                if (found != null) {
+                    end(outcome, trial, found, stops, current);
+                    return;
+                }
+                trial += stops.length;
+            }
+        } finally {
+            lookups.addAndGet(nogoods.getLookups());
+            hits.addAndGet(nogoods.getHits());
+        }
+    }
+
+/**
+ * Ends the search at a trial, unless a lower numbered trial has already ended
+ * it, and stops the tasks running higher numbered trials than the one which
+ * ends it.
+ *
+ * @param outcome   where the lowest numbered trial which ends the search is
+ *                  stored
+ * @param trial     the number of the trial
+ * @param solution  the solution found by the trial, null if the trial proved
+ *                  there is no solution
+ * @param stops     the flags which stop the search of each task's trial
+ * @param current   the number of the trial each task is running
+ */
+    private static void end(final Outcome outcome, final int trial, final Constraints solution,
+                            final AtomicBoolean[] stops, final AtomicIntegerArray current) {
+        outcome.offer(trial, solution);
+        int lowest = outcome.getTrial();
+        for (int i = 0; i < stops.length; i++) {
+            if (current.get(i) > lowest) {
+                stops[i].set(true);
+            }
+        }
+    }
+
+/**
+ * Stops every task and the search of its trial.
+ *
+ * @param stop      set when every task is to stop
+ * @param stops     the flags which stop the search of each task's trial
+ */
+    private static void stopAll(final AtomicBoolean stop, final AtomicBoolean[] stops) {
+        stop.set(true);
+        for (AtomicBoolean taskStop : stops) {
+            taskStop.set(true);
+        }
+    }
+
+/**
+ * The lowest numbered trial which has ended the search, and its result.
+ */
+    private static final class Outcome {
+
+        private volatile int trial = Integer.MAX_VALUE;
+        private Constraints solution;
+        private boolean unsolvable;
+
+/**
+ * Stores the result of a trial which ends the search, if no lower numbered
+ * trial has ended it.
+ *
+ * @param trial     the number of the trial
+ * @param solution  the solution found by the trial, null if the trial proved
+ *                  there is no solution
+ */
+        synchronized void offer(final int trial, final Constraints solution) {
+            if (trial < this.trial) {
+                this.solution = solution;
+                this.unsolvable = (solution == null);
+                this.trial = trial;
+            }
+        }
+
+        int getTrial() {
+            return trial;
+        }
+
+        synchronized Constraints getSolution() {
+            return solution;
+        }
+
+        synchronized boolean isUnsolvable() {
+            return unsolvable;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package sudoku.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import sudoku.items.Constraints;
+
+/**
+ * This engine races several other engines against each other and returns the
+ * first solved Grid.
+ *
+ * The engines run on a fixed pool of threads shared by every request, so the
+ * number of threads used by all requests together is bounded.  Each request
+ * also runs at most a set number of its engines at once; an engine which has
+ * not started is only started when one which is running finishes without a
+ * result.  As soon as one engine finds the solution, the others are cancelled
+ * by interrupting their threads.  Backtracker, DancingLinks and the two degrees
+ * of freedom trials check the interrupt flag as they search, so they stop
+ * promptly.
+ *
+ * The result returned is the one of the winning engine, so its engine name is
+ * the name of the winner rather than of this engine, and the number of wins of
+ * each engine is counted (see getWins()).  An engine which proves there is no
+ * solution ends the race too, and its result is returned.  If no engine finds
+ * the solution or proves there is none, the result of the last engine to
+ * finish is returned.
+ *
+ * @author Gary Mann
+ */
+public class PortfolioEngine implements SolverEngine {
+
+    private final String name;
+    private final List<SolverEngine> engines;
+    private final int maxEnginesPerRequest;
+    private final ExecutorService executor;
+    private final Map<String, AtomicLong> wins = new ConcurrentHashMap<String, AtomicLong>();
+
+/**
+ * Constructs a portfolio of engines with its own pool of threads.
+ *
+ * @param name                  the name of this engine
+ * @param engines               the engines raced for each request, started in
+ *                              this order
+ * @param threads               the number of threads shared by every request
+ * @param maxEnginesPerRequest  the number of engines run at once for one
+ *                              request
+ */
+    public PortfolioEngine(final String name, final List<SolverEngine> engines,
+                           final int threads, final int maxEnginesPerRequest) {
+        if (engines.isEmpty() || (threads < 1) || (maxEnginesPerRequest < 1)) {
+            throw new IllegalArgumentException("A portfolio needs at least one engine and one thread");
+        }
+        this.name = name;
+        this.engines = new ArrayList<SolverEngine>(engines);
+        this.maxEnginesPerRequest = maxEnginesPerRequest;
+        this.executor = Executors.newFixedThreadPool(threads, new DaemonThreadFactory(name));
+        for (SolverEngine engine : engines) {
+            wins.put(engine.getName(), new AtomicLong());
+        }
+    }
+
+/**
+ * Returns the name of this engine.
+ *
+ * @return the name of this engine
+ */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+/**
+ * Solves a problem by racing the engines of this portfolio.  Running text
+ * output from the engines themselves is never printed, as it would be
+ * interleaved; only the winner is reported.
+ *
+ * @param givens            the initial constraints, which are not changed
+ * @param strategyPolicy    the strategies used to find cells before searching
+ *                          (see StrategyPolicy)
+ * @param printOutput       true if running text output is required, false
+ *                          otherwise
+ * @return                  the result of the winning engine or of an engine
+ *                          which proved there is no solution, otherwise of the
+ *                          last engine to finish
+ */
+    @Override
+    public SolverResult solve(final Constraints givens, final int strategyPolicy,
+                              final boolean printOutput) {
+        return solve(givens, strategyPolicy, Solver.newSeed(), printOutput);
+    }
+
+/**
+ * Solves a problem by racing the engines of this portfolio, passing each of
+ * them the same seed.
+ *
+ * @param givens            the initial constraints, which are not changed
+ * @param strategyPolicy    the strategies used to find cells before searching
+ *                          (see StrategyPolicy)
+ * @param seed              the seed passed to every engine
+ * @param printOutput       true if running text output is required, false
+ *                          otherwise
+ * @return                  the result of the winning engine, or of the last
+ *                          engine to finish if none found a solution
+ */
+    @Override
+    public SolverResult solve(final Constraints givens, final int strategyPolicy,
+                              final long seed, final boolean printOutput) {
+        long start = System.currentTimeMillis();
+        CompletionService<SolverResult> completion =
+                new ExecutorCompletionService<SolverResult>(executor);
+        List<Future<SolverResult>> futures = new ArrayList<Future<SolverResult>>();
+        SolverResult result = null;
+        try {
+            int next = 0;
+            while ((next < engines.size()) && (next < maxEnginesPerRequest)) {
+                futures.add(completion.submit(task(engines.get(next++), givens, strategyPolicy, seed)));
+            }
+            for (int finished = 0; finished < futures.size(); finished++) {
+                SolverResult engineResult = take(completion);
+                if (engineResult != null) {
+                    result = engineResult;
+                    if (result.isSolved() || result.isUnsolvable()) {
+                        break;
+                    }
+                }
+                if (next < engines.size()) {
+                    futures.add(completion.submit(task(engines.get(next++), givens, strategyPolicy, seed)));
+                }
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (Future<SolverResult> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        if (result == null) {
+            result = new SolverResult(givens.getCells().size());
+            result.setEngine(name);
+            result.setSeed(seed);
+        }
+        if (result.isSolved()) {
+            wins.get(result.getEngine()).incrementAndGet();
+        }
+        if (printOutput) {
+            if (result.isSolved()) {
+                System.out.println("Portfolio won by " + result.getEngine()
+                                   + " after " + result.getNodes() + " steps.");
+            } else if (result.isUnsolvable()) {
+                System.out.println(result.getEngine() + " proved there is no solution.");
+            } else {
+                System.out.println("No engine of the portfolio found a solution.");
+            }
+        }
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        return result;
+    }
+
+/**
+ * Returns the number of races won by each engine since this engine was
+ * created.
+ *
+ * @return map from the name of each engine to its number of wins
+ */
+    public Map<String, Long> getWins() {
+        Map<String, Long> counts = new TreeMap<String, Long>();
+        for (Map.Entry<String, AtomicLong> entry : wins.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().get());
+        }
+        return counts;
+    }
+
+/**
+ * Stops the pool of threads.  Spring calls this method when the application
+ * context is closed.
+ */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+/**
+ * Returns a task which solves a problem with one engine, recording the engine
+ * name in the result.
+ *
+ * @param engine            the engine
+ * @param givens            the initial constraints
+ * @param strategyPolicy    the strategies used to find cells before searching
+ * @param seed              the seed passed to the engine
+ * @return                  the task
+ */
+    private static Callable<SolverResult> task(final SolverEngine engine,
+                                               final Constraints givens,
+                                               final int strategyPolicy,
+                                               final long seed) {
+        return new Callable<SolverResult>() {
+            @Override
+            public SolverResult call() {
+                SolverResult result = engine.solve(givens, strategyPolicy, seed, false);
+                result.setEngine(engine.getName());
+                return result;
+            }
+        };
+    }
+
+/**
+ * Waits for the next engine to finish.
+ *
+ * @param completion            the completion service running the engines
+ * @return                      the result of the engine, null if it failed
+ * @throws InterruptedException thrown if the calling thread is interrupted
+ */
+    private static SolverResult take(final CompletionService<SolverResult> completion)
+    throws InterruptedException {
+        try {
+            return completion.take().get();
+        } catch (ExecutionException ee) {
+            //an engine which fails is simply out of the race
+            return null;
+        }
+    }
+
+/**
+ * Creates the daemon threads of the pool, so that a portfolio never stops the
+ * JVM from exiting.
+ */
+    private static class DaemonThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        DaemonThreadFactory(final String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,542 @@
+package sudoku.solver;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import sudoku.exceptions.BadCellException;
+import sudoku.items.Candidates;
+import sudoku.items.Grid;
+import sudoku.items.Units;
+import sudoku.solver.strategy.Strategies;
+import sudoku.solver.strategy.Strategy;
+
+/**
+ * This class adds every cell of a Grid which can be found from the values of
+ * the other cells, using a work queue.
+ *
+ * Two tests are used, as in Solver.updateConstraints(): a cell which can take
+ * only one value is set to that value, and a cell which is the only one in a
+ * column, row or box which can take a particular value is set to that value.
+ *
+ * Rather than testing every cell again after each new value, setting a cell
+ * puts the unconstrained peers which lose a value on a queue of cells to be
+ * tested, and marks the columns, rows and boxes of the cell and those peers as
+ * changed.  The queue of cells is emptied first.  Then every changed unit is
+ * scanned once by Finder for values which only one cell can take, and all the
+ * cells found in the scan are set together.  This repeats until the queue is
+ * empty and no unit has changed.
+ *
+ * A Propagator can also be given a list of strategies.  When no more cells can
+ * be found, the strategies are tried in order until one of them eliminates a
+ * value.  Every cell and unit is then tested again, and the strategies are
+ * tried again from the first, until none of them eliminates anything.
+ *
+ * A Propagator for problems of dimension PARALLEL_MIN_DIM or more can also be
+ * given a ForkJoinPool.  When many units have changed, their scans are then
+ * split into tasks on the pool.  The scans only read the Grid, and each unit
+ * writes the cells it finds to its own part of an array, so the tasks share
+ * nothing.  When they have all finished, the cells are gathered in the same
+ * order as a scan on one thread would find them, and set as before, so the
+ * result does not depend on the number of threads.  Smaller problems are
+ * always scanned on the calling thread.
+ *
+ * A Propagator counts the cells it sets using each of the two tests, and the
+ * number of times each strategy eliminates a value, so that the Grader can
+ * tell which steps a problem needed.  The counts are kept until they are reset.
+ * As the queue is emptied before the units are scanned, a cell which is both a
+ * naked and a hidden single is normally counted as a naked single.  A
+ * Propagator for grading can instead look for hidden singles first, and set a
+ * naked single, one at a time, only when no unit has a hidden single, so that
+ * a naked single is only counted when one was needed.
+ *
+ * The queue is held in arrays which are allocated once, so a Propagator should
+ * be reused for every step of a search on the same Grid size.  Every change is
+ * made through the undo trail of the Grid.
+ *
+ * @author Gary Mann
+ */
+public class Propagator {
+
+    /** The smallest dimension for which unit scans are split across a pool. */
+    public static final int PARALLEL_MIN_DIM = 5;
+
+    /** The number of units scanned by each task of a parallel scan. */
+    private static final int UNITS_PER_TASK = 8;
+
+    private final int dimSq;
+    private final Units units;
+    private final int[] queue;
+    private final boolean[] queued;
+    private int queueSize;
+    private final boolean[] changed;
+    private final int[] changedUnits;
+    private int changedCount;
+    private final int[] found;
+    private final List<Strategy> strategies;
+    private final ForkJoinPool pool;
+    private final int[] unitCounts;
+    private final long[] strategyUses;
+    private long nakedSingles;
+    private long hiddenSingles;
+    private final boolean hiddenSinglesFirst;
+
+/**
+ * Constructs a Propagator for problems of given dimension which uses no
+ * strategies.
+ *
+ * @param dim   the dimension of the problem
+ */
+    public Propagator(final int dim) {
+        this(dim, Strategies.none());
+    }
+
+/**
+ * Constructs a Propagator for problems of given dimension which uses a list of
+ * strategies.
+ *
+ * @param dim           the dimension of the problem
+ * @param strategies    the strategies, in the order they are tried
+ */
+    public Propagator(final int dim, final List<Strategy> strategies) {
+        this(dim, strategies, null);
+    }
+
+/**
+ * Constructs a Propagator for problems of given dimension which uses a list of
+ * strategies, and splits its unit scans across a pool if the dimension is at
+ * least PARALLEL_MIN_DIM.
+ *
+ * @param dim           the dimension of the problem
+ * @param strategies    the strategies, in the order they are tried
+ * @param pool          the pool which runs the unit scans, null to scan on the
+ *                      calling thread
+ */
+    public Propagator(final int dim, final List<Strategy> strategies,
+                      final ForkJoinPool pool) {
+        this(dim, strategies, pool, false);
+    }
+
+/**
+ * Constructs a Propagator for problems of given dimension which uses a list of
+ * strategies, and may look for hidden singles before naked singles.
+ *
+ * @param dim                   the dimension of the problem
+ * @param strategies            the strategies, in the order they are tried
+ * @param pool                  the pool which runs the unit scans, null to
+ *                              scan on the calling thread
+ * @param hiddenSinglesFirst    true to set a naked single only when no unit
+ *                              has a hidden single, false to set the naked
+ *                              singles first, which is faster
+ */
+    public Propagator(final int dim, final List<Strategy> strategies,
+                      final ForkJoinPool pool, final boolean hiddenSinglesFirst) {
+        this.strategies = strategies;
+        this.hiddenSinglesFirst = hiddenSinglesFirst;
+        this.pool = (dim >= PARALLEL_MIN_DIM) ? pool : null;
+        dimSq = dim * dim;
+        units = Units.forDim(dim);
+        int size = dimSq * dimSq;
+        queue = new int[size];
+        queued = new boolean[size];
+        changed = new boolean[units.getUnitCount()];
+        changedUnits = new int[units.getUnitCount()];
+        found = new int[3 * size];
+        unitCounts = (this.pool != null) ? new int[units.getUnitCount()] : null;
+        strategyUses = new long[strategies.size()];
+    }
+
+/**
+ * Tests every cell and every unit of a Grid, and sets every cell which can be
+ * found.
+ *
+ * @param grid              the Grid to be updated
+ * @param printOutput       true if running text output is required, false
+ *                          otherwise
+ * @throws BadCellException thrown if a cell can contain no values, or a value
+ *                          cannot be placed anywhere in a unit
+ */
+    public void propagate(final Grid grid, final boolean printOutput)
+    throws BadCellException {
+        seed(grid);
+        run(grid, printOutput);
+        applyStrategies(grid, printOutput);
+    }
+
+/**
+ * Sets a cell to a value and sets every cell which can then be found.  Only the
+ * peers and units of the cells which are set are tested.
+ *
+ * @param grid              the Grid to be updated
+ * @param x                 the x-coordinate of the cell
+ * @param y                 the y-coordinate of the cell
+ * @param value             the value of the cell
+ * @param printOutput       true if running text output is required, false
+ *                          otherwise
+ * @throws BadCellException thrown if the cell cannot take this value, if a
+ *                          cell can then contain no values, or a value cannot
+ *                          be placed anywhere in a unit
+ */
+    public void assign(final Grid grid, final int x, final int y,
+                       final int value, final boolean printOutput)
+    throws BadCellException {
+        int index = y * dimSq + x;
+        if (grid.get(index) == value) {
+            return;
+        }
+        if ((grid.get(index) != 0)
+                || ((grid.candidates(index) & Candidates.bit(value)) == 0L)) {
+            throw new BadCellException();
+        }
+        place(grid, index, value);
+        run(grid, printOutput);
+        applyStrategies(grid, printOutput);
+    }
+
+/**
+ * Returns the number of cells set because they could take only one value.
+ *
+ * @return the number of naked singles
+ */
+    public long getNakedSingles() {
+        return nakedSingles;
+    }
+
+/**
+ * Returns the number of cells set because they were the only cell of a unit
+ * which could take a value.
+ *
+ * @return the number of hidden singles
+ */
+    public long getHiddenSingles() {
+        return hiddenSingles;
+    }
+
+/**
+ * Returns the number of times a strategy eliminated a value.
+ *
+ * @param strategy  the position of the strategy in the list of strategies
+ * @return          the number of times the strategy was used
+ */
+    public long getStrategyUses(final int strategy) {
+        return strategyUses[strategy];
+    }
+
+/**
+ * Returns the strategies, in the order they are tried.
+ *
+ * @return the strategies
+ */
+    public List<Strategy> getStrategies() {
+        return strategies;
+    }
+
+/**
+ * Sets every count of cells set and strategies used to zero.
+ */
+    public void resetCounts() {
+        nakedSingles = 0;
+        hiddenSingles = 0;
+        for (int i = 0; i < strategyUses.length; i++) {
+            strategyUses[i] = 0;
+        }
+    }
+
+/**
+ * Tries each strategy in turn until one eliminates a value, then tests every
+ * cell and unit again and starts again from the first strategy.
+ *
+ * @param grid              the Grid to be updated
+ * @param printOutput       true if running text output is required, false
+ *                          otherwise
+ * @throws BadCellException thrown if a cell can contain no values, or a value
+ *                          cannot be placed anywhere in a unit
+ */
+    private void applyStrategies(final Grid grid, final boolean printOutput)
+    throws BadCellException {
+        int i = 0;
+        while ((i < strategies.size()) && !grid.isComplete()) {
+            Strategy strategy = strategies.get(i);
+            if (strategy.apply(grid)) {
+                strategyUses[i]++;
+                if (printOutput) {
+                    System.out.println("Values eliminated using " + strategy.getName());
+                }
+                seed(grid);
+                run(grid, printOutput);
+                i = 0;
+            } else {
+                i++;
+            }
+        }
+    }
+
+/**
+ * Queues every unconstrained cell and marks every unit as changed.
+ *
+ * @param grid      the Grid
+ */
+    private void seed(final Grid grid) {
+        for (int index = 0; index < queue.length; index++) {
+            if (grid.get(index) == 0) {
+                push(index);
+            }
+        }
+        for (int unit = 0; unit < changed.length; unit++) {
+            markChanged(unit);
+        }
+    }
+
+/**
+ * Empties the queue of cells, then scans the changed units, until there is
+ * nothing left to test.  If hidden singles are looked for first, the changed
+ * units are scanned first instead, and a single cell is taken from the queue
+ * only when the scan finds nothing.
+ *
+ * @param grid              the Grid to be updated
+ * @param printOutput       true if running text output is required, false
+ *                          otherwise
+ * @throws BadCellException thrown if a cell can contain no values, or a value
+ *                          cannot be placed anywhere in a unit
+ */
+    private void run(final Grid grid, final boolean printOutput)
+    throws BadCellException {
+        try {
+            while ((queueSize > 0) || (changedCount > 0)) {
+                if (hiddenSinglesFirst) {
+                    int count = scanChangedUnits(grid);
+                    if (count > 0) {
+                        setFound(grid, count, printOutput);
+                    } else {
+                        setNakedSingles(grid, true, printOutput);
+                    }
+                } else {
+                    setNakedSingles(grid, false, printOutput);
+                    setFound(grid, scanChangedUnits(grid), printOutput);
+                }
+            }
+        } catch (BadCellException bce) {
+            clear();
+            throw bce;
+        }
+    }
+
+/**
+ * Takes cells from the queue and sets each one which can take only one value.
+ *
+ * @param grid              the Grid to be updated
+ * @param onlyOne           true to stop after the first cell is set, false to
+ *                          empty the queue
+ * @param printOutput       true if running text output is required, false
+ *                          otherwise
+ * @throws BadCellException thrown if a cell can contain no values
+ */
+    private void setNakedSingles(final Grid grid, final boolean onlyOne,
+                                 final boolean printOutput)
+    throws BadCellException {
+        while (queueSize > 0) {
+            int index = queue[--queueSize];
+            queued[index] = false;
+            if (grid.get(index) != 0) {
+                continue;
+            }
+            long allowedValues = grid.candidates(index);
+            if (allowedValues == 0L) {
+                if (printOutput) {
+                    System.out.println("ERROR: FOUND A CELL WHICH CAN CONTAIN NO VALUES");
+                    System.out.println("Cell is at x = " + (index % dimSq + 1)
+                                       + " y = " + (index / dimSq + 1));
+                }
+                throw new BadCellException();
+            }
+            if (Candidates.count(allowedValues) == 1) {
+                if (printOutput) {
+                    System.out.println("Cell found with only one possible value");
+                }
+                nakedSingles++;
+                place(grid, index, Candidates.lowestValue(allowedValues));
+                if (onlyOne) {
+                    return;
+                }
+            }
+        }
+    }
+
+/**
+ * Finds the values which only one cell in a changed unit can take, on the
+ * pool if enough units have changed, otherwise in a single pass over the grid
+ * if every unit has changed.  No unit is marked as changed afterwards.
+ *
+ * @param grid              the Grid, which is not changed
+ * @return                  the number of cells and values found
+ * @throws BadCellException thrown if a value cannot be placed anywhere in one
+ *                          of the units
+ */
+    private int scanChangedUnits(final Grid grid) throws BadCellException {
+        int count = 0;
+        if ((pool != null) && (changedCount >= dimSq)) {
+            count = scanInParallel(grid);
+        } else if (changedCount == changed.length) {
+            while (changedCount > 0) {
+                changed[changedUnits[--changedCount]] = false;
+            }
+            count = Finder.findUniqueCells(grid, found);
+        }
+        while (changedCount > 0) {
+            int unit = changedUnits[--changedCount];
+            changed[unit] = false;
+            count = Finder.findUniqueCells(grid, units, unit, found, count);
+        }
+        return count;
+    }
+
+/**
+ * Sets all the cells found by a scan of the changed units together.
+ *
+ * @param grid              the Grid to be updated
+ * @param count             the number of cells and values found
+ * @param printOutput       true if running text output is required, false
+ *                          otherwise
+ * @throws BadCellException thrown if a cell found cannot take its value
+ */
+    private void setFound(final Grid grid, final int count, final boolean printOutput)
+    throws BadCellException {
+        for (int i = 0; i < count; i++) {
+            int index = found[i] / dimSq;
+            int value = found[i] % dimSq + 1;
+            if (grid.get(index) == value) {
+                continue;
+            }
+            if ((grid.get(index) != 0)
+                    || ((grid.candidates(index) & Candidates.bit(value)) == 0L)) {
+                throw new BadCellException();
+            }
+            if (printOutput) {
+                System.out.println("Cell found where a value can only appear once in a unit");
+            }
+            hiddenSingles++;
+            place(grid, index, value);
+        }
+    }
+
+/**
+ * Sets a cell to a value.  Its unconstrained peers which could take the value
+ * are queued, and their units and its own units are marked as changed.
+ *
+ * @param grid      the Grid
+ * @param index     the index of the cell
+ * @param value     the value of the cell
+ */
+    private void place(final Grid grid, final int index, final int value) {
+        long bit = Candidates.bit(value);
+        for (int peer : units.getPeers(index)) {
+            if ((grid.get(peer) == 0) && ((grid.candidates(peer) & bit) != 0L)) {
+                push(peer);
+                for (int unit : units.getCellUnits(peer)) {
+                    markChanged(unit);
+                }
+            }
+        }
+        grid.set(index, value);
+        for (int unit : units.getCellUnits(index)) {
+            markChanged(unit);
+        }
+    }
+
+/**
+ * Scans every changed unit on the pool, and gathers the cells found into the
+ * found array in the order the units were taken from the changed list.
+ *
+ * @param grid              the Grid, which must not be changed until the scan
+ *                          has finished
+ * @return                  the number of cells and values found
+ * @throws BadCellException thrown if a value cannot be placed anywhere in one
+ *                          of the units
+ */
+    private int scanInParallel(final Grid grid) throws BadCellException {
+        int unitCount = changedCount;
+        int[] scanned = new int[unitCount];
+        for (int i = 0; i < unitCount; i++) {
+            scanned[i] = changedUnits[--changedCount];
+            changed[scanned[i]] = false;
+        }
+        pool.invoke(new UnitScan(grid, scanned, 0, unitCount));
+
+        //the cells of unit i were written from position i * dimSq, so move
+        //them down to follow those of the units before it
+        int count = 0;
+        for (int i = 0; i < unitCount; i++) {
+            if (unitCounts[i] < 0) {
+                throw new BadCellException();
+            }
+            System.arraycopy(found, i * dimSq, found, count, unitCounts[i]);
+            count += unitCounts[i];
+        }
+        return count;
+    }
+
+/**
+ * Scans a range of units, splitting the range in two until it is small.
+ */
+    private class UnitScan extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Grid grid;
+        private final int[] scanned;
+        private final int from;
+        private final int to;
+
+        UnitScan(final Grid grid, final int[] scanned, final int from,
+                 final int to) {
+            this.grid = grid;
+            this.scanned = scanned;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > UNITS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new UnitScan(grid, scanned, from, middle),
+                          new UnitScan(grid, scanned, middle, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                try {
+                    unitCounts[i] = Finder.findUniqueCells(grid, units, scanned[i],
+                                                           found, i * dimSq) - i * dimSq;
+                } catch (BadCellException bce) {
+                    unitCounts[i] = -1;
+                }
+            }
+        }
+    }
+
+    private void push(final int index) {
+        if (!queued[index]) {
+            queued[index] = true;
+            queue[queueSize++] = index;
+        }
+    }
+
+    private void markChanged(final int unit) {
+        if (!changed[unit]) {
+            changed[unit] = true;
+            changedUnits[changedCount++] = unit;
+        }
+    }
+
+/**
+ * Empties the queue and the changed units after a BadCellException, so that
+ * this Propagator can be used again.
+ */
+    private void clear() {
+        while (queueSize > 0) {
+            queued[queue[--queueSize]] = false;
+        }
+        while (changedCount > 0) {
+            changed[changedUnits[--changedCount]] = false;
+        }
+    }
+}
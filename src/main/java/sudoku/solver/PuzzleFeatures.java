@@ -0,0 +1,115 @@
+package sudoku.solver;
+
+import sudoku.items.Candidates;
+import sudoku.items.Constraints;
+import sudoku.items.CurrentSolution;
+import sudoku.items.Holder;
+
+/**
+ * This class stores the features of a problem used to choose an engine (see
+ * SelectorEngine).  The features are cheap to find: they are taken from the
+ * initial constraints and from the Holder returned by the first call to
+ * Solver.iterativeUpdateConstraints().
+ *
+ * @author Gary Mann
+ */
+public class PuzzleFeatures {
+
+    private final int dim;
+    private final int clues;
+    private final int emptyCells;
+    private final double averageCandidates;
+
+/**
+ * Constructs a set of features.
+ *
+ * @param dim               the dimension of the problem
+ * @param clues             the number of constrained cells in the initial
+ *                          problem
+ * @param emptyCells        the number of cells still unconstrained after the
+ *                          first update
+ * @param averageCandidates the average number of values the unconstrained
+ *                          cells can take, 0 if there are none
+ */
+    public PuzzleFeatures(final int dim, final int clues, final int emptyCells,
+                          final double averageCandidates) {
+        this.dim = dim;
+        this.clues = clues;
+        this.emptyCells = emptyCells;
+        this.averageCandidates = averageCandidates;
+    }
+
+/**
+ * Finds the features of a problem.
+ *
+ * @param givens    the initial constraints
+ * @param holder    Holder returned by the first call to
+ *                  Solver.iterativeUpdateConstraints() on the initial
+ *                  constraints
+ * @return          the features of the problem
+ */
+    public static PuzzleFeatures of(final Constraints givens, final Holder holder) {
+        Constraints constraints = holder.getConstraints();
+        int dimSq = constraints.getDimSq();
+        int emptyCells = dimSq * dimSq - constraints.getCells().size();
+        CurrentSolution currentSolution = holder.getCurrentSolution();
+        double averageCandidates = 0.0;
+        if ((emptyCells > 0) && (currentSolution != null)) {
+            long total = 0;
+            for (int y = 0; y < dimSq; y++) {
+                for (int x = 0; x < dimSq; x++) {
+                    if (!constraints.contains(x, y)) {
+                        total += Candidates.count(currentSolution.getCandidates(x, y));
+                    }
+                }
+            }
+            averageCandidates = (double) total / emptyCells;
+        }
+        return new PuzzleFeatures(constraints.getDim(), givens.getCells().size(),
+                                  emptyCells, averageCandidates);
+    }
+
+/**
+ * Returns the dimension of the problem.
+ *
+ * @return the dimension, 3 for a 9x9 problem
+ */
+    public int getDim() {
+        return dim;
+    }
+
+/**
+ * Returns the number of constrained cells in the initial problem.
+ *
+ * @return the number of clues
+ */
+    public int getClues() {
+        return clues;
+    }
+
+/**
+ * Returns the number of cells still unconstrained after the first update.
+ *
+ * @return the number of empty cells
+ */
+    public int getEmptyCells() {
+        return emptyCells;
+    }
+
+/**
+ * Returns the average number of values the unconstrained cells can take after
+ * the first update.
+ *
+ * @return the average candidate count, 0 if there are no empty cells
+ */
+    public double getAverageCandidates() {
+        return averageCandidates;
+    }
+
+    @Override
+    public String toString() {
+        return "dim = " + dim + ", clues = " + clues + ", empty cells = "
+               + emptyCells + ", average candidates = "
+               + String.format("%.2f", averageCandidates);
+    }
+}
@@ -0,0 +1,245 @@
+package sudoku.solver;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import sudoku.exceptions.InvalidInputDataException;
+import sudoku.items.Constraints;
+import sudoku.items.Grid;
+import sudoku.solver.strategy.Strategies;
+
+/**
+ * This class removes clues from a problem which has exactly one solution until
+ * no more can be removed without the problem having more than one.
+ *
+ * A clue can be removed if the problem without it still has only one solution,
+ * which is checked as the Generator checks it: the old value of the cell is
+ * eliminated and a single search for any solution is made on the same Grid,
+ * which is then rolled back using the undo trail.  Each check only sets up the
+ * one cell it is about, so the state of the Grid is shared by all the checks
+ * made on it instead of being rebuilt from the constraints each time.
+ *
+ * A clue which cannot be removed from a problem cannot be removed from any
+ * problem with fewer clues either, since removing clues only ever adds
+ * solutions.  The reducer uses this to run most of its checks in parallel.
+ * First every clue is checked against the whole problem, the clues being split
+ * between one task for each thread of the pool, each with its own copy of the
+ * Grid.  The clues found to be needed are kept without any further check.  Then
+ * the clues found to be removable are removed one at a time, in random order,
+ * each being checked again against the problem as it is by then, unless no clue
+ * has been removed yet.  Every clue kept was needed by a problem containing the
+ * final one, so no clue of the final problem can be removed.
+ *
+ * A reduction can be given a budget of time and search steps, which is checked
+ * before each check is made.  If the budget is used up, the thread which asked
+ * for the reduction is interrupted or any check gives up, the whole reduction
+ * gives up and no problem is returned.  A clue which was kept only because its
+ * check gave up might have been removable, and a clue removed after such a
+ * check might be needed by the problem as it would have been, so part of a
+ * reduction is never returned as if it were the whole of one.
+ *
+ * @author Gary Mann
+ */
+public class Reducer {
+
+    private final ForkJoinPool pool;
+    private final TrialBudget budget;
+
+/**
+ * Constructs a Reducer with no limit on time or search steps.
+ *
+ * @param pool      the pool which runs the parallel checks
+ */
+    public Reducer(final ForkJoinPool pool) {
+        this(pool, null);
+    }
+
+/**
+ * Constructs a Reducer which gives up when a budget is used up.
+ *
+ * @param pool      the pool which runs the parallel checks
+ * @param budget    the time and search steps allowed to each reduction, null
+ *                  for no limit
+ */
+    public Reducer(final ForkJoinPool pool, final TrialBudget budget) {
+        this.pool = pool;
+        this.budget = budget;
+    }
+
+/**
+ * Removes clues from a problem until none can be removed.
+ *
+ * @param puzzle    the initial constraints, which are not changed
+ * @param seed      the seed of the order in which clues are removed
+ * @return          the reduced problem and the number of checks made, or a
+ *                  result which has given up and holds no problem
+ * @throws InvalidInputDataException    thrown if the problem does not have
+ *                                      exactly one solution
+ */
+    public ReductionResult reduce(final Constraints puzzle, final long seed)
+    throws InvalidInputDataException {
+        final long startMillis = System.currentTimeMillis();
+        final AtomicLong nodes = new AtomicLong();
+        final AtomicBoolean stop = new AtomicBoolean();
+        final Grid grid = new Grid(puzzle);
+        int initialClues = grid.getConstrainedCount();
+        SolutionIterator solutions = new SolutionIterator(puzzle, Strategies.standard(), budget);
+        if (!solutions.hasNext()) {
+            if (solutions.gaveUp()) {
+                return new ReductionResult(null, initialClues, 0, 0, true);
+            }
+            throw new InvalidInputDataException("Problem has no solution");
+        }
+        Grid solution = new Grid(solutions.next());
+        if (solutions.hasNext()) {
+            throw new InvalidInputDataException("Problem has more than one solution");
+        }
+        if (solutions.gaveUp()) {
+            return new ReductionResult(null, initialClues, 0, 0, true);
+        }
+        nodes.addAndGet(solutions.getNodes());
+        final int[] clues = new int[initialClues];
+        int count = 0;
+        for (int index = 0; index < grid.getSize(); index++) {
+            if (grid.get(index) != 0) {
+                clues[count++] = index;
+            }
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = clues.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = clues[i];
+            clues[i] = clues[j];
+            clues[j] = swap;
+        }
+        boolean[] removable = new boolean[clues.length];
+        long checks = checkInParallel(grid, clues, removable, startMillis, nodes, stop);
+        if (stop.get()) {
+            return new ReductionResult(null, initialClues, 0, checks, true);
+        }
+
+        Propagator propagator = new Propagator(grid.getDim());
+        Backtracker backtracker = new Backtracker(false);
+        int removed = 0;
+        for (int i = 0; i < clues.length; i++) {
+            if (!removable[i]) {
+                continue;
+            }
+            int index = clues[i];
+            int mark = grid.mark();
+            grid.set(index, 0);
+            if (removed > 0) {
+                if (isExhausted(startMillis, nodes)) {
+                    return new ReductionResult(null, initialClues, 0, checks, true);
+                }
+                checks++;
+                boolean unique = Generator.isUnique(grid, index, solution.get(index), propagator, backtracker);
+                nodes.addAndGet(backtracker.getNodes());
+                if (backtracker.gaveUp()) {
+                    return new ReductionResult(null, initialClues, 0, checks, true);
+                }
+                if (!unique) {
+                    grid.undo(mark);
+                    continue;
+                }
+            }
+            removed++;
+        }
+        return new ReductionResult(grid.toConstraints(), initialClues - removed, removed, checks);
+    }
+
+/**
+ * Checks every clue against the whole problem, one task for each thread of
+ * the pool.  If any task gives up, or the calling thread is interrupted, the
+ * stop flag is set and every other task gives up too.
+ *
+ * @param grid          the Grid storing the problem, which is not changed
+ * @param clues         the indexes of the clues
+ * @param removable     set to whether each clue can be removed on its own
+ * @param startMillis   the time the reduction started, in milliseconds
+ * @param nodes         the search steps taken by the reduction so far
+ * @param stop          set if the checks gave up
+ * @return              the number of checks made
+ */
+    private long checkInParallel(final Grid grid, final int[] clues, final boolean[] removable,
+                                 final long startMillis, final AtomicLong nodes,
+                                 final AtomicBoolean stop) {
+        int tasks = Math.max(1, Math.min(pool.getParallelism(), clues.length));
+        List<ForkJoinTask<Long>> futures = new ArrayList<ForkJoinTask<Long>>();
+        for (int t = 0; t < tasks; t++) {
+            final int first = t;
+            final int step = tasks;
+            final Grid copy = new Grid(grid);
+            futures.add(pool.submit(new Callable<Long>() {
+                @Override
+                public Long call() {
+                    return checkClues(copy, clues, first, step, removable, startMillis, nodes, stop);
+                }
+            }));
+        }
+        long checks = 0;
+        try {
+            for (ForkJoinTask<Long> future : futures) {
+                checks += future.get();
+            }
+        } catch (InterruptedException ie) {
+            stop.set(true);
+            for (ForkJoinTask<Long> future : futures) {
+                future.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ee) {
+            stop.set(true);
+            throw new IllegalStateException("Reducer failed", ee.getCause());
+        }
+        return checks;
+    }
+
+/**
+ * Checks every step'th clue from a first one against the whole problem, on a
+ * Grid used by this task only.
+ */
+    private long checkClues(final Grid grid, final int[] clues, final int first, final int step,
+                            final boolean[] removable, final long startMillis,
+                            final AtomicLong nodes, final AtomicBoolean stop) {
+        Propagator propagator = new Propagator(grid.getDim());
+        Backtracker backtracker = new Backtracker(false, stop);
+        long checks = 0;
+        for (int i = first; i < clues.length; i += step) {
+            if (stop.get() || Thread.currentThread().isInterrupted() || isExhausted(startMillis, nodes)) {
+                stop.set(true);
+                break;
+            }
+            int index = clues[i];
+            int value = grid.get(index);
+            int mark = grid.mark();
+            grid.set(index, 0);
+            removable[i] = Generator.isUnique(grid, index, value, propagator, backtracker);
+            grid.undo(mark);
+            checks++;
+            nodes.addAndGet(backtracker.getNodes());
+            if (backtracker.gaveUp()) {
+                stop.set(true);
+                break;
+            }
+        }
+        return checks;
+    }
+
+/**
+ * Returns whether a reduction has to give up, because its thread has been
+ * interrupted or its budget has been used up.
+ */
+    private boolean isExhausted(final long startMillis, final AtomicLong nodes) {
+        return Thread.currentThread().isInterrupted()
+               || ((budget != null) && budget.isExhausted(startMillis, nodes.get()));
+    }
+}
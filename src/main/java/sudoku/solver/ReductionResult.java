@@ -0,0 +1,98 @@
+package sudoku.solver;
+
+import sudoku.items.Constraints;
+
+/**
+ * This class stores the result of reducing a problem: the clues left, and how
+ * much work it took.  A reduction which gave up holds no problem, as the clues
+ * it had removed so far are not known to be the clues of a reduced problem.
+ *
+ * @author Gary Mann
+ */
+public class ReductionResult {
+
+    private final Constraints givens;
+    private final int clues;
+    private final int removed;
+    private final long checks;
+    private final boolean gaveUp;
+
+/**
+ * Constructs the result of a reduction.
+ *
+ * @param givens    the constrained cells of the reduced problem
+ * @param clues     the number of constrained cells left
+ * @param removed   the number of constrained cells removed
+ * @param checks    the number of uniqueness checks made
+ */
+    public ReductionResult(final Constraints givens, final int clues,
+                           final int removed, final long checks) {
+        this(givens, clues, removed, checks, false);
+    }
+
+/**
+ * Constructs the result of a reduction which may have given up.
+ *
+ * @param givens    the constrained cells of the reduced problem, null if the
+ *                  reduction gave up
+ * @param clues     the number of constrained cells left
+ * @param removed   the number of constrained cells removed
+ * @param checks    the number of uniqueness checks made
+ * @param gaveUp    true if the reduction gave up, false otherwise
+ */
+    public ReductionResult(final Constraints givens, final int clues,
+                           final int removed, final long checks, final boolean gaveUp) {
+        this.givens = givens;
+        this.clues = clues;
+        this.removed = removed;
+        this.checks = checks;
+        this.gaveUp = gaveUp;
+    }
+
+/**
+ * Returns the constrained cells of the reduced problem.
+ *
+ * @return the givens, null if the reduction gave up
+ */
+    public Constraints getGivens() {
+        return givens;
+    }
+
+/**
+ * Returns the number of constrained cells left.
+ *
+ * @return the number of clues
+ */
+    public int getClues() {
+        return clues;
+    }
+
+/**
+ * Returns the number of constrained cells removed.
+ *
+ * @return the number of clues removed
+ */
+    public int getRemoved() {
+        return removed;
+    }
+
+/**
+ * Returns the number of uniqueness checks made, each of which is one search
+ * for a second solution.
+ *
+ * @return the number of checks
+ */
+    public long getChecks() {
+        return checks;
+    }
+
+/**
+ * Returns whether the reduction gave up, because its budget was used up, its
+ * thread was interrupted or one of its checks gave up.
+ *
+ * @return true if the reduction gave up, false otherwise
+ */
+    public boolean gaveUp() {
+        return gaveUp;
+    }
+}
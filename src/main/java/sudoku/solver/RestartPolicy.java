@@ -0,0 +1,166 @@
+package sudoku.solver;
+
+import sudoku.exceptions.InvalidInputDataException;
+
+/**
+ * This class gives the number of search steps allowed to each restart of a
+ * randomized search.
+ *
+ * Each two degree of freedom trial is a restart: after its two cells are set,
+ * a Backtracker trying values in random order searches for the rest of the
+ * solution until it has taken the number of steps given by this policy, and
+ * the next trial starts again from the beginning.  Three policies are
+ * supported:
+ *
+ * fixed:       every restart is allowed the same number of steps.  A fixed
+ *              policy of zero steps gives the original trials, which never
+ *              search beyond their two cells.
+ * geometric:   each restart is allowed a set factor more steps than the one
+ *              before.
+ * luby:        the steps follow the Luby sequence 1, 1, 2, 1, 1, 2, 4, 1, ...
+ *              times a unit, which is within a constant factor of the best
+ *              possible policy when nothing is known about the problem.
+ *
+ * Since the geometric and Luby policies allow ever longer searches, a
+ * randomized search using them finds the solution of any problem which has one,
+ * given enough time.
+ *
+ * @author Gary Mann
+ */
+public final class RestartPolicy {
+
+    public static final int FIXED = 0;
+    public static final int GEOMETRIC = 1;
+    public static final int LUBY = 2;
+
+    /** The factor used by a geometric policy when none is given. */
+    public static final double DEFAULT_FACTOR = 1.5;
+
+    private static final String[] NAMES = {"fixed", "geometric", "luby"};
+
+    /** The policy used when none is given: Luby restarts with a unit of 16 steps. */
+    public static final RestartPolicy DEFAULT = luby(16);
+
+    private final int type;
+    private final long unit;
+    private final double factor;
+
+    private RestartPolicy(final int type, final long unit, final double factor) {
+        if (unit < 0) {
+            throw new IllegalArgumentException("Negative restart unit " + unit);
+        }
+        this.type = type;
+        this.unit = unit;
+        this.factor = factor;
+    }
+
+/**
+ * Returns a policy which allows every restart the same number of steps.
+ *
+ * @param steps     the number of steps allowed to each restart
+ * @return          the fixed policy
+ */
+    public static RestartPolicy fixed(final long steps) {
+        return new RestartPolicy(FIXED, steps, 1.0);
+    }
+
+/**
+ * Returns a policy which allows each restart a set factor more steps than the
+ * one before.
+ *
+ * @param first     the number of steps allowed to the first restart
+ * @param factor    the factor, at least 1
+ * @return          the geometric policy
+ */
+    public static RestartPolicy geometric(final long first, final double factor) {
+        if (factor < 1.0) {
+            throw new IllegalArgumentException("Geometric restart factor " + factor
+                                               + " is less than 1");
+        }
+        return new RestartPolicy(GEOMETRIC, first, factor);
+    }
+
+/**
+ * Returns a policy which allows the restarts steps following the Luby
+ * sequence.
+ *
+ * @param unit      the number of steps multiplied by each term of the sequence
+ * @return          the Luby policy
+ */
+    public static RestartPolicy luby(final long unit) {
+        return new RestartPolicy(LUBY, unit, 1.0);
+    }
+
+/**
+ * Converts the name of a policy, as used in the application properties, into a
+ * policy.
+ *
+ * @param name      the name of the policy (fixed, geometric or luby)
+ * @param unit      the number of steps of a fixed policy, of the first restart
+ *                  of a geometric policy, or of each unit of a Luby policy
+ * @param factor    the factor of a geometric policy
+ * @return          the policy
+ * @throws InvalidInputDataException    thrown if the name is not known
+ */
+    public static RestartPolicy fromName(final String name, final long unit,
+                                         final double factor)
+    throws InvalidInputDataException {
+        for (int type = 0; type < NAMES.length; type++) {
+            if (NAMES[type].equalsIgnoreCase(name.trim())) {
+                return new RestartPolicy(type, unit, (type == GEOMETRIC) ? factor : 1.0);
+            }
+        }
+        throw new InvalidInputDataException("Unknown restart policy " + name);
+    }
+
+/**
+ * Returns the number of steps allowed to a restart.
+ *
+ * @param restart   the number of the restart, starting from zero
+ * @return          the number of steps allowed
+ */
+    public long cutoff(final int restart) {
+        switch (type) {
+        case GEOMETRIC:
+            double steps = unit * Math.pow(factor, restart);
+            return (steps >= Long.MAX_VALUE) ? Long.MAX_VALUE : (long) steps;
+        case LUBY:
+            long term = lubyTerm(restart + 1L);
+            return (term > Long.MAX_VALUE / Math.max(unit, 1L)) ? Long.MAX_VALUE : unit * term;
+        default:
+            return unit;
+        }
+    }
+
+/**
+ * Returns the name of this policy.
+ *
+ * @return fixed, geometric or luby
+ */
+    public String getName() {
+        return NAMES[type];
+    }
+
+/**
+ * Returns a term of the Luby sequence 1, 1, 2, 1, 1, 2, 4, 1, 1, 2, ...
+ *
+ * @param i     the position of the term, starting from one
+ * @return      the term
+ */
+    static long lubyTerm(final long i) {
+        int k = 1;
+        while ((1L << k) - 1 < i) {
+            k++;
+        }
+        if (i == (1L << k) - 1) {
+            return 1L << (k - 1);
+        }
+        return lubyTerm(i - (1L << (k - 1)) + 1);
+    }
+
+    @Override
+    public String toString() {
+        return (type == GEOMETRIC) ? getName() + "(" + unit + ", " + factor + ")"
+                                   : getName() + "(" + unit + ")";
+    }
+}
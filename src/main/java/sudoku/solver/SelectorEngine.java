@@ -0,0 +1,186 @@
+package sudoku.solver;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import sudoku.exceptions.InvalidInputDataException;
+import sudoku.items.Constraints;
+import sudoku.items.Holder;
+import sudoku.solver.strategy.Strategies;
+
+/**
+ * This engine chooses another engine for each problem from the features of the
+ * problem, and uses it to solve the problem.
+ *
+ * The features (see PuzzleFeatures) are found by a first call to
+ * Solver.iterativeUpdateConstraints(), which is cheap compared with a search.
+ * The engine is then looked up in a DecisionTable, whose rules are chosen from
+ * runs of SelectorBenchmark on problems with known features.  This costs far
+ * less than racing every engine with a PortfolioEngine, although it can choose
+ * badly where racing would not.
+ *
+ * The chosen engine is given the cells found by the first update rather than
+ * the initial constraints, so its own update only has to repeat the
+ * eliminations made by the strategies, which Constraints cannot hold.  If the
+ * first update finds a cell with no values the initial constraints are passed
+ * on unchanged, so that the chosen engine reports the problem in its own way.
+ *
+ * The table is read from a file, or from the classpath if its location starts
+ * with "classpath:", and can be read again at any time with reload().  Requests
+ * which are running when the table is reloaded carry on with the old table.
+ *
+ * @author Gary Mann
+ */
+public class SelectorEngine implements SolverEngine {
+
+    private static final String CLASSPATH_PREFIX = "classpath:";
+
+    private final String name;
+    private final Map<String, SolverEngine> engines;
+    private final SolverEngine fallback;
+    private final String tableLocation;
+    private volatile DecisionTable table;
+
+/**
+ * Constructs a selector and reads its table.
+ *
+ * @param name                          the name of this engine
+ * @param engines                       the engines which can be chosen
+ * @param fallback                      the engine used when no rule of the
+ *                                      table matches a problem
+ * @param tableLocation                 the file holding the table, or
+ *                                      "classpath:" followed by the name of a
+ *                                      resource
+ * @throws IOException                  thrown if the table cannot be read
+ * @throws InvalidInputDataException    thrown if the table is not valid
+ */
+    public SelectorEngine(final String name, final Iterable<SolverEngine> engines,
+                          final SolverEngine fallback, final String tableLocation)
+    throws IOException, InvalidInputDataException {
+        this.name = name;
+        this.engines = new HashMap<String, SolverEngine>();
+        for (SolverEngine engine : engines) {
+            this.engines.put(engine.getName(), engine);
+        }
+        this.fallback = fallback;
+        this.tableLocation = tableLocation;
+        reload();
+    }
+
+/**
+ * Returns the name of this engine.
+ *
+ * @return the name of this engine
+ */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+/**
+ * Solves a problem using the engine chosen from its features.
+ *
+ * @param givens            the initial constraints, which are not changed
+ * @param strategyPolicy    the strategies used to find cells before searching
+ *                          (see StrategyPolicy)
+ * @param printOutput       true if running text output is required, false
+ *                          otherwise
+ * @return                  the result of the chosen engine
+ */
+    @Override
+    public SolverResult solve(final Constraints givens, final int strategyPolicy,
+                              final boolean printOutput) {
+        return solve(givens, strategyPolicy, Solver.newSeed(), printOutput);
+    }
+
+/**
+ * Solves a problem using the engine chosen from its features, passing it a
+ * given seed.
+ *
+ * @param givens            the initial constraints, which are not changed
+ * @param strategyPolicy    the strategies used to find cells before searching
+ *                          (see StrategyPolicy)
+ * @param seed              the seed passed to the chosen engine
+ * @param printOutput       true if running text output is required, false
+ *                          otherwise
+ * @return                  the result of the chosen engine
+ */
+    @Override
+    public SolverResult solve(final Constraints givens, final int strategyPolicy,
+                              final long seed, final boolean printOutput) {
+        long start = System.currentTimeMillis();
+        Holder holder = Solver.iterativeUpdateConstraints(new Holder(givens, null), true,
+                                                          Strategies.forPolicy(strategyPolicy),
+                                                          false);
+        PuzzleFeatures features = PuzzleFeatures.of(givens, holder);
+        SolverEngine engine = select(features);
+        if (printOutput) {
+            System.out.println("Selected engine " + engine.getName() + " for " + features);
+        }
+        SolverResult result = engine.solve(holder.getConstraints(), strategyPolicy, seed, printOutput);
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        return result;
+    }
+
+/**
+ * Returns the engine chosen by the current table for a problem.
+ *
+ * @param features  the features of the problem
+ * @return          the engine given by the first matching rule, or the
+ *                  fallback engine if no rule matches
+ */
+    public SolverEngine select(final PuzzleFeatures features) {
+        String engineName = table.select(features);
+        return (engineName == null) ? fallback : engines.get(engineName);
+    }
+
+/**
+ * Reads the table again from its location.  The current table is kept if the
+ * new one cannot be read or names an engine which does not exist.
+ *
+ * @return                              the number of rules in the new table
+ * @throws IOException                  thrown if the table cannot be read
+ * @throws InvalidInputDataException    thrown if the table is not valid
+ */
+    public int reload() throws IOException, InvalidInputDataException {
+        DecisionTable newTable;
+        Reader reader = open();
+        try {
+            newTable = DecisionTable.read(reader);
+        } finally {
+            reader.close();
+        }
+        for (String engineName : newTable.getEngines()) {
+            if (!engines.containsKey(engineName)) {
+                throw new InvalidInputDataException("Decision table names unknown engine: "
+                                                    + engineName);
+            }
+        }
+        table = newTable;
+        return newTable.size();
+    }
+
+/**
+ * Opens the table.
+ *
+ * @return              a reader holding the table
+ * @throws IOException  thrown if the table cannot be found
+ */
+    private Reader open() throws IOException {
+        if (tableLocation.startsWith(CLASSPATH_PREFIX)) {
+            String resource = tableLocation.substring(CLASSPATH_PREFIX.length());
+            InputStream stream = SelectorEngine.class.getClassLoader().getResourceAsStream(resource);
+            if (stream == null) {
+                throw new IOException("Decision table not found: " + tableLocation);
+            }
+            return new InputStreamReader(stream, StandardCharsets.UTF_8);
+        }
+        return new FileReader(tableLocation);
+    }
+}
@@ -0,0 +1,59 @@
+package sudoku.solver;
+
+/**
+ * This class stores the result of counting the solutions of a problem: the
+ * number found, and whether the count was given up before it was finished.
+ *
+ * A count which was given up is only a lower bound on the number of solutions,
+ * so it must not be taken as the number of solutions the problem has.
+ *
+ * @author Gary Mann
+ */
+public class SolutionCount {
+
+    private final long count;
+    private final boolean gaveUp;
+    private final long nodes;
+
+/**
+ * Constructs the result of a count.
+ *
+ * @param count     the number of solutions found
+ * @param gaveUp    true if the count was given up before it was finished
+ * @param nodes     the number of search steps taken
+ */
+    public SolutionCount(final long count, final boolean gaveUp, final long nodes) {
+        this.count = count;
+        this.gaveUp = gaveUp;
+        this.nodes = nodes;
+    }
+
+/**
+ * Returns the number of solutions found.
+ *
+ * @return the number of solutions, at most the limit of the count
+ */
+    public long getCount() {
+        return count;
+    }
+
+/**
+ * Returns whether the count was given up, because its budget was used up or
+ * its thread was interrupted, before it found as many solutions as its limit
+ * or finished the search.
+ *
+ * @return true if the count was given up, false otherwise
+ */
+    public boolean gaveUp() {
+        return gaveUp;
+    }
+
+/**
+ * Returns the number of search steps taken.
+ *
+ * @return the number of search steps
+ */
+    public long getNodes() {
+        return nodes;
+    }
+}
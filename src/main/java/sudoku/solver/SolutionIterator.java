@@ -0,0 +1,182 @@
+package sudoku.solver;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import sudoku.exceptions.BadCellException;
+import sudoku.items.Candidates;
+import sudoku.items.Constraints;
+import sudoku.items.Grid;
+import sudoku.solver.strategy.Strategy;
+
+/**
+ * This class finds the solutions of a problem one at a time, so that they can
+ * be counted or used without finishing the whole search.
+ *
+ * The search is the same depth-first search as the Backtracker, trying each
+ * value of the most constrained cell in turn, but it keeps its own stack
+ * instead of recursing, so that it can stop after each solution and carry on
+ * from there when the next one is asked for.  Each level of the stack holds the
+ * cell being tried, the values of it still to be tried and the position of the
+ * undo trail of the Grid before the cell was set.  The stack is never deeper
+ * than the number of unconstrained cells, and a solution is only copied out of
+ * the Grid when it is returned, so the memory used does not grow with the
+ * number of solutions however many there are.
+ *
+ * The search checks the interrupt flag of its thread and its budget, if it has
+ * one, at every step.  If the flag is set or the budget is used up, the search
+ * ends and gaveUp() returns true, so that the end of the solutions can be told
+ * apart from a search which was stopped.
+ *
+ * @author Gary Mann
+ */
+public class SolutionIterator implements Iterator<Constraints> {
+
+    private final Grid grid;
+    private final Propagator propagator;
+    private final int[] cells;
+    private final long[] values;
+    private final int[] marks;
+    private final TrialBudget budget;
+    private long startMillis;
+    private boolean gaveUp;
+    private int depth;
+    private boolean started;
+    private boolean finished;
+    private Constraints next;
+    private long nodes;
+
+/**
+ * Constructs an iterator over the solutions of a problem.
+ *
+ * @param givens        the initial constraints, which are not changed
+ * @param strategies    the strategies used to find cells after each value is
+ *                      set, which must only remove values no solution has
+ */
+    public SolutionIterator(final Constraints givens, final List<Strategy> strategies) {
+        this(givens, strategies, null);
+    }
+
+/**
+ * Constructs an iterator over the solutions of a problem whose search gives up
+ * when a budget is used up.  The time of the budget is counted from the first
+ * call to hasNext() or next().
+ *
+ * @param givens        the initial constraints, which are not changed
+ * @param strategies    the strategies used to find cells after each value is
+ *                      set, which must only remove values no solution has
+ * @param budget        the time and search steps allowed to the whole search,
+ *                      null for no limit
+ */
+    public SolutionIterator(final Constraints givens, final List<Strategy> strategies,
+                            final TrialBudget budget) {
+        this.budget = budget;
+        grid = new Grid(givens);
+        propagator = new Propagator(grid.getDim(), strategies);
+        int empty = grid.getSize() - grid.getConstrainedCount();
+        cells = new int[empty + 1];
+        values = new long[empty + 1];
+        marks = new int[empty + 1];
+    }
+
+    @Override
+    public boolean hasNext() {
+        if ((next == null) && !finished) {
+            next = advance();
+            finished = (next == null);
+        }
+        return next != null;
+    }
+
+    @Override
+    public Constraints next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Constraints solution = next;
+        next = null;
+        return solution;
+    }
+
+/**
+ * Returns the number of search steps taken so far.
+ *
+ * @return the number of search steps
+ */
+    public long getNodes() {
+        return nodes;
+    }
+
+/**
+ * Returns whether the search was given up, because its thread was interrupted
+ * or its budget was used up, before every solution was found.
+ *
+ * @return true if the search was given up, false otherwise
+ */
+    public boolean gaveUp() {
+        return gaveUp;
+    }
+
+/**
+ * Carries on the search until the next solution is found.
+ *
+ * @return  the next solution, null if there are no more
+ */
+    private Constraints advance() {
+        if (!started) {
+            started = true;
+            startMillis = System.currentTimeMillis();
+            try {
+                propagator.propagate(grid, false);
+            } catch (BadCellException bce) {
+                return null;
+            }
+            nodes++;
+            if (grid.isComplete()) {
+                return grid.toConstraints();
+            }
+            push();
+        }
+        while (depth > 0) {
+            if (Thread.currentThread().isInterrupted()
+                    || ((budget != null) && budget.isExhausted(startMillis, nodes))) {
+                gaveUp = true;
+                depth = 0;
+                return null;
+            }
+            int top = depth - 1;
+            grid.undo(marks[top]);
+            if (values[top] == 0L) {
+                depth--;
+                continue;
+            }
+            int value = Candidates.lowestValue(values[top]);
+            values[top] &= values[top] - 1;
+            try {
+                propagator.assign(grid, cells[top] % grid.getDimSq(),
+                                  cells[top] / grid.getDimSq(), value, false);
+            } catch (BadCellException bce) {
+                //this value is wrong, so try the next one
+                continue;
+            }
+            nodes++;
+            if (grid.isComplete()) {
+                return grid.toConstraints();
+            }
+            push();
+        }
+        return null;
+    }
+
+/**
+ * Puts the most constrained cell of the Grid on the stack.
+ */
+    private void push() {
+        int cell = Backtracker.mostConstrainedCell(grid);
+        cells[depth] = cell;
+        values[depth] = grid.candidates(cell);
+        marks[depth] = grid.mark();
+        depth++;
+    }
+}
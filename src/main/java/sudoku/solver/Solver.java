@@ -3,33 +3,44 @@ package sudoku.solver;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.xml.bind.JAXBException;
 
 import sudoku.exceptions.BadCellException;
 import sudoku.exceptions.InvalidInputDataException;
 import sudoku.io.Output;
+import sudoku.items.Candidates;
 import sudoku.items.Cell;
 import sudoku.items.Constraints;
 import sudoku.items.CurrentSolution;
+import sudoku.items.Grid;
 import sudoku.items.Holder;
+import sudoku.solver.strategy.Strategies;
+import sudoku.solver.strategy.Strategy;
+import sudoku.util.SolverMethod;
+import sudoku.util.StrategyPolicy;
 import sudoku.util.Utilities;
 
 public class Solver {
 
+	/** The step between the seeds of the generators of successive trials. */
+	private static final long TRIAL_SEED_GAMMA = 0x9E3779B97F4A7C15L;
+
 /**
  * Run method for main class which calls the solver, which also does top-level
  * work.
  *
- * This method first calls Solver.iterativeUpdateConstraints() on the initial
- * constraints, to create a Holder with the extended Constraints and
- * CurrentSolution objects.  If the solution is not found at once, the method calls
- * Solver.twoDegreesOfFreedom() a set number of times (currently 1000) to see if
- * any call finds the solution.  Each call to Solver.twoDegreesOfFreedom() picks
- * two cells at random to test, so 1000 trys is enough for most problems.
+ * This method uses the default solver method, which is the depth-first search
+ * in the Backtracker class.
  *
  * @param initConstraints    initial Constraints object
  * @param writer             a writer object containing the file used to store the result (null if not used)
@@ -44,25 +55,451 @@ public class Solver {
 						      Writer writer, 
 						      final int outputFormat,
 						      final boolean printOutput) throws IOException, JAXBException {
+		return run(initConstraints, writer, outputFormat, printOutput, SolverMethod.BACKTRACKING);
+	}
+
+/**
+ * Run method for main class which calls the solver using a given solver method
+ * and the standard strategies.
+ *
+ * @param initConstraints    initial Constraints object
+ * @param writer             a writer object containing the file used to store the result (null if not used)
+ * @param outputFormat		 format of the output file if used (XML, JSON or text)
+ * @param printOutput		 true if running text output is required, false otherwise
+ * @param solverMethod		 the method used when the solution is not found at once (see SolverMethod)
+ * @return					 true if the solver finds a solution, false otherwise
+ * @throws IOException
+ * @throws JAXBException 
+ *                    
+*/
+	public static boolean run(final Constraints initConstraints, 
+						      Writer writer, 
+						      final int outputFormat,
+						      final boolean printOutput,
+						      final int solverMethod) throws IOException, JAXBException {
+		return run(initConstraints, writer, outputFormat, printOutput, solverMethod, StrategyPolicy.STANDARD);
+	}
+
+/**
+ * Run method for main class which calls the solver using a given solver method
+ * and strategy policy, which also does top-level work.
+ *
+ * This method first calls Solver.iterativeUpdateConstraints() on the initial
+ * constraints with the strategies of the policy, to create a Holder with the
+ * extended Constraints and CurrentSolution objects.  If the solution is not
+ * found at once, the bivalue cells are probed using the Prober class.  If the
+ * solution is still not found, the method either calls Backtracker.solve() or
+ * DancingLinks.solve(), which search every possibility and so always finish, or
+ * runs two degree of freedom trials with restarts (see RestartPolicy) until one
+ * finds the solution or the trial budget (see TrialBudget) is used up.
+ *
+ * @param initConstraints    initial Constraints object
+ * @param writer             a writer object containing the file used to store the result (null if not used)
+ * @param outputFormat		 format of the output file if used (XML, JSON or text)
+ * @param printOutput		 true if running text output is required, false otherwise
+ * @param solverMethod		 the method used when the solution is not found at once (see SolverMethod)
+ * @param strategyPolicy	 the strategies used to find cells before searching (see StrategyPolicy)
+ * @return					 true if the solver finds a solution, false otherwise
+ * @throws IOException
+ * @throws JAXBException 
+ *                    
+*/
+	public static boolean run(final Constraints initConstraints, 
+						      Writer writer, 
+						      final int outputFormat,
+						      final boolean printOutput,
+						      final int solverMethod,
+						      final int strategyPolicy) throws IOException, JAXBException {
+		SolverResult result = solve(initConstraints, solverMethod, strategyPolicy, printOutput);
+		if (!result.isSolved()) {
+			return false;
+		}
+		Output.saveResultsToFile(result.getSolution().toConstraints(), writer, outputFormat);
+		return true;
+	}
+
+/**
+ * Run method for main class which calls a given SolverEngine, such as a
+ * PortfolioEngine which races several solver methods, and writes the result.
+ *
+ * @param initConstraints    initial Constraints object
+ * @param writer             a writer object containing the file used to store the result (null if not used)
+ * @param outputFormat		 format of the output file if used (XML, JSON or text)
+ * @param printOutput		 true if running text output is required, false otherwise
+ * @param engine			 the engine which solves the problem
+ * @param strategyPolicy	 the strategies used to find cells before searching (see StrategyPolicy)
+ * @return					 true if the solver finds a solution, false otherwise
+ * @throws IOException
+ * @throws JAXBException 
+ *                    
+*/
+	public static boolean run(final Constraints initConstraints, 
+						      Writer writer, 
+						      final int outputFormat,
+						      final boolean printOutput,
+						      final SolverEngine engine,
+						      final int strategyPolicy) throws IOException, JAXBException {
+		SolverResult result = engine.solve(initConstraints, strategyPolicy, printOutput);
+		if (!result.isSolved()) {
+			return false;
+		}
+		Output.saveResultsToFile(result.getSolution().toConstraints(), writer, outputFormat);
+		return true;
+	}
+
+/**
+ * Solves a problem using a given solver method and strategy policy, without
+ * writing any output.  The steps are the same as in Solver.run().
+ *
+ * @param initConstraints    initial Constraints object
+ * @param solverMethod		 the method used when the solution is not found at once (see SolverMethod)
+ * @param strategyPolicy	 the strategies used to find cells before searching (see StrategyPolicy)
+ * @param printOutput		 true if running text output is required, false otherwise
+ * @return					 the result, holding the solved Grid if a solution was found
+ */
+	public static SolverResult solve(final Constraints initConstraints,
+									 final int solverMethod,
+									 final int strategyPolicy,
+									 final boolean printOutput) {
+		return solve(initConstraints, solverMethod, strategyPolicy, printOutput, ForkJoinPool.commonPool());
+	}
+
+/**
+ * Solves a problem using a given solver method and strategy policy, without
+ * writing any output, running the parallel solver methods on a given pool.
+ *
+ * @param initConstraints    initial Constraints object
+ * @param solverMethod		 the method used when the solution is not found at once (see SolverMethod)
+ * @param strategyPolicy	 the strategies used to find cells before searching (see StrategyPolicy)
+ * @param printOutput		 true if running text output is required, false otherwise
+ * @param pool				 the pool used by SolverMethod.PARALLEL_TWO_DEGREES_OF_FREEDOM and
+ *                           SolverMethod.PARALLEL_BACKTRACKING, and to scan the units of large
+ *                           problems (see Propagator)
+ * @return					 the result, holding the solved Grid if a solution was found
+ */
+	public static SolverResult solve(final Constraints initConstraints,
+									 final int solverMethod,
+									 final int strategyPolicy,
+									 final boolean printOutput,
+									 final ForkJoinPool pool) {
+		return solve(initConstraints, solverMethod, strategyPolicy, printOutput, pool,
+					 newSeed(), RestartPolicy.DEFAULT, TrialBudget.DEFAULT);
+	}
+
+/**
+ * Solves a problem using a given solver method and strategy policy, without
+ * writing any output, running the parallel solver methods on a given pool.  The
+ * two degree of freedom trials use a given seed, restart policy and budget, so
+ * that a slow run can be repeated exactly by passing the seed stored in its
+ * result.
+ *
+ * A result without a solution is marked unsolvable when the problem is proved
+ * to have none: by propagation or probing, by the complete search run before
+ * the trials, by the assignments the trials refute, or by a solver method
+ * which searches completely.  Otherwise the solver gave up within its budget.
+ *
+ * @param initConstraints    initial Constraints object
+ * @param solverMethod		 the method used when the solution is not found at once (see SolverMethod)
+ * @param strategyPolicy	 the strategies used to find cells before searching (see StrategyPolicy)
+ * @param printOutput		 true if running text output is required, false otherwise
+ * @param pool				 the pool used by SolverMethod.PARALLEL_TWO_DEGREES_OF_FREEDOM and
+ *                           SolverMethod.PARALLEL_BACKTRACKING, and to scan the units of large
+ *                           problems (see Propagator)
+ * @param seed				 the seed of the generators used by the trials
+ * @param restartPolicy		 the number of search steps allowed to each trial
+ * @param budget			 the time or number of steps after which the trials give up
+ * @return					 the result, holding the solved Grid if a solution was found
+ */
+	public static SolverResult solve(final Constraints initConstraints,
+									 final int solverMethod,
+									 final int strategyPolicy,
+									 final boolean printOutput,
+									 final ForkJoinPool pool,
+									 final long seed,
+									 final RestartPolicy restartPolicy,
+									 final TrialBudget budget) {
+		long start = System.currentTimeMillis();
+		SolverResult result = new SolverResult(initConstraints.getCells().size());
+		result.setSeed(seed);
     	Holder holder = new Holder(initConstraints, null);
-    	holder = iterativeUpdateConstraints(holder, true, printOutput);
+    	holder = iterativeUpdateConstraints(holder, true, Strategies.forPolicy(strategyPolicy), pool, printOutput);
     	Constraints constraints = holder.getConstraints();
     	if (constraints.getCells().size() == (constraints.getDimSq() * constraints.getDimSq())) {
     		if (printOutput) {
     			System.out.println("This is the final solution, no test trys were required.");
     		}
-    		Output.saveResultsToFile(constraints, writer, outputFormat);
-    		return true;
+    		return finish(result, new Grid(constraints), start);
+    	}
+
+    	//probe the bivalue cells before searching
+    	Grid grid = new Grid(constraints);
+    	Prober prober = new Prober(printOutput);
+    	Propagator propagator = new Propagator(grid.getDim(), Strategies.none(), pool);
+    	try {
+    		propagator.propagate(grid, false);
+    		prober.probe(grid, propagator);
+    	} catch (BadCellException bce) {
+    		if (printOutput) {
+    			System.out.println("Probing proved there is no solution.");
+    		}
+    		result.setUnsolvable(true);
+    		return finish(result, null, start);
+    	} finally {
+    		result.setProbeHits(prober.getForced() + prober.getCommon() + prober.getEliminated());
+    	}
+    	if (grid.isComplete()) {
+    		if (printOutput) {
+    			System.out.println("This is the final solution, found by probing.");
+    		}
+    		return finish(result, grid, start);
     	}
+    	holder = new Holder(grid.toConstraints(), null);
     	if (printOutput) {
     		System.out.println("This is the last construction solution.");
-    		System.out.println("Now starting two degree of freedom trials.");
     	}
-    	int maxTrys = 1000;
-    	Holder oldHolder = new Holder(holder);
+
+    	//the trials cannot prove there is no solution, so try a short complete
+    	//search first
+    	long proofNodes = 0;
+    	if (((solverMethod == SolverMethod.TWO_DEGREES_OF_FREEDOM)
+    			|| (solverMethod == SolverMethod.PARALLEL_TWO_DEGREES_OF_FREEDOM))
+    			&& (budget.getProofNodes() > 0)) {
+    		Backtracker backtracker = new Backtracker(false);
+    		boolean found = backtracker.search(grid, propagator, null, budget.getProofNodes());
+    		proofNodes = backtracker.getNodes();
+    		result.setNodes(proofNodes);
+    		if (found) {
+    			if (printOutput) {
+    				System.out.println("This is the final solution, found by the complete search after "
+    								   + proofNodes + " steps.");
+    			}
+    			return finish(result, grid, start);
+    		}
+    		if (!backtracker.gaveUp()) {
+    			if (printOutput) {
+    				System.out.println("The complete search proved there is no solution after "
+    								   + proofNodes + " steps.");
+    			}
+    			result.setUnsolvable(true);
+    			return finish(result, null, start);
+    		}
+    	}
+
     	Constraints solution;
-    	for (int i = 0; i < maxTrys; i++) {
-    		solution = twoDegreesOfFreedom(holder, printOutput);
+    	boolean gaveUp = false;
+    	switch (solverMethod) {
+    	case SolverMethod.TWO_DEGREES_OF_FREEDOM:
+    		solution = twoDegreesOfFreedomTrials(holder, result, seed, restartPolicy, budget, printOutput);
+    		result.setNodes(proofNodes + result.getNodes());
+    		break;
+    	case SolverMethod.PARALLEL_TWO_DEGREES_OF_FREEDOM:
+    		solution = new ParallelTrials(pool, restartPolicy, budget, printOutput).solve(holder, result, seed);
+    		result.setNodes(proofNodes + result.getNodes());
+    		break;
+    	case SolverMethod.PARALLEL_BACKTRACKING:
+    		ParallelSearch parallelSearch = new ParallelSearch(pool, ParallelSearch.DEFAULT_SPLIT_DEPTH, printOutput);
+    		solution = parallelSearch.solve(holder);
+    		result.setNodes(parallelSearch.getNodes());
+    		break;
+    	case SolverMethod.CDCL:
+    		CdclSolver cdcl = new CdclSolver(printOutput);
+    		solution = cdcl.solve(holder.getConstraints());
+    		result.setNodes(cdcl.getNodes());
+    		gaveUp = cdcl.gaveUp();
+    		break;
+    	case SolverMethod.DANCING_LINKS:
+    		DancingLinks dancingLinks = new DancingLinks(printOutput);
+    		solution = dancingLinks.solve(holder.getConstraints());
+    		result.setNodes(dancingLinks.getNodes());
+    		break;
+    	default:
+    		Backtracker backtracker = new Backtracker(printOutput);
+    		solution = backtracker.solve(holder);
+    		result.setNodes(backtracker.getNodes());
+    		break;
+    	}
+
+    	//every other method searches completely unless it is stopped, or the
+    	//clauses of the CDCL search would not fit in memory
+    	if ((solution == null) && (solverMethod != SolverMethod.TWO_DEGREES_OF_FREEDOM)
+    			&& (solverMethod != SolverMethod.PARALLEL_TWO_DEGREES_OF_FREEDOM)
+    			&& !gaveUp && !Thread.currentThread().isInterrupted()) {
+    		result.setUnsolvable(true);
+    	}
+    	return finish(result, (solution == null) ? null : new Grid(solution), start);
+    }
+
+/**
+ * Counts the solutions of a problem, stopping as soon as a given number have
+ * been found.  A limit of two is enough to tell whether a problem has exactly
+ * one solution.  The count is given up only if its thread is interrupted.
+ *
+ * @param initConstraints    initial Constraints object, which is not changed
+ * @param strategyPolicy	 the strategies used to find cells after each value
+ *                           is set (see StrategyPolicy)
+ * @param limit				 the number of solutions after which counting stops
+ * @return					 the number of solutions, at most the limit, and
+ *                           whether the count was given up
+ */
+	public static SolutionCount countSolutions(final Constraints initConstraints,
+											   final int strategyPolicy,
+											   final long limit) {
+		return countSolutions(initConstraints, strategyPolicy, limit, null);
+	}
+
+/**
+ * Counts the solutions of a problem, stopping as soon as a given number have
+ * been found or a budget is used up.  A count which is given up only gives a
+ * lower bound on the number of solutions, so it must not be reported as the
+ * number of solutions.
+ *
+ * @param initConstraints    initial Constraints object, which is not changed
+ * @param strategyPolicy	 the strategies used to find cells after each value
+ *                           is set (see StrategyPolicy)
+ * @param limit				 the number of solutions after which counting stops
+ * @param budget			 the time and search steps allowed, null for no limit
+ * @return					 the number of solutions, at most the limit, and
+ *                           whether the count was given up
+ */
+	public static SolutionCount countSolutions(final Constraints initConstraints,
+											   final int strategyPolicy,
+											   final long limit,
+											   final TrialBudget budget) {
+		SolutionIterator solutions = new SolutionIterator(initConstraints,
+														  Strategies.forPolicy(strategyPolicy),
+														  budget);
+		long count = 0;
+		while ((count < limit) && solutions.hasNext()) {
+			solutions.next();
+			count++;
+		}
+		return new SolutionCount(count, solutions.gaveUp(), solutions.getNodes());
+	}
+
+/**
+ * Returns the solutions of a problem as a lazy Stream.  Each solution is only
+ * searched for when the Stream asks for it, so the Stream can be stopped early,
+ * for example with limit() or findFirst(), and the memory used does not grow
+ * with the number of solutions (see SolutionIterator).
+ *
+ * @param initConstraints    initial Constraints object, which is not changed
+ * @param strategyPolicy	 the strategies used to find cells after each value
+ *                           is set (see StrategyPolicy)
+ * @return					 the solutions, in the order they are found
+ */
+	public static Stream<Constraints> solutions(final Constraints initConstraints,
+												final int strategyPolicy) {
+		SolutionIterator solutions = new SolutionIterator(initConstraints,
+														  Strategies.forPolicy(strategyPolicy));
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(solutions,
+				Spliterator.ORDERED | Spliterator.NONNULL), false);
+	}
+
+/**
+ * Returns a new seed for the generators of a randomized search.
+ *
+ * @return		the seed
+ */
+	public static long newSeed() {
+		return ThreadLocalRandom.current().nextLong();
+	}
+
+/**
+ * Returns the generator used by one two degree of freedom trial.  Each trial
+ * has its own generator made from the seed and its number, so a trial always
+ * makes the same choices whichever thread runs it.  The numbers are spread by
+ * an odd constant, so that the trials of nearby seeds do not share generators.
+ *
+ * @param seed				 the seed of the search
+ * @param trial				 the number of the trial, starting from zero
+ * @return					 the generator
+ */
+	static SplittableRandom trialRandom(final long seed, final int trial) {
+		return new SplittableRandom(seed + trial * TRIAL_SEED_GAMMA);
+	}
+
+/**
+ * Stores the solution and the elapsed time in a result.
+ *
+ * @param result			 the result
+ * @param solution			 the solved Grid, null if no result was found
+ * @param start				 the time the solver started, in milliseconds
+ * @return					 the result
+ */
+	private static SolverResult finish(final SolverResult result, final Grid solution,
+									   final long start) {
+		result.setSolution(solution);
+		result.setElapsedMillis(System.currentTimeMillis() - start);
+		return result;
+	}
+
+/**
+ * This method runs two degree of freedom trials until one of them finds the
+ * solution or the budget is used up.  Each trial picks two cells at random to
+ * test, and then searches for the rest of the solution for the number of steps
+ * given by the restart policy for that trial.
+ *
+ * All the trials share a single Grid.  Each trial rolls the Grid back to its
+ * starting state using the undo trail, so no copies are made between trials.
+ * The trials stop early if the interrupt flag of the thread is set.
+ *
+ * The assignments the trials prove wrong are kept in a NogoodTable.  Before
+ * each trial the refuted single assignments are eliminated from the shared
+ * Grid, which may set further cells or show that there is no solution at all,
+ * and each trial skips the pairs of assignments already refuted.
+ *
+ * @param holder             Holder storing the Constraints object found by
+ *                           Solver.iterativeUpdateConstraints()
+ * @param result			 the result, in which the number of search steps is stored, and
+ *                           which is marked unsolvable if the refuted assignments prove
+ *                           there is no solution
+ * @param seed				 the seed of the generators used by the trials
+ * @param restartPolicy		 the number of search steps allowed to each trial
+ * @param budget			 the time or number of steps after which the trials give up
+ * @param printOutput		 true if running text output is required, false otherwise
+ * @return					 a Constraints object containing the final result, null if no result found
+ */
+	private static Constraints twoDegreesOfFreedomTrials(final Holder holder,
+														 final SolverResult result,
+														 final long seed,
+														 final RestartPolicy restartPolicy,
+														 final TrialBudget budget,
+														 final boolean printOutput) {
+    	if (printOutput) {
+    		System.out.println("Now starting two degree of freedom trials with "
+    						   + restartPolicy + " restarts and seed " + seed + ".");
+    	}
+    	long start = System.currentTimeMillis();
+    	Grid grid = new Grid(holder.getConstraints());
+    	int[] emptyCells = emptyCells(grid);
+    	Propagator propagator = new Propagator(grid.getDim());
+    	NogoodTable nogoods = new NogoodTable(grid.getDim());
+    	long nodes = 0;
+    	int i;
+    	for (i = 0; !budget.isExhausted(start, nodes) && !Thread.currentThread().isInterrupted(); i++) {
+    		Constraints solution;
+    		try {
+    			if (nogoods.applyTo(grid, propagator)) {
+    				emptyCells = emptyCells(grid);
+    			}
+    		} catch (BadCellException bce) {
+    			if (printOutput) {
+    				System.out.println("The refuted assignments prove there is no solution.");
+    			}
+    			result.setUnsolvable(true);
+    			break;
+    		}
+    		if (grid.isComplete()) {
+    			solution = grid.toConstraints();
+    		} else {
+    			Backtracker backtracker = new Backtracker(false);
+    			solution = twoDegreesOfFreedom(grid, emptyCells, propagator, trialRandom(seed, i),
+    										   backtracker, restartPolicy.cutoff(i), nogoods, printOutput);
+    			nodes += 1 + backtracker.getNodes();
+    		}
+    		result.setNodes(nodes);
+    		result.setNogoodLookups(nogoods.getLookups());
+    		result.setNogoodHits(nogoods.getHits());
     		if (solution != null) {
     			if (printOutput) {
     				if (i==0){
@@ -71,18 +508,35 @@ public class Solver {
     					System.out.println("This is the final solution after " + (i + 1) + " tries.");
     				}
     			}
-    			Output.saveResultsToFile(solution, writer, outputFormat);
-    			return true;
-    		} else {
-    			holder = new Holder(oldHolder);
+    			return solution;
     		}
     	}
     	if (printOutput) {
-    		System.out.println("Failed to find a solution after " + maxTrys + " trys.");
+    		System.out.println("Failed to find a solution after " + i + " trys.");
     	}
-    	return false;
+    	return null;
     }
 
+/**
+ * Returns the indexes of the unconstrained cells of a Grid.
+ *
+ * @param grid      the Grid
+ * @return          array of the indexes (y * dimSq + x) of every cell without
+ *                  a value
+ */
+	static int[] emptyCells(final Grid grid) {
+		int[] emptyCells = new int[grid.getSize() - grid.getConstrainedCount()];
+		int count = 0;
+		for (int y = 0; y < grid.getDimSq(); y++) {
+			for (int x = 0; x < grid.getDimSq(); x++) {
+				if (!grid.isConstrained(x, y)) {
+					emptyCells[count++] = grid.index(x, y);
+				}
+			}
+		}
+		return emptyCells;
+	}
+
 /**
  * This method takes a current version of the Constraints and CurrentSolution
  * and tests whether these can lead to the final solution.
@@ -96,7 +550,9 @@ public class Solver {
  * object is part of the final solution, so this is taken as a failure.
  *
  * If the output Constraints object covers all cells in the problem space, this
- * is the final solution and the Holder object is updated and returned.
+ * is the final solution and a new Holder object storing it is returned.  The
+ * Holder passed to this method is never changed, so it is returned as it is
+ * when the final solution has not been found.
  *
  * @param holder       Holder storing the current Constraint and CurrentSolution
  *                     objects.
@@ -109,12 +565,57 @@ public class Solver {
     public static Holder iterativeUpdateConstraints(final Holder holder,
                                                     final boolean firstPass,
                                                     final boolean printOutput) {
-        final Holder originalHolder = new Holder(holder);
+        return iterativeUpdateConstraints(holder, firstPass,
+                                          Strategies.standard(), printOutput);
+    }
+
+/**
+ * This method is the same as iterativeUpdateConstraints(Holder, boolean,
+ * boolean), but uses a given list of strategies.
+ *
+ * @param holder       Holder storing the current Constraint and CurrentSolution
+ *                     objects.
+ * @param firstPass    true if this is the first time this method is called,
+ *                     false otherwise
+ * @param strategies   the strategies used when no more cells can be found
+ * @param printOutput  true if running text output is required, false otherwise
+ * @return             the Holder object, either the original or holding the
+ *                     final result if this has been found
+*/
+    public static Holder iterativeUpdateConstraints(final Holder holder,
+                                                    final boolean firstPass,
+                                                    final List<Strategy> strategies,
+                                                    final boolean printOutput) {
+        return iterativeUpdateConstraints(holder, firstPass, strategies, null, printOutput);
+    }
+
+/**
+ * This method is the same as iterativeUpdateConstraints(Holder, boolean, List,
+ * boolean), but splits the unit scans of large problems across a pool (see
+ * Propagator).
+ *
+ * @param holder       Holder storing the current Constraint and CurrentSolution
+ *                     objects.
+ * @param firstPass    true if this is the first time this method is called,
+ *                     false otherwise
+ * @param strategies   the strategies used when no more cells can be found
+ * @param pool         the pool which runs the unit scans, null to scan on the
+ *                     calling thread
+ * @param printOutput  true if running text output is required, false otherwise
+ * @return             the Holder object, either the original or holding the
+ *                     final result if this has been found
+*/
+    public static Holder iterativeUpdateConstraints(final Holder holder,
+                                                    final boolean firstPass,
+                                                    final List<Strategy> strategies,
+                                                    final ForkJoinPool pool,
+                                                    final boolean printOutput) {
         Holder newHolder;
         try {
-            newHolder = updateConstraints(holder.getConstraints(), printOutput);
+            newHolder = updateConstraints(new Constraints(holder.getConstraints()),
+                                          strategies, pool, printOutput);
         } catch (BadCellException bce) {
-            return originalHolder;
+            return holder;
         }
         if ((firstPass)|| 
         	(newHolder.getConstraints().getCells().size()          
@@ -124,7 +625,7 @@ public class Solver {
          	if (printOutput) {
            		System.out.println("INCOMPLETE: Test change failed to find a complete solution");
            	}
-            return originalHolder;
+            return holder;
         }
     }
 
@@ -132,12 +633,13 @@ public class Solver {
      * This method updates the Constraints object and find the first CurrentSolution
      * object based on the initial constraints.
      *
-     * This method uses a do-while loop which looks for new constraints in every
-     * iteration.  Whenever it finds a new constraint, it updates the Constraints
-     * object and sets a flag to continue the looping (every new constrained cell
-     * can lead to more new constraints which must be tested for).  If a cell is not
-     * fully constrained, those values it can take are added to the CurrentSolution
-     * object.
+     * The constraints are copied into a Grid and a Propagator adds every cell
+     * which can be found: cells which can take only one value, and cells which are
+     * the only ones in a column, row or box which can take a particular value.
+     * When no more cells can be found, the standard strategies (see Strategies)
+     * eliminate values so that more cells can be found.
+     * Each new constrained cell is added to the Constraints object.  Those values
+     * each remaining cell can take are added to the CurrentSolution object.
      *
      * @param constraintsOrig        the original Constraints object
      * @param printOutput			 true if running text output is required, false otherwise
@@ -148,149 +650,88 @@ public class Solver {
      */
         public static Holder updateConstraints(final Constraints constraintsOrig, 
         									   final boolean printOutput) throws BadCellException {
-            Constraints constraints = constraintsOrig;
-            int dim = constraints.getDim();
-            CurrentSolution currentSolution = new CurrentSolution(dim);
-            boolean loopFinished;
-            do {
-                loopFinished = true;
-                constraints.draw(printOutput);
-
-                currentSolution.reset(constraints);
-                if (printOutput) {
-                	System.out.println("No constrained cells = " + constraints.getCells().size());
-                }
-                //test how many values each cell can take
-                Set<Cell> cells = currentSolution.getCells();
-                for (Cell cell:cells){
-                    if (!constraints.getCells().contains(cell)) {
-                        Set<Integer> allowedValues =
-                                     allowedValuesForCell(constraints, cell);
-
-                        //if a cell cannot take any values, throw a BadCellException
-                        if (allowedValues.isEmpty()){
-                        	if (printOutput) {
-                        		System.out.println("ERROR: FOUND A CELL WHICH CAN CONTAIN NO VALUES");
-                        		System.out.println("Cell is at x = " + (cell.getxCoord()+1)  + " y = " + (cell.getyCoord()+1));
-                        	}
-                            throw new BadCellException();
-                        }
-
-                        //if a cell can take exactly one value, add this cell and value to the Constraints
-                        if (allowedValues.size() == 1){
-                            constraints =
-                                updateConstraints(constraints, cell, allowedValues);
-                            if (printOutput) {
-                            	System.out.println(
-                                    "\n\nCell found with only one possible value");
-                            	System.out.println(
-                                    "Updated cell at x = " + (cell.getxCoord()+1)
-                                  + " y = " + (cell.getyCoord()+1));
-                            }
-                            loopFinished = false;
-                            break;
-                        } else {
-
-                            //update the CurrentSolution with the values this cell can take
-                            currentSolution = updateSolution(currentSolution, cell,
-                                                             allowedValues);
-                        }
-                    }
-                }
+            return updateConstraints(constraintsOrig, Strategies.standard(), printOutput);
+        }
 
-                //look for a cell which is the only one in a column which can take a particular value
-                if (loopFinished){
-                    Cell cell = Finder.findUniqueCellx(currentSolution,
-                                                       constraints);
-                    if (cell != null){
-                        loopFinished = false;
-                        if (printOutput) {
-                        	System.out.println("\n\nCell found where a value can only appear once in a column.  "
-                        						+ "Column " + (cell.getxCoord() + 1));
-                        	System.out.println("Updated cell at x = " + (cell.getxCoord()+1)
-                                        		+ " y = " + (cell.getyCoord() + 1));
-                        }
-                        constraints = updateConstraints(constraints, cell,
-                                                        cell.getValues());
-                    }
-                }
+    /**
+     * This method is the same as updateConstraints(Constraints, boolean), but
+     * uses a given list of strategies.
+     *
+     * @param constraintsOrig        the original Constraints object
+     * @param strategies             the strategies used when no more cells can be
+     *                               found (see Strategies)
+     * @param printOutput			 true if running text output is required, false otherwise
+     * @return                       Holder storing the updated Constraints and
+     *                               CurrentSolution objects
+     * @throws BadCellException      thrown if looping generates a cell which can
+     *                               contain no values
+     */
+        public static Holder updateConstraints(final Constraints constraintsOrig,
+                                               final List<Strategy> strategies,
+                                               final boolean printOutput) throws BadCellException {
+            return updateConstraints(constraintsOrig, strategies, null, printOutput);
+        }
 
-                //look for a cell which is the only one in a row which can take a particular value
-                if (loopFinished){
-                    Cell cell = Finder.findUniqueCelly(currentSolution,
-                                                       constraints);
-                    if (cell != null){
-                        loopFinished = false;
-                        if (printOutput) {
-                        	System.out.println("\n\nCell found where a value can only appear once in a row.  "
-                        						+ "Row " + (cell.getyCoord() + 1));
-                        	System.out.println("Updated cell at x = " + (cell.getxCoord() + 1)
-                                        		+ " y = " + (cell.getyCoord() + 1));
-                        }
-                        constraints = updateConstraints(constraints, cell,
-                                                        cell.getValues());
-                    }
-                }
+    /**
+     * This method is the same as updateConstraints(Constraints, List, boolean),
+     * but splits the unit scans of large problems across a pool (see
+     * Propagator).  Problems smaller than Propagator.PARALLEL_MIN_DIM are
+     * always scanned on the calling thread.
+     *
+     * @param constraintsOrig        the original Constraints object
+     * @param strategies             the strategies used when no more cells can be
+     *                               found (see Strategies)
+     * @param pool                   the pool which runs the unit scans, null to
+     *                               scan on the calling thread
+     * @param printOutput			 true if running text output is required, false otherwise
+     * @return                       Holder storing the updated Constraints and
+     *                               CurrentSolution objects
+     * @throws BadCellException      thrown if looping generates a cell which can
+     *                               contain no values
+     */
+        public static Holder updateConstraints(final Constraints constraintsOrig,
+                                               final List<Strategy> strategies,
+                                               final ForkJoinPool pool,
+                                               final boolean printOutput) throws BadCellException {
+            Constraints constraints = constraintsOrig;
+            int dim = constraints.getDim();
+            int dimSq = constraints.getDimSq();
+            constraints.draw(printOutput);
+            if (printOutput) {
+            	System.out.println("No constrained cells = " + constraints.getCells().size());
+            }
+            Grid grid = new Grid(constraints);
+            new Propagator(dim, strategies, pool).propagate(grid, printOutput);
 
-                //look for a cell which is the only one in a box which can take a particular value
-                if (loopFinished){
-                    Cell cell = Finder.findUniqueCellBoxes(currentSolution,
-                                                           constraints);
-                    if (cell != null){
-                        loopFinished = false;
-                        if (printOutput) {
-                        	System.out.println("\n\nCell found where a value can only appear once in a box.  "
-                        						+ "Box " + cell.getBox(constraints.getDim()));
-                        	System.out.println("Updated cell at x = " + (cell.getxCoord() + 1)
-                                        		+ " y = " + (cell.getyCoord() + 1));
-                        }
+            //add the new constrained cells to the Constraints
+            CurrentSolution currentSolution = new CurrentSolution(dim);
+            for (int y = 0; y < dimSq; y++) {
+                for (int x = 0; x < dimSq; x++) {
+                    if (grid.isConstrained(x, y) && !constraints.contains(x, y)) {
+                        Cell cell = new Cell(x, y);
                         constraints = updateConstraints(constraints, cell,
-                                                        cell.getValues());
+                                                        Candidates.toSet(grid.candidates(x, y)));
                     }
                 }
-            } while (!loopFinished);
-            return new Holder(constraints, currentSolution);
-        }
+            }
 
-/**
- * This method finds the values a given cell can take.  Any values of
- * constrained cells in the same row, column or box are excluded.
- *
- * @param constraints       Constraints object storing the constrained values
- * @param cell              the cell being tested
- * @return                  Set of Integers which are the values this cell can
- *                          take
-*/
-    public static Set<Integer> allowedValuesForCell(Constraints constraints, Cell cell) {
-        Set<Integer> allowedValues = new HashSet<Integer>();
-        for (int i = 1; i <= constraints.getDimSq(); i++) {
-            allowedValues.add(new Integer(i));
-        }
-        int dim = constraints.getDim();
-        int x = cell.getxCoord();
-        int y = cell.getyCoord();
-        int box = cell.getBox(dim);
-        Set<Cell> comparisonCells = new HashSet<Cell>();
-        for (Cell constrainedCell:constraints.getCells()) {
-            if (!constrainedCell.getValues().isEmpty()) {
-                int xConstr = constrainedCell.getxCoord();
-                int yConstr = constrainedCell.getyCoord();
-                int boxConstr = constrainedCell.getBox(dim);
-                if ((xConstr == x) || (yConstr == y) || (box == boxConstr)) {
-                    comparisonCells.add(constrainedCell);
+            //update the CurrentSolution with the values each other cell can take
+            currentSolution.reset(constraints);
+            for (Cell cell : currentSolution.getCells()) {
+                if (!grid.isConstrained(cell.getxCoord(), cell.getyCoord())) {
+                    long allowedValues = grid.candidates(cell.getxCoord(), cell.getyCoord());
+                    currentSolution.setCandidates(cell.getxCoord(), cell.getyCoord(),
+                                                  allowedValues);
+                    cell.setValues(Candidates.toSet(allowedValues));
                 }
             }
-        }
-        for (Cell constrainedCell:comparisonCells) {
-            for (Integer forbiddenValue:constrainedCell.getValues()) {
-                if (allowedValues.contains(forbiddenValue)) {
-                    allowedValues.remove(forbiddenValue);
-                }
+            if (printOutput) {
+            	constraints.draw(printOutput);
+            	System.out.println("No constrained cells = " + constraints.getCells().size());
             }
+            return new Holder(constraints, currentSolution);
         }
-        return allowedValues;
-    }
-            
+
 /**
  * This method adds a new cell to the Constraints object.
  *
@@ -355,89 +796,182 @@ public class Solver {
  * is not certain that the first pair of cells being tested will generate the
  * final solution.
  *
+ * The search is done on a Grid built from the Constraints in the holder, see
+ * twoDegreesOfFreedom(Grid, int[], Propagator, SplittableRandom, boolean).
+ *
  * @param holderOrig    Holder object storing the initial Constraints and
  *                      CurrentSolution objects
  * @param printOutput	true if running text output is desired, false otherwise
  * @return              a Constraints object containing the final result, null if no result found
- * @throws IOException 
  */
         public static Constraints twoDegreesOfFreedom(final Holder holderOrig,
-        										  	  final boolean printOutput) throws IOException{
-
-            //initialize the running solution and constraints
-            Holder holder = new Holder(holderOrig);
-            Constraints constraints = holder.getConstraints();
-            CurrentSolution currentSolution = holder.getCurrentSolution();
-            List<Cell> candidateCells = new ArrayList<Cell>();
-            for (Cell candidateCell : currentSolution.getCells()) {
-                if (!constraints.getCells().contains(candidateCell)) {
-                    candidateCells.add(candidateCell);
-                }
-            }
+        										  	  final boolean printOutput) {
+            Grid grid = new Grid(holderOrig.getConstraints());
+            return twoDegreesOfFreedom(grid, emptyCells(grid), new Propagator(grid.getDim()),
+                                       new SplittableRandom(), printOutput);
+        }
+
+/**
+ * This method performs a two-degree-of-freedom search on a Grid.
+ *
+ * Two of the given unconstrained cells, which are not in the same row, column
+ * or box, are picked at random.  Every combination of the values these cells
+ * can take is set in the Grid using the Propagator, to see if it leads to the
+ * final solution.
+ *
+ * Each combination is rolled back using the undo trail of the Grid, so the
+ * Grid is left as it was when this method returns and no copies are made.
+ *
+ * The cells are picked using a SplittableRandom owned by the caller, so
+ * trials running on different threads do not contend on a shared generator.
+ *
+ * @param grid          the Grid storing the current partial solution
+ * @param emptyCells    the indexes of the unconstrained cells of the Grid
+ * @param propagator    the Propagator used to set the cells
+ * @param random        the generator used to pick the cells, used by one
+ *                      thread only
+ * @param printOutput	true if running text output is desired, false otherwise
+ * @return              a Constraints object containing the final result, null if no result found
+ */
+        public static Constraints twoDegreesOfFreedom(final Grid grid,
+                                                      final int[] emptyCells,
+                                                      final Propagator propagator,
+                                                      final SplittableRandom random,
+                                                      final boolean printOutput) {
+            return twoDegreesOfFreedom(grid, emptyCells, propagator, random, null, 0, null, printOutput);
+        }
+
+/**
+ * This method is the same as twoDegreesOfFreedom(Grid, int[], Propagator,
+ * SplittableRandom, boolean), but when a combination of values does not
+ * complete the Grid, it searches for the rest of the solution using a
+ * Backtracker which tries values in random order.  The searches of every
+ * combination share a number of steps, after which the trial gives up.
+ *
+ * Combinations refuted by earlier trials are skipped, and the combinations
+ * this trial refutes are added to the NogoodTable: a value of the first cell
+ * which cannot be set, a combination which cannot be set or whose search ends
+ * without a solution before giving up, and a value of either cell which is
+ * refuted with every value of the other.
+ *
+ * @param grid          the Grid storing the current partial solution
+ * @param emptyCells    the indexes of the unconstrained cells of the Grid
+ * @param propagator    the Propagator used to set the cells
+ * @param random        the generator used to pick the cells and the order of
+ *                      the values searched, used by one thread only
+ * @param backtracker   the Backtracker which searches, null if none
+ * @param cutoff        the number of search steps allowed to this trial
+ * @param nogoods       the assignments refuted by earlier trials, null if none
+ *                      are kept
+ * @param printOutput	true if running text output is desired, false otherwise
+ * @return              a Constraints object containing the final result, null if no result found
+ */
+        static Constraints twoDegreesOfFreedom(final Grid grid,
+                                               final int[] emptyCells,
+                                               final Propagator propagator,
+                                               final SplittableRandom random,
+                                               final Backtracker backtracker,
+                                               final long cutoff,
+                                               final NogoodTable nogoods,
+                                               final boolean printOutput) {
+            int dimSq = grid.getDimSq();
+            int dim = grid.getDim();
 
             //select two different cells at random
-            Cell changedCell1;
-            Cell changedCell2;
-            int cellPos1 = (int) Math.round(Math.random()
-                              * (candidateCells.size() - 1));
+            int cellPos1 = random.nextInt(emptyCells.length);
             int cellPos2;
-            int dim = constraints.getDim();
+            int x1;
+            int y1;
+            int x2;
+            int y2;
             do {
-              cellPos2 = (int) Math.round(Math.random()
-                           * (candidateCells.size() - 1));
-              changedCell1 = candidateCells.get(cellPos1);
-              changedCell2 = candidateCells.get(cellPos2);
+              cellPos2 = random.nextInt(emptyCells.length);
+              x1 = emptyCells[cellPos1] % dimSq;
+              y1 = emptyCells[cellPos1] / dimSq;
+              x2 = emptyCells[cellPos2] % dimSq;
+              y2 = emptyCells[cellPos2] / dimSq;
             } while ((cellPos1 == cellPos2) ||
-                     (changedCell1.getxCoord() == changedCell2.getxCoord()) ||
-                     (changedCell1.getyCoord() == changedCell2.getyCoord()) ||
-                     (changedCell1.getBox(dim) == changedCell2.getBox(dim))
+                     (x1 == x2) ||
+                     (y1 == y2) ||
+                     ((x1 / dim == x2 / dim) && (y1 / dim == y2 / dim))
                     );
 
-            //set up lists of possible values for the test cells
-            List<Integer> candidateValues1 = new ArrayList<Integer>();
-            for (Integer candidateVal : changedCell1.getValues()) {
-                candidateValues1.add(candidateVal);
-            }
-            List<Integer> candidateValues2 = new ArrayList<Integer>();
-            for (Integer candidateVal : changedCell2.getValues()) {
-                candidateValues2.add(candidateVal);
-            }
-
             //iterate through possible values of the two test cells, and test what
             //result each combination of values leads to
-            for (Integer candidateVal1 : candidateValues1) {
-                changedCell1.getValues().clear();
-                changedCell1.getValues().add(candidateVal1);
-                for (Integer candidateVal2 : candidateValues2) {
-                    changedCell2.getValues().clear();
-                    changedCell2.getValues().add(candidateVal2);
+            int index1 = grid.index(x1, y1);
+            int index2 = grid.index(x2, y2);
+            long candidateValues1 = grid.candidates(x1, y1);
+            long candidateValues2 = grid.candidates(x2, y2);
+            long refutedValues2 = candidateValues2;
+            int mark = grid.mark();
+            for (long rest1 = candidateValues1; rest1 != 0L; rest1 &= rest1 - 1) {
+                int candidateVal1 = Candidates.lowestValue(rest1);
+                try {
+                    propagator.assign(grid, x1, y1, candidateVal1, printOutput);
+                } catch (BadCellException bce) {
+                    //this value is wrong whatever the second cell takes
+                    grid.undo(mark);
+                    if (nogoods != null) {
+                        nogoods.refute(index1, candidateVal1);
+                    }
+                    continue;
+                }
+                int mark1 = grid.mark();
+                boolean refutedValue1 = true;
+                for (long rest2 = candidateValues2; rest2 != 0L; rest2 &= rest2 - 1) {
+                    int candidateVal2 = Candidates.lowestValue(rest2);
+                    if ((nogoods != null)
+                            && (nogoods.isRefuted(index2, candidateVal2)
+                                || nogoods.isRefuted(index1, candidateVal1, index2, candidateVal2))) {
+                        continue;
+                    }
                     if (printOutput) {
-                    	System.out.println("Setting cell at x = "
-                    			+ (changedCell1.getxCoord() + 1)
-                    			+ " y = " + (changedCell1.getyCoord() + 1)
-                    			+ " to value " + candidateVal1.toString());
-                    	System.out.println("Setting cell at x = "
-                    			+ (changedCell2.getxCoord() + 1)
-                    			+ " y = " + (changedCell2.getyCoord() + 1)
-                    			+ " to value " + candidateVal2.toString());
+                    	System.out.println("Setting cell at x = " + (x1 + 1)
+                    			+ " y = " + (y1 + 1) + " to value " + candidateVal1);
+                    	System.out.println("Setting cell at x = " + (x2 + 1)
+                    			+ " y = " + (y2 + 1) + " to value " + candidateVal2);
                     }
-                    constraints = updateConstraints(constraints, changedCell1,
-                                                    changedCell1.getValues());
-                    constraints = updateConstraints(constraints, changedCell2,
-                                                    changedCell2.getValues());
-                    holder.setConstraints(constraints);
-
                     //test whether current values of test cells lead to a final solution
-                    holder = iterativeUpdateConstraints(holder, false, printOutput);
-                    constraints = holder.getConstraints();
-                    if (constraints.getCells().size()
-                        == (constraints.getDimSq() * constraints.getDimSq())) {
-                    	return constraints;
+                    boolean refuted;
+                    try {
+                        propagator.assign(grid, x2, y2, candidateVal2, printOutput);
+                        refuted = false;
+                        if (!grid.isComplete() && (backtracker != null) && (cutoff > 0)
+                                && (backtracker.getNodes() < cutoff)) {
+                            refuted = !backtracker.search(grid, propagator, random, cutoff)
+                                      && !backtracker.gaveUp();
+                        }
+                        if (grid.isComplete()) {
+                            Constraints solution = grid.toConstraints();
+                            grid.undo(mark);
+                            return solution;
+                        }
+                        if (printOutput) {
+                            System.out.println("INCOMPLETE: Test change failed to find a complete solution");
+                        }
+                    } catch (BadCellException bce) {
+                        //these values are wrong, so try the next ones
+                        refuted = true;
+                    }
+                    grid.undo(mark1);
+                    if (refuted) {
+                        if (nogoods != null) {
+                            nogoods.refute(index1, candidateVal1, index2, candidateVal2);
+                        }
                     } else {
-                        constraints.getCells().remove(changedCell1);
-                        constraints.getCells().remove(changedCell2);
+                        refutedValue1 = false;
+                        refutedValues2 &= ~Candidates.bit(candidateVal2);
                     }
                 }
+                grid.undo(mark);
+                if (refutedValue1 && (nogoods != null)) {
+                    nogoods.refute(index1, candidateVal1);
+                }
+            }
+            if (nogoods != null) {
+                for (long rest2 = refutedValues2; rest2 != 0L; rest2 &= rest2 - 1) {
+                    nogoods.refute(index2, Candidates.lowestValue(rest2));
+                }
             }
             return null;
         }
@@ -454,6 +988,9 @@ public class Solver {
     public static void validateInitialConstraints(Constraints constraints) 
     throws InvalidInputDataException, ArrayIndexOutOfBoundsException { 
           	
+       	if (constraints.getDim() > Candidates.MAX_DIM) {
+       		throw new InvalidInputDataException("Dimension " + constraints.getDim() + " is larger than the maximum of " + Candidates.MAX_DIM);
+       	}
        	int[][] constraintsArray = Utilities.convertSolutionToArray(constraints);
        	//check that no non-zero number appears twice in a row
        	for (int x=0; x<constraints.getDimSq(); x++) {
@@ -0,0 +1,54 @@
+package sudoku.solver;
+
+import sudoku.items.Constraints;
+
+/**
+ * Interface for an engine which solves a problem given by its initial
+ * constraints.
+ *
+ * An engine knows nothing about the input and output file formats: it takes the
+ * parsed constraints and returns the solved Grid with statistics in a
+ * SolverResult.  Engines are registered as Spring beans (see
+ * SudokuSpringBootConfig) and are selected by name for each request.
+ *
+ * Engines which make random choices take a seed, and store the seed they used
+ * in the result, so that a slow run can be repeated exactly.
+ *
+ * @author Gary Mann
+ */
+public interface SolverEngine {
+
+/**
+ * Returns the name of this engine, used to select it in a request.
+ *
+ * @return the name of this engine
+ */
+    String getName();
+
+/**
+ * Solves a problem.
+ *
+ * @param givens            the initial constraints, which are not changed
+ * @param strategyPolicy    the strategies used to find cells before searching
+ *                          (see StrategyPolicy)
+ * @param printOutput       true if running text output is required, false
+ *                          otherwise
+ * @return                  the result, holding the solved Grid if a solution
+ *                          was found
+ */
+    SolverResult solve(Constraints givens, int strategyPolicy, boolean printOutput);
+
+/**
+ * Solves a problem, using a given seed for any random choices.
+ *
+ * @param givens            the initial constraints, which are not changed
+ * @param strategyPolicy    the strategies used to find cells before searching
+ *                          (see StrategyPolicy)
+ * @param seed              the seed of the generators used by the engine
+ * @param printOutput       true if running text output is required, false
+ *                          otherwise
+ * @return                  the result, holding the solved Grid if a solution
+ *                          was found and the seed used
+ */
+    SolverResult solve(Constraints givens, int strategyPolicy, long seed, boolean printOutput);
+}
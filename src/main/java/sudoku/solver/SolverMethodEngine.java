@@ -0,0 +1,214 @@
+package sudoku.solver;
+
+import java.util.concurrent.ForkJoinPool;
+
+import sudoku.items.Constraints;
+import sudoku.util.SolverMethod;
+
+/**
+ * This engine solves a problem with Solver.solve() using one of the solver
+ * methods in SolverMethod.
+ *
+ * @author Gary Mann
+ */
+public class SolverMethodEngine implements SolverEngine {
+
+    private final String name;
+    private final int solverMethod;
+    private final ForkJoinPool pool;
+    private final RestartPolicy restartPolicy;
+    private final TrialBudget budget;
+
+/**
+ * Constructs an engine which uses a given solver method.
+ *
+ * @param name          the name of this engine
+ * @param solverMethod  the method used when the solution is not found at once
+ *                      (see SolverMethod)
+ */
+    public SolverMethodEngine(final String name, final int solverMethod) {
+        this(name, solverMethod, ForkJoinPool.commonPool());
+    }
+
+/**
+ * Constructs an engine which uses a given solver method, running the parallel
+ * solver methods on a given pool.
+ *
+ * @param name          the name of this engine
+ * @param solverMethod  the method used when the solution is not found at once
+ *                      (see SolverMethod)
+ * @param pool          the pool used by the parallel solver methods
+ */
+    public SolverMethodEngine(final String name, final int solverMethod,
+                              final ForkJoinPool pool) {
+        this(name, solverMethod, pool, RestartPolicy.DEFAULT, TrialBudget.DEFAULT);
+    }
+
+/**
+ * Constructs an engine which uses a given solver method, running the parallel
+ * solver methods on a given pool, with a given restart policy and budget for
+ * the two degree of freedom trials.
+ *
+ * @param name          the name of this engine
+ * @param solverMethod  the method used when the solution is not found at once
+ *                      (see SolverMethod)
+ * @param pool          the pool used by the parallel solver methods
+ * @param restartPolicy the number of search steps allowed to each trial
+ * @param budget        the time or number of steps after which the trials
+ *                      give up
+ */
+    public SolverMethodEngine(final String name, final int solverMethod,
+                              final ForkJoinPool pool, final RestartPolicy restartPolicy,
+                              final TrialBudget budget) {
+        this.name = name;
+        this.solverMethod = solverMethod;
+        this.pool = pool;
+        this.restartPolicy = restartPolicy;
+        this.budget = budget;
+    }
+
+/**
+ * Returns an engine which uses the depth-first search in the Backtracker class.
+ *
+ * @return the "backtracking" engine
+ */
+    public static SolverMethodEngine backtracking() {
+        return new SolverMethodEngine("backtracking", SolverMethod.BACKTRACKING);
+    }
+
+/**
+ * Returns an engine which uses the exact cover search in the DancingLinks
+ * class.
+ *
+ * @return the "dancing-links" engine
+ */
+    public static SolverMethodEngine dancingLinks() {
+        return new SolverMethodEngine("dancing-links", SolverMethod.DANCING_LINKS);
+    }
+
+/**
+ * Returns an engine which uses the clause learning search in the CdclSolver
+ * class.
+ *
+ * @return the "cdcl" engine
+ */
+    public static SolverMethodEngine cdcl() {
+        return new SolverMethodEngine("cdcl", SolverMethod.CDCL);
+    }
+
+/**
+ * Returns an engine which uses the random trials of
+ * Solver.twoDegreesOfFreedom().
+ *
+ * @return the "two-degrees" engine
+ */
+    public static SolverMethodEngine twoDegreesOfFreedom() {
+        return new SolverMethodEngine("two-degrees", SolverMethod.TWO_DEGREES_OF_FREEDOM);
+    }
+
+/**
+ * Returns an engine which uses the random trials of
+ * Solver.twoDegreesOfFreedom() with a given restart policy and budget.
+ *
+ * @param restartPolicy the number of search steps allowed to each trial
+ * @param budget        the time or number of steps after which the trials
+ *                      give up
+ * @return              the "two-degrees" engine
+ */
+    public static SolverMethodEngine twoDegreesOfFreedom(final RestartPolicy restartPolicy,
+                                                         final TrialBudget budget) {
+        return new SolverMethodEngine("two-degrees", SolverMethod.TWO_DEGREES_OF_FREEDOM,
+                                      ForkJoinPool.commonPool(), restartPolicy, budget);
+    }
+
+/**
+ * Returns an engine which runs the random trials of
+ * Solver.twoDegreesOfFreedom() on several threads (see ParallelTrials).
+ *
+ * @param trialPool     the pool which runs the trials
+ * @return              the "parallel-two-degrees" engine
+ */
+    public static SolverMethodEngine parallelTwoDegreesOfFreedom(final ForkJoinPool trialPool) {
+        return new SolverMethodEngine("parallel-two-degrees",
+                                      SolverMethod.PARALLEL_TWO_DEGREES_OF_FREEDOM, trialPool);
+    }
+
+/**
+ * Returns an engine which runs the random trials of
+ * Solver.twoDegreesOfFreedom() on several threads (see ParallelTrials) with a
+ * given restart policy and budget.
+ *
+ * @param trialPool     the pool which runs the trials
+ * @param restartPolicy the number of search steps allowed to each trial
+ * @param budget        the time or number of steps after which the trials
+ *                      give up
+ * @return              the "parallel-two-degrees" engine
+ */
+    public static SolverMethodEngine parallelTwoDegreesOfFreedom(final ForkJoinPool trialPool,
+                                                                 final RestartPolicy restartPolicy,
+                                                                 final TrialBudget budget) {
+        return new SolverMethodEngine("parallel-two-degrees",
+                                      SolverMethod.PARALLEL_TWO_DEGREES_OF_FREEDOM, trialPool,
+                                      restartPolicy, budget);
+    }
+
+/**
+ * Returns an engine which splits the depth-first search of the Backtracker
+ * class into tasks on several threads (see ParallelSearch).
+ *
+ * @param pool          the pool which runs the search
+ * @return              the "parallel-backtracking" engine
+ */
+    public static SolverMethodEngine parallelBacktracking(final ForkJoinPool pool) {
+        return new SolverMethodEngine("parallel-backtracking",
+                                      SolverMethod.PARALLEL_BACKTRACKING, pool);
+    }
+
+/**
+ * Returns the name of this engine.
+ *
+ * @return the name of this engine
+ */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+/**
+ * Solves a problem using the solver method of this engine and a new seed.
+ *
+ * @param givens            the initial constraints, which are not changed
+ * @param strategyPolicy    the strategies used to find cells before searching
+ *                          (see StrategyPolicy)
+ * @param printOutput       true if running text output is required, false
+ *                          otherwise
+ * @return                  the result, holding the solved Grid if a solution
+ *                          was found
+ */
+    @Override
+    public SolverResult solve(final Constraints givens, final int strategyPolicy,
+                              final boolean printOutput) {
+        return solve(givens, strategyPolicy, Solver.newSeed(), printOutput);
+    }
+
+/**
+ * Solves a problem using the solver method of this engine and a given seed.
+ *
+ * @param givens            the initial constraints, which are not changed
+ * @param strategyPolicy    the strategies used to find cells before searching
+ *                          (see StrategyPolicy)
+ * @param seed              the seed of the generators used by the trials
+ * @param printOutput       true if running text output is required, false
+ *                          otherwise
+ * @return                  the result, holding the solved Grid if a solution
+ *                          was found
+ */
+    @Override
+    public SolverResult solve(final Constraints givens, final int strategyPolicy,
+                              final long seed, final boolean printOutput) {
+        SolverResult result = Solver.solve(givens, solverMethod, strategyPolicy,
+                                           printOutput, pool, seed, restartPolicy, budget);
+        result.setEngine(name);
+        return result;
+    }
+}
@@ -0,0 +1,242 @@
+package sudoku.solver;
+
+import sudoku.items.Grid;
+
+/**
+ * This class stores the result of a call to a SolverEngine: the solved Grid,
+ * if one was found, and statistics about how it was found.
+ *
+ * A result without a solution has one of two outcomes.  Either the engine
+ * proved that the problem has no solution, or it gave up within its budget (or
+ * was stopped) without deciding whether there is one.
+ *
+ * @author Gary Mann
+ */
+public class SolverResult {
+
+    private Grid solution;
+    private boolean unsolvable;
+    private String engine;
+    private int givens;
+    private long nodes;
+    private long seed;
+    private long probeHits;
+    private long nogoodLookups;
+    private long nogoodHits;
+    private long elapsedMillis;
+
+/**
+ * Constructs a result for a problem with a given number of constrained cells.
+ *
+ * @param givens    the number of constrained cells in the initial problem
+ */
+    public SolverResult(final int givens) {
+        this.givens = givens;
+    }
+
+/**
+ * Returns whether a solution was found.
+ *
+ * @return true if the solution was found, false otherwise
+ */
+    public boolean isSolved() {
+        return solution != null;
+    }
+
+/**
+ * Returns whether the engine proved that the problem has no solution.
+ *
+ * @return true if there is no solution, false otherwise
+ */
+    public boolean isUnsolvable() {
+        return unsolvable;
+    }
+
+/**
+ * Sets whether the engine proved that the problem has no solution.
+ *
+ * @param unsolvable    true if there is no solution, false otherwise
+ */
+    public void setUnsolvable(final boolean unsolvable) {
+        this.unsolvable = unsolvable;
+    }
+
+/**
+ * Returns whether the engine gave up, neither finding a solution nor proving
+ * that there is none.
+ *
+ * @return true if the engine gave up, false otherwise
+ */
+    public boolean gaveUp() {
+        return !isSolved() && !unsolvable;
+    }
+
+/**
+ * Returns the solved Grid.
+ *
+ * @return the Grid holding the final result, null if no result was found
+ */
+    public Grid getSolution() {
+        return solution;
+    }
+
+/**
+ * Sets the solved Grid.
+ *
+ * @param solution  the Grid holding the final result, null if no result was
+ *                  found
+ */
+    public void setSolution(final Grid solution) {
+        this.solution = solution;
+    }
+
+/**
+ * Returns the name of the engine which produced this result.
+ *
+ * @return the name of the engine
+ */
+    public String getEngine() {
+        return engine;
+    }
+
+/**
+ * Sets the name of the engine which produced this result.
+ *
+ * @param engine    the name of the engine
+ */
+    public void setEngine(final String engine) {
+        this.engine = engine;
+    }
+
+/**
+ * Returns the number of constrained cells in the initial problem.
+ *
+ * @return the number of givens
+ */
+    public int getGivens() {
+        return givens;
+    }
+
+/**
+ * Returns the number of search steps, counting one for each two degrees of
+ * freedom trial as well as the steps it searched, taken after the constraints
+ * were updated and probed.
+ *
+ * @return the number of search steps
+ */
+    public long getNodes() {
+        return nodes;
+    }
+
+/**
+ * Sets the number of search steps.
+ *
+ * @param nodes     the number of search steps
+ */
+    public void setNodes(final long nodes) {
+        this.nodes = nodes;
+    }
+
+/**
+ * Returns the seed of the generators used by a randomized search, which can be
+ * passed to the engine again to repeat the search exactly.
+ *
+ * @return the seed
+ */
+    public long getSeed() {
+        return seed;
+    }
+
+/**
+ * Sets the seed of the generators used by a randomized search.
+ *
+ * @param seed      the seed
+ */
+    public void setSeed(final long seed) {
+        this.seed = seed;
+    }
+
+/**
+ * Returns the number of deductions made by probing bivalue cells.
+ *
+ * @return the number of cells forced, set or reduced by probing
+ */
+    public long getProbeHits() {
+        return probeHits;
+    }
+
+/**
+ * Sets the number of deductions made by probing bivalue cells.
+ *
+ * @param probeHits the number of cells forced, set or reduced by probing
+ */
+    public void setProbeHits(final long probeHits) {
+        this.probeHits = probeHits;
+    }
+
+/**
+ * Returns the number of pairs of assignments the two degree of freedom trials
+ * looked up in their NogoodTable.
+ *
+ * @return the number of lookups
+ */
+    public long getNogoodLookups() {
+        return nogoodLookups;
+    }
+
+/**
+ * Sets the number of pairs of assignments looked up in the NogoodTable.
+ *
+ * @param nogoodLookups the number of lookups
+ */
+    public void setNogoodLookups(final long nogoodLookups) {
+        this.nogoodLookups = nogoodLookups;
+    }
+
+/**
+ * Returns the number of pairs of assignments the two degree of freedom trials
+ * skipped because an earlier trial had refuted them.
+ *
+ * @return the number of hits
+ */
+    public long getNogoodHits() {
+        return nogoodHits;
+    }
+
+/**
+ * Sets the number of pairs of assignments skipped using the NogoodTable.
+ *
+ * @param nogoodHits the number of hits
+ */
+    public void setNogoodHits(final long nogoodHits) {
+        this.nogoodHits = nogoodHits;
+    }
+
+/**
+ * Returns the fraction of the lookups in the NogoodTable which found a refuted
+ * pair.
+ *
+ * @return the hit rate, zero if no pair was looked up
+ */
+    public double getNogoodHitRate() {
+        return (nogoodLookups == 0) ? 0.0 : (double) nogoodHits / nogoodLookups;
+    }
+
+/**
+ * Returns the time taken to find this result.
+ *
+ * @return the elapsed time in milliseconds
+ */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+/**
+ * Sets the time taken to find this result.
+ *
+ * @param elapsedMillis the elapsed time in milliseconds
+ */
+    public void setElapsedMillis(final long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+}
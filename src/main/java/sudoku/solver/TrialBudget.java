@@ -0,0 +1,101 @@
+package sudoku.solver;
+
+/**
+ * This class stores how long a randomized search may run before giving up, as
+ * a time, a number of search steps, or both.  The search gives up as soon as
+ * either limit is reached.  A search which reaches its time limit is not
+ * repeated exactly by running it again with the same seed, since how far it
+ * gets depends on the speed of the machine.
+ *
+ * It also stores the number of steps allowed to the complete search which is
+ * run before the trials to prove quickly that a problem has no solution.  That
+ * search is given up when it reaches its limit, and the trials are run instead.
+ *
+ * @author Gary Mann
+ */
+public final class TrialBudget {
+
+    /** The steps allowed to the complete search when none are given. */
+    public static final long DEFAULT_PROOF_NODES = 10000L;
+
+    /**
+     * The budget used when none is given: ten seconds or ten million steps,
+     * after a complete search of DEFAULT_PROOF_NODES steps.
+     */
+    public static final TrialBudget DEFAULT = new TrialBudget(10000L, 10000000L);
+
+    private final long maxMillis;
+    private final long maxNodes;
+    private final long proofNodes;
+
+/**
+ * Constructs a budget which allows DEFAULT_PROOF_NODES steps to the complete
+ * search.
+ *
+ * @param maxMillis     the time allowed in milliseconds, zero for no limit
+ * @param maxNodes      the number of search steps allowed, zero for no limit
+ */
+    public TrialBudget(final long maxMillis, final long maxNodes) {
+        this(maxMillis, maxNodes, DEFAULT_PROOF_NODES);
+    }
+
+/**
+ * Constructs a budget.
+ *
+ * @param maxMillis     the time allowed in milliseconds, zero for no limit
+ * @param maxNodes      the number of search steps allowed, zero for no limit
+ * @param proofNodes    the number of steps allowed to the complete search run
+ *                      before the trials, zero for no complete search
+ */
+    public TrialBudget(final long maxMillis, final long maxNodes, final long proofNodes) {
+        if ((maxMillis < 0) || (maxNodes < 0) || ((maxMillis == 0) && (maxNodes == 0))) {
+            throw new IllegalArgumentException("A trial budget needs a time or a number of steps");
+        }
+        if (proofNodes < 0) {
+            throw new IllegalArgumentException("Negative proof steps " + proofNodes);
+        }
+        this.maxMillis = maxMillis;
+        this.maxNodes = maxNodes;
+        this.proofNodes = proofNodes;
+    }
+
+/**
+ * Returns whether a search has used up this budget.
+ *
+ * @param startMillis   the time the search started, in milliseconds
+ * @param nodes         the number of search steps taken
+ * @return              true if the search should give up, false otherwise
+ */
+    public boolean isExhausted(final long startMillis, final long nodes) {
+        return ((maxNodes > 0) && (nodes >= maxNodes))
+               || ((maxMillis > 0) && (System.currentTimeMillis() - startMillis >= maxMillis));
+    }
+
+/**
+ * Returns the time allowed.
+ *
+ * @return the time in milliseconds, zero for no limit
+ */
+    public long getMaxMillis() {
+        return maxMillis;
+    }
+
+/**
+ * Returns the number of search steps allowed.
+ *
+ * @return the number of steps, zero for no limit
+ */
+    public long getMaxNodes() {
+        return maxNodes;
+    }
+
+/**
+ * Returns the number of steps allowed to the complete search run before the
+ * trials.
+ *
+ * @return the number of steps, zero for no complete search
+ */
+    public long getProofNodes() {
+        return proofNodes;
+    }
+}
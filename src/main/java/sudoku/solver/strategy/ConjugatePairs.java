@@ -0,0 +1,128 @@
+package sudoku.solver.strategy;
+
+import sudoku.items.Grid;
+import sudoku.items.Units;
+
+/**
+ * This class finds the cells of a Grid which can take a value, and the strong
+ * links between them.
+ *
+ * Two cells are strongly linked (a conjugate pair) if they are the only cells
+ * of a column, row or box which can take the value, so exactly one of them
+ * holds it.  Each cell has at most three strong links, one for each of its
+ * units.  The arrays are allocated once and reused for each value.
+ *
+ * @author Gary Mann
+ */
+final class ConjugatePairs {
+
+    private final Units units;
+    private final int[] cells;
+    private int cellCount;
+    private final boolean[] possible;
+    private final int[][] links;
+    private final int[] linkCount;
+
+/**
+ * Constructs the arrays for a Grid of given dimension.
+ *
+ * @param dim   the dimension of the problem
+ */
+    ConjugatePairs(final int dim) {
+        units = Units.forDim(dim);
+        int size = dim * dim * dim * dim;
+        cells = new int[size];
+        possible = new boolean[size];
+        links = new int[size][3];
+        linkCount = new int[size];
+    }
+
+/**
+ * Finds the cells which can take a value and their strong links.
+ *
+ * @param grid      the Grid
+ * @param bit       mask of the value
+ */
+    void build(final Grid grid, final long bit) {
+        for (int i = 0; i < cellCount; i++) {
+            possible[cells[i]] = false;
+            linkCount[cells[i]] = 0;
+        }
+        cellCount = 0;
+        for (int index = 0; index < possible.length; index++) {
+            if ((grid.get(index) == 0) && ((grid.candidates(index) & bit) != 0L)) {
+                possible[index] = true;
+                cells[cellCount++] = index;
+            }
+        }
+        for (int unit = 0; unit < units.getUnitCount(); unit++) {
+            int first = -1;
+            int second = -1;
+            int count = 0;
+            for (int index : units.getUnit(unit)) {
+                if (possible[index]) {
+                    if (count == 0) {
+                        first = index;
+                    } else {
+                        second = index;
+                    }
+                    count++;
+                }
+            }
+            if (count == 2) {
+                link(first, second);
+                link(second, first);
+            }
+        }
+    }
+
+    private void link(final int from, final int to) {
+        for (int i = 0; i < linkCount[from]; i++) {
+            if (links[from][i] == to) {
+                return;
+            }
+        }
+        links[from][linkCount[from]++] = to;
+    }
+
+/**
+ * Returns whether two cells share a column, row or box.
+ *
+ * @param a     the index of the first cell
+ * @param b     the index of the second cell
+ * @return      true if the cells are different and share a unit
+ */
+    boolean sees(final int a, final int b) {
+        if (a == b) {
+            return false;
+        }
+        int[] unitsA = units.getCellUnits(a);
+        int[] unitsB = units.getCellUnits(b);
+        return (unitsA[0] == unitsB[0]) || (unitsA[1] == unitsB[1])
+               || (unitsA[2] == unitsB[2]);
+    }
+
+    Units getUnits() {
+        return units;
+    }
+
+    int getCellCount() {
+        return cellCount;
+    }
+
+    int getCell(final int i) {
+        return cells[i];
+    }
+
+    boolean isPossible(final int index) {
+        return possible[index];
+    }
+
+    int getLinkCount(final int index) {
+        return linkCount[index];
+    }
+
+    int getLink(final int index, final int i) {
+        return links[index][i];
+    }
+}
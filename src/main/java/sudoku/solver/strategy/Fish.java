@@ -0,0 +1,172 @@
+package sudoku.solver.strategy;
+
+import sudoku.items.Candidates;
+import sudoku.items.Grid;
+
+/**
+ * This strategy eliminates values using fish patterns: the X-Wing, Swordfish
+ * and Jellyfish.
+ *
+ * If a value can only be placed in n columns within n rows (the base rows),
+ * each of those columns must hold the value in one of the base rows, so the
+ * value is eliminated from every other cell of those columns.  The same holds
+ * with rows and columns swapped.  n is 2 for an X-Wing, 3 for a Swordfish and 4
+ * for a Jellyfish.
+ *
+ * For each value, a bitmask of the columns where it can be placed is built for
+ * every row, and a bitmask of the rows for every column.  The fish are found by
+ * combining the masks of the lines which hold the value in between 2 and n
+ * cells.
+ *
+ * @author Gary Mann
+ */
+public class Fish implements Strategy {
+
+    private static final String[] NAMES = {"X-Wing", "Swordfish", "Jellyfish"};
+    private static final int[] RATINGS = {32, 38, 52};
+
+    private final int size;
+
+/**
+ * Constructs a strategy which finds fish of a given size.
+ *
+ * @param size      the number of base lines, 2 for an X-Wing, 3 for a
+ *                  Swordfish or 4 for a Jellyfish
+ */
+    public Fish(final int size) {
+        if ((size < 2) || (size > 4)) {
+            throw new IllegalArgumentException("Fish size must be from 2 to 4, not " + size);
+        }
+        this.size = size;
+    }
+
+/**
+ * Eliminates every value found using fish of this size.
+ *
+ * @param grid      the Grid
+ * @return          true if any value was eliminated, false otherwise
+ */
+    @Override
+    public boolean apply(final Grid grid) {
+        int dimSq = grid.getDimSq();
+        long[] rows = new long[dimSq];
+        long[] columns = new long[dimSq];
+        int[] lines = new int[dimSq];
+        boolean changed = false;
+        for (int value = 1; value <= dimSq; value++) {
+            long bit = Candidates.bit(value);
+            for (int i = 0; i < dimSq; i++) {
+                rows[i] = 0L;
+                columns[i] = 0L;
+            }
+            for (int y = 0; y < dimSq; y++) {
+                for (int x = 0; x < dimSq; x++) {
+                    if (!grid.isConstrained(x, y) && ((grid.candidates(x, y) & bit) != 0L)) {
+                        rows[y] |= 1L << x;
+                        columns[x] |= 1L << y;
+                    }
+                }
+            }
+            changed |= find(grid, bit, rows, lines, true);
+            changed |= find(grid, bit, columns, lines, false);
+        }
+        return changed;
+    }
+
+/**
+ * Returns the name of this strategy.
+ *
+ * @return the name of this strategy
+ */
+    @Override
+    public String getName() {
+        return NAMES[size - 2];
+    }
+
+/**
+ * Returns the rating of this strategy.
+ *
+ * @return the rating of this strategy
+ */
+    @Override
+    public int getRating() {
+        return RATINGS[size - 2];
+    }
+
+/**
+ * Finds the fish of one value with a given set of base lines.
+ *
+ * @param grid      the Grid
+ * @param bit       mask of the value
+ * @param masks     for each base line, mask of the cover lines where the value
+ *                  can be placed
+ * @param lines     work array for the base lines which can be used
+ * @param byRow     true if the base lines are rows, false if they are columns
+ * @return          true if any value was eliminated, false otherwise
+ */
+    private boolean find(final Grid grid, final long bit, final long[] masks,
+                         final int[] lines, final boolean byRow) {
+        int count = 0;
+        for (int line = 0; line < masks.length; line++) {
+            int n = Long.bitCount(masks[line]);
+            if ((n >= 2) && (n <= size)) {
+                lines[count++] = line;
+            }
+        }
+        if (count < size) {
+            return false;
+        }
+        return search(grid, bit, masks, lines, count, byRow, 0, 0, 0L, 0L);
+    }
+
+/**
+ * Adds base lines to a combination until it holds enough lines, then
+ * eliminates the value from the rest of the cover lines if they form a fish.
+ *
+ * @param grid      the Grid
+ * @param bit       mask of the value
+ * @param masks     for each base line, mask of the cover lines where the value
+ *                  can be placed
+ * @param lines     the base lines which can be used
+ * @param count     the number of base lines which can be used
+ * @param byRow     true if the base lines are rows, false if they are columns
+ * @param start     the first base line which can be added
+ * @param depth     the number of base lines in the combination
+ * @param chosen    mask of the base lines in the combination
+ * @param cover     mask of the cover lines of the combination
+ * @return          true if any value was eliminated, false otherwise
+ */
+    private boolean search(final Grid grid, final long bit, final long[] masks,
+                           final int[] lines, final int count,
+                           final boolean byRow, final int start,
+                           final int depth, final long chosen,
+                           final long cover) {
+        if (depth == size) {
+            if (Long.bitCount(cover) != size) {
+                return false;
+            }
+            int dimSq = grid.getDimSq();
+            boolean changed = false;
+            for (int line = 0; line < masks.length; line++) {
+                long others = masks[line] & cover;
+                if (((chosen & (1L << line)) == 0L) && (others != 0L)) {
+                    for (; others != 0L; others &= others - 1) {
+                        int c = Long.numberOfTrailingZeros(others);
+                        int index = byRow ? line * dimSq + c : c * dimSq + line;
+                        changed |= grid.eliminate(index, bit);
+                    }
+                }
+            }
+            return changed;
+        }
+        boolean changed = false;
+        for (int j = start; j <= count - size + depth; j++) {
+            long next = cover | masks[lines[j]];
+            if (Long.bitCount(next) <= size) {
+                changed |= search(grid, bit, masks, lines, count, byRow, j + 1,
+                                  depth + 1, chosen | (1L << lines[j]), next);
+            }
+        }
+        return changed;
+    }
+}
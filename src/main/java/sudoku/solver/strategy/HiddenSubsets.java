@@ -0,0 +1,140 @@
+package sudoku.solver.strategy;
+
+import java.util.Arrays;
+import sudoku.items.Grid;
+import sudoku.items.Units;
+
+/**
+ * This strategy eliminates values using hidden subsets.
+ *
+ * If n values can only be placed in the same n cells of a column, row or box
+ * (a hidden pair when n is 2, a hidden triple when n is 3), those cells must
+ * hold those values, so every other value is eliminated from them.
+ *
+ * For each value, a bitmask of the positions in the unit of the cells which can
+ * take it is built.  The subsets are found by combining the masks of the values
+ * which can be placed in between 2 and n cells.
+ *
+ * @author Gary Mann
+ */
+public class HiddenSubsets implements Strategy {
+
+    private static final String[] NAMES = {"pairs", "triples", "quads"};
+    private static final int[] RATINGS = {34, 40, 54};
+
+    private final int size;
+
+/**
+ * Constructs a strategy which finds hidden subsets of a given size.
+ *
+ * @param size      the number of values in a subset, from 2 to 4
+ */
+    public HiddenSubsets(final int size) {
+        if ((size < 2) || (size > 4)) {
+            throw new IllegalArgumentException("Subset size must be from 2 to 4, not " + size);
+        }
+        this.size = size;
+    }
+
+/**
+ * Eliminates every value found using hidden subsets.
+ *
+ * @param grid      the Grid
+ * @return          true if any value was eliminated, false otherwise
+ */
+    @Override
+    public boolean apply(final Grid grid) {
+        Units units = Units.forDim(grid.getDim());
+        int dimSq = grid.getDimSq();
+        long[] places = new long[dimSq];
+        int[] values = new int[dimSq];
+        long[] masks = new long[dimSq];
+        boolean changed = false;
+        for (int unit = 0; unit < units.getUnitCount(); unit++) {
+            int[] cells = units.getUnit(unit);
+            Arrays.fill(places, 0L);
+            for (int i = 0; i < dimSq; i++) {
+                if (grid.get(cells[i]) == 0) {
+                    for (long rest = grid.candidates(cells[i]); rest != 0L; rest &= rest - 1) {
+                        places[Long.numberOfTrailingZeros(rest)] |= 1L << i;
+                    }
+                }
+            }
+            int count = 0;
+            for (int v = 0; v < dimSq; v++) {
+                int n = Long.bitCount(places[v]);
+                if ((n >= 2) && (n <= size)) {
+                    values[count] = v;
+                    masks[count] = places[v];
+                    count++;
+                }
+            }
+            if (count >= size) {
+                changed |= search(grid, cells, values, masks, count, 0, 0, 0L, 0L);
+            }
+        }
+        return changed;
+    }
+
+/**
+ * Returns the name of this strategy.
+ *
+ * @return the name of this strategy
+ */
+    @Override
+    public String getName() {
+        return "hidden " + NAMES[size - 2];
+    }
+
+/**
+ * Returns the rating of this strategy.
+ *
+ * @return the rating of this strategy
+ */
+    @Override
+    public int getRating() {
+        return RATINGS[size - 2];
+    }
+
+/**
+ * Adds values to a combination until it holds enough values, then eliminates
+ * every other value from their cells if they form a hidden subset.
+ *
+ * @param grid          the Grid
+ * @param cells         the indexes of the cells of the unit
+ * @param values        the values which can be used, less one
+ * @param masks         the positions in the unit where each value can be placed
+ * @param count         the number of values which can be used
+ * @param start         the first value which can be added
+ * @param depth         the number of values in the combination
+ * @param chosen        mask of the values in the combination
+ * @param union         mask of the positions where the combination can be
+ *                      placed
+ * @return              true if any value was eliminated, false otherwise
+ */
+    private boolean search(final Grid grid, final int[] cells,
+                           final int[] values, final long[] masks,
+                           final int count, final int start, final int depth,
+                           final long chosen, final long union) {
+        if (depth == size) {
+            if (Long.bitCount(union) != size) {
+                return false;
+            }
+            boolean changed = false;
+            for (long rest = union; rest != 0L; rest &= rest - 1) {
+                changed |= grid.eliminate(cells[Long.numberOfTrailingZeros(rest)],
+                                          ~chosen);
+            }
+            return changed;
+        }
+        boolean changed = false;
+        for (int j = start; j <= count - size + depth; j++) {
+            long next = union | masks[j];
+            if (Long.bitCount(next) <= size) {
+                changed |= search(grid, cells, values, masks, count, j + 1,
+                                  depth + 1, chosen | (1L << values[j]), next);
+            }
+        }
+        return changed;
+    }
+}
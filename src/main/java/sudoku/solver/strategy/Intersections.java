@@ -0,0 +1,125 @@
+package sudoku.solver.strategy;
+
+import java.util.Arrays;
+import sudoku.items.Grid;
+import sudoku.items.Units;
+
+/**
+ * This strategy eliminates values using the intersections of boxes with rows
+ * and columns.
+ *
+ * If every cell of a box which can take a value is in the same row or column
+ * (pointing), the value must be in that part of the row or column, so it is
+ * eliminated from the rest of the row or column.  If every cell of a row or
+ * column which can take a value is in the same box (claiming), the value is
+ * eliminated from the rest of the box.
+ *
+ * For each unit and each value, the columns, rows and boxes of the cells which
+ * can take the value are collected as bitmasks in one pass over the unit, so a
+ * single bit in a mask gives the intersection.
+ *
+ * @author Gary Mann
+ */
+public class Intersections implements Strategy {
+
+/**
+ * Eliminates every value found by pointing and claiming.
+ *
+ * @param grid      the Grid
+ * @return          true if any value was eliminated, false otherwise
+ */
+    @Override
+    public boolean apply(final Grid grid) {
+        int dim = grid.getDim();
+        int dimSq = grid.getDimSq();
+        Units units = Units.forDim(dim);
+        long[] columns = new long[dimSq];
+        long[] rows = new long[dimSq];
+        long[] boxes = new long[dimSq];
+        boolean changed = false;
+        for (int unit = 0; unit < units.getUnitCount(); unit++) {
+            Arrays.fill(columns, 0L);
+            Arrays.fill(rows, 0L);
+            Arrays.fill(boxes, 0L);
+            for (int index : units.getUnit(unit)) {
+                if (grid.get(index) == 0) {
+                    int x = index % dimSq;
+                    int y = index / dimSq;
+                    int box = (x / dim) * dim + y / dim;
+                    for (long rest = grid.candidates(index); rest != 0L; rest &= rest - 1) {
+                        int i = Long.numberOfTrailingZeros(rest);
+                        columns[i] |= 1L << x;
+                        rows[i] |= 1L << y;
+                        boxes[i] |= 1L << box;
+                    }
+                }
+            }
+            for (int i = 0; i < dimSq; i++) {
+                if (unit >= 2 * dimSq) {
+
+                    //pointing: the value is in one row or column of this box
+                    if (Long.bitCount(rows[i]) == 1) {
+                        changed |= eliminate(grid, units,
+                                             dimSq + Long.numberOfTrailingZeros(rows[i]),
+                                             unit, 1L << i);
+                    }
+                    if (Long.bitCount(columns[i]) == 1) {
+                        changed |= eliminate(grid, units,
+                                             Long.numberOfTrailingZeros(columns[i]),
+                                             unit, 1L << i);
+                    }
+                } else if (Long.bitCount(boxes[i]) == 1) {
+
+                    //claiming: the value is in one box of this row or column
+                    changed |= eliminate(grid, units,
+                                         2 * dimSq + Long.numberOfTrailingZeros(boxes[i]),
+                                         unit, 1L << i);
+                }
+            }
+        }
+        return changed;
+    }
+
+/**
+ * Returns the name of this strategy.
+ *
+ * @return the name of this strategy
+ */
+    @Override
+    public String getName() {
+        return "pointing and claiming";
+    }
+
+/**
+ * Returns the rating of this strategy.
+ *
+ * @return the rating of this strategy
+ */
+    @Override
+    public int getRating() {
+        return 26;
+    }
+
+/**
+ * Eliminates a value from the cells of one unit which are not in another.
+ *
+ * @param grid      the Grid
+ * @param units     the layout of the units of the Grid
+ * @param target    the unit whose cells lose the value
+ * @param keep      the unit whose cells keep the value
+ * @param bit       mask of the value
+ * @return          true if the value was eliminated from any cell, false
+ *                  otherwise
+ */
+    private static boolean eliminate(final Grid grid, final Units units,
+                                     final int target, final int keep,
+                                     final long bit) {
+        boolean changed = false;
+        for (int index : units.getUnit(target)) {
+            if ((grid.get(index) == 0) && !units.contains(keep, index)) {
+                changed |= grid.eliminate(index, bit);
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,133 @@
+package sudoku.solver.strategy;
+
+import sudoku.items.Grid;
+import sudoku.items.Units;
+
+/**
+ * This strategy eliminates values using naked subsets.
+ *
+ * If n cells of a column, row or box can only take n values between them (a
+ * naked pair when n is 2, a naked triple when n is 3), those values must be in
+ * those cells, so they are eliminated from every other cell of the unit.
+ *
+ * The subsets are found by combining the candidate bitmasks of the cells of a
+ * unit which can take between 2 and n values.  A combination is abandoned as
+ * soon as its cells can take more than n values.
+ *
+ * @author Gary Mann
+ */
+public class NakedSubsets implements Strategy {
+
+    private static final String[] NAMES = {"pairs", "triples", "quads"};
+    private static final int[] RATINGS = {30, 36, 50};
+
+    private final int size;
+
+/**
+ * Constructs a strategy which finds naked subsets of a given size.
+ *
+ * @param size      the number of cells in a subset, from 2 to 4
+ */
+    public NakedSubsets(final int size) {
+        if ((size < 2) || (size > 4)) {
+            throw new IllegalArgumentException("Subset size must be from 2 to 4, not " + size);
+        }
+        this.size = size;
+    }
+
+/**
+ * Eliminates every value found using naked subsets.
+ *
+ * @param grid      the Grid
+ * @return          true if any value was eliminated, false otherwise
+ */
+    @Override
+    public boolean apply(final Grid grid) {
+        Units units = Units.forDim(grid.getDim());
+        int dimSq = grid.getDimSq();
+        int[] positions = new int[dimSq];
+        long[] masks = new long[dimSq];
+        boolean changed = false;
+        for (int unit = 0; unit < units.getUnitCount(); unit++) {
+            int[] cells = units.getUnit(unit);
+            int count = 0;
+            for (int i = 0; i < dimSq; i++) {
+                if (grid.get(cells[i]) == 0) {
+                    long values = grid.candidates(cells[i]);
+                    int n = Long.bitCount(values);
+                    if ((n >= 2) && (n <= size)) {
+                        positions[count] = i;
+                        masks[count] = values;
+                        count++;
+                    }
+                }
+            }
+            if (count >= size) {
+                changed |= search(grid, cells, positions, masks, count, 0, 0, 0L, 0L);
+            }
+        }
+        return changed;
+    }
+
+/**
+ * Returns the name of this strategy.
+ *
+ * @return the name of this strategy
+ */
+    @Override
+    public String getName() {
+        return "naked " + NAMES[size - 2];
+    }
+
+/**
+ * Returns the rating of this strategy.
+ *
+ * @return the rating of this strategy
+ */
+    @Override
+    public int getRating() {
+        return RATINGS[size - 2];
+    }
+
+/**
+ * Adds cells to a combination until it holds enough cells, then eliminates
+ * its values from the rest of the unit if they form a naked subset.
+ *
+ * @param grid          the Grid
+ * @param cells         the indexes of the cells of the unit
+ * @param positions     the positions in the unit of the cells which can be used
+ * @param masks         the values each of these cells can take
+ * @param count         the number of cells which can be used
+ * @param start         the first cell which can be added
+ * @param depth         the number of cells in the combination
+ * @param chosen        mask of the positions of the cells in the combination
+ * @param union         mask of the values the combination can take
+ * @return              true if any value was eliminated, false otherwise
+ */
+    private boolean search(final Grid grid, final int[] cells,
+                           final int[] positions, final long[] masks,
+                           final int count, final int start, final int depth,
+                           final long chosen, final long union) {
+        if (depth == size) {
+            if (Long.bitCount(union) != size) {
+                return false;
+            }
+            boolean changed = false;
+            for (int i = 0; i < cells.length; i++) {
+                if (((chosen & (1L << i)) == 0L) && (grid.get(cells[i]) == 0)) {
+                    changed |= grid.eliminate(cells[i], union);
+                }
+            }
+            return changed;
+        }
+        boolean changed = false;
+        for (int j = start; j <= count - size + depth; j++) {
+            long next = union | masks[j];
+            if (Long.bitCount(next) <= size) {
+                changed |= search(grid, cells, positions, masks, count, j + 1,
+                                  depth + 1, chosen | (1L << positions[j]), next);
+            }
+        }
+        return changed;
+    }
+}
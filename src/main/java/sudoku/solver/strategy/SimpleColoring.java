@@ -0,0 +1,144 @@
+package sudoku.solver.strategy;
+
+import sudoku.items.Candidates;
+import sudoku.items.Grid;
+
+/**
+ * This strategy eliminates values using simple colouring.
+ *
+ * For one value, the cells joined by strong links (see ConjugatePairs) form
+ * chains in which the cells must alternately hold and not hold the value.  Each
+ * chain is coloured with two colours, one of which holds the value in every
+ * cell.  If two cells of the same colour share a unit, that colour cannot hold
+ * the value, so it is eliminated from every cell of that colour.  Otherwise the
+ * value is eliminated from every other cell which shares a unit with cells of
+ * both colours.
+ *
+ * @author Gary Mann
+ */
+public class SimpleColoring implements Strategy {
+
+/**
+ * Eliminates every value found using simple colouring.
+ *
+ * @param grid      the Grid
+ * @return          true if any value was eliminated, false otherwise
+ */
+    @Override
+    public boolean apply(final Grid grid) {
+        int dimSq = grid.getDimSq();
+        ConjugatePairs pairs = new ConjugatePairs(grid.getDim());
+        int[] colours = new int[grid.getSize()];
+        int[] chain = new int[grid.getSize()];
+        boolean changed = false;
+        for (int value = 1; value <= dimSq; value++) {
+            long bit = Candidates.bit(value);
+            pairs.build(grid, bit);
+            for (int i = 0; i < pairs.getCellCount(); i++) {
+                colours[pairs.getCell(i)] = 0;
+            }
+            int colour = 1;
+            for (int i = 0; i < pairs.getCellCount(); i++) {
+                int start = pairs.getCell(i);
+                if ((colours[start] == 0) && (pairs.getLinkCount(start) > 0)) {
+
+                    //colour the chain of strong links from this cell
+                    int length = 0;
+                    colours[start] = colour;
+                    chain[length++] = start;
+                    for (int j = 0; j < length; j++) {
+                        int cell = chain[j];
+                        for (int k = 0; k < pairs.getLinkCount(cell); k++) {
+                            int next = pairs.getLink(cell, k);
+                            if (colours[next] == 0) {
+                                colours[next] = (colours[cell] == colour) ? colour + 1 : colour;
+                                chain[length++] = next;
+                            }
+                        }
+                    }
+                    changed |= eliminate(grid, pairs, bit, colours, chain, length, colour);
+                    colour += 2;
+                }
+            }
+        }
+        return changed;
+    }
+
+/**
+ * Returns the name of this strategy.
+ *
+ * @return the name of this strategy
+ */
+    @Override
+    public String getName() {
+        return "simple colouring";
+    }
+
+/**
+ * Returns the rating of this strategy.
+ *
+ * @return the rating of this strategy
+ */
+    @Override
+    public int getRating() {
+        return 42;
+    }
+
+/**
+ * Eliminates a value using one coloured chain.
+ *
+ * @param grid      the Grid
+ * @param pairs     the cells which can take the value and their strong links
+ * @param bit       mask of the value
+ * @param colours   the colour of each cell, indexed by cell
+ * @param chain     the cells of the chain
+ * @param length    the number of cells in the chain
+ * @param colour    the first colour of the chain, the second is colour + 1
+ * @return          true if any value was eliminated, false otherwise
+ */
+    private static boolean eliminate(final Grid grid, final ConjugatePairs pairs,
+                                     final long bit, final int[] colours,
+                                     final int[] chain, final int length,
+                                     final int colour) {
+
+        //two cells of the same colour in one unit: that colour is false
+        for (int i = 0; i < length; i++) {
+            for (int j = i + 1; j < length; j++) {
+                if ((colours[chain[i]] == colours[chain[j]])
+                        && pairs.sees(chain[i], chain[j])) {
+                    int wrong = colours[chain[i]];
+                    boolean changed = false;
+                    for (int k = 0; k < length; k++) {
+                        if (colours[chain[k]] == wrong) {
+                            changed |= grid.eliminate(chain[k], bit);
+                        }
+                    }
+                    return changed;
+                }
+            }
+        }
+
+        //a cell outside the chain which sees both colours cannot hold the value
+        boolean changed = false;
+        for (int i = 0; i < pairs.getCellCount(); i++) {
+            int cell = pairs.getCell(i);
+            if ((colours[cell] != colour) && (colours[cell] != colour + 1)) {
+                boolean seesFirst = false;
+                boolean seesSecond = false;
+                for (int j = 0; j < length && !(seesFirst && seesSecond); j++) {
+                    if (pairs.sees(cell, chain[j])) {
+                        if (colours[chain[j]] == colour) {
+                            seesFirst = true;
+                        } else {
+                            seesSecond = true;
+                        }
+                    }
+                }
+                if (seesFirst && seesSecond) {
+                    changed |= grid.eliminate(cell, bit);
+                }
+            }
+        }
+        return changed;
+    }
+}
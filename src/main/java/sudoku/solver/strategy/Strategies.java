@@ -0,0 +1,74 @@
+package sudoku.solver.strategy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import sudoku.util.StrategyPolicy;
+
+/**
+ * This class contains static methods which return the lists of strategies used
+ * by the solver.
+ *
+ * @author Gary Mann
+ */
+public class Strategies {
+
+/**
+ * Returns the standard strategies, cheapest first: pointing and claiming,
+ * naked and hidden pairs, then naked and hidden triples.
+ *
+ * @return unmodifiable list of the standard strategies
+ */
+    public static List<Strategy> standard() {
+        List<Strategy> strategies = new ArrayList<Strategy>();
+        strategies.add(new Intersections());
+        strategies.add(new NakedSubsets(2));
+        strategies.add(new HiddenSubsets(2));
+        strategies.add(new NakedSubsets(3));
+        strategies.add(new HiddenSubsets(3));
+        return Collections.unmodifiableList(strategies);
+    }
+
+/**
+ * Returns the standard strategies followed by the fish and single value chain
+ * strategies, which are mainly needed for larger grids: X-Wing, Swordfish,
+ * Jellyfish, simple colouring and X-chains.
+ *
+ * @return unmodifiable list of the advanced strategies
+ */
+    public static List<Strategy> advanced() {
+        List<Strategy> strategies = new ArrayList<Strategy>(standard());
+        strategies.add(new Fish(2));
+        strategies.add(new Fish(3));
+        strategies.add(new Fish(4));
+        strategies.add(new SimpleColoring());
+        strategies.add(new XChains());
+        return Collections.unmodifiableList(strategies);
+    }
+
+/**
+ * Returns the strategies used by a policy.
+ *
+ * @param policy    the policy (see StrategyPolicy)
+ * @return          unmodifiable list of the strategies for this policy
+ */
+    public static List<Strategy> forPolicy(final int policy) {
+        switch (policy) {
+        case StrategyPolicy.NONE:
+            return none();
+        case StrategyPolicy.ADVANCED:
+            return advanced();
+        default:
+            return standard();
+        }
+    }
+
+/**
+ * Returns an empty list of strategies, so that only single cells are found.
+ *
+ * @return empty list of strategies
+ */
+    public static List<Strategy> none() {
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,40 @@
+package sudoku.solver.strategy;
+
+import sudoku.items.Grid;
+
+/**
+ * Interface for a strategy which eliminates values from the unconstrained cells
+ * of a Grid.
+ *
+ * A strategy never sets the value of a cell, it only calls Grid.eliminate(), so
+ * every change it makes is on the undo trail of the Grid.  The cells which can
+ * then be set are found by the Propagator.
+ *
+ * @author Gary Mann
+ */
+public interface Strategy {
+
+/**
+ * Eliminates every value this strategy can find from the cells of a Grid.
+ *
+ * @param grid      the Grid
+ * @return          true if any value was eliminated, false otherwise
+ */
+    boolean apply(Grid grid);
+
+/**
+ * Returns the name of this strategy, used in the running text output.
+ *
+ * @return the name of this strategy
+ */
+    String getName();
+
+/**
+ * Returns the rating of this strategy, used by the Grader: ten times the
+ * difficulty of a problem whose hardest step uses this strategy, on a scale
+ * where a hidden single is 12 and a naked single 23.
+ *
+ * @return the rating of this strategy
+ */
+    int getRating();
+}
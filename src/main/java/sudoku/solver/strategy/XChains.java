@@ -0,0 +1,126 @@
+package sudoku.solver.strategy;
+
+import sudoku.items.Candidates;
+import sudoku.items.Grid;
+
+/**
+ * This strategy eliminates values using X-chains.
+ *
+ * An X-chain for one value starts at a cell, follows a strong link (see
+ * ConjugatePairs), then alternates weak links (any two cells which share a unit
+ * and can both take the value) and strong links, and ends on a strong link.  If
+ * the first cell does not hold the value, every strong link forces the next
+ * cell to hold it, so either the first or the last cell holds the value.  The
+ * value is eliminated from every other cell which shares a unit with both.
+ *
+ * The chains from each cell are found by a breadth-first search over the cells
+ * which can take the value, in which each cell is reached at most once at the
+ * end of a strong link and once at the end of a weak link.  Simple colouring
+ * finds a subset of these eliminations more cheaply.
+ *
+ * @author Gary Mann
+ */
+public class XChains implements Strategy {
+
+/**
+ * Eliminates every value found using X-chains.
+ *
+ * @param grid      the Grid
+ * @return          true if any value was eliminated, false otherwise
+ */
+    @Override
+    public boolean apply(final Grid grid) {
+        int dimSq = grid.getDimSq();
+        int size = grid.getSize();
+        ConjugatePairs pairs = new ConjugatePairs(grid.getDim());
+        int[] on = new int[size];
+        int[] off = new int[size];
+        int[] queue = new int[2 * size];
+        int search = 0;
+        boolean changed = false;
+        for (int value = 1; value <= dimSq; value++) {
+            long bit = Candidates.bit(value);
+            pairs.build(grid, bit);
+            for (int i = 0; i < pairs.getCellCount(); i++) {
+                int start = pairs.getCell(i);
+                if (pairs.getLinkCount(start) == 0) {
+                    continue;
+                }
+
+                //cells reached by a strong link are pushed as index, by a weak
+                //link as -index - 1
+                search++;
+                int head = 0;
+                int tail = 0;
+                off[start] = search;
+                queue[tail++] = -start - 1;
+                while (head < tail) {
+                    int item = queue[head++];
+                    if (item < 0) {
+                        int cell = -item - 1;
+                        for (int k = 0; k < pairs.getLinkCount(cell); k++) {
+                            int next = pairs.getLink(cell, k);
+                            if ((on[next] != search) && (next != start)) {
+                                on[next] = search;
+                                queue[tail++] = next;
+                                changed |= eliminate(grid, pairs, bit, start, next);
+                            }
+                        }
+                    } else {
+                        for (int peer : pairs.getUnits().getPeers(item)) {
+                            if (pairs.isPossible(peer) && (off[peer] != search)) {
+                                off[peer] = search;
+                                queue[tail++] = -peer - 1;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+/**
+ * Returns the name of this strategy.
+ *
+ * @return the name of this strategy
+ */
+    @Override
+    public String getName() {
+        return "X-chains";
+    }
+
+/**
+ * Returns the rating of this strategy.
+ *
+ * @return the rating of this strategy
+ */
+    @Override
+    public int getRating() {
+        return 45;
+    }
+
+/**
+ * Eliminates a value from every cell which shares a unit with both ends of a
+ * chain.
+ *
+ * @param grid      the Grid
+ * @param pairs     the cells which can take the value and their strong links
+ * @param bit       mask of the value
+ * @param first     the first cell of the chain
+ * @param last      the last cell of the chain
+ * @return          true if the value was eliminated from any cell, false
+ *                  otherwise
+ */
+    private static boolean eliminate(final Grid grid, final ConjugatePairs pairs,
+                                     final long bit, final int first,
+                                     final int last) {
+        boolean changed = false;
+        for (int peer : pairs.getUnits().getPeers(last)) {
+            if (pairs.isPossible(peer) && pairs.sees(peer, first)) {
+                changed |= grid.eliminate(peer, bit);
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,11 @@
+/**
+ * This package contains the strategies which eliminate values from the cells of a Grid when no
+ * cell can be found directly.
+ *
+ * Each strategy works on the candidate bitmasks of the Grid and the unit layout of the Units
+ * class.  The Propagator applies the strategies it is given in order, cheapest first, whenever
+ * it runs out of cells to set.
+ *
+ * @author   Gary Mann
+ */
+package sudoku.solver.strategy;
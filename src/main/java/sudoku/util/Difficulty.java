@@ -0,0 +1,41 @@
+package sudoku.util;
+
+import sudoku.exceptions.InvalidInputDataException;
+
+public class Difficulty {
+
+	public static final int ANY = 0;
+	public static final int EASY = 1;
+	public static final int MEDIUM = 2;
+	public static final int HARD = 3;
+	public static final int EXPERT = 4;
+
+	private static final String[] NAMES = {"any", "easy", "medium", "hard", "expert"};
+
+/**
+ * Converts the name of a difficulty, as used in a request, into its constant.
+ *
+ * @param name		the name of the difficulty (any, easy, medium, hard or expert)
+ * @return			the difficulty constant
+ * @throws InvalidInputDataException	thrown if the name is not known
+ */
+	public static int fromName(final String name) throws InvalidInputDataException {
+		for (int difficulty = 0; difficulty < NAMES.length; difficulty++) {
+			if (NAMES[difficulty].equalsIgnoreCase(name.trim())) {
+				return difficulty;
+			}
+		}
+		throw new InvalidInputDataException("Unknown difficulty " + name);
+	}
+
+/**
+ * Returns the name of a difficulty.
+ *
+ * @param difficulty	the difficulty constant
+ * @return				the name of the difficulty
+ */
+	public static String getName(final int difficulty) {
+		return NAMES[difficulty];
+	}
+
+}
@@ -0,0 +1,12 @@
+package sudoku.util;
+
+public class SolverMethod {
+
+	public static final int TWO_DEGREES_OF_FREEDOM = 1;
+	public static final int BACKTRACKING = 2;
+	public static final int DANCING_LINKS = 3;
+	public static final int PARALLEL_TWO_DEGREES_OF_FREEDOM = 4;
+	public static final int PARALLEL_BACKTRACKING = 5;
+	public static final int CDCL = 6;
+
+}
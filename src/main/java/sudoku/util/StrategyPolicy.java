@@ -0,0 +1,30 @@
+package sudoku.util;
+
+import sudoku.exceptions.InvalidInputDataException;
+
+public class StrategyPolicy {
+
+	public static final int NONE = 0;
+	public static final int STANDARD = 1;
+	public static final int ADVANCED = 2;
+
+	private static final String[] NAMES = {"none", "standard", "advanced"};
+
+/**
+ * Converts the name of a strategy policy, as used in a request or in the
+ * application properties, into its constant.
+ *
+ * @param name		the name of the policy (none, standard or advanced)
+ * @return			the policy constant
+ * @throws InvalidInputDataException	thrown if the name is not known
+ */
+	public static int fromName(final String name) throws InvalidInputDataException {
+		for (int policy = 0; policy < NAMES.length; policy++) {
+			if (NAMES[policy].equalsIgnoreCase(name.trim())) {
+				return policy;
+			}
+		}
+		throw new InvalidInputDataException("Unknown strategy policy " + name);
+	}
+
+}
@@ -0,0 +1,115 @@
+package sudoku.rest.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.StringReader;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+//the two degree of freedom trials are given one search step and no complete
+//search before them, so that they always give up
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties={"sudoku.trials.restarts=fixed",
+		                    "sudoku.trials.restart-unit=0",
+		                    "sudoku.trials.max-millis=0",
+		                    "sudoku.trials.max-nodes=1",
+		                    "sudoku.trials.proof-nodes=0"})
+@AutoConfigureMockMvc
+public class SudokuControllerTests {
+
+	static final String HARD = "3\n"
+			+ "8,0,0,0,0,0,0,0,0\n"
+			+ "0,0,3,6,0,0,0,0,0\n"
+			+ "0,7,0,0,9,0,2,0,0\n"
+			+ "0,5,0,0,0,7,0,0,0\n"
+			+ "0,0,0,0,4,5,7,0,0\n"
+			+ "0,0,0,1,0,0,0,3,0\n"
+			+ "0,0,1,0,0,0,0,6,8\n"
+			+ "0,0,8,5,0,0,0,1,0\n"
+			+ "0,9,0,0,0,0,4,0,0\n";
+
+	static final String UNSOLVABLE = "3\n"
+			+ "1,0,0,0,0,0,0,0,0\n"
+			+ "2,0,0,0,0,0,0,0,0\n"
+			+ "3,0,0,0,0,0,0,0,0\n"
+			+ "4,0,0,0,0,0,0,0,0\n"
+			+ "5,0,0,0,0,0,0,0,0\n"
+			+ "6,0,0,0,0,0,0,0,0\n"
+			+ "7,0,0,0,0,0,0,0,0\n"
+			+ "8,0,0,0,0,0,0,0,0\n"
+			+ "0,9,0,0,0,0,0,0,0\n";
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Test
+	public void unsolvablePuzzleReturns422() throws Exception {
+		mvc.perform(post("/sudoku").param("engine", "backtracking")
+				                   .contentType(MediaType.TEXT_PLAIN)
+				                   .content(UNSOLVABLE))
+		   .andExpect(status().isUnprocessableEntity());
+	}
+
+	@Test
+	public void solverWhichGivesUpReturns500() throws Exception {
+		mvc.perform(post("/sudoku").param("engine", "two-degrees")
+				                   .param("strategies", "none")
+				                   .contentType(MediaType.TEXT_PLAIN)
+				                   .content(HARD))
+		   .andExpect(status().isInternalServerError());
+	}
+
+	@Test
+	public void dimensionAboveMaximumReturns400WithoutValidating() throws Exception {
+		mvc.perform(post("/sudoku/handleWithoutValidating").contentType(MediaType.TEXT_PLAIN)
+				                                           .content("9\n1\n"))
+		   .andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void cellOutsideGridReturns400WithoutValidating() throws Exception {
+		//the eleventh value of the first row is at x = 10, outside a 9x9 grid
+		mvc.perform(post("/sudoku/handleWithoutValidating").param("engine", "backtracking")
+				                                           .contentType(MediaType.TEXT_PLAIN)
+				                                           .content("3\n0,0,0,0,0,0,0,0,0,0,1\n"))
+		   .andExpect(status().isBadRequest());
+		mvc.perform(post("/sudoku/handleWithoutValidating").param("engine", "portfolio")
+				                                           .contentType(MediaType.TEXT_PLAIN)
+				                                           .content("3\n0,0,0,0,0,0,0,0,0,0,1\n"))
+		   .andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void portfolioWinsCountTheEngineWhichSolved() throws Exception {
+		mvc.perform(post("/sudoku").param("engine", "portfolio")
+				                   .contentType(MediaType.TEXT_PLAIN)
+				                   .content(HARD))
+		   .andExpect(status().isOk());
+		MvcResult result = mvc.perform(get("/sudoku/portfolio/wins"))
+				              .andExpect(status().isOk())
+				              .andReturn();
+		JsonObject wins = Json.createReader(new StringReader(result.getResponse().getContentAsString()))
+				              .readObject();
+		assertEquals(3, wins.size());
+		int total = 0;
+		for (String engine : wins.keySet()) {
+			total += wins.getInt(engine);
+		}
+		assertTrue(total >= 1);
+	}
+}
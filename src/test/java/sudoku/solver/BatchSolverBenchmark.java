@@ -0,0 +1,93 @@
+package sudoku.solver;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sudoku.items.Cell;
+import sudoku.items.Constraints;
+import sudoku.util.SolverMethod;
+import sudoku.util.StrategyPolicy;
+
+/**
+ * JMH benchmarks measuring how many 9x9 problems per second the BatchSolver
+ * solves, compared with calling Solver.solve() for each problem.  The problems
+ * are copies of the test problems with their values relabelled, so that no two
+ * problems in a batch are the same.  These are run in the same way as
+ * SolverBenchmark, for example:
+ *
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) org.openjdk.jmh.Main BatchSolverBenchmark
+ *
+ * @author Gary Mann
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchSolverBenchmark {
+
+	static final int PUZZLES = 640;
+
+	@Param({"EASY", "MIXED"})
+	public String puzzles;
+
+	private List<Constraints> batch;
+
+	@Setup
+	public void setup() throws Exception {
+		String[] inputs = "EASY".equals(puzzles)
+				? new String[] {SolverTests.EASY}
+				: new String[] {SolverTests.EASY, SolverTests.MEDIUM, SolverTests.HARD};
+		batch = new ArrayList<Constraints>();
+		for (int i = 0; i < PUZZLES; i++) {
+			batch.add(relabel(SolverTests.read(inputs[i % inputs.length]), i % 9));
+		}
+	}
+
+	private static Constraints relabel(Constraints constraints, int shift) {
+		for (Cell cell : constraints.getCells()) {
+			Set<Integer> values = new HashSet<Integer>();
+			for (Integer value : cell.getValues()) {
+				values.add((value - 1 + shift) % 9 + 1);
+			}
+			cell.setValues(values);
+		}
+		return constraints;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PUZZLES)
+	public List<SolverResult> batchSolver() {
+		return new BatchSolver().solve(batch, StrategyPolicy.STANDARD);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PUZZLES)
+	public int oneByOne() {
+		int solved = 0;
+		for (Constraints constraints : batch) {
+			if (Solver.solve(constraints, SolverMethod.BACKTRACKING, StrategyPolicy.STANDARD, false).isSolved()) {
+				solved++;
+			}
+		}
+		return solved;
+	}
+
+}
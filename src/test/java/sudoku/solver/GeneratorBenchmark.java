@@ -0,0 +1,70 @@
+package sudoku.solver;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sudoku.util.Difficulty;
+
+/**
+ * JMH benchmarks measuring the time taken to make a batch of 9x9 problems, and
+ * how it scales with the number of threads.  The "threads" parameter sets the
+ * size of the pool and the "difficulty" parameter the difficulty wanted.  These
+ * are run in the same way as SolverBenchmark, for example:
+ *
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) org.openjdk.jmh.Main GeneratorBenchmark
+ *
+ * @author Gary Mann
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeneratorBenchmark {
+
+	static final int BATCH = 32;
+
+	@Param({"1", "4"})
+	public int threads;
+
+	@Param({"any", "hard"})
+	public String difficulty;
+
+	private ForkJoinPool pool;
+	private Generator generator;
+	private int level;
+	private long seed;
+
+	@Setup
+	public void setup() throws Exception {
+		pool = new ForkJoinPool(threads);
+		generator = new Generator(pool);
+		level = Difficulty.fromName(difficulty);
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public List<GeneratedPuzzle> generate() {
+		return generator.generate(3, BATCH, 0, level, seed++);
+	}
+
+}
@@ -0,0 +1,72 @@
+package sudoku.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sudoku.items.Constraints;
+import sudoku.util.Difficulty;
+
+/**
+ * JMH benchmarks measuring the time taken to grade a batch of 9x9 problems of
+ * every difficulty, made once by the Generator, with one Grader on one thread
+ * and with Grader.gradeAll() on a pool with one thread per processor.  These
+ * are run in the same way as SolverBenchmark, for example:
+ *
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) org.openjdk.jmh.Main GraderBenchmark
+ *
+ * @author Gary Mann
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraderBenchmark {
+
+	static final int BATCH = 1000;
+
+	private ForkJoinPool pool;
+	private Grader grader;
+	private List<Constraints> puzzles;
+
+	@Setup
+	public void setup() {
+		pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+		grader = new Grader(3);
+		puzzles = new ArrayList<Constraints>();
+		for (GeneratedPuzzle puzzle : new Generator(pool).generate(3, BATCH, 0, Difficulty.ANY, 1L)) {
+			puzzles.add(puzzle.getGivens());
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public List<GradeReport> grader() {
+		return grader.grade(puzzles);
+	}
+
+	@Benchmark
+	public List<GradeReport> gradeAll() {
+		return Grader.gradeAll(puzzles, pool);
+	}
+
+}
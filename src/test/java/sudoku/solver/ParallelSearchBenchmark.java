@@ -0,0 +1,88 @@
+package sudoku.solver;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sudoku.items.Constraints;
+import sudoku.items.Holder;
+import sudoku.solver.strategy.Strategies;
+
+/**
+ * JMH benchmarks measuring how the parallel search scales with the number of
+ * threads, on a 16x16 problem which needs a long search when no strategies are
+ * used.  The "threads" parameter sets the size of the pool; the single-threaded
+ * Backtracker is measured for comparison.  These are run in the same way as
+ * SolverBenchmark, for example:
+ *
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) org.openjdk.jmh.Main ParallelSearchBenchmark
+ *
+ * @author Gary Mann
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelSearchBenchmark {
+
+	static final String HARD_16 = "4\n"
+			+ "7,0,0,4,16,0,0,9,0,8,6,2,0,0,1,11\n"
+			+ "0,3,0,0,0,0,6,2,14,13,0,0,0,12,0,0\n"
+			+ "10,8,0,0,0,0,0,0,0,0,0,0,0,3,0,0\n"
+			+ "0,0,1,0,7,0,0,0,0,0,15,9,0,8,6,0\n"
+			+ "0,0,0,0,3,0,0,0,0,0,0,0,13,0,11,0\n"
+			+ "0,0,0,10,8,0,0,14,0,1,0,0,0,0,4,0\n"
+			+ "0,0,0,0,0,1,11,0,12,5,4,16,0,0,0,10\n"
+			+ "13,0,0,0,12,0,5,0,0,0,9,10,0,6,0,0\n"
+			+ "5,4,0,3,0,0,10,0,6,0,14,0,1,0,0,0\n"
+			+ "15,0,0,0,0,2,14,0,0,0,0,12,0,0,0,0\n"
+			+ "0,0,0,13,0,11,0,0,0,4,0,0,15,0,10,8\n"
+			+ "0,0,0,0,0,0,16,0,0,9,10,0,0,0,0,13\n"
+			+ "0,0,0,0,0,10,0,0,9,16,13,1,0,0,0,5\n"
+			+ "0,0,8,6,0,14,0,1,2,0,12,0,0,0,0,0\n"
+			+ "2,16,0,0,5,0,12,0,0,0,3,15,0,0,0,6\n"
+			+ "0,0,12,0,9,16,0,0,0,10,0,0,0,14,13,0\n";
+
+	@Param({"1", "2", "4", "8"})
+	public int threads;
+
+	private ForkJoinPool pool;
+	private Holder holder;
+
+	@Setup
+	public void setup() throws Exception {
+		pool = new ForkJoinPool(threads);
+		Constraints constraints = SolverTests.read(HARD_16);
+		holder = Solver.iterativeUpdateConstraints(new Holder(constraints, null), true, Strategies.none(), false);
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public Constraints parallelSearch() {
+		return new ParallelSearch(pool, ParallelSearch.DEFAULT_SPLIT_DEPTH, false).solve(holder);
+	}
+
+	@Benchmark
+	public Constraints backtracker() {
+		return new Backtracker(false).solve(holder);
+	}
+
+}
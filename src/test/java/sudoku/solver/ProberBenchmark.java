@@ -0,0 +1,108 @@
+package sudoku.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sudoku.exceptions.BadCellException;
+import sudoku.items.Grid;
+import sudoku.solver.strategy.Strategies;
+import sudoku.util.Difficulty;
+import sudoku.util.StrategyPolicy;
+
+/**
+ * JMH benchmarks measuring what probing the bivalue cells saves the search, on
+ * a batch of 9x9 problems made once by the Generator which the standard
+ * strategies leave unsolved.  The search alone is compared with probing
+ * followed by the search, and besides the time taken the counters report the
+ * search steps and the problems probing completes on its own.  These are run in
+ * the same way as SolverBenchmark, for example:
+ *
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) org.openjdk.jmh.Main ProberBenchmark
+ *
+ * @author Gary Mann
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProberBenchmark {
+
+	static final int BATCH = 36;
+
+	private List<Grid> puzzles;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Counters {
+		public long nodes;
+		public long completedByProbing;
+	}
+
+	@Setup
+	public void setup() throws Exception {
+		ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+		Propagator propagator = new Propagator(3, Strategies.forPolicy(StrategyPolicy.STANDARD));
+		puzzles = new ArrayList<Grid>();
+		try {
+			for (GeneratedPuzzle puzzle : new Generator(pool).generate(3, BATCH, 0, Difficulty.EXPERT, 1L)) {
+				Grid grid = new Grid(puzzle.getGivens());
+				propagator.propagate(grid, false);
+				puzzles.add(grid);
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Benchmark
+	public int search(Counters counters) {
+		Propagator propagator = new Propagator(3);
+		Backtracker backtracker = new Backtracker(false);
+		int solved = 0;
+		for (Grid puzzle : puzzles) {
+			if (backtracker.search(new Grid(puzzle), propagator)) {
+				solved++;
+			}
+			counters.nodes += backtracker.getNodes();
+		}
+		return solved;
+	}
+
+	@Benchmark
+	public int probeThenSearch(Counters counters) throws BadCellException {
+		Propagator propagator = new Propagator(3);
+		Backtracker backtracker = new Backtracker(false);
+		int solved = 0;
+		for (Grid puzzle : puzzles) {
+			Grid grid = new Grid(puzzle);
+			new Prober(false).probe(grid, propagator);
+			if (grid.isComplete()) {
+				counters.completedByProbing++;
+				solved++;
+			} else {
+				if (backtracker.search(grid, propagator)) {
+					solved++;
+				}
+				counters.nodes += backtracker.getNodes();
+			}
+		}
+		return solved;
+	}
+
+}
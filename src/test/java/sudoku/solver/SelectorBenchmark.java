@@ -0,0 +1,117 @@
+package sudoku.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sudoku.items.Constraints;
+import sudoku.items.Holder;
+import sudoku.solver.strategy.Strategies;
+import sudoku.util.Difficulty;
+import sudoku.util.StrategyPolicy;
+
+/**
+ * JMH benchmarks from which the rules of engine-selection.csv are chosen.  Each
+ * engine the auto engine can choose solves a batch of problems with unique
+ * solutions, made once by the Generator, using the standard strategies.  The
+ * "dim" parameter sets the dimension of the problems and the "engine" parameter
+ * the engine.  Besides the time taken, the counters report the problems each
+ * engine failed to solve and the problems which needed no search after the
+ * first update, which are the features the rules test.  These are run in the
+ * same way as SolverBenchmark, for example:
+ *
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) org.openjdk.jmh.Main SelectorBenchmark
+ *
+ * @author Gary Mann
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class SelectorBenchmark {
+
+	static final int BATCH = 30;
+
+	//digging a 16x16 problem down to its fewest clues takes seconds, so stop at this many
+	static final int CLUES_16X16 = 120;
+
+	@Param({"3", "4"})
+	public int dim;
+
+	@Param({"backtracking", "dancing-links", "cdcl", "two-degrees"})
+	public String engine;
+
+	private SolverEngine solver;
+	private List<Constraints> puzzles;
+	private int searched;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Counters {
+		public long failed;
+		public long searched;
+	}
+
+	@Setup
+	public void setup() {
+		for (SolverEngine candidate : Arrays.<SolverEngine>asList(SolverMethodEngine.backtracking(),
+				                                                  SolverMethodEngine.dancingLinks(),
+				                                                  SolverMethodEngine.cdcl(),
+				                                                  SolverMethodEngine.twoDegreesOfFreedom())) {
+			if (candidate.getName().equals(engine)) {
+				solver = candidate;
+			}
+		}
+		ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+		puzzles = new ArrayList<Constraints>();
+		int clues = (dim == 4) ? CLUES_16X16 : 0;
+		try {
+			for (GeneratedPuzzle puzzle : new Generator(pool).generate(dim, BATCH, clues, Difficulty.ANY, 1L)) {
+				puzzles.add(puzzle.getGivens());
+			}
+		} finally {
+			pool.shutdown();
+		}
+		searched = 0;
+		for (Constraints puzzle : puzzles) {
+			Holder holder = Solver.iterativeUpdateConstraints(new Holder(puzzle, null), true,
+			                                                  Strategies.forPolicy(StrategyPolicy.STANDARD),
+			                                                  false);
+			if (PuzzleFeatures.of(puzzle, holder).getEmptyCells() > 0) {
+				searched++;
+			}
+		}
+	}
+
+	@Benchmark
+	public int solve(Counters counters) {
+		int solved = 0;
+		for (Constraints puzzle : puzzles) {
+			if (solver.solve(puzzle, StrategyPolicy.STANDARD, 1L, false).isSolved()) {
+				solved++;
+			} else {
+				counters.failed++;
+			}
+		}
+		counters.searched += searched;
+		return solved;
+	}
+
+}
@@ -0,0 +1,80 @@
+package sudoku.solver;
+
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sudoku.items.Constraints;
+import sudoku.util.FileFormat;
+import sudoku.util.SolverMethod;
+
+/**
+ * JMH benchmarks comparing the solver methods.  These are not run as part of the
+ * unit tests.  To run them, compile the tests and start the JMH runner on the test
+ * classpath:
+ *
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) org.openjdk.jmh.Main SolverBenchmark
+ *
+ * @author Gary Mann
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverBenchmark {
+
+	@Param({"EASY", "HARD"})
+	public String puzzle;
+
+	private String input;
+
+	@Setup
+	public void setup() {
+		input = "EASY".equals(puzzle) ? SolverTests.EASY : SolverTests.HARD;
+	}
+
+	private boolean run(int solverMethod) throws Exception {
+		Constraints constraints = SolverTests.read(input);
+		return Solver.run(constraints, new StringWriter(), FileFormat.TEXT, false, solverMethod);
+	}
+
+	@Benchmark
+	public boolean twoDegreesOfFreedom() throws Exception {
+		return run(SolverMethod.TWO_DEGREES_OF_FREEDOM);
+	}
+
+	@Benchmark
+	public boolean parallelTwoDegreesOfFreedom() throws Exception {
+		return run(SolverMethod.PARALLEL_TWO_DEGREES_OF_FREEDOM);
+	}
+
+	@Benchmark
+	public boolean backtracking() throws Exception {
+		return run(SolverMethod.BACKTRACKING);
+	}
+
+	@Benchmark
+	public boolean dancingLinks() throws Exception {
+		return run(SolverMethod.DANCING_LINKS);
+	}
+
+	@Benchmark
+	public boolean cdcl() throws Exception {
+		return run(SolverMethod.CDCL);
+	}
+
+}
@@ -0,0 +1,941 @@
+package sudoku.solver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import sudoku.exceptions.BadCellException;
+import sudoku.exceptions.InvalidInputDataException;
+import sudoku.io.Input;
+import sudoku.items.Candidates;
+import sudoku.items.Cell;
+import sudoku.items.Constraints;
+import sudoku.items.Grid;
+import sudoku.items.Holder;
+import sudoku.items.Units;
+import sudoku.solver.strategy.Strategies;
+import sudoku.util.Difficulty;
+import sudoku.util.FileFormat;
+import sudoku.util.SolverMethod;
+import sudoku.util.StrategyPolicy;
+
+public class SolverTests {
+
+	static final String EASY = "3\n"
+			+ "5,3,0,0,7,0,0,0,0\n"
+			+ "6,0,0,1,9,5,0,0,0\n"
+			+ "0,9,8,0,0,0,0,6,0\n"
+			+ "8,0,0,0,6,0,0,0,3\n"
+			+ "4,0,0,8,0,3,0,0,1\n"
+			+ "7,0,0,0,2,0,0,0,6\n"
+			+ "0,6,0,0,0,0,2,8,0\n"
+			+ "0,0,0,4,1,9,0,0,5\n"
+			+ "0,0,0,0,8,0,0,7,9\n";
+
+	static final String EASY_SOLUTION = "3\n"
+			+ " 5  3  4    6  7  8    9  1  2   \n"
+			+ " 6  7  2    1  9  5    3  4  8   \n"
+			+ " 1  9  8    3  4  2    5  6  7   \n\n"
+			+ " 8  5  9    7  6  1    4  2  3   \n"
+			+ " 4  2  6    8  5  3    7  9  1   \n"
+			+ " 7  1  3    9  2  4    8  5  6   \n\n"
+			+ " 9  6  1    5  3  7    2  8  4   \n"
+			+ " 2  8  7    4  1  9    6  3  5   \n"
+			+ " 3  4  5    2  8  6    1  7  9   \n\n";
+
+	static final String HARD = "3\n"
+			+ "8,0,0,0,0,0,0,0,0\n"
+			+ "0,0,3,6,0,0,0,0,0\n"
+			+ "0,7,0,0,9,0,2,0,0\n"
+			+ "0,5,0,0,0,7,0,0,0\n"
+			+ "0,0,0,0,4,5,7,0,0\n"
+			+ "0,0,0,1,0,0,0,3,0\n"
+			+ "0,0,1,0,0,0,0,6,8\n"
+			+ "0,0,8,5,0,0,0,1,0\n"
+			+ "0,9,0,0,0,0,4,0,0\n";
+
+	static final String HARD_SOLUTION = "3\n"
+			+ " 8  1  2    7  5  3    6  4  9   \n"
+			+ " 9  4  3    6  8  2    1  7  5   \n"
+			+ " 6  7  5    4  9  1    2  8  3   \n\n"
+			+ " 1  5  4    2  3  7    8  9  6   \n"
+			+ " 3  6  9    8  4  5    7  2  1   \n"
+			+ " 2  8  7    1  6  9    5  3  4   \n\n"
+			+ " 5  2  1    9  7  4    3  6  8   \n"
+			+ " 4  3  8    5  2  6    9  1  7   \n"
+			+ " 7  9  6    3  1  8    4  5  2   \n\n";
+
+	//singles alone stop after 32 cells, the standard strategies finish it
+	static final String MEDIUM = "3\n"
+			+ "6,0,0,0,0,8,0,0,5\n"
+			+ "3,1,0,2,0,0,0,0,9\n"
+			+ "0,7,0,0,0,5,0,0,4\n"
+			+ "0,0,0,0,0,0,0,2,0\n"
+			+ "0,0,9,0,0,4,0,0,0\n"
+			+ "0,8,0,5,2,9,0,4,0\n"
+			+ "0,0,0,0,0,0,0,9,1\n"
+			+ "0,0,6,0,0,0,0,0,0\n"
+			+ "9,0,0,0,3,0,0,0,8\n";
+
+	//the standard strategies stop after 45 cells, the advanced ones finish it
+	static final String TOUGH = "3\n"
+			+ "9,2,0,6,0,0,0,0,0\n"
+			+ "6,0,0,0,8,0,7,0,0\n"
+			+ "0,0,4,0,0,0,0,9,8\n"
+			+ "0,0,3,7,0,0,0,4,0\n"
+			+ "0,0,2,1,0,0,5,0,0\n"
+			+ "1,0,0,0,0,0,3,0,0\n"
+			+ "0,6,0,0,0,4,1,2,0\n"
+			+ "0,0,0,0,7,0,0,0,0\n"
+			+ "0,4,0,0,0,3,0,0,0\n";
+
+	//every cell of the first column is forced except the last, which has no value left
+	static final String UNSOLVABLE = "3\n"
+			+ "1,0,0,0,0,0,0,0,0\n"
+			+ "2,0,0,0,0,0,0,0,0\n"
+			+ "3,0,0,0,0,0,0,0,0\n"
+			+ "4,0,0,0,0,0,0,0,0\n"
+			+ "5,0,0,0,0,0,0,0,0\n"
+			+ "6,0,0,0,0,0,0,0,0\n"
+			+ "7,0,0,0,0,0,0,0,0\n"
+			+ "8,0,0,0,0,0,0,0,0\n"
+			+ "0,9,0,0,0,0,0,0,0\n";
+
+	static Constraints read(String input) throws Exception {
+		return Input.initializeConstraints(new StringReader(input), FileFormat.TEXT);
+	}
+
+	@Test
+	public void candidatesMasksFollowPlacedValues() throws Exception {
+		Candidates candidates = new Candidates(3);
+		assertEquals(0x1FFL, candidates.getFullMask());
+		assertEquals(0x1FFL, candidates.allowed(4, 4));
+		candidates.place(1, 2, 5);
+		assertEquals(Candidates.bit(5), candidates.getRow(2));
+		assertEquals(Candidates.bit(5), candidates.getColumn(1));
+		assertEquals(Candidates.bit(5), candidates.getBox(candidates.box(1, 2)));
+		assertEquals(0x1FFL & ~Candidates.bit(5), candidates.allowed(8, 2));
+		assertEquals(0x1FFL & ~Candidates.bit(5), candidates.allowed(1, 8));
+		assertEquals(0x1FFL & ~Candidates.bit(5), candidates.allowed(0, 0));
+		assertEquals(0x1FFL, candidates.allowed(4, 4));
+		candidates.remove(1, 2, 5);
+		assertEquals(0x1FFL, candidates.allowed(0, 0));
+		for (int x = 0; x < 9; x++) {
+			for (int y = 0; y < 9; y++) {
+				assertEquals(new Cell(x, y).getBox(3), candidates.box(x, y));
+			}
+		}
+		Candidates copy = new Candidates(new Candidates(read(EASY)));
+		Grid grid = new Grid(read(EASY));
+		for (int x = 0; x < 9; x++) {
+			for (int y = 0; y < 9; y++) {
+				assertEquals(grid.allowed(x, y), copy.allowed(x, y));
+			}
+		}
+	}
+
+	@Test
+	public void candidatesConvertBetweenMasksAndSets() throws Exception {
+		Set<Integer> values = new HashSet<Integer>(Arrays.asList(1, 7, 64));
+		long mask = Candidates.toMask(values);
+		assertEquals(1L | (1L << 6) | Long.MIN_VALUE, mask);
+		assertEquals(values, Candidates.toSet(mask));
+		assertEquals(3, Candidates.count(mask));
+		assertEquals(1, Candidates.lowestValue(mask));
+		assertEquals(64, Candidates.lowestValue(Long.MIN_VALUE));
+		assertEquals(0L, Candidates.toMask(new HashSet<Integer>(Arrays.asList(0, 65))));
+		assertEquals(-1L, new Candidates(8).getFullMask());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void candidatesRejectDimensionAboveMaximum() throws Exception {
+		new Candidates(Candidates.MAX_DIM + 1);
+	}
+
+	@Test
+	public void cellsHashByLocationWithoutCollisions() throws Exception {
+		Set<Integer> hashCodes = new HashSet<Integer>();
+		for (int x = 0; x < 25; x++) {
+			for (int y = 0; y < 25; y++) {
+				assertTrue(hashCodes.add(new Cell(x, y).hashCode()));
+			}
+		}
+		Cell cell = new Cell(3, 4);
+		cell.getValues().add(7);
+		assertEquals(new Cell(3, 4), cell);
+		assertEquals(new Cell(3, 4).hashCode(), cell.hashCode());
+		assertFalse(new Cell(4, 3).equals(cell));
+	}
+
+	@Test
+	public void constraintsContainOnlyConstrainedCells() throws Exception {
+		Constraints constraints = read(HARD);
+		Grid grid = new Grid(constraints);
+		for (int x = 0; x < 9; x++) {
+			for (int y = 0; y < 9; y++) {
+				assertEquals(grid.get(x, y) != 0, constraints.contains(x, y));
+			}
+		}
+		assertEquals(constraints.getCells(), grid.toConstraints().getCells());
+		assertEquals(constraints.getCells().size(), grid.getConstrainedCount());
+	}
+
+	@Test
+	public void gridUndoRestoresValuesAndEliminations() throws Exception {
+		Grid grid = new Grid(read(HARD));
+		Grid original = new Grid(grid);
+		int empty = 0;
+		while (grid.get(empty) != 0) {
+			empty++;
+		}
+		long before = grid.candidates(empty);
+		int mark = grid.mark();
+		assertTrue(grid.eliminate(empty, Candidates.bit(Candidates.lowestValue(before))));
+		assertFalse(grid.eliminate(empty, Candidates.bit(Candidates.lowestValue(before))));
+		assertEquals(Candidates.count(before) - 1, Candidates.count(grid.candidates(empty)));
+		int inner = grid.mark();
+		grid.set(empty, Candidates.lowestValue(grid.candidates(empty)));
+		grid.clear(0, 0);
+		assertEquals(original.getConstrainedCount() + ((original.get(0) == 0) ? 1 : 0), grid.getConstrainedCount());
+		grid.undo(inner);
+		assertEquals(0, grid.get(empty));
+		assertEquals(original.get(0), grid.get(0));
+		assertEquals(Candidates.count(before) - 1, Candidates.count(grid.candidates(empty)));
+		grid.undo(mark);
+		assertEquals(mark, grid.mark());
+		for (int i = 0; i < grid.getSize(); i++) {
+			assertEquals(original.get(i), grid.get(i));
+			assertEquals(original.candidates(i), grid.candidates(i));
+		}
+		assertEquals(original.getConstrainedCount(), grid.getConstrainedCount());
+	}
+
+	@Test
+	public void gridTrailGrowsPastOneEntryPerCell() throws Exception {
+		Grid grid = new Grid(2);
+		int mark = grid.mark();
+		//every cell is changed several times, so the trail holds far more than 16 entries
+		for (int round = 1; round <= 4; round++) {
+			for (int i = 0; i < grid.getSize(); i++) {
+				grid.set(i, round);
+				grid.set(i, 0);
+				grid.eliminate(i, Candidates.bit(round));
+			}
+		}
+		assertEquals(12 * grid.getSize(), grid.mark() - mark);
+		for (int i = 0; i < grid.getSize(); i++) {
+			assertEquals(0L, grid.candidates(i));
+		}
+		grid.undo(mark);
+		assertEquals(0, grid.getConstrainedCount());
+		for (int i = 0; i < grid.getSize(); i++) {
+			assertEquals(0, grid.get(i));
+			assertEquals(0xFL, grid.candidates(i));
+		}
+	}
+
+	//sets naked and hidden singles one at a time, rescanning the whole grid after each
+	static void naiveSingles(Grid grid) {
+		Units units = Units.forDim(grid.getDim());
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int i = 0; i < grid.getSize(); i++) {
+				if ((grid.get(i) == 0) && (Candidates.count(grid.candidates(i)) == 1)) {
+					grid.set(i, Candidates.lowestValue(grid.candidates(i)));
+					changed = true;
+				}
+			}
+			for (int unit = 0; unit < 3 * grid.getDimSq(); unit++) {
+				for (int value = 1; value <= grid.getDimSq(); value++) {
+					int only = -1;
+					int count = 0;
+					for (int i : units.getUnit(unit)) {
+						if ((grid.get(i) == 0) && ((grid.candidates(i) & Candidates.bit(value)) != 0L)) {
+							only = i;
+							count++;
+						}
+					}
+					if (count == 1) {
+						grid.set(only, value);
+						changed = true;
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void propagatorMatchesNaiveSinglesOnRandomSubsets() throws Exception {
+		Grid solution = new Grid(new Backtracker(false).solve(new Holder(read(HARD), null)));
+		Propagator propagator = new Propagator(3);
+		SplittableRandom random = new SplittableRandom(6L);
+		for (int trial = 0; trial < 200; trial++) {
+			Grid subset = new Grid(3);
+			for (int i = 0; i < subset.getSize(); i++) {
+				if (random.nextInt(100) < 30) {
+					subset.set(i, solution.get(i));
+				}
+			}
+			Grid naive = new Grid(subset);
+			naiveSingles(naive);
+			propagator.propagate(subset, false);
+			for (int i = 0; i < subset.getSize(); i++) {
+				assertEquals(naive.get(i), subset.get(i));
+			}
+		}
+	}
+
+	@Test
+	public void backtrackingSolvesHardPuzzle() throws Exception {
+		StringWriter writer = new StringWriter();
+		assertTrue(Solver.run(read(HARD), writer, FileFormat.TEXT, false, SolverMethod.BACKTRACKING));
+		assertEquals(HARD_SOLUTION, writer.toString());
+	}
+
+	@Test
+	public void dancingLinksSolvesHardPuzzle() throws Exception {
+		StringWriter writer = new StringWriter();
+		assertTrue(Solver.run(read(HARD), writer, FileFormat.TEXT, false, SolverMethod.DANCING_LINKS));
+		assertEquals(HARD_SOLUTION, writer.toString());
+	}
+
+	@Test
+	public void dancingLinksFailsUnsolvablePuzzle() throws Exception {
+		assertNull(new DancingLinks(false).solve(read(UNSOLVABLE)));
+	}
+
+	@Test
+	public void strategiesSolveMediumPuzzleWithoutSearch() throws Exception {
+		Holder holder = Solver.updateConstraints(read(MEDIUM), false);
+		assertEquals(81, holder.getConstraints().getCells().size());
+	}
+
+	@Test
+	public void advancedStrategiesSolveToughPuzzleWithoutSearch() throws Exception {
+		assertTrue(Solver.updateConstraints(read(TOUGH), false).getConstraints().getCells().size() < 81);
+		Holder holder = Solver.updateConstraints(read(TOUGH), Strategies.advanced(), false);
+		assertEquals(81, holder.getConstraints().getCells().size());
+	}
+
+	//an empty grid whose first row starts with cells limited to the given values
+	static Grid firstRow(long... masks) {
+		Grid grid = new Grid(3);
+		for (int x = 0; x < masks.length; x++) {
+			grid.eliminate(x, 0, ~masks[x]);
+		}
+		return grid;
+	}
+
+	@Test
+	public void proberForcesValueWhenOtherFails() throws Exception {
+		//a 1 in the first cell leaves 3 as the only value of both the next two cells
+		long oneOrThree = Candidates.bit(1) | Candidates.bit(3);
+		Grid grid = firstRow(Candidates.bit(1) | Candidates.bit(2), oneOrThree, oneOrThree);
+		Propagator propagator = new Propagator(3);
+		propagator.propagate(grid, false);
+		Prober prober = new Prober(false);
+		assertTrue(prober.probe(grid, propagator));
+		assertEquals(2, grid.get(0, 0));
+		assertEquals(1, prober.getForced());
+		assertTrue(prober.getProbes() >= 1);
+	}
+
+	@Test(expected = BadCellException.class)
+	public void proberFailsWhenBothValuesFail() throws Exception {
+		//three cells of a row which can only take 1 or 2
+		long oneOrTwo = Candidates.bit(1) | Candidates.bit(2);
+		Grid grid = firstRow(oneOrTwo, oneOrTwo, oneOrTwo);
+		Propagator propagator = new Propagator(3);
+		propagator.propagate(grid, false);
+		new Prober(false).probe(grid, propagator);
+	}
+
+	@Test
+	public void proberKeepsCommonValuesAndEliminations() throws Exception {
+		//either value of the first cell leaves 3 in the third
+		long oneOrTwo = Candidates.bit(1) | Candidates.bit(2);
+		Grid grid = firstRow(oneOrTwo, oneOrTwo, oneOrTwo | Candidates.bit(3));
+		Propagator propagator = new Propagator(3);
+		propagator.propagate(grid, false);
+		Prober prober = new Prober(false);
+		assertTrue(prober.probe(grid, propagator));
+		assertEquals(3, grid.get(2, 0));
+		assertEquals(0, prober.getForced());
+		assertTrue(prober.getCommon() >= 1);
+		assertTrue(prober.getEliminated() >= 1);
+		assertEquals(oneOrTwo, grid.candidates(0, 0));
+		assertEquals(0L, grid.candidates(3, 0) & oneOrTwo);
+	}
+
+	@Test
+	public void proberFindsNothingWithoutBivalueCells() throws Exception {
+		Grid grid = new Grid(3);
+		Prober prober = new Prober(false);
+		assertFalse(prober.probe(grid, new Propagator(3)));
+		assertEquals(0, prober.getProbes());
+	}
+
+	@Test
+	public void enginesReturnSolvedGridAndStatistics() throws Exception {
+		for (SolverEngine engine : new SolverEngine[] {SolverMethodEngine.backtracking(),
+				                                       SolverMethodEngine.dancingLinks()}) {
+			SolverResult result = engine.solve(read(HARD), StrategyPolicy.STANDARD, false);
+			assertTrue(result.isSolved());
+			assertTrue(result.getSolution().isComplete());
+			assertEquals(engine.getName(), result.getEngine());
+			assertEquals(21, result.getGivens());
+		}
+		assertFalse(SolverMethodEngine.backtracking().solve(read(UNSOLVABLE), StrategyPolicy.STANDARD, false).isSolved());
+	}
+
+	@Test
+	public void portfolioReturnsWinnerAndCountsWins() throws Exception {
+		PortfolioEngine portfolio = new PortfolioEngine("portfolio",
+				Arrays.<SolverEngine>asList(SolverMethodEngine.dancingLinks(), SolverMethodEngine.backtracking()), 2, 2);
+		try {
+			SolverResult result = portfolio.solve(read(HARD), StrategyPolicy.STANDARD, false);
+			assertTrue(result.isSolved());
+			assertEquals(Long.valueOf(1), portfolio.getWins().get(result.getEngine()));
+			StringWriter writer = new StringWriter();
+			assertTrue(Solver.run(read(HARD), writer, FileFormat.TEXT, false, portfolio, StrategyPolicy.STANDARD));
+			assertEquals(HARD_SOLUTION, writer.toString());
+			assertFalse(Solver.run(read(UNSOLVABLE), new StringWriter(), FileFormat.TEXT, false,
+					               portfolio, StrategyPolicy.STANDARD));
+		} finally {
+			portfolio.shutdown();
+		}
+	}
+
+	@Test
+	public void selectorChoosesEngineFromDecisionTable() throws Exception {
+		PortfolioEngine portfolio = new PortfolioEngine("portfolio",
+				Arrays.<SolverEngine>asList(SolverMethodEngine.dancingLinks(), SolverMethodEngine.backtracking()), 2, 2);
+		try {
+			SelectorEngine selector = new SelectorEngine("auto",
+					Arrays.<SolverEngine>asList(SolverMethodEngine.backtracking(), SolverMethodEngine.dancingLinks(), portfolio),
+					SolverMethodEngine.backtracking(), "classpath:engine-selection.csv");
+			assertEquals("dancing-links", selector.select(new PuzzleFeatures(3, 21, 50, 3.2)).getName());
+			assertEquals("backtracking", selector.select(new PuzzleFeatures(3, 30, 0, 0.0)).getName());
+			assertEquals("portfolio", selector.select(new PuzzleFeatures(5, 300, 200, 4.0)).getName());
+			assertTrue(selector.solve(read(HARD), StrategyPolicy.STANDARD, false).isSolved());
+		} finally {
+			portfolio.shutdown();
+		}
+		DecisionTable table = DecisionTable.read(new StringReader("# dim,clues,emptyCells,averageCandidates,engine\n"
+				                                                  + "3,20-25,*,2.5-3.5,two-degrees\n"));
+		assertEquals("two-degrees", table.select(new PuzzleFeatures(3, 21, 50, 3.2)));
+		assertNull(table.select(new PuzzleFeatures(3, 21, 50, 3.6)));
+	}
+
+	@Test
+	public void parallelTrialsSolveMediumPuzzle() throws Exception {
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			Holder holder = Solver.iterativeUpdateConstraints(new Holder(read(MEDIUM), null), true, Strategies.none(), false);
+			SolverResult result = new SolverResult(0);
+			Constraints solution = new ParallelTrials(pool, RestartPolicy.DEFAULT, TrialBudget.DEFAULT, false).solve(holder, result, 42L);
+			Grid expected = new Grid(new Backtracker(false).solve(holder));
+			Grid grid = new Grid(solution);
+			for (int i = 0; i < grid.getSize(); i++) {
+				assertEquals(expected.get(i), grid.get(i));
+			}
+			assertTrue(result.getNodes() >= 1);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void parallelTrialsAreReproducible() throws Exception {
+		String open = "3\n"
+				+ "0,0,0,0,0,0,0,0,0\n"
+				+ "0,0,0,0,0,0,0,0,0\n"
+				+ "0,0,0,0,0,0,0,0,0\n"
+				+ "0,0,0,0,0,0,0,0,0\n"
+				+ "0,0,0,0,0,0,0,0,0\n"
+				+ "0,0,0,0,0,0,0,0,0\n"
+				+ "0,0,0,0,0,0,0,0,0\n"
+				+ "0,0,0,0,0,0,0,0,0\n"
+				+ "0,0,0,0,0,0,0,0,0\n";
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			Holder holder = Solver.iterativeUpdateConstraints(new Holder(read(open), null), true, Strategies.none(), false);
+			ParallelTrials trials = new ParallelTrials(pool, RestartPolicy.fixed(100), TrialBudget.DEFAULT, false);
+			Grid first = new Grid(trials.solve(holder, new SolverResult(0), 99L));
+			for (int run = 0; run < 30; run++) {
+				Grid grid = new Grid(trials.solve(holder, new SolverResult(0), 99L));
+				for (int i = 0; i < grid.getSize(); i++) {
+					assertEquals(first.get(i), grid.get(i));
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void parallelSearchMatchesBacktracker() throws Exception {
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			Holder holder = Solver.iterativeUpdateConstraints(new Holder(read(HARD), null), true, Strategies.none(), false);
+			ParallelSearch search = new ParallelSearch(pool, 2, false);
+			Grid grid = new Grid(search.solve(holder));
+			Grid expected = new Grid(new Backtracker(false).solve(holder));
+			for (int i = 0; i < grid.getSize(); i++) {
+				assertEquals(expected.get(i), grid.get(i));
+			}
+			assertTrue(search.getTasks() > 1);
+			assertNull(new ParallelSearch(pool, 2, false).solve(new Holder(read(UNSOLVABLE), null)));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void parallelPropagationMatchesSequential() throws Exception {
+		//a 25x25 solution with one cell in three cleared
+		int dim = 5;
+		int dimSq = dim * dim;
+		Grid sequential = new Grid(dim);
+		for (int y = 0; y < dimSq; y++) {
+			for (int x = 0; x < dimSq; x++) {
+				if ((x + 2 * y) % 3 != 0) {
+					sequential.set(x, y, ((y % dim) * dim + y / dim + x) % dimSq + 1);
+				}
+			}
+		}
+		Grid parallel = new Grid(sequential);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			new Propagator(dim, Strategies.standard()).propagate(sequential, false);
+			new Propagator(dim, Strategies.standard(), pool).propagate(parallel, false);
+		} finally {
+			pool.shutdown();
+		}
+		assertTrue(parallel.isComplete());
+		assertEquals(sequential.getConstrainedCount(), parallel.getConstrainedCount());
+		for (int i = 0; i < sequential.getSize(); i++) {
+			assertEquals(sequential.candidates(i), parallel.candidates(i));
+		}
+	}
+
+	@Test
+	public void batchSolverMatchesSolver() throws Exception {
+		//more than one batch, with puzzles solved by singles, stalled and unsolvable
+		String[] inputs = {EASY, HARD, MEDIUM, UNSOLVABLE};
+		List<Constraints> puzzles = new ArrayList<Constraints>();
+		for (int i = 0; i < 70; i++) {
+			puzzles.add(read(inputs[i % inputs.length]));
+		}
+		BatchSolver batchSolver = new BatchSolver();
+		List<SolverResult> results = batchSolver.solve(puzzles, StrategyPolicy.STANDARD);
+		assertEquals(puzzles.size(), results.size());
+		for (int i = 0; i < puzzles.size(); i++) {
+			SolverResult expected = Solver.solve(puzzles.get(i), SolverMethod.BACKTRACKING, StrategyPolicy.STANDARD, false);
+			assertEquals(expected.isSolved(), results.get(i).isSolved());
+			if (expected.isSolved()) {
+				for (int j = 0; j < 81; j++) {
+					assertEquals(expected.getSolution().get(j), results.get(i).getSolution().get(j));
+				}
+			}
+		}
+		assertEquals(18, batchSolver.getSolvedInBatch());
+		assertEquals(17, batchSolver.getUnsolvable());
+		assertEquals(35, batchSolver.getFallbacks());
+	}
+
+	@Test
+	public void lubyRestartsFollowLubySequence() throws Exception {
+		long[] expected = {1, 1, 2, 1, 1, 2, 4, 1, 1, 2, 1, 1, 2, 4, 8};
+		RestartPolicy policy = RestartPolicy.luby(16);
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], RestartPolicy.lubyTerm(i + 1));
+			assertEquals(16 * expected[i], policy.cutoff(i));
+		}
+		assertEquals(30, RestartPolicy.fromName("geometric", 20, 1.5).cutoff(1));
+	}
+
+	@Test
+	public void seededTrialsAreReproducible() throws Exception {
+		SolverEngine engine = SolverMethodEngine.twoDegreesOfFreedom(RestartPolicy.DEFAULT, TrialBudget.DEFAULT);
+		SolverResult first = engine.solve(read(HARD), StrategyPolicy.NONE, 1234L, false);
+		SolverResult second = engine.solve(read(HARD), StrategyPolicy.NONE, 1234L, false);
+		assertTrue(first.isSolved());
+		assertEquals(1234L, first.getSeed());
+		assertEquals(first.getNodes(), second.getNodes());
+		Grid a = first.getSolution();
+		Grid b = second.getSolution();
+		for (int i = 0; i < a.getSize(); i++) {
+			assertEquals(a.get(i), b.get(i));
+		}
+	}
+
+	@Test
+	public void nogoodTableStoresPairsInEitherOrder() throws Exception {
+		NogoodTable nogoods = new NogoodTable(3);
+		for (int index = 0; index < 81; index++) {
+			nogoods.refute(index, 1 + index % 9, 80 - index, 9 - index % 9);
+		}
+		assertEquals(41, nogoods.getPairCount());
+		assertTrue(nogoods.isRefuted(80, 9, 0, 1));
+		assertFalse(nogoods.isRefuted(0, 9, 80, 1));
+		assertEquals(0.5, nogoods.getHitRate(), 0.0);
+		nogoods.refute(4, 7);
+		assertTrue(nogoods.isRefuted(4, 7));
+		assertFalse(nogoods.isRefuted(4, 6));
+	}
+
+	@Test
+	public void twoDegreesTrialsSkipRefutedPairs() throws Exception {
+		SolverResult result = Solver.solve(read(HARD), SolverMethod.TWO_DEGREES_OF_FREEDOM, StrategyPolicy.NONE,
+				                           false, null, 3L, RestartPolicy.fixed(0), new TrialBudget(10000L, 10000000L, 0L));
+		assertTrue(result.isSolved());
+		assertTrue(result.getNogoodHits() > 0);
+		assertTrue(result.getNogoodHitRate() > 0.0);
+		Grid expected = new Grid(new Backtracker(false).solve(new Holder(read(HARD), null)));
+		for (int i = 0; i < expected.getSize(); i++) {
+			assertEquals(expected.get(i), result.getSolution().get(i));
+		}
+	}
+
+	//a puzzle with a wrong value in its first empty cell that allows one, which only a search shows has no solution
+	static Constraints wrongClue(String input) throws Exception {
+		Grid grid = new Grid(read(input));
+		Grid solution = new Grid(new Backtracker(false).solve(new Holder(read(input), null)));
+		for (int i = 0; i < grid.getSize(); i++) {
+			long wrong = grid.candidates(i) & ~Candidates.bit(solution.get(i));
+			if ((grid.get(i) == 0) && (wrong != 0L)) {
+				grid.set(i, Candidates.lowestValue(wrong));
+				break;
+			}
+		}
+		return grid.toConstraints();
+	}
+
+	@Test
+	public void twoDegreesProvesUnsolvablePuzzle() throws Exception {
+		SolverResult result = Solver.solve(wrongClue(HARD), SolverMethod.TWO_DEGREES_OF_FREEDOM,
+				                           StrategyPolicy.STANDARD, false, null, 1L, RestartPolicy.DEFAULT,
+				                           new TrialBudget(10000L, 10000000L));
+		assertFalse(result.isSolved());
+		assertTrue(result.isUnsolvable());
+		assertFalse(result.gaveUp());
+		assertTrue(result.getNodes() <= TrialBudget.DEFAULT_PROOF_NODES);
+	}
+
+	@Test
+	public void twoDegreesGivesUpWithinBudget() throws Exception {
+		SolverResult result = Solver.solve(read(HARD), SolverMethod.TWO_DEGREES_OF_FREEDOM, StrategyPolicy.NONE,
+				                           false, null, 1L, RestartPolicy.fixed(0), new TrialBudget(0L, 1L, 0L));
+		assertFalse(result.isSolved());
+		assertFalse(result.isUnsolvable());
+		assertTrue(result.gaveUp());
+	}
+
+	@Test
+	public void backtrackingProvesUnsolvablePuzzle() throws Exception {
+		SolverResult result = SolverMethodEngine.backtracking().solve(read(UNSOLVABLE), StrategyPolicy.STANDARD, false);
+		assertTrue(result.isUnsolvable());
+		assertFalse(result.gaveUp());
+	}
+
+	@Test
+	public void cdclSolvesHardPuzzle() throws Exception {
+		StringWriter writer = new StringWriter();
+		assertTrue(Solver.run(read(HARD), writer, FileFormat.TEXT, false, SolverMethod.CDCL));
+		assertEquals(HARD_SOLUTION, writer.toString());
+	}
+
+	@Test
+	public void cdclFailsUnsolvablePuzzle() throws Exception {
+		StringWriter writer = new StringWriter();
+		assertFalse(Solver.run(read(UNSOLVABLE), writer, FileFormat.TEXT, false, SolverMethod.CDCL));
+	}
+
+	@Test
+	public void cdclKeepsLearnedClausesWithinLimit() throws Exception {
+		//a 16x16 problem with only the first four cells given
+		Grid grid = new Grid(4);
+		for (int x = 0; x < 4; x++) {
+			grid.set(x, 0, x + 1);
+		}
+		CdclSolver cdcl = new CdclSolver(false, 16);
+		Grid solution = new Grid(cdcl.solve(grid.toConstraints()));
+		assertTrue(cdcl.getReductions() > 0);
+		assertTrue(solution.isComplete());
+		Units units = Units.forDim(4);
+		for (int unit = 0; unit < units.getUnitCount(); unit++) {
+			assertEquals(0xFFFFL, units.getUsed(solution, unit));
+		}
+		for (int x = 0; x < 4; x++) {
+			assertEquals(x + 1, solution.get(x, 0));
+		}
+	}
+
+	@Test
+	public void cdclEncodesNearlyEmptyLargeGrid() throws Exception {
+		//a 49x49 problem with only the first seven cells given, whose clauses
+		//would need gigabytes if every pair of variables had its own clause
+		Grid grid = new Grid(7);
+		for (int x = 0; x < 7; x++) {
+			grid.set(x, 0, x + 1);
+		}
+		CdclSolver cdcl = new CdclSolver(false);
+		Grid solution = new Grid(cdcl.solve(grid.toConstraints()));
+		assertFalse(cdcl.gaveUp());
+		assertTrue(cdcl.getEncodingBytes() < CdclSolver.DEFAULT_MAX_ENCODING_BYTES);
+		Units units = Units.forDim(7);
+		for (int unit = 0; unit < units.getUnitCount(); unit++) {
+			assertEquals((1L << 49) - 1, units.getUsed(solution, unit));
+		}
+	}
+
+	@Test
+	public void cdclGivesUpPastEncodingLimit() throws Exception {
+		CdclSolver cdcl = new CdclSolver(false, CdclSolver.DEFAULT_MAX_LEARNED_LITERALS, 1024L);
+		assertNull(cdcl.solve(read(HARD)));
+		assertTrue(cdcl.gaveUp());
+		assertTrue(cdcl.getEncodingBytes() > 1024L);
+		assertEquals(0, cdcl.getNodes());
+	}
+
+	@Test
+	public void countSolutionsStopsAtLimit() throws Exception {
+		assertEquals(1, Solver.countSolutions(read(HARD), StrategyPolicy.STANDARD, 2).getCount());
+		assertEquals(0, Solver.countSolutions(read(UNSOLVABLE), StrategyPolicy.STANDARD, 2).getCount());
+		Constraints empty = new Grid(3).toConstraints();
+		assertEquals(2, Solver.countSolutions(empty, StrategyPolicy.STANDARD, 2).getCount());
+		assertEquals(1000, Solver.countSolutions(empty, StrategyPolicy.NONE, 1000).getCount());
+	}
+
+	@Test
+	public void countSolutionsGivesUpWithinBudget() throws Exception {
+		Constraints empty = new Grid(3).toConstraints();
+		SolutionCount count = Solver.countSolutions(empty, StrategyPolicy.NONE, 1000000L, new TrialBudget(0L, 100L));
+		assertTrue(count.gaveUp());
+		assertTrue(count.getCount() < 1000000L);
+		assertEquals(100L, count.getNodes());
+		assertFalse(Solver.countSolutions(empty, StrategyPolicy.NONE, 2, new TrialBudget(0L, 100L)).gaveUp());
+	}
+
+	@Test
+	public void countSolutionsGivesUpWhenInterrupted() throws Exception {
+		Thread.currentThread().interrupt();
+		try {
+			SolutionCount count = Solver.countSolutions(new Grid(3).toConstraints(), StrategyPolicy.STANDARD, 2);
+			assertTrue(count.gaveUp());
+			assertTrue(count.getCount() < 2);
+		} finally {
+			Thread.interrupted();
+		}
+	}
+
+	@Test
+	public void solutionsStreamEnumeratesEveryGrid() throws Exception {
+		//there are 288 different 4x4 grids
+		Constraints empty = new Grid(2).toConstraints();
+		Set<String> grids = new HashSet<String>();
+		Iterator<Constraints> solutions = Solver.solutions(empty, StrategyPolicy.STANDARD).iterator();
+		while (solutions.hasNext()) {
+			Grid grid = new Grid(solutions.next());
+			assertTrue(grid.isComplete());
+			StringBuilder values = new StringBuilder();
+			for (int i = 0; i < grid.getSize(); i++) {
+				values.append(grid.get(i));
+			}
+			grids.add(values.toString());
+		}
+		assertEquals(288, grids.size());
+		assertEquals(3, Solver.solutions(new Grid(4).toConstraints(), StrategyPolicy.NONE).limit(3).count());
+	}
+
+	@Test
+	public void generatedPuzzlesHaveOneSolution() throws Exception {
+		Generator generator = new Generator(ForkJoinPool.commonPool());
+		List<GeneratedPuzzle> puzzles = generator.generate(3, 4, 0, Difficulty.ANY, 42L);
+		assertEquals(4, puzzles.size());
+		for (GeneratedPuzzle puzzle : puzzles) {
+			assertEquals(1, Solver.countSolutions(puzzle.getGivens(), StrategyPolicy.STANDARD, 2).getCount());
+			Grid givens = new Grid(puzzle.getGivens());
+			assertEquals(puzzle.getClues(), givens.getConstrainedCount());
+			for (int i = 0; i < givens.getSize(); i++) {
+				if (givens.get(i) != 0) {
+					assertEquals(puzzle.getSolution().get(i), givens.get(i));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void uniquenessIsNotProvedBySearchWhichGivesUp() throws Exception {
+		//adding one value of the solution to HARD and removing it again leaves a
+		//problem with one solution, which the check must search to prove
+		Grid solution = new Grid(new Backtracker(false).solve(new Holder(read(HARD), null)));
+		Grid puzzle = new Grid(read(HARD));
+		Propagator propagator = new Propagator(3);
+		Backtracker backtracker = new Backtracker(false);
+		int index = -1;
+		for (int i = 0; (i < puzzle.getSize()) && (index < 0); i++) {
+			if ((puzzle.get(i) == 0) && Generator.isUnique(puzzle, i, solution.get(i), propagator, backtracker)
+					&& (backtracker.getNodes() > 1)) {
+				index = i;
+			}
+		}
+		assertTrue(index >= 0);
+		Thread.currentThread().interrupt();
+		try {
+			assertFalse(Generator.isUnique(puzzle, index, solution.get(index), propagator, backtracker));
+			assertTrue(backtracker.gaveUp());
+		} finally {
+			Thread.interrupted();
+		}
+		assertTrue(Generator.isUnique(puzzle, index, solution.get(index), propagator, backtracker));
+		assertFalse(backtracker.gaveUp());
+	}
+
+	@Test
+	public void generatorMeetsTargetsAndRepeatsSeeds() throws Exception {
+		Generator generator = new Generator(ForkJoinPool.commonPool());
+		List<GeneratedPuzzle> puzzles = generator.generate(3, 3, 30, Difficulty.EASY, 7L);
+		List<GeneratedPuzzle> again = generator.generate(3, 3, 30, Difficulty.EASY, 7L);
+		for (int p = 0; p < puzzles.size(); p++) {
+			assertEquals(30, puzzles.get(p).getClues());
+			assertEquals(Difficulty.EASY, puzzles.get(p).getDifficulty());
+			assertEquals(Difficulty.EASY, Generator.grade(new Grid(puzzles.get(p).getGivens())));
+			Grid grid = new Grid(puzzles.get(p).getGivens());
+			Grid repeated = new Grid(again.get(p).getGivens());
+			for (int i = 0; i < grid.getSize(); i++) {
+				assertEquals(grid.get(i), repeated.get(i));
+			}
+		}
+		GeneratedPuzzle expert = generator.generate(3, 0, Difficulty.EXPERT, Solver.trialRandom(1L, 0));
+		assertEquals(Difficulty.EXPERT, expert.getDifficulty());
+		assertEquals(1, Solver.countSolutions(expert.getGivens(), StrategyPolicy.STANDARD, 2).getCount());
+	}
+
+	@Test
+	public void reducerLeavesOnlyNeededClues() throws Exception {
+		Reducer reducer = new Reducer(ForkJoinPool.commonPool());
+		ReductionResult result = reducer.reduce(read(EASY), 3L);
+		Grid reduced = new Grid(result.getGivens());
+		assertEquals(result.getClues(), reduced.getConstrainedCount());
+		assertEquals(new Grid(read(EASY)).getConstrainedCount(), result.getClues() + result.getRemoved());
+		assertTrue(result.getChecks() >= result.getClues() + result.getRemoved());
+		assertEquals(1, Solver.countSolutions(result.getGivens(), StrategyPolicy.STANDARD, 2).getCount());
+		for (int i = 0; i < reduced.getSize(); i++) {
+			if (reduced.get(i) != 0) {
+				Grid fewer = new Grid(reduced);
+				fewer.set(i, 0);
+				assertEquals(2, Solver.countSolutions(fewer.toConstraints(), StrategyPolicy.STANDARD, 2).getCount());
+			}
+		}
+	}
+
+	@Test
+	public void reducerGivesUpWithinBudget() throws Exception {
+		ReductionResult result = new Reducer(ForkJoinPool.commonPool(), new TrialBudget(0L, 1L)).reduce(read(EASY), 3L);
+		assertTrue(result.gaveUp());
+		assertNull(result.getGivens());
+		assertEquals(0, result.getRemoved());
+		assertFalse(new Reducer(ForkJoinPool.commonPool(), TrialBudget.DEFAULT).reduce(read(EASY), 3L).gaveUp());
+	}
+
+	@Test
+	public void reducerGivesUpWhenInterrupted() throws Exception {
+		Thread.currentThread().interrupt();
+		try {
+			ReductionResult result = new Reducer(ForkJoinPool.commonPool()).reduce(read(HARD), 3L);
+			assertTrue(result.gaveUp());
+			assertNull(result.getGivens());
+		} finally {
+			Thread.interrupted();
+		}
+	}
+
+	@Test(expected = InvalidInputDataException.class)
+	public void reducerRejectsPuzzleWithManySolutions() throws Exception {
+		new Reducer(ForkJoinPool.commonPool()).reduce(new Grid(3).toConstraints(), 3L);
+	}
+
+	@Test
+	public void graderRatesHardestStep() throws Exception {
+		Grader grader = new Grader(3);
+		GradeReport easy = grader.grade(read(EASY));
+		assertTrue(easy.isSolved());
+		assertEquals(Difficulty.EASY, easy.getDifficulty());
+		//EASY can be solved by hidden singles alone, so no naked single is counted
+		assertEquals(Grader.HIDDEN_SINGLE_RATING / 10.0, easy.getRating(), 0.0);
+		assertEquals(Long.valueOf(51), easy.getSteps().get("hidden single"));
+		assertNull(easy.getSteps().get("naked single"));
+		GradeReport medium = grader.grade(read(MEDIUM));
+		assertEquals(Difficulty.MEDIUM, medium.getDifficulty());
+		assertEquals(Long.valueOf(1), medium.getSteps().get("pointing and claiming"));
+		GradeReport tough = grader.grade(read(TOUGH));
+		assertEquals(Difficulty.HARD, tough.getDifficulty());
+		assertTrue(tough.getSteps().containsKey("X-chains"));
+		GradeReport hard = grader.grade(read(HARD));
+		assertFalse(hard.isSolved());
+		assertEquals(Difficulty.EXPERT, hard.getDifficulty());
+		assertEquals(Grader.SEARCH_RATING / 10.0, hard.getRating(), 0.0);
+		assertFalse(hard.hasContradiction());
+	}
+
+	@Test
+	public void graderReportsContradiction() throws Exception {
+		Grader grader = new Grader(3);
+		GradeReport unsolvable = grader.grade(read(UNSOLVABLE));
+		assertTrue(unsolvable.hasContradiction());
+		assertFalse(unsolvable.isSolved());
+		assertFalse(grader.grade(read(EASY)).hasContradiction());
+	}
+
+	@Test
+	public void gradeAllMatchesSingleGrader() throws Exception {
+		List<Constraints> puzzles = new ArrayList<Constraints>();
+		for (int i = 0; i < 10; i++) {
+			puzzles.add(read(EASY));
+			puzzles.add(read(TOUGH));
+			puzzles.add(read(HARD));
+		}
+		puzzles.add(new Grid(2).toConstraints());
+		List<GradeReport> reports = Grader.gradeAll(puzzles, ForkJoinPool.commonPool());
+		assertEquals(puzzles.size(), reports.size());
+		Grader grader = new Grader(3);
+		for (int i = 0; i < puzzles.size() - 1; i++) {
+			GradeReport report = grader.grade(puzzles.get(i));
+			assertEquals(report.getRating(), reports.get(i).getRating(), 0.0);
+			assertEquals(report.getSteps(), reports.get(i).getSteps());
+		}
+		assertEquals(Difficulty.EXPERT, reports.get(puzzles.size() - 1).getDifficulty());
+	}
+
+	@Test
+	public void backtrackingSolvesEasyPuzzle() throws Exception {
+		StringWriter writer = new StringWriter();
+		assertTrue(Solver.run(read(EASY), writer, FileFormat.TEXT, false));
+		assertEquals(EASY_SOLUTION, writer.toString());
+	}
+
+	@Test
+	public void backtrackingFailsUnsolvablePuzzle() throws Exception {
+		StringWriter writer = new StringWriter();
+		Solver.validateInitialConstraints(read(UNSOLVABLE));
+		assertFalse(Solver.run(read(UNSOLVABLE), writer, FileFormat.TEXT, false, SolverMethod.BACKTRACKING));
+	}
+
+}